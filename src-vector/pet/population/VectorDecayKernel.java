@@ -0,0 +1,166 @@
+package pet.population;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import pet.helper.PackedNeeds;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.Personality;
+import pet.helper.personality.PersonalityTables;
+
+/**
+ * The {@code VectorDecayKernel} class steps a whole lane of pets at once using the
+ * incubating Vector API.
+ * <p>
+ * For each lane it looks up the step deltas of every pet from its personality and mood,
+ * adds them to the four need columns, clamps the results to [0, 100], and derives the new
+ * SAD mask and death mask from the clamped values in the same pass. The step counters of
+ * the stepped lanes are widened to {@code int} lanes and incremented alongside. Lanes of pets with
+ * random step behavior are masked out and stepped by the scalar path afterwards.
+ * <p>
+ * This class must only be loaded when {@link VectorSupport#isAvailable()} is {@code true};
+ * use {@link DecayKernel#create()} instead of referring to it directly.
+ */
+final class VectorDecayKernel implements DecayKernel {
+
+  private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+  private static final VectorSpecies<Long> TICK_SPECIES = SPECIES.withLanes(long.class);
+  private static final int TICK_PARTS = SPECIES.length() / TICK_SPECIES.length();
+  private static final byte HAPPY = (byte) MoodEnum.HAPPY.ordinal();
+  private static final byte SAD = (byte) MoodEnum.SAD.ordinal();
+  private static final byte MOOD_COUNT = (byte) MoodEnum.values().length;
+  private static final byte MAX_NEED = PackedNeeds.MAX_NEED;
+  private static final byte SAD_THRESHOLD = PackedNeeds.SAD_THRESHOLD;
+
+  /**
+   * Largest delta magnitude for which {@code need + delta} stays within a signed byte.
+   */
+  private static final int MAX_DELTA = Byte.MAX_VALUE - PackedNeeds.MAX_NEED;
+
+  private final ByteVector hungerDeltas;
+  private final ByteVector hygieneDeltas;
+  private final ByteVector socialDeltas;
+  private final ByteVector sleepDeltas;
+  private final ByteVector fixedStep;
+  private final ScalarDecayKernel scalar = new ScalarDecayKernel();
+
+  /**
+   * Loads the step tables into vectors so each lane can look up its deltas by index.
+   *
+   * @throws UnsupportedOperationException if the preferred vector is too short to hold
+   *                                       one entry per personality and mood, or a delta
+   *                                       could overflow a byte lane
+   */
+  VectorDecayKernel() {
+    if (SPECIES.length() < PersonalityTables.STEP_ENTRIES) {
+      throw new UnsupportedOperationException(
+          "Vector species " + SPECIES + " is too short for the step tables");
+    }
+    hungerDeltas = deltaVector(PersonalityTables.HUNGER);
+    hygieneDeltas = deltaVector(PersonalityTables.HYGIENE);
+    socialDeltas = deltaVector(PersonalityTables.SOCIAL);
+    sleepDeltas = deltaVector(PersonalityTables.SLEEP);
+
+    byte[] fixed = new byte[SPECIES.length()];
+    for (Personality personality : Personality.values()) {
+      fixed[personality.ordinal()] =
+          (byte) (PersonalityTables.hasFixedStep(personality.ordinal()) ? 1 : 0);
+    }
+    fixedStep = ByteVector.fromArray(SPECIES, fixed, 0);
+  }
+
+  @Override
+  public TickResult stepRange(PetPopulation population, int from, int to) {
+    int bound = from + SPECIES.loopBound(to - from);
+    int deaths = 0;
+    int moodFlips = 0;
+    for (int i = from; i < bound; i += SPECIES.length()) {
+      VectorMask<Byte> alive = VectorMask.fromArray(SPECIES, population.alive, i);
+      if (!alive.anyTrue()) {
+        continue;
+      }
+      ByteVector personality = ByteVector.fromArray(SPECIES, population.personality, i);
+      VectorMask<Byte> active =
+          alive.and(personality.selectFrom(fixedStep).compare(VectorOperators.NE, 0));
+      if (!active.anyTrue()) {
+        continue;
+      }
+      ByteVector mood = ByteVector.fromArray(SPECIES, population.mood, i);
+      ByteVector entry = personality.mul(MOOD_COUNT).add(mood);
+
+      ByteVector hunger = decay(population.hunger, i, entry, hungerDeltas);
+      ByteVector hygiene = decay(population.hygiene, i, entry, hygieneDeltas);
+      ByteVector social = decay(population.social, i, entry, socialDeltas);
+      ByteVector sleep = decay(population.sleep, i, entry, sleepDeltas);
+
+      VectorMask<Byte> empty = hunger.eq((byte) 0).or(hygiene.eq((byte) 0))
+          .or(social.eq((byte) 0)).or(sleep.eq((byte) 0));
+      VectorMask<Byte> low = hunger.compare(VectorOperators.LE, SAD_THRESHOLD)
+          .or(hygiene.compare(VectorOperators.LE, SAD_THRESHOLD))
+          .or(social.compare(VectorOperators.LE, SAD_THRESHOLD))
+          .or(sleep.compare(VectorOperators.LE, SAD_THRESHOLD));
+
+      hunger.intoArray(population.hunger, i, active);
+      hygiene.intoArray(population.hygiene, i, active);
+      social.intoArray(population.social, i, active);
+      sleep.intoArray(population.sleep, i, active);
+      ByteVector newMood = ByteVector.broadcast(SPECIES, HAPPY).blend(SAD, low);
+      newMood.intoArray(population.mood, i, active);
+      countTicks(population.tick, i, active);
+      VectorMask<Byte> died = active.and(empty);
+      alive.andNot(died).intoArray(population.alive, i);
+      deaths += died.trueCount();
+      moodFlips += newMood.compare(VectorOperators.NE, mood).and(active).trueCount();
+    }
+
+    // Pets with random steps were skipped by the vector loop above.
+    for (int i = from; i < bound; i++) {
+      if (population.alive[i] && !PersonalityTables.hasFixedStep(population.personality[i])) {
+        int outcome = ScalarDecayKernel.step(population, i);
+        if ((outcome & PetPopulation.DIED) != 0) {
+          deaths++;
+        }
+        if ((outcome & PetPopulation.MOOD_CHANGED) != 0) {
+          moodFlips++;
+        }
+      }
+    }
+    return new TickResult(deaths, moodFlips).merge(scalar.stepRange(population, bound, to));
+  }
+
+  /**
+   * Adds one to the step counter of every active lane, converting the byte mask to long
+   * lanes one part at a time.
+   */
+  private static void countTicks(long[] tick, int offset, VectorMask<Byte> active) {
+    ByteVector stepped = ByteVector.zero(SPECIES).blend((byte) 1, active);
+    for (int part = 0; part < TICK_PARTS; part++) {
+      int start = offset + part * TICK_SPECIES.length();
+      LongVector.fromArray(TICK_SPECIES, tick, start)
+          .add(stepped.convertShape(VectorOperators.B2L, TICK_SPECIES, part))
+          .intoArray(tick, start);
+    }
+  }
+
+  private static ByteVector decay(byte[] column, int offset, ByteVector entry,
+      ByteVector deltas) {
+    return ByteVector.fromArray(SPECIES, column, offset)
+        .add(entry.selectFrom(deltas))
+        .max((byte) 0)
+        .min(MAX_NEED);
+  }
+
+  private static ByteVector deltaVector(int need) {
+    byte[] deltas = new byte[SPECIES.length()];
+    for (int entry = 0; entry < PersonalityTables.STEP_ENTRIES; entry++) {
+      int delta = PersonalityTables.stepDelta(entry, need);
+      if (delta < -MAX_DELTA || delta > MAX_DELTA) {
+        throw new UnsupportedOperationException("Step delta " + delta + " overflows a byte lane");
+      }
+      deltas[entry] = (byte) delta;
+    }
+    return ByteVector.fromArray(SPECIES, deltas, 0);
+  }
+}
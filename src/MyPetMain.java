@@ -1,5 +1,6 @@
 import java.util.Scanner;
-import pet.PetOld;
+import pet.Pet;
+import pet.PetInterface;
 import pet.helper.Action;
 
 /**
@@ -16,7 +17,8 @@ public class MyPetMain {
    * @param args command-line arguments (not used)
    */
   public static void main(String[] args) {
-    PetOld pet = new PetOld();
+    PetInterface pet = new Pet();
+    pet.startGame();
     Scanner scanner = new Scanner(System.in);
 
     printMenu();
@@ -24,32 +26,27 @@ public class MyPetMain {
     while (scanner.hasNext()) {
       String command = scanner.next();
       int times = scanner.nextInt();
+      if (times < 0) {
+        System.out.println("n must not be negative.");
+        printMenu();
+        continue;
+      }
 
       switch (command) {
         case "p":
-          for (int i = 0; i < times; i++) {
-            pet.interactWith(Action.PLAY);
-          }
+          pet.interactWith(Action.PLAY, times);
           break;
         case "f":
-          for (int i = 0; i < times; i++) {
-            pet.interactWith(Action.FEED);
-          }
+          pet.interactWith(Action.FEED, times);
           break;
         case "c":
-          for (int i = 0; i < times; i++) {
-            pet.interactWith(Action.CLEAN);
-          }
+          pet.interactWith(Action.CLEAN, times);
           break;
         case "s":
-          for (int i = 0; i < times; i++) {
-            pet.interactWith(Action.SLEEP);
-          }
+          pet.interactWith(Action.SLEEP, times);
           break;
         case "a":
-          for (int i = 0; i < times; i++) {
-            pet.step();
-          }
+          pet.advance(times);
           break;
         case "x":
           runSimulation(pet, times);
@@ -88,7 +85,7 @@ public class MyPetMain {
    * @param pet   the pet to interact with
    * @param steps the number of steps to simulate
    */
-  private static void runSimulation(PetOld pet, int steps) {
+  private static void runSimulation(PetInterface pet, int steps) {
     for (int i = 0; i < steps; i++) {
       pet.step();
       if (i % 5 == 0) {
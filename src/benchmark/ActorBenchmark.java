@@ -0,0 +1,188 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import pet.Pet;
+import pet.actor.OverflowPolicy;
+import pet.actor.PetActor;
+import pet.event.EventSink;
+import pet.event.PetEvents;
+import pet.helper.Action;
+
+/**
+ * The {@code ActorBenchmark} class measures a population of {@link PetActor}s, each
+ * owning one pet and draining its mailbox on a virtual thread.
+ * <p>
+ * The tick phase sends one step to every actor and reports how long the whole population
+ * takes to apply it. The load phases have producer threads send random interactions and
+ * steps to random actors, with every 64th message a health query whose round trip is
+ * recorded, and report messages per second, the average batch per wakeup and the query
+ * latency percentiles. The saturated phase sends as fast as it can, which measures
+ * throughput but lets the backlog of woken actors dominate latency; the paced phase then
+ * sends at half the saturated rate to show latency below saturation. Mailboxes use
+ * {@link OverflowPolicy#BLOCK}, so producers slow down instead of losing messages.
+ * <p>
+ * Usage: {@code java benchmark.ActorBenchmark [actors] [producers] [seconds] [capacity]}.
+ */
+public class ActorBenchmark {
+
+  private static final int QUERY_EVERY = 64;
+  private static final int MAX_SAMPLES = 1 << 20;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional actor count, producer count, seconds of load and mailbox capacity
+   * @throws InterruptedException if interrupted while waiting for producers or actors
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int producers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+    int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+    int capacity = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+    // Deaths are part of the workload, their messages are not.
+    PetEvents.setSink(EventSink.none());
+
+    long heapBefore = usedHeap();
+    PetActor[] actors = new PetActor[count];
+    for (int i = 0; i < count; i++) {
+      Pet pet = new Pet(i);
+      pet.startGame(5L);
+      actors[i] = new PetActor(pet, capacity, OverflowPolicy.BLOCK);
+    }
+    long heapAfter = usedHeap();
+    System.out.printf("actors=%,d producers=%d seconds=%d capacity=%d heap=%d B/actor%n",
+        count, producers, seconds, capacity, (heapAfter - heapBefore) / count);
+
+    for (int tick = 0; tick < 3; tick++) {
+      long expected = processed(actors) + count;
+      long start = System.nanoTime();
+      for (PetActor actor : actors) {
+        actor.step();
+      }
+      awaitProcessed(actors, expected);
+      System.out.printf("tick %d: %,d steps applied in %.1f ms%n", tick, count,
+          (System.nanoTime() - start) / 1e6);
+    }
+
+    double saturated = runLoad("saturated", actors, producers, seconds, 0);
+    runLoad("paced", actors, producers, seconds, saturated / 2);
+  }
+
+  /**
+   * Runs producers for the given time, sending {@code rate} messages per second in total,
+   * or as many as possible if it is 0, and returns the rate the actors achieved.
+   */
+  private static double runLoad(String label, PetActor[] actors, int producers, int seconds,
+      double rate) throws InterruptedException {
+    long processedBefore = processed(actors);
+    long batchesBefore = batches(actors);
+    LongAdder sent = new LongAdder();
+    AtomicBoolean running = new AtomicBoolean(true);
+    long[] samples = new long[MAX_SAMPLES];
+    AtomicInteger sampleCount = new AtomicInteger();
+    CountDownLatch done = new CountDownLatch(producers);
+    long start = System.nanoTime();
+    long interval = rate > 0 ? (long) (producers * 1e9 / rate) : 0;
+    for (int p = 0; p < producers; p++) {
+      Thread.ofPlatform().name("producer-" + p).start(() -> {
+        produce(actors, interval, running, sent, samples, sampleCount);
+        done.countDown();
+      });
+    }
+    TimeUnit.SECONDS.sleep(seconds);
+    running.set(false);
+    done.await();
+    awaitProcessed(actors, processedBefore + sent.sum());
+    double elapsed = (System.nanoTime() - start) / 1e9;
+
+    long processed = processed(actors) - processedBefore;
+    long batches = batches(actors) - batchesBefore;
+    int recorded = Math.min(sampleCount.get(), MAX_SAMPLES);
+    long[] latencies = Arrays.copyOf(samples, recorded);
+    Arrays.sort(latencies);
+    System.out.printf("%s: %,.0f messages/s, %.2f messages per wakeup%n", label,
+        processed / elapsed, (double) processed / batches);
+    System.out.printf("  query latency (%,d samples): p50 %.1f us  p99 %.1f us"
+        + "  p99.9 %.1f us  max %.1f us%n", recorded, percentile(latencies, 0.50),
+        percentile(latencies, 0.99), percentile(latencies, 0.999),
+        percentile(latencies, 1.0));
+    return processed / elapsed;
+  }
+
+  private static void produce(PetActor[] actors, long interval, AtomicBoolean running,
+      LongAdder sent, long[] samples, AtomicInteger sampleCount) {
+    Action[] actions = Action.values();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long messages = 0;
+    long due = System.nanoTime();
+    while (running.get()) {
+      if (interval > 0) {
+        due += interval;
+        long ahead = due - System.nanoTime();
+        if (ahead > 0) {
+          LockSupport.parkNanos(ahead);
+        }
+      }
+      PetActor actor = actors[random.nextInt(actors.length)];
+      if (messages % QUERY_EVERY == 0) {
+        long sentAt = System.nanoTime();
+        actor.health().thenRun(() -> {
+          int index = sampleCount.getAndIncrement();
+          if (index < samples.length) {
+            samples[index] = System.nanoTime() - sentAt;
+          }
+        });
+      } else if (random.nextInt(5) == 0) {
+        actor.step();
+      } else {
+        actor.interact(actions[random.nextInt(actions.length)]);
+      }
+      messages++;
+    }
+    sent.add(messages);
+  }
+
+  private static void awaitProcessed(PetActor[] actors, long expected)
+      throws InterruptedException {
+    while (processed(actors) < expected) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+  }
+
+  private static long processed(PetActor[] actors) {
+    long sum = 0;
+    for (PetActor actor : actors) {
+      sum += actor.getProcessedCount();
+    }
+    return sum;
+  }
+
+  private static long batches(PetActor[] actors) {
+    long sum = 0;
+    for (PetActor actor : actors) {
+      sum += actor.getBatchCount();
+    }
+    return sum;
+  }
+
+  private static double percentile(long[] sorted, double fraction) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+    return sorted[Math.max(0, index)] / 1e3;
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
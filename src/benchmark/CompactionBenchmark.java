@@ -0,0 +1,137 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import pet.helper.Action;
+import pet.persist.EventJournal;
+import pet.persist.FsyncPolicy;
+import pet.persist.JournalCompactor;
+import pet.persist.JournalRecord;
+import pet.persist.SnapshotStore;
+import pet.population.PetPopulation;
+
+/**
+ * The {@code CompactionBenchmark} class measures how much a running
+ * {@link JournalCompactor} slows down group commit on a segmented journal.
+ * <p>
+ * Writer threads append interactions with pets of a started population and wait for each
+ * to be durable, as in {@link JournalBenchmark}. Meanwhile a compactor folds the closed
+ * segments into snapshots of that population and deletes them, once with no compactor,
+ * once uncapped and once with a bandwidth cap. The report shows the commit throughput
+ * next to what the compactor reclaimed and how long the cap held it back.
+ * <p>
+ * Usage: {@code java benchmark.CompactionBenchmark [pets] [writers] [seconds]
+ * [cap MB/s] [directory]}.
+ */
+public class CompactionBenchmark {
+
+  private static final long SEGMENT_BYTES = 1L << 20;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional population size, writer count, seconds per run, bandwidth cap
+   *             and directory
+   * @throws IOException if the journal or snapshots cannot be written
+   * @throws InterruptedException if interrupted while waiting for the writers
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int pets = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int writers = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+    int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+    long cap = (args.length > 3 ? Long.parseLong(args[3]) : 32) << 20;
+    Path directory = args.length > 4
+        ? Files.createTempDirectory(Path.of(args[4]), "compaction-bench")
+        : Files.createTempDirectory("compaction-bench");
+
+    System.out.printf("pets=%,d writers=%d seconds=%d segment=%dMB dir=%s%n", pets, writers,
+        seconds, SEGMENT_BYTES >> 20, directory);
+    run("no compactor", directory, pets, writers, seconds, -1);
+    run("uncapped", directory, pets, writers, seconds, 0);
+    run("capped " + (cap >> 20) + "MB/s", directory, pets, writers, seconds, cap);
+    Files.delete(directory);
+  }
+
+  /**
+   * Runs writers for the given time, with a background compactor unless {@code cap} is
+   * negative.
+   */
+  private static void run(String label, Path directory, int pets, int writers, int seconds,
+      long cap) throws IOException, InterruptedException {
+    Path segments = directory.resolve("journal");
+    SnapshotStore store = new SnapshotStore(directory.resolve("snapshots"));
+    PetPopulation population = new PetPopulation(pets);
+    population.startAll(3L);
+    store.write(population.snapshot(), 0);
+
+    LongAdder events = new LongAdder();
+    AtomicBoolean running = new AtomicBoolean(true);
+    long elapsed;
+    JournalCompactor compactor = null;
+    try (EventJournal journal =
+        EventJournal.openSegmented(segments, FsyncPolicy.GROUP, SEGMENT_BYTES)) {
+      if (cap >= 0) {
+        compactor = JournalCompactor.start(segments, store, cap, 100, TimeUnit.MILLISECONDS);
+      }
+      Thread[] threads = new Thread[writers];
+      for (int w = 0; w < writers; w++) {
+        int first = w;
+        threads[w] = new Thread(
+            () -> write(journal, first, writers, pets, running, events));
+      }
+      long start = System.nanoTime();
+      for (Thread thread : threads) {
+        thread.start();
+      }
+      Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+      running.set(false);
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      elapsed = System.nanoTime() - start;
+    } finally {
+      if (compactor != null) {
+        compactor.close();
+      }
+    }
+    System.out.printf("%-16s %,10.0f events/s", label, events.sum() / (elapsed / 1e9));
+    if (compactor != null) {
+      System.out.printf("  reclaimed %,6.1f MB in %d segments, folded %,d records,"
+          + " throttled %.1f s", compactor.getBytesReclaimed() / 1e6,
+          compactor.getSegmentsDeleted(), compactor.getRecordsFolded(),
+          compactor.getThrottledNanos() / 1e9);
+    }
+    System.out.println();
+
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        if (!path.equals(directory)) {
+          Files.delete(path);
+        }
+      }
+    }
+  }
+
+  private static void write(EventJournal journal, int first, int step, int pets,
+      AtomicBoolean running, LongAdder events) {
+    Action[] actions = Action.values();
+    try {
+      for (int i = 0, petId = first; running.get(); i++) {
+        long sequence = journal.append(
+            JournalRecord.interact(petId, actions[i % actions.length], 1));
+        journal.awaitDurable(sequence);
+        events.increment();
+        petId = (petId + step) % pets;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
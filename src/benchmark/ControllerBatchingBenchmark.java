@@ -0,0 +1,98 @@
+package benchmark;
+
+import controller.InteractionMode;
+import controller.PetController;
+import java.util.Random;
+import pet.Pet;
+import pet.event.EventSink;
+import pet.event.PetEvents;
+import pet.event.PetListener;
+import pet.helper.Action;
+import pet.helper.HealthStatus;
+
+/**
+ * The {@code ControllerBatchingBenchmark} class compares the two {@link InteractionMode}s of
+ * {@link PetController} under heavy interaction load.
+ * <p>
+ * Every tick, each pet's controller receives a burst of interactions drawn from a fixed
+ * random stream, then steps once. In immediate mode each interaction runs the health and
+ * mood checks; in batched mode the burst is queued and applied with one check at the
+ * tick. Each run is repeated with a listener on every pet, standing in for the view
+ * that {@code PetView} attaches, since the model then reports every change it checks.
+ * The report shows interactions per second for each mode and burst size.
+ * <p>
+ * Usage: {@code java benchmark.ControllerBatchingBenchmark [pets] [ticks]}.
+ */
+public class ControllerBatchingBenchmark {
+
+  private static final int[] BURSTS = {1, 8, 64};
+  private static final int STREAM_LENGTH = 1 << 16;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional number of pets and ticks per run
+   */
+  public static void main(String[] args) {
+    int pets = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    // Deaths are part of the workload, their messages are not.
+    PetEvents.setSink(EventSink.none());
+    Action[] stream = new Action[STREAM_LENGTH];
+    Random random = new Random(4);
+    for (int i = 0; i < stream.length; i++) {
+      stream[i] = Action.values()[random.nextInt(Action.values().length)];
+    }
+    System.out.printf("pets=%,d ticks=%d%n", pets, ticks);
+    for (int round = 0; round < 2; round++) {
+      for (boolean listening : new boolean[] {false, true}) {
+        for (int burst : BURSTS) {
+          double immediate = run(InteractionMode.IMMEDIATE, listening, pets, ticks, burst,
+              stream);
+          double batched = run(InteractionMode.BATCHED, listening, pets, ticks, burst,
+              stream);
+          if (round == 1) {
+            System.out.printf("%-12s burst=%2d  immediate %,12.0f/s  batched %,12.0f/s"
+                + "  (%.1fx)%n", listening ? "listener" : "no listener", burst, immediate,
+                batched, batched / immediate);
+          }
+        }
+      }
+    }
+  }
+
+  private static double run(InteractionMode mode, boolean listening, int pets, int ticks,
+      int burst, Action[] stream) {
+    PetController[] controllers = new PetController[pets];
+    long[] changes = new long[1];
+    PetListener listener = new PetListener() {
+      @Override
+      public void healthChanged(long petId, HealthStatus health) {
+        changes[0]++;
+      }
+    };
+    for (int i = 0; i < pets; i++) {
+      Pet pet = new Pet(i);
+      pet.startGame(9L);
+      controllers[i] = new PetController(pet, null, mode);
+      if (listening) {
+        controllers[i].addListener(listener);
+      }
+    }
+    int next = 0;
+    long start = System.nanoTime();
+    for (int tick = 0; tick < ticks; tick++) {
+      for (PetController controller : controllers) {
+        for (int i = 0; i < burst; i++) {
+          controller.interact(stream[next], 1);
+          next = (next + 1) & (STREAM_LENGTH - 1);
+        }
+        controller.step();
+        if (!controller.isAlive()) {
+          controller.startGame();
+        }
+      }
+    }
+    return (double) pets * ticks * burst / ((System.nanoTime() - start) / 1e9);
+  }
+}
@@ -0,0 +1,136 @@
+package benchmark;
+
+import pet.Pet;
+import pet.PetInterface;
+import pet.event.EventSink;
+import pet.event.PetEvents;
+import pet.population.DecayKernel;
+import pet.population.ParallelStepper;
+import pet.population.PetPopulation;
+
+/**
+ * The {@code DecayKernelBenchmark} class measures the batch {@link DecayKernel}s against
+ * calling {@link Pet#step()} in a loop.
+ * <p>
+ * Start the JVM with {@code --add-modules jdk.incubator.vector} to include the Vector API
+ * kernel; without it {@link DecayKernel#create()} falls back to the scalar kernel and the
+ * "best" line measures that instead.
+ * <p>
+ * The "dispatch" and "grouped" variants compare {@link PetPopulation#stepAll()}, which
+ * calls the personality objects in index order, with the personality-grouped kernel.
+ * <p>
+ * Usage: {@code java benchmark.DecayKernelBenchmark [pets] [rounds] [variant]} where the
+ * variant is one of {@code objects, dispatch, scalar, grouped, best, parallel} or
+ * {@code all}.
+ */
+public class DecayKernelBenchmark {
+
+  private static final int TICKS_PER_ROUND = 8;
+  private static final int WARMUP_ROUNDS = 5;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional population size, number of measured rounds and variant
+   */
+  public static void main(String[] args) {
+    // Deaths are part of the workload, their messages are not.
+    PetEvents.setSink(EventSink.none());
+    int pets = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+    String variant = args.length > 2 ? args[2] : "all";
+
+    System.out.printf("pets=%d rounds=%d ticks/round=%d%n", pets, rounds, TICKS_PER_ROUND);
+    if (variant.equals("all") || variant.equals("objects")) {
+      report("Pet.step() loop", pets, rounds, runObjects(pets, rounds));
+    }
+    if (variant.equals("all") || variant.equals("dispatch")) {
+      report("stepAll() dispatch", pets, rounds, runKernel(null, pets, rounds));
+    }
+    if (variant.equals("all") || variant.equals("scalar")) {
+      report("scalar kernel", pets, rounds, runKernel(DecayKernel.scalar(), pets, rounds));
+    }
+    if (variant.equals("all") || variant.equals("grouped")) {
+      report("grouped kernel", pets, rounds, runKernel(DecayKernel.grouped(), pets, rounds));
+    }
+    if (variant.equals("all") || variant.equals("best")) {
+      DecayKernel kernel = DecayKernel.create();
+      report(kernel.getClass().getSimpleName(), pets, rounds, runKernel(kernel, pets, rounds));
+    }
+    if (variant.equals("all") || variant.equals("parallel")) {
+      int threads = Runtime.getRuntime().availableProcessors();
+      try (ParallelStepper stepper =
+          new ParallelStepper(threads, ParallelStepper.DEFAULT_CHUNK_SIZE)) {
+        report("parallel x" + threads, pets, rounds, runParallel(stepper, pets, rounds));
+      }
+    }
+  }
+
+  private static long runObjects(int pets, int rounds) {
+    PetInterface[] models = new PetInterface[pets];
+    for (int i = 0; i < pets; i++) {
+      models[i] = new Pet();
+    }
+    long elapsed = 0;
+    for (int round = 0; round < WARMUP_ROUNDS + rounds; round++) {
+      for (PetInterface pet : models) {
+        pet.startGame();
+      }
+      long start = System.nanoTime();
+      for (int tick = 0; tick < TICKS_PER_ROUND; tick++) {
+        for (PetInterface pet : models) {
+          pet.step();
+        }
+      }
+      if (round >= WARMUP_ROUNDS) {
+        elapsed += System.nanoTime() - start;
+      }
+    }
+    return elapsed;
+  }
+
+  /**
+   * Times a kernel, or {@link PetPopulation#stepAll()} when {@code kernel} is null.
+   */
+  private static long runKernel(DecayKernel kernel, int pets, int rounds) {
+    PetPopulation population = new PetPopulation(pets);
+    long elapsed = 0;
+    for (int round = 0; round < WARMUP_ROUNDS + rounds; round++) {
+      population.startAll();
+      long start = System.nanoTime();
+      for (int tick = 0; tick < TICKS_PER_ROUND; tick++) {
+        if (kernel == null) {
+          population.stepAll();
+        } else {
+          population.stepAll(kernel);
+        }
+      }
+      if (round >= WARMUP_ROUNDS) {
+        elapsed += System.nanoTime() - start;
+      }
+    }
+    return elapsed;
+  }
+
+  private static long runParallel(ParallelStepper stepper, int pets, int rounds) {
+    PetPopulation population = new PetPopulation(pets);
+    long elapsed = 0;
+    for (int round = 0; round < WARMUP_ROUNDS + rounds; round++) {
+      population.startAll();
+      long start = System.nanoTime();
+      for (int tick = 0; tick < TICKS_PER_ROUND; tick++) {
+        stepper.tick(population);
+      }
+      if (round >= WARMUP_ROUNDS) {
+        elapsed += System.nanoTime() - start;
+      }
+    }
+    return elapsed;
+  }
+
+  private static void report(String label, int pets, int rounds, long elapsedNanos) {
+    double steps = (double) pets * TICKS_PER_ROUND * rounds;
+    System.out.printf("%-22s %,15.0f pet-steps/s (%.1f ms)%n", label,
+        steps / (elapsedNanos / 1e9), elapsedNanos / 1e6);
+  }
+}
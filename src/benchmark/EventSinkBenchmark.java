@@ -0,0 +1,85 @@
+package benchmark;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import pet.PetOld;
+import pet.event.AsyncEventSink;
+import pet.event.EventSink;
+import pet.event.PetEvents;
+
+/**
+ * The {@code EventSinkBenchmark} class measures what reporting events costs the simulation
+ * loop, using {@link PetOld} pets, which report up to five events on every sad step.
+ * <p>
+ * The "direct" sink prints each message as it is published, the way the models used to
+ * call {@code System.out.println}; "async" hands them to an {@link AsyncEventSink} with the
+ * default ring, which drops what the writer cannot keep up with, and "async 1M" to one large
+ * enough to drop nothing; "none" discards them. Messages go to an auto-flushing stream on
+ * a temporary file, like standard output redirected to a file. The time of the async runs
+ * includes the final flush.
+ * <p>
+ * Usage: {@code java benchmark.EventSinkBenchmark [pets] [steps]}.
+ */
+public class EventSinkBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional number of pets and steps per pet
+   * @throws IOException if the message file cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    int pets = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+    int steps = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+    Path file = Files.createTempFile("events", ".log");
+    try (PrintStream out = new PrintStream(new FileOutputStream(file.toFile()), true)) {
+      System.out.printf("pets=%d steps=%d%n", pets, steps);
+      for (int round = 0; round < 2; round++) {
+        boolean report = round == 1;
+        run("direct", (event, petId) -> out.println(event.getMessage()), pets, steps,
+            report);
+        runAsync("async", out, AsyncEventSink.DEFAULT_CAPACITY, pets, steps, report);
+        runAsync("async 1M", out, 1 << 20, pets, steps, report);
+        run("none", EventSink.none(), pets, steps, report);
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static void runAsync(String label, PrintStream out, int capacity, int pets,
+      int steps, boolean report) {
+    try (AsyncEventSink sink = AsyncEventSink.start(out, capacity)) {
+      run(label, sink, pets, steps, report);
+      if (report) {
+        System.out.printf("%-10s written %,d dropped %,d%n", "", sink.getWrittenCount(),
+            sink.getDroppedCount());
+      }
+    }
+  }
+
+  private static void run(String label, EventSink sink, int pets, int steps,
+      boolean report) {
+    EventSink previous = PetEvents.setSink(sink);
+    PetOld[] models = new PetOld[pets];
+    for (int i = 0; i < pets; i++) {
+      models[i] = new PetOld();
+    }
+    long start = System.nanoTime();
+    for (int step = 0; step < steps; step++) {
+      for (PetOld pet : models) {
+        pet.step();
+      }
+    }
+    sink.flush();
+    long elapsed = System.nanoTime() - start;
+    PetEvents.setSink(previous);
+    if (report) {
+      System.out.printf("%-10s %,14.0f pet-steps/s (%.1f ms)%n", label,
+          (double) pets * steps / (elapsed / 1e9), elapsed / 1e6);
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import pet.helper.Action;
+import pet.persist.EventJournal;
+import pet.persist.FsyncPolicy;
+import pet.persist.JournalRecord;
+
+/**
+ * The {@code JournalBenchmark} class measures how many events per second an
+ * {@link EventJournal} sustains under each {@link FsyncPolicy}.
+ * <p>
+ * Every writer thread plays one pet: it appends an interaction and waits until the journal
+ * reports it committed before appending the next, like a caller that must not acknowledge
+ * an event before it is durable. With {@link FsyncPolicy#EVERY_APPEND} each event costs one
+ * fsync; with {@link FsyncPolicy#GROUP} the writers share fsyncs, so throughput grows with
+ * the number of writers. The "async" line appends without waiting, which is the upper
+ * bound of the group commit.
+ * <p>
+ * The journal is written to a temporary directory, which should be on the disk of
+ * interest. Usage: {@code java benchmark.JournalBenchmark [writers] [seconds] [directory]}.
+ */
+public class JournalBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional writer count, seconds per policy and directory
+   * @throws IOException if the journal cannot be written
+   * @throws InterruptedException if interrupted while waiting for the writers
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int writers = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+    int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+    Path directory = args.length > 2
+        ? Files.createTempDirectory(Path.of(args[2]), "journal-bench")
+        : Files.createTempDirectory("journal-bench");
+
+    System.out.printf("writers=%d seconds=%d dir=%s%n", writers, seconds, directory);
+    run("every append", directory, FsyncPolicy.EVERY_APPEND, 1, 0, writers, seconds, true);
+    run("group 64/1ms", directory, FsyncPolicy.GROUP, 64, 1, writers, seconds, true);
+    run("group 1024/5ms", directory, FsyncPolicy.GROUP, 1024, 5, writers, seconds, true);
+    run("never", directory, FsyncPolicy.NEVER, 1024, 5, writers, seconds, true);
+    run("group async", directory, FsyncPolicy.GROUP, 1024, 5, writers, seconds, false);
+    Files.delete(directory);
+  }
+
+  private static void run(String label, Path directory, FsyncPolicy policy, int batch,
+      long delayMillis, int writers, int seconds, boolean await)
+      throws IOException, InterruptedException {
+    Path file = directory.resolve("bench.journal");
+    LongAdder events = new LongAdder();
+    AtomicBoolean running = new AtomicBoolean(true);
+    long elapsed;
+    long commits;
+    try (EventJournal journal =
+        new EventJournal(file, policy, batch, delayMillis, TimeUnit.MILLISECONDS)) {
+      Thread[] threads = new Thread[writers];
+      for (int w = 0; w < writers; w++) {
+        int petId = w;
+        threads[w] = new Thread(() -> write(journal, petId, await, running, events));
+      }
+      long start = System.nanoTime();
+      for (Thread thread : threads) {
+        thread.start();
+      }
+      Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+      running.set(false);
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      journal.flush();
+      elapsed = System.nanoTime() - start;
+      commits = journal.commitCount();
+    } finally {
+      Files.deleteIfExists(file);
+    }
+    double count = events.sum();
+    System.out.printf("%-16s %,12.0f events/s %,10.0f commits/s %8.1f events/commit%n",
+        label, count / (elapsed / 1e9), commits / (elapsed / 1e9),
+        count / Math.max(1, commits));
+  }
+
+  private static void write(EventJournal journal, int petId, boolean await,
+      AtomicBoolean running, LongAdder events) {
+    Action[] actions = Action.values();
+    try {
+      for (int i = 0; running.get(); i++) {
+        long sequence = journal.append(
+            JournalRecord.interact(petId, actions[i % actions.length], 1));
+        if (await) {
+          journal.awaitDurable(sequence);
+        }
+        events.increment();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package benchmark;
+
+import java.util.Arrays;
+import pet.event.EventSink;
+import pet.event.PetEvents;
+import pet.population.DecayKernel;
+import pet.population.LockstepReport;
+import pet.population.LockstepTicker;
+import pet.population.PetPopulation;
+import pet.population.PopulationSnapshot;
+
+/**
+ * The {@code LockstepBenchmark} class runs a {@link LockstepTicker} with different worker
+ * counts over the same population.
+ * <p>
+ * For each worker count, the report shows the average time per tick in each phase and the
+ * average gap between the slowest and the fastest worker of a tick, which is the time the
+ * barrier made the others wait. It ends with a hash of the population after the run, which
+ * must be the same for every worker count.
+ * <p>
+ * Usage: {@code java benchmark.LockstepBenchmark [pets] [ticks] [shard size]}.
+ */
+public class LockstepBenchmark {
+
+  private static final int[] WORKER_COUNTS = {1, 2, 4, 8};
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional population size, number of ticks and shard size
+   */
+  public static void main(String[] args) {
+    int pets = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    int shardSize = args.length > 2 ? Integer.parseInt(args[2]) : 16_384;
+    // Deaths are part of the workload, their messages are not.
+    PetEvents.setSink(EventSink.none());
+    System.out.printf("pets=%,d ticks=%d shardSize=%,d%n", pets, ticks, shardSize);
+    for (int round = 0; round < 2; round++) {
+      for (int workers : WORKER_COUNTS) {
+        run(pets, ticks, shardSize, workers, round == 1);
+      }
+    }
+  }
+
+  private static void run(int pets, int ticks, int shardSize, int workers, boolean report) {
+    PetPopulation population = new PetPopulation(pets);
+    population.startAll(17L);
+    long[] straggling = new long[1];
+    try (LockstepTicker ticker = new LockstepTicker(population, workers, shardSize,
+        DecayKernel.create(), done -> straggling[0] += spread(done, workers))) {
+      for (int tick = 0; tick < ticks; tick++) {
+        ticker.tick();
+      }
+      if (report) {
+        System.out.printf("workers=%d  step %7.3f ms  reduce %7.3f ms  publish %7.3f ms"
+            + "  straggler gap %7.3f ms  hash %08x%n", workers,
+            perTick(ticker.getPhaseNanos(LockstepTicker.Phase.STEP), ticks),
+            perTick(ticker.getPhaseNanos(LockstepTicker.Phase.REDUCE), ticks),
+            perTick(ticker.getPhaseNanos(LockstepTicker.Phase.PUBLISH), ticks),
+            perTick(straggling[0], ticks), hash(population.snapshot()));
+      }
+    }
+  }
+
+  private static long spread(LockstepReport report, int workers) {
+    long fastest = Long.MAX_VALUE;
+    for (int w = 0; w < workers; w++) {
+      fastest = Math.min(fastest, report.getWorkerStepNanos(w));
+    }
+    return report.getWorkerStepNanos(report.getSlowestWorker()) - fastest;
+  }
+
+  private static double perTick(long nanos, int ticks) {
+    return nanos / 1e6 / ticks;
+  }
+
+  private static int hash(PopulationSnapshot snapshot) {
+    int hash = Arrays.hashCode(snapshot.hunger());
+    hash = 31 * hash + Arrays.hashCode(snapshot.hygiene());
+    hash = 31 * hash + Arrays.hashCode(snapshot.social());
+    hash = 31 * hash + Arrays.hashCode(snapshot.sleep());
+    hash = 31 * hash + Arrays.hashCode(snapshot.alive());
+    hash = 31 * hash + Arrays.hashCode(snapshot.mood());
+    return 31 * hash + Arrays.hashCode(snapshot.tick());
+  }
+}
@@ -0,0 +1,204 @@
+package benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import pet.ConcurrentPet;
+import pet.Pet;
+import pet.PetInterface;
+import pet.event.EventSink;
+import pet.event.PetEvents;
+import pet.helper.Action;
+import pet.helper.HealthStatus;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.Personality;
+
+/**
+ * The {@code PetContentionBenchmark} class compares the lock-free {@link ConcurrentPet}
+ * with a {@link Pet} behind a {@code synchronized} wrapper, with every thread hammering
+ * the same pets.
+ * <p>
+ * Each thread runs a request-server mix: mostly interactions, some health reads, and a
+ * step every eighth operation, spread over a few shared pets. A pet that dies is restarted
+ * by whichever thread notices. The report shows total operations per second for each
+ * thread count.
+ * <p>
+ * Usage: {@code java benchmark.PetContentionBenchmark [pets] [millis per run]}.
+ */
+public class PetContentionBenchmark {
+
+  private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16};
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional number of shared pets and run length in milliseconds
+   * @throws InterruptedException if interrupted while waiting for the threads
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int pets = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+    int millis = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+    // Deaths are part of the workload, their messages are not.
+    PetEvents.setSink(EventSink.none());
+    System.out.printf("pets=%d run=%dms%n", pets, millis);
+    for (int round = 0; round < 2; round++) {
+      boolean report = round == 1;
+      for (int threads : THREAD_COUNTS) {
+        double locked = run(createPets(pets, false), threads, millis);
+        double lockFree = run(createPets(pets, true), threads, millis);
+        if (report) {
+          System.out.printf("threads=%2d  synchronized %,14.0f ops/s  lock-free %,14.0f ops/s"
+              + "  (%.1fx)%n", threads, locked, lockFree, lockFree / locked);
+        }
+      }
+    }
+  }
+
+  private static PetInterface[] createPets(int count, boolean lockFree) {
+    PetInterface[] pets = new PetInterface[count];
+    for (int i = 0; i < count; i++) {
+      pets[i] = lockFree ? new ConcurrentPet(i) : new SynchronizedPet(new Pet(i));
+      pets[i].startGame(7L);
+    }
+    return pets;
+  }
+
+  private static double run(PetInterface[] pets, int threads, int millis)
+      throws InterruptedException {
+    AtomicBoolean running = new AtomicBoolean(true);
+    LongAdder operations = new LongAdder();
+    CountDownLatch start = new CountDownLatch(1);
+    Thread[] workers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      int first = t;
+      workers[t] = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        operations.add(work(pets, first, running));
+      });
+      workers[t].start();
+    }
+    long begin = System.nanoTime();
+    start.countDown();
+    TimeUnit.MILLISECONDS.sleep(millis);
+    running.set(false);
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    return operations.sum() / ((System.nanoTime() - begin) / 1e9);
+  }
+
+  private static long work(PetInterface[] pets, int first, AtomicBoolean running) {
+    Action[] actions = Action.values();
+    long count = 0;
+    int i = first;
+    while (running.get()) {
+      for (int batch = 0; batch < 256; batch++, i++) {
+        PetInterface pet = pets[i % pets.length];
+        switch (i & 7) {
+          case 0 -> pet.step();
+          case 1 -> pet.getHealth();
+          default -> pet.interactWith(actions[i % actions.length]);
+        }
+        if (!pet.isAlive()) {
+          pet.startGame(i);
+        }
+      }
+      count += 256;
+    }
+    return count;
+  }
+
+  /**
+   * A pet whose every method holds the wrapper's lock, the straightforward way to share a
+   * {@link Pet} between threads.
+   */
+  private static final class SynchronizedPet implements PetInterface {
+
+    private final Pet pet;
+
+    private SynchronizedPet(Pet pet) {
+      this.pet = pet;
+    }
+
+    @Override
+    public synchronized void startGame() {
+      pet.startGame();
+    }
+
+    @Override
+    public synchronized void startGame(long seed) {
+      pet.startGame(seed);
+    }
+
+    @Override
+    public synchronized void step() {
+      pet.step();
+    }
+
+    @Override
+    public synchronized void interactWith(Action action) {
+      pet.interactWith(action);
+    }
+
+    @Override
+    public synchronized HealthStatus getHealth() {
+      return pet.getHealth();
+    }
+
+    @Override
+    public synchronized MoodEnum getMood() {
+      return pet.getMood();
+    }
+
+    @Override
+    public synchronized Personality getPersonality() {
+      return pet.getPersonality();
+    }
+
+    @Override
+    public synchronized void setMood(MoodEnum mood) {
+      pet.setMood(mood);
+    }
+
+    @Override
+    public synchronized void setPersonality(Personality personality) {
+      pet.setPersonality(personality);
+    }
+
+    @Override
+    public synchronized boolean isAlive() {
+      return pet.isAlive();
+    }
+
+    @Override
+    public synchronized boolean needShower() {
+      return pet.needShower();
+    }
+
+    @Override
+    public synchronized boolean needFeed() {
+      return pet.needFeed();
+    }
+
+    @Override
+    public synchronized boolean needPlay() {
+      return pet.needPlay();
+    }
+
+    @Override
+    public synchronized boolean needSleep() {
+      return pet.needSleep();
+    }
+
+    @Override
+    public synchronized void adjustNeeds(int hungerDelta, int hygieneDelta, int socialDelta,
+        int sleepDelta) {
+      pet.adjustNeeds(hungerDelta, hygieneDelta, socialDelta, sleepDelta);
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import pet.Pet;
+import pet.event.EventSink;
+import pet.event.PetEvents;
+import pet.helper.Action;
+import pet.persist.PetStore;
+
+/**
+ * The {@code PetStoreBenchmark} class compares the memory-mapped {@link PetStore} with
+ * on-heap {@link Pet} objects.
+ * <p>
+ * It measures whole-population steps and random single-pet interactions for both. For the
+ * store it also reports the first pass over a freshly reopened file separately, since that
+ * pass pays for paging the records in. Run with a small heap, e.g. {@code -Xmx64m}, and the
+ * {@code store} variant to see a store larger than the heap; the {@code heap} variant needs
+ * roughly 50 bytes of heap per pet.
+ * <p>
+ * Usage: {@code java benchmark.PetStoreBenchmark [pets] [rounds] [variant] [directory]}
+ * where the variant is one of {@code heap, store} or {@code all}.
+ */
+public class PetStoreBenchmark {
+
+  private static final int TICKS_PER_ROUND = 8;
+  private static final int WARMUP_ROUNDS = 3;
+  private static final int INTERACTIONS = 1_000_000;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional population size, number of measured rounds, variant and
+   *             directory
+   * @throws IOException if the store cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    // Deaths are part of the workload, their messages are not.
+    PetEvents.setSink(EventSink.none());
+    int pets = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    String variant = args.length > 2 ? args[2] : "all";
+    Path directory = args.length > 3 ? Path.of(args[3]) : Path.of(System.getProperty(
+        "java.io.tmpdir"));
+
+    System.out.printf("pets=%,d rounds=%d ticks/round=%d max heap=%,d MB%n", pets, rounds,
+        TICKS_PER_ROUND, Runtime.getRuntime().maxMemory() >> 20);
+    if (variant.equals("all") || variant.equals("heap")) {
+      runHeap(pets, rounds);
+    }
+    if (variant.equals("all") || variant.equals("store")) {
+      Path file = Files.createTempFile(directory, "pet-store", ".pets");
+      Files.delete(file);
+      try {
+        runStore(file, pets, rounds);
+      } finally {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+
+  private static void runHeap(int pets, int rounds) {
+    Pet[] population = new Pet[pets];
+    for (int i = 0; i < pets; i++) {
+      population[i] = new Pet(i);
+    }
+    long elapsed = 0;
+    for (int round = 0; round < WARMUP_ROUNDS + rounds; round++) {
+      for (Pet pet : population) {
+        pet.startGame(5L);
+      }
+      long start = System.nanoTime();
+      for (int tick = 0; tick < TICKS_PER_ROUND; tick++) {
+        for (Pet pet : population) {
+          pet.step();
+        }
+      }
+      if (round >= WARMUP_ROUNDS) {
+        elapsed += System.nanoTime() - start;
+      }
+    }
+    report("heap step", (double) pets * TICKS_PER_ROUND * rounds, elapsed, "pet-steps/s");
+
+    SplittableRandom random = new SplittableRandom(3);
+    Action[] actions = Action.values();
+    long start = System.nanoTime();
+    for (int n = 0; n < INTERACTIONS; n++) {
+      population[random.nextInt(pets)].interactWith(actions[n & 3]);
+    }
+    report("heap interact", INTERACTIONS, System.nanoTime() - start, "interactions/s");
+  }
+
+  private static void runStore(Path file, int pets, int rounds) throws IOException {
+    long start = System.nanoTime();
+    try (PetStore store = PetStore.open(file, pets)) {
+      store.startAll(5L);
+    }
+    report("store create", pets, System.nanoTime() - start, "pets/s");
+    System.out.printf("%-16s %,15d MB%n", "store file", Files.size(file) >> 20);
+
+    try (PetStore store = PetStore.open(file, 0)) {
+      start = System.nanoTime();
+      store.stepAll();
+      report("store first pass", pets, System.nanoTime() - start, "pet-steps/s");
+
+      long elapsed = 0;
+      for (int round = 0; round < WARMUP_ROUNDS + rounds; round++) {
+        store.startAll(5L);
+        start = System.nanoTime();
+        for (int tick = 0; tick < TICKS_PER_ROUND; tick++) {
+          store.stepAll();
+        }
+        if (round >= WARMUP_ROUNDS) {
+          elapsed += System.nanoTime() - start;
+        }
+      }
+      report("store step", (double) pets * TICKS_PER_ROUND * rounds, elapsed, "pet-steps/s");
+
+      SplittableRandom random = new SplittableRandom(3);
+      Action[] actions = Action.values();
+      start = System.nanoTime();
+      for (int n = 0; n < INTERACTIONS; n++) {
+        store.interactWith(random.nextInt(pets), actions[n & 3]);
+      }
+      report("store interact", INTERACTIONS, System.nanoTime() - start, "interactions/s");
+
+      start = System.nanoTime();
+      store.force();
+      report("store force", 1, System.nanoTime() - start, "");
+    }
+  }
+
+  private static void report(String label, double operations, long elapsedNanos,
+      String unit) {
+    if (unit.isEmpty()) {
+      System.out.printf("%-16s %15s (%.1f ms)%n", label, "", elapsedNanos / 1e6);
+      return;
+    }
+    System.out.printf("%-16s %,15.0f %s (%.1f ms)%n", label, operations / (elapsedNanos / 1e9),
+        unit, elapsedNanos / 1e6);
+  }
+}
@@ -0,0 +1,104 @@
+package benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import pet.event.EventSink;
+import pet.event.PetEvents;
+import pet.helper.Action;
+import pet.pipeline.CommandPipeline;
+import pet.pipeline.WaitStrategy;
+import pet.population.PetPopulation;
+
+/**
+ * The {@code PipelineBenchmark} class measures a {@link CommandPipeline} under load from
+ * several producer threads, once for each {@link WaitStrategy}.
+ * <p>
+ * Producers publish random interactions to random pets as fast as the rings accept them,
+ * while the main thread publishes a tick every 100 ms and samples the queue depth. Each
+ * run reports commands per second, the average batch a shard applied per wakeup, the
+ * largest sampled queue depth and the publish-to-applied latency percentiles.
+ * <p>
+ * Usage: {@code java benchmark.PipelineBenchmark [pets] [shards] [producers] [seconds]
+ * [ring capacity]}.
+ */
+public class PipelineBenchmark {
+
+  private static final int TICK_MILLIS = 100;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional pet count, shard count, producer count, seconds per strategy and
+   *             ring capacity
+   * @throws InterruptedException if interrupted while waiting for the producers
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int pets = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    int shards = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+    int producers = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+    int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+    int capacity = args.length > 4 ? Integer.parseInt(args[4])
+        : CommandPipeline.DEFAULT_RING_CAPACITY;
+    // Deaths are part of the workload, their messages are not.
+    PetEvents.setSink(EventSink.none());
+    System.out.printf("pets=%,d shards=%d producers=%d seconds=%d capacity=%d%n",
+        pets, shards, producers, seconds, capacity);
+    for (WaitStrategy wait : WaitStrategy.values()) {
+      PetPopulation population = new PetPopulation(pets);
+      population.startAll(3L);
+      try (CommandPipeline pipeline = new CommandPipeline(population, shards, capacity,
+          wait)) {
+        run(wait, pipeline, pets, producers, seconds);
+      }
+    }
+  }
+
+  private static void run(WaitStrategy wait, CommandPipeline pipeline, int pets,
+      int producers, int seconds) throws InterruptedException {
+    AtomicBoolean running = new AtomicBoolean(true);
+    LongAdder sent = new LongAdder();
+    CountDownLatch done = new CountDownLatch(producers);
+    for (int p = 0; p < producers; p++) {
+      Thread.ofPlatform().name("producer-" + p).start(() -> {
+        sent.add(produce(pipeline, pets, running));
+        done.countDown();
+      });
+    }
+    long start = System.nanoTime();
+    long end = start + TimeUnit.SECONDS.toNanos(seconds);
+    long maxDepth = 0;
+    while (System.nanoTime() < end) {
+      TimeUnit.MILLISECONDS.sleep(TICK_MILLIS);
+      pipeline.tick();
+      maxDepth = Math.max(maxDepth, pipeline.getQueueDepth());
+    }
+    running.set(false);
+    done.await();
+    pipeline.awaitIdle();
+    double elapsed = (System.nanoTime() - start) / 1e9;
+
+    long applied = pipeline.getAppliedCount();
+    System.out.printf("%-9s %,12.0f commands/s  %,8.1f per batch  max depth %,d%n", wait,
+        applied / elapsed, (double) applied / pipeline.getBatchCount(), maxDepth);
+    System.out.printf("          latency: p50 %.1f us  p99 %.1f us  p99.9 %.1f us"
+        + "  max %.1f us%n", pipeline.getLatencyNanos(0.50) / 1e3,
+        pipeline.getLatencyNanos(0.99) / 1e3, pipeline.getLatencyNanos(0.999) / 1e3,
+        pipeline.getLatencyNanos(1.0) / 1e3);
+  }
+
+  private static long produce(CommandPipeline pipeline, int pets, AtomicBoolean running) {
+    Action[] actions = Action.values();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long count = 0;
+    while (running.get()) {
+      for (int batch = 0; batch < 256; batch++) {
+        pipeline.publish(random.nextInt(pets), actions[random.nextInt(actions.length)]);
+      }
+      count += 256;
+    }
+    return count;
+  }
+}
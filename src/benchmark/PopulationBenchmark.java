@@ -0,0 +1,93 @@
+package benchmark;
+
+import pet.Pet;
+import pet.PetInterface;
+import pet.event.EventSink;
+import pet.event.PetEvents;
+import pet.population.PetPopulation;
+
+/**
+ * The {@code PopulationBenchmark} class compares stepping throughput of individual
+ * {@link Pet} objects against the column-based {@link PetPopulation}.
+ * <p>
+ * Both variants start the same number of pets and advance them for a few ticks per round
+ * (short enough that no pet dies, so every step does real work). The result is reported
+ * in pet-steps per second.
+ * <p>
+ * Usage: {@code java benchmark.PopulationBenchmark [pets] [rounds] [objects|population]}
+ * <p>
+ * Running both variants in one JVM lets the first one pollute the type profiles of the
+ * personality call sites, so pass a single variant to measure each in a fresh JVM.
+ */
+public class PopulationBenchmark {
+
+  private static final int TICKS_PER_ROUND = 8;
+  private static final int WARMUP_ROUNDS = 5;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional population size, number of measured rounds and variant
+   */
+  public static void main(String[] args) {
+    // Deaths are part of the workload, their messages are not.
+    PetEvents.setSink(EventSink.none());
+    int pets = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+    String variant = args.length > 2 ? args[2] : "both";
+
+    System.out.printf("pets=%d rounds=%d ticks/round=%d%n", pets, rounds, TICKS_PER_ROUND);
+    if (!variant.equals("population")) {
+      report("per-object Pet.step()", pets, rounds, runObjects(pets, rounds));
+    }
+    if (!variant.equals("objects")) {
+      report("PetPopulation.stepAll()", pets, rounds, runPopulation(pets, rounds));
+    }
+  }
+
+  private static long runObjects(int pets, int rounds) {
+    PetInterface[] models = new PetInterface[pets];
+    for (int i = 0; i < pets; i++) {
+      models[i] = new Pet();
+    }
+    long elapsed = 0;
+    for (int round = 0; round < WARMUP_ROUNDS + rounds; round++) {
+      for (PetInterface pet : models) {
+        pet.startGame();
+      }
+      long start = System.nanoTime();
+      for (int tick = 0; tick < TICKS_PER_ROUND; tick++) {
+        for (PetInterface pet : models) {
+          pet.step();
+        }
+      }
+      if (round >= WARMUP_ROUNDS) {
+        elapsed += System.nanoTime() - start;
+      }
+    }
+    return elapsed;
+  }
+
+  private static long runPopulation(int pets, int rounds) {
+    PetPopulation population = new PetPopulation(pets);
+    long elapsed = 0;
+    for (int round = 0; round < WARMUP_ROUNDS + rounds; round++) {
+      population.startAll();
+      long start = System.nanoTime();
+      for (int tick = 0; tick < TICKS_PER_ROUND; tick++) {
+        population.stepAll();
+      }
+      if (round >= WARMUP_ROUNDS) {
+        elapsed += System.nanoTime() - start;
+      }
+    }
+    return elapsed;
+  }
+
+  private static void report(String label, int pets, int rounds, long elapsedNanos) {
+    double steps = (double) pets * TICKS_PER_ROUND * rounds;
+    double perSecond = steps / (elapsedNanos / 1e9);
+    System.out.printf("%-28s %,15.0f pet-steps/s (%.1f ms)%n", label, perSecond,
+        elapsedNanos / 1e6);
+  }
+}
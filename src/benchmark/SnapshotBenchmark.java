@@ -0,0 +1,132 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+import pet.helper.Action;
+import pet.persist.EventJournal;
+import pet.persist.FsyncPolicy;
+import pet.persist.JournalRecord;
+import pet.persist.PopulationRecovery;
+import pet.persist.SnapshotStore;
+import pet.population.DecayKernel;
+import pet.population.PetPopulation;
+import pet.population.PopulationSnapshot;
+
+/**
+ * The {@code SnapshotBenchmark} class measures what population snapshots cost while running
+ * and how fast a large population restarts from them.
+ * <p>
+ * It starts a population with one journal record per pet, runs some ticks with random
+ * interactions, takes a snapshot, runs some more, and then recovers twice: from the
+ * snapshot plus the journal tail, and from the whole journal with the snapshots removed.
+ * It reports the pause the snapshot copy adds to the tick loop, the write and load rates,
+ * and both restart times.
+ * <p>
+ * Ten million pets need about 2 GB of heap; run with e.g. {@code -Xmx4g}.
+ * Usage: {@code java benchmark.SnapshotBenchmark [pets] [ticks] [directory]}.
+ */
+public class SnapshotBenchmark {
+
+  private static final int INTERACTIONS_PER_TICK = 10_000;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional population size, ticks before and after the snapshot, and
+   *             directory
+   * @throws IOException if the files cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    int pets = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+    int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    Path directory = args.length > 2
+        ? Files.createTempDirectory(Path.of(args[2]), "snapshot-bench")
+        : Files.createTempDirectory("snapshot-bench");
+    Path journalFile = directory.resolve("pets.journal");
+    SnapshotStore store = new SnapshotStore(directory.resolve("snapshots"));
+    DecayKernel kernel = DecayKernel.create();
+    Random random = new Random(1);
+    System.out.printf("pets=%,d ticks=%d+%d dir=%s%n", pets, ticks, ticks, directory);
+
+    PetPopulation live = new PetPopulation(pets);
+    try (EventJournal journal = EventJournal.open(journalFile, FsyncPolicy.NEVER)) {
+      for (int i = 0; i < pets; i++) {
+        live.startGame(i, 7L);
+        journal.append(JournalRecord.start(i, live.get(i).getPersonality(), 7L));
+      }
+      run(live, journal, kernel, ticks, random);
+
+      long start = System.nanoTime();
+      PopulationSnapshot snapshot = live.snapshot();
+      long copied = System.nanoTime() - start;
+      long sequence = journal.appendedCount();
+      journal.flush();
+      start = System.nanoTime();
+      Path file = store.write(snapshot, sequence);
+      long written = System.nanoTime() - start;
+      double megabytes = Files.size(file) / 1e6;
+      report("snapshot copy", copied, "tick loop pause");
+      report("snapshot write", written, String.format("%.0f MB, %.0f MB/s", megabytes,
+          megabytes / (written / 1e9)));
+
+      run(live, journal, kernel, ticks, random);
+    }
+
+    long start = System.nanoTime();
+    store.loadLatest();
+    long loaded = System.nanoTime() - start;
+    report("snapshot load", loaded, "");
+    start = System.nanoTime();
+    PopulationRecovery recovery = PopulationRecovery.recover(store, journalFile, pets);
+    long recovered = System.nanoTime() - start;
+    report("restart from snapshot", recovered, String.format("%,d tail records",
+        recovery.getReplayedCount()));
+    check(live, recovery.getPopulation());
+
+    Files.delete(store.loadLatest().getPath());
+    start = System.nanoTime();
+    recovery = PopulationRecovery.recover(store, journalFile, pets);
+    long replayed = System.nanoTime() - start;
+    report("restart from journal", replayed, String.format("%,d records",
+        recovery.getReplayedCount()));
+    check(live, recovery.getPopulation());
+
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  private static void run(PetPopulation population, EventJournal journal, DecayKernel kernel,
+      int ticks, Random random) throws IOException {
+    Action[] actions = Action.values();
+    for (int tick = 0; tick < ticks; tick++) {
+      population.stepAll(kernel);
+      journal.append(JournalRecord.tick(1));
+      for (int n = 0; n < INTERACTIONS_PER_TICK; n++) {
+        int index = random.nextInt(population.size());
+        Action action = actions[random.nextInt(actions.length)];
+        population.interactWith(index, action);
+        journal.append(JournalRecord.interact(index, action, 1));
+      }
+    }
+  }
+
+  private static void check(PetPopulation expected, PetPopulation actual) {
+    for (int i = 0; i < expected.size(); i += 9973) {
+      if (!expected.get(i).getHealth().toString().equals(actual.get(i).getHealth().toString())
+          || expected.get(i).getTick() != actual.get(i).getTick()) {
+        throw new IllegalStateException("Recovered pet " + i + " differs");
+      }
+    }
+  }
+
+  private static void report(String label, long nanos, String detail) {
+    System.out.printf("%-22s %9.1f ms  %s%n", label, nanos / 1e6, detail);
+  }
+}
@@ -0,0 +1,131 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+import pet.helper.Action;
+import pet.persist.SnapshotStore;
+import pet.population.DecayKernel;
+import pet.population.PetPopulation;
+import pet.population.PopulationSnapshot;
+
+/**
+ * The {@code SnapshotRatioTool} class reports how much smaller incremental snapshot deltas
+ * are than full snapshots.
+ * <p>
+ * Given a snapshot directory, it lists every full snapshot and delta with its size and the
+ * ratio of the newest full snapshot's size to each delta's. With {@code --simulate} it
+ * instead runs a population in which only a fraction of the pets is active between
+ * checkpoints, writes a full snapshot and a delta for every checkpoint, and reports both
+ * sizes; an activity of 100 steps the whole population with the batch kernel.
+ * <p>
+ * Usage: {@code java benchmark.SnapshotRatioTool <directory>} or
+ * {@code java benchmark.SnapshotRatioTool --simulate [pets] [active percent] [checkpoints]}.
+ */
+public class SnapshotRatioTool {
+
+  /**
+   * Runs the tool.
+   *
+   * @param args a snapshot directory, or {@code --simulate} and its optional parameters
+   * @throws IOException if the snapshots cannot be read or written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length > 0 && !args[0].equals("--simulate")) {
+      report(Path.of(args[0]));
+      return;
+    }
+    int pets = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+    double active = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+    int checkpoints = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+    simulate(pets, active, checkpoints);
+  }
+
+  private static void report(Path directory) throws IOException {
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory,
+        "snapshot-*.{snap,delta}")) {
+      entries.forEach(files::add);
+    }
+    files.sort(Comparator.comparing(Path::getFileName));
+    long fullSize = 0;
+    long deltaBytes = 0;
+    int deltas = 0;
+    for (Path file : files) {
+      if (file.toString().endsWith(".snap")) {
+        fullSize = Files.size(file);
+      }
+    }
+    for (Path file : files) {
+      long size = Files.size(file);
+      boolean delta = file.toString().endsWith(".delta");
+      if (delta) {
+        deltaBytes += size;
+        deltas++;
+      }
+      System.out.printf("%-40s %,14d bytes%s%n", file.getFileName(), size,
+          delta && size > 0 ? String.format("  %8.1fx", (double) fullSize / size) : "");
+    }
+    if (deltas > 0) {
+      System.out.printf("%d deltas: %,d bytes instead of %,d as full snapshots, %.1fx%n",
+          deltas, deltaBytes, fullSize * deltas, (double) fullSize * deltas / deltaBytes);
+    }
+  }
+
+  private static void simulate(int pets, double activePercent, int checkpoints)
+      throws IOException {
+    Path directory = Files.createTempDirectory("snapshot-ratio");
+    SnapshotStore store = new SnapshotStore(directory, checkpoints + 1);
+    PetPopulation population = new PetPopulation(pets);
+    population.startAll(11L);
+    DecayKernel kernel = DecayKernel.create();
+    SplittableRandom random = new SplittableRandom(11);
+    Action[] actions = Action.values();
+    int activePets = (int) Math.round(pets * activePercent / 100);
+    System.out.printf("pets=%,d active=%.2f%% (%,d per checkpoint) checkpoints=%d%n", pets,
+        activePercent, activePets, checkpoints);
+
+    long sequence = 1;
+    PopulationSnapshot previous = population.snapshot();
+    store.write(previous, sequence);
+    long fullBytes = 0;
+    long deltaBytes = 0;
+    for (int checkpoint = 0; checkpoint < checkpoints; checkpoint++) {
+      if (activePets == pets) {
+        population.stepAll(kernel);
+      } else {
+        for (int n = 0; n < activePets; n++) {
+          int index = random.nextInt(pets);
+          population.step(index);
+          population.interactWith(index, actions[random.nextInt(actions.length)]);
+        }
+      }
+      PopulationSnapshot current = population.snapshot();
+      long full = Files.size(store.write(current, sequence + 1));
+      long start = System.nanoTime();
+      long delta = Files.size(store.writeDelta(previous, sequence, current, sequence + 2));
+      long deltaNanos = System.nanoTime() - start;
+      System.out.printf("checkpoint %2d: full %,12d bytes  delta %,12d bytes  %8.1fx"
+          + "  (delta written in %.1f ms)%n", checkpoint + 1, full, delta,
+          (double) full / delta, deltaNanos / 1e6);
+      fullBytes += full;
+      deltaBytes += delta;
+      previous = current;
+      sequence += 2;
+    }
+    System.out.printf("total:         full %,12d bytes  delta %,12d bytes  %8.1fx%n",
+        fullBytes, deltaBytes, (double) fullBytes / deltaBytes);
+
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+}
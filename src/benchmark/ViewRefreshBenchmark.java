@@ -0,0 +1,139 @@
+package benchmark;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import pet.Pet;
+import pet.event.EventSink;
+import pet.event.PetEvents;
+import pet.helper.HealthStatus;
+import pet.helper.PackedNeeds;
+import pet.helper.mood.MoodEnum;
+import view.CoalescingRenderer;
+import view.EdtMonitor;
+
+/**
+ * The {@code ViewRefreshBenchmark} class measures the event dispatch thread time the pet
+ * window spends keeping its mood, status and need bubbles up to date.
+ * <p>
+ * "polling" reproduces the former view: two 10 ms timers that query the model and set the
+ * mood label and status line on every tick, plus four need queries after each step.
+ * "push" draws through a {@link CoalescingRenderer} registered on the pet, as the view
+ * does now. Both step a pet on a timer, much faster than the game's ten seconds so that
+ * the push side has something to draw, and use plain labels, so the benchmark runs
+ * without a display. {@link EdtMonitor} reports the EDT time and wakeups per second.
+ * <p>
+ * Usage: {@code java benchmark.ViewRefreshBenchmark [seconds] [step ms]}.
+ */
+public class ViewRefreshBenchmark {
+
+  private static final int POLL_MILLIS = 10;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional seconds per run and milliseconds between steps
+   * @throws Exception if a run is interrupted or fails on the EDT
+   */
+  public static void main(String[] args) throws Exception {
+    int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+    int stepMillis = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    // Deaths are part of the workload, their messages are not.
+    PetEvents.setSink(EventSink.none());
+    System.out.printf("seconds=%d step=%dms%n", seconds, stepMillis);
+    run("polling", false, seconds, stepMillis);
+    run("push", true, seconds, stepMillis);
+  }
+
+  private static void run(String label, boolean push, int seconds, int stepMillis)
+      throws InterruptedException, InvocationTargetException {
+    Labels labels = new Labels();
+    Pet pet = new Pet();
+    List<Timer> timers = new ArrayList<>();
+    SwingUtilities.invokeAndWait(() -> {
+      pet.startGame(1L);
+      if (push) {
+        labels.renderer = new CoalescingRenderer(labels::render);
+        pet.addListener(labels.renderer);
+        labels.renderer.sync(pet.getMood(), pet.getHealth(), pet.isAlive());
+      } else {
+        timers.add(new Timer(POLL_MILLIS, e -> labels.mood.setText(moodText(pet.getMood()))));
+        timers.add(new Timer(POLL_MILLIS, e -> labels.status.setText(format(pet.getHealth()))));
+      }
+      timers.add(new Timer(stepMillis, e -> {
+        pet.step();
+        if (!pet.isAlive()) {
+          pet.startGame();
+        }
+        if (!push) {
+          labels.bubbles[0].setVisible(pet.needShower());
+          labels.bubbles[1].setVisible(pet.needFeed());
+          labels.bubbles[2].setVisible(pet.needPlay());
+          labels.bubbles[3].setVisible(pet.needSleep());
+        }
+      }));
+      timers.forEach(Timer::start);
+    });
+
+    // Let the timers settle before measuring.
+    Thread.sleep(1000);
+    EdtMonitor monitor = EdtMonitor.install();
+    long changes = push ? labels.renderer.getChangeCount() : 0;
+    long renders = push ? labels.renderer.getRenderCount() : 0;
+    long start = System.nanoTime();
+    Thread.sleep(seconds * 1000L);
+    double elapsed = (System.nanoTime() - start) / 1e9;
+    long busy = monitor.getBusyNanos();
+    long events = monitor.getEventCount();
+    SwingUtilities.invokeAndWait(() -> timers.forEach(Timer::stop));
+    monitor.uninstall();
+
+    System.out.printf("%-8s EDT %7.3f ms/s  %6.1f events/s", label, busy / 1e6 / elapsed,
+        events / elapsed);
+    if (push) {
+      System.out.printf("  %,d changes in %,d renders",
+          labels.renderer.getChangeCount() - changes,
+          labels.renderer.getRenderCount() - renders);
+    }
+    System.out.println();
+  }
+
+  private static String moodText(MoodEnum mood) {
+    return mood == MoodEnum.HAPPY ? "HAPPY" : "SAD";
+  }
+
+  private static String format(HealthStatus health) {
+    return "HYGIENE: %d  HUNGER: %d  SOCIAL: %d  SLEEP: %d".formatted(health.getHygiene(),
+        health.getHunger(), health.getSocial(), health.getSleep());
+  }
+
+  /**
+   * The labels of the window, drawn from the renderer's state in the push run.
+   */
+  private static final class Labels {
+
+    private final JLabel mood = new JLabel();
+    private final JLabel status = new JLabel();
+    private final JLabel[] bubbles = {new JLabel(), new JLabel(), new JLabel(), new JLabel()};
+    private CoalescingRenderer renderer;
+
+    private void render(int parts) {
+      HealthStatus health = renderer.getHealth();
+      if ((parts & CoalescingRenderer.MOOD) != 0) {
+        mood.setText(moodText(renderer.getMood()));
+      }
+      if ((parts & CoalescingRenderer.STATUS) != 0) {
+        status.setText(format(health));
+      }
+      if ((parts & CoalescingRenderer.NEEDS) != 0) {
+        bubbles[0].setVisible(health.getHygiene() <= PackedNeeds.SAD_THRESHOLD);
+        bubbles[1].setVisible(health.getHunger() <= PackedNeeds.SAD_THRESHOLD);
+        bubbles[2].setVisible(health.getSocial() <= PackedNeeds.SAD_THRESHOLD);
+        bubbles[3].setVisible(health.getSleep() <= PackedNeeds.SAD_THRESHOLD);
+      }
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package controller;
+
+/**
+ * The {@code InteractionMode} enum decides when a {@link PetController} hands user
+ * interactions to the model.
+ */
+public enum InteractionMode {
+
+  /**
+   * Every interaction is applied as soon as it arrives, followed by its own health and
+   * mood checks. Its effect depends on how it interleaves with the ticks.
+   */
+  IMMEDIATE,
+
+  /**
+   * Interactions are queued and applied together, in arrival order, at the next tick
+   * boundary, just before the step. The model may then check health and mood once per
+   * tick rather than once per interaction, and the outcome only depends on which tick an
+   * interaction arrived in.
+   */
+  BATCHED
+}
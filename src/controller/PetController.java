@@ -1,7 +1,10 @@
 package controller;
 
+import java.util.Arrays;
 import javax.swing.ImageIcon;
 import pet.PetInterface;
+import pet.event.PetListener;
+import pet.helper.Action;
 import pet.helper.HealthStatus;
 import pet.helper.mood.MoodEnum;
 import pet.helper.personality.Personality;
@@ -13,21 +16,57 @@ import view.PetView;
  * updated data to be reflected in the view.
  * This controller follows the MVC (Model-View-Controller) architecture, ensuring separation
  * of logic between data (model), UI (view), and control flow (controller).
+ * <p>
+ * In {@link InteractionMode#BATCHED} mode, interactions are queued and handed to the model
+ * with {@link PetInterface#interactBatch(Action[], int[], int)} at the next tick boundary,
+ * i.e. at the start of {@link #step()} or {@link #advance(long)}, in arrival order.
+ * Consecutive identical interactions share one queue entry, and the queue's arrays are
+ * reused from tick to tick. Like the model, the queue is not thread-safe: the controller
+ * is driven from one thread, the event dispatch thread in the GUI.
  */
 public class PetController {
 
+  private static final int INITIAL_QUEUE_CAPACITY = 16;
+
   private final PetInterface model;
   private final PetView view;
+  private final InteractionMode mode;
+  // Interactions queued in batched mode.
+  private Action[] queuedActions = new Action[INITIAL_QUEUE_CAPACITY];
+  private int[] queuedTimes = new int[INITIAL_QUEUE_CAPACITY];
+  private int queued;
 
   /**
-   * Constructs a {@code PetController} with the given model and view.
+   * Constructs a {@code PetController} with the given model and view that applies
+   * interactions immediately.
    *
    * @param model the Pet model implementing {@code PetInterface}
    * @param view the view responsible for rendering UI and handling display logic
    */
   public PetController(PetInterface model, PetView view) {
+    this(model, view, InteractionMode.IMMEDIATE);
+  }
+
+  /**
+   * Constructs a {@code PetController} with the given model, view and interaction mode.
+   *
+   * @param model the Pet model implementing {@code PetInterface}
+   * @param view the view responsible for rendering UI and handling display logic
+   * @param mode when interactions reach the model
+   */
+  public PetController(PetInterface model, PetView view, InteractionMode mode) {
     this.model = model;
     this.view = view;
+    this.mode = mode;
+  }
+
+  /**
+   * Returns when this controller hands interactions to the model.
+   *
+   * @return the interaction mode
+   */
+  public InteractionMode getMode() {
+    return mode;
   }
 
   /**
@@ -38,9 +77,12 @@ public class PetController {
   }
 
   /**
-   * Starts or resets the game logic in the model.
+   * Starts or resets the game logic in the model. Interactions still queued for the old
+   * game are discarded.
    */
   public void startGame() {
+    Arrays.fill(queuedActions, 0, queued, null);
+    queued = 0;
     model.startGame();
   }
 
@@ -59,7 +101,56 @@ public class PetController {
    * @param images an array of image icons representing user actions
    */
   public void interactPet(ImageIcon[] images) {
-    model.interactWith(view.getAction(images));
+    interact(view.getAction(images), 1);
+  }
+
+  /**
+   * Applies the same interaction to the model several times in one call, or queues it
+   * for the next tick in batched mode.
+   *
+   * @param action the interaction to apply
+   * @param times  how many times to apply it
+   * @throws IllegalArgumentException if {@code times} is negative
+   */
+  public void interact(Action action, int times) {
+    if (mode == InteractionMode.IMMEDIATE) {
+      model.interactWith(action, times);
+      return;
+    }
+    if (times < 0) {
+      throw new IllegalArgumentException("Times must not be negative: " + times);
+    }
+    enqueue(action, times);
+  }
+
+  /**
+   * Applies a sequence of interactions to the model in one call, or queues them for the
+   * next tick in batched mode.
+   *
+   * @param actions the interactions to apply, in order
+   */
+  public void interactAll(Action[] actions) {
+    if (mode == InteractionMode.IMMEDIATE) {
+      model.interactAll(actions);
+      return;
+    }
+    for (Action action : actions) {
+      enqueue(action, 1);
+    }
+  }
+
+  /**
+   * Returns how many interactions are waiting for the next tick. Always 0 in immediate
+   * mode.
+   *
+   * @return the number of queued interactions
+   */
+  public long getPendingCount() {
+    long pending = 0;
+    for (int i = 0; i < queued; i++) {
+      pending += queuedTimes[i];
+    }
+    return pending;
   }
 
   /**
@@ -93,9 +184,21 @@ public class PetController {
    * Advances the game state by one step. Typically called by a timer.
    */
   public void step() {
+    flush();
     model.step();
   }
 
+  /**
+   * Advances the game state by several steps at once, e.g. to catch up after the game
+   * was paused.
+   *
+   * @param steps the number of steps to advance
+   */
+  public void advance(long steps) {
+    flush();
+    model.advance(steps);
+  }
+
   /**
    * Checks whether the pet currently needs a shower.
    *
@@ -131,4 +234,65 @@ public class PetController {
   public boolean needSleep() {
     return model.needSleep();
   }
+
+  /**
+   * Tells whether the model reports its changes, so that {@link #addListener(PetListener)}
+   * has an effect. Views of a model that does not must poll it.
+   *
+   * @return {@code true} if the model supports listeners
+   */
+  public boolean supportsListeners() {
+    return model.supportsListeners();
+  }
+
+  /**
+   * Forwards the model's mood, need and death changes to the given listener, typically
+   * the view, so it can update when the pet changes instead of polling. Does nothing if
+   * the model does not {@linkplain #supportsListeners() support listeners}.
+   *
+   * @param listener the listener to add
+   */
+  public void addListener(PetListener listener) {
+    model.addListener(listener);
+  }
+
+  /**
+   * Stops forwarding the model's changes to the given listener.
+   *
+   * @param listener the listener to remove
+   */
+  public void removeListener(PetListener listener) {
+    model.removeListener(listener);
+  }
+
+  /**
+   * Appends an interaction to the queue, extending the last entry when it is the same
+   * interaction.
+   */
+  private void enqueue(Action action, int times) {
+    if (queued > 0 && queuedActions[queued - 1] == action
+        && queuedTimes[queued - 1] <= Integer.MAX_VALUE - times) {
+      queuedTimes[queued - 1] += times;
+      return;
+    }
+    if (queued == queuedActions.length) {
+      queuedActions = Arrays.copyOf(queuedActions, queued * 2);
+      queuedTimes = Arrays.copyOf(queuedTimes, queued * 2);
+    }
+    queuedActions[queued] = action;
+    queuedTimes[queued] = times;
+    queued++;
+  }
+
+  /**
+   * Hands the queued interactions to the model as one batch.
+   */
+  private void flush() {
+    if (queued == 0) {
+      return;
+    }
+    model.interactBatch(queuedActions, queuedTimes, queued);
+    Arrays.fill(queuedActions, 0, queued, null);
+    queued = 0;
+  }
 }
@@ -0,0 +1,381 @@
+package pet;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import pet.event.PetEvent;
+import pet.event.PetEvents;
+import pet.event.PetListener;
+import pet.helper.Action;
+import pet.helper.HealthStatus;
+import pet.helper.PackedNeeds;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.CounterRandom;
+import pet.helper.personality.Personality;
+import pet.helper.personality.PersonalityTables;
+
+/**
+ * The {@code ConcurrentPet} class is a thread-safe, lock-free {@link PetInterface}, for
+ * servers where request threads interact with a pet while a tick thread steps it.
+ * <p>
+ * The needs, mood, alive flag and personality live together in one {@code long}. Every
+ * change reads that word, computes the next one exactly as {@link Pet} would, and installs
+ * it with a single compare-and-set, retrying if another thread got there first. No update
+ * is lost, no thread ever blocks, and every read decodes one consistent word, so
+ * {@link #getHealth()} never shows a dead pet with full needs or a mood that does not
+ * belong to its needs.
+ * <p>
+ * Each step claims its own tick before computing, so its random draw does not depend on
+ * how often the compare-and-set is retried. Used from one thread, a concurrent pet behaves
+ * step for step like a {@code Pet} with the same id and seed. Starting a game is meant to
+ * happen before the pet is shared; a step running concurrently with a restart may draw
+ * from either run.
+ * <p>
+ * {@link PetListener}s are told about every state word a thread installs, by that thread,
+ * right after its compare-and-set succeeds. Each change is reported exactly once and with
+ * the health it produced, but changes installed by different threads may reach a listener
+ * in either order, and from either thread.
+ */
+public class ConcurrentPet implements PetInterface {
+
+  private static final int INITIAL_STATE = 50;
+
+  private static final long NEEDS_MASK = 0xFFFF_FFFFL;
+  private static final long ALIVE_BIT = 1L << 32;
+  private static final long SAD_BIT = 1L << 33;
+  private static final long STARTED_BIT = 1L << 34;
+  private static final int PERSONALITY_SHIFT = 35;
+  private static final long PERSONALITY_MASK = 0x7L << PERSONALITY_SHIFT;
+
+  private static final Personality[] PERSONALITIES = Personality.values();
+
+  private static final PetListener[] NO_LISTENERS = new PetListener[0];
+
+  private static final VarHandle STATE;
+  private static final VarHandle TICK;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      STATE = lookup.findVarHandle(ConcurrentPet.class, "state", long.class);
+      TICK = lookup.findVarHandle(ConcurrentPet.class, "tick", long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final long id;
+  // Updated through STATE and TICK only.
+  private volatile long state;
+  private volatile long tick;
+  private volatile long seed;
+  private volatile long stream;
+  private volatile PetListener[] listeners = NO_LISTENERS;
+
+  /**
+   * Constructs an uninitialized pet with the given id.
+   * You must call {@link #startGame()} to begin the simulation.
+   *
+   * @param id the pet's identifier
+   */
+  public ConcurrentPet(long id) {
+    this.id = id;
+  }
+
+  @Override
+  public void startGame() {
+    startGame(ThreadLocalRandom.current().nextLong());
+  }
+
+  @Override
+  public void startGame(long seed) {
+    long newStream = CounterRandom.stream(seed, id);
+    Personality personality = Personality.forStream(newStream);
+    this.seed = seed;
+    this.stream = newStream;
+    TICK.setVolatile(this, 0L);
+    int needs = PackedNeeds.pack(INITIAL_STATE, INITIAL_STATE, INITIAL_STATE, INITIAL_STATE);
+    STATE.setVolatile(this, encode(needs, true, MoodEnum.HAPPY, personality.ordinal()));
+  }
+
+  /**
+   * Advances the pet by one step, as {@link Pet#step()} does.
+   */
+  @Override
+  public void step() {
+    long current = state;
+    if ((current & ALIVE_BIT) == 0) {
+      return;
+    }
+    long key = CounterRandom.key(stream, (long) TICK.getAndAdd(this, 1L));
+    while ((current & ALIVE_BIT) != 0) {
+      int personality = personalityOf(current);
+      int entry = PersonalityTables.stepIndex(personality, moodOf(current).ordinal());
+      int variation = PersonalityTables.stepVariation(personality, key);
+      int needs = PackedNeeds.adjust((int) current,
+          PersonalityTables.stepDelta(entry, PersonalityTables.HUNGER)
+              + PackedNeeds.hunger(variation),
+          PersonalityTables.stepDelta(entry, PersonalityTables.HYGIENE)
+              + PackedNeeds.hygiene(variation),
+          PersonalityTables.stepDelta(entry, PersonalityTables.SOCIAL)
+              + PackedNeeds.social(variation),
+          PersonalityTables.stepDelta(entry, PersonalityTables.SLEEP)
+              + PackedNeeds.sleep(variation));
+      if (install(current, settle(current, needs))) {
+        return;
+      }
+      current = state;
+    }
+  }
+
+  /**
+   * Applies an interaction, as {@link Pet#interactWith(Action)} does.
+   *
+   * @param action the interaction to apply
+   */
+  @Override
+  public void interactWith(Action action) {
+    long current = state;
+    while ((current & ALIVE_BIT) != 0) {
+      int entry = PersonalityTables.interactIndex(personalityOf(current),
+          moodOf(current).ordinal(), action.ordinal());
+      int needs = PackedNeeds.adjust((int) current,
+          PersonalityTables.interactDelta(entry, PersonalityTables.HUNGER),
+          PersonalityTables.interactDelta(entry, PersonalityTables.HYGIENE),
+          PersonalityTables.interactDelta(entry, PersonalityTables.SOCIAL),
+          PersonalityTables.interactDelta(entry, PersonalityTables.SLEEP));
+      if (install(current, settle(current, needs))) {
+        return;
+      }
+      current = state;
+    }
+  }
+
+  /**
+   * Returns the pet's health, decoded from the same state word as every other read.
+   *
+   * @return an immutable {@link HealthStatus} snapshot
+   */
+  @Override
+  public HealthStatus getHealth() {
+    return HealthStatus.fromPacked((int) state);
+  }
+
+  /**
+   * Returns the needs, mood, alive flag and personality packed into one word, for callers
+   * that need several of them from the same instant.
+   *
+   * @return the state word; decode the needs with {@code (int) state} and
+   *     {@link HealthStatus#hungerOf(int)} and friends
+   */
+  public long getState() {
+    return state;
+  }
+
+  /**
+   * Decodes whether a state word returned by {@link #getState()} belongs to a live pet.
+   *
+   * @param state the state word
+   * @return {@code true} if the pet is alive
+   */
+  public static boolean isAlive(long state) {
+    return (state & ALIVE_BIT) != 0;
+  }
+
+  /**
+   * Decodes the mood of a state word returned by {@link #getState()}.
+   *
+   * @param state the state word
+   * @return the mood, or {@code null} if the pet was not started
+   */
+  public static MoodEnum moodOf(long state) {
+    if ((state & STARTED_BIT) == 0) {
+      return null;
+    }
+    return (state & SAD_BIT) != 0 ? MoodEnum.SAD : MoodEnum.HAPPY;
+  }
+
+  /**
+   * Returns the pet's identifier.
+   *
+   * @return the id given at construction
+   */
+  public long getId() {
+    return id;
+  }
+
+  /**
+   * Returns the seed the pet was last started with.
+   *
+   * @return the seed passed to {@link #startGame(long)}
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Returns the number of steps the pet has taken since it was started.
+   *
+   * @return the step count
+   */
+  public long getTick() {
+    return tick;
+  }
+
+  @Override
+  public MoodEnum getMood() {
+    return moodOf(state);
+  }
+
+  @Override
+  public Personality getPersonality() {
+    long current = state;
+    return (current & STARTED_BIT) == 0 ? null : PERSONALITIES[personalityOf(current)];
+  }
+
+  @Override
+  public void setMood(MoodEnum mood) {
+    long current = state;
+    while (!install(current, mood == MoodEnum.SAD ? current | SAD_BIT : current & ~SAD_BIT)) {
+      current = state;
+    }
+  }
+
+  @Override
+  public void setPersonality(Personality personality) {
+    long bits = (long) personality.ordinal() << PERSONALITY_SHIFT;
+    long current = state;
+    while (!install(current, (current & ~PERSONALITY_MASK) | bits)) {
+      current = state;
+    }
+  }
+
+  @Override
+  public boolean isAlive() {
+    return isAlive(state);
+  }
+
+  @Override
+  public boolean needShower() {
+    return PackedNeeds.isLow((int) state, PackedNeeds.HYGIENE_SHIFT);
+  }
+
+  @Override
+  public boolean needFeed() {
+    return PackedNeeds.isLow((int) state, PackedNeeds.HUNGER_SHIFT);
+  }
+
+  @Override
+  public boolean needPlay() {
+    return PackedNeeds.isLow((int) state, PackedNeeds.SOCIAL_SHIFT);
+  }
+
+  @Override
+  public boolean needSleep() {
+    return PackedNeeds.isLow((int) state, PackedNeeds.SLEEP_SHIFT);
+  }
+
+  /**
+   * Adjusts the needs directly, like {@link Pet#adjustNeeds(int, int, int, int)}, without
+   * the health and mood checks.
+   */
+  @Override
+  public void adjustNeeds(int hungerDelta, int hygieneDelta, int socialDelta, int sleepDelta) {
+    long current = state;
+    while (true) {
+      int needs = PackedNeeds.adjust((int) current, hungerDelta, hygieneDelta, socialDelta,
+          sleepDelta);
+      if (install(current, (current & ~NEEDS_MASK) | (needs & NEEDS_MASK))) {
+        return;
+      }
+      current = state;
+    }
+  }
+
+  /**
+   * Returns {@code true}: every installed change is reported to the listeners.
+   *
+   * @return {@code true}
+   */
+  @Override
+  public boolean supportsListeners() {
+    return true;
+  }
+
+  /**
+   * Registers a listener. It is called on whichever thread installs a change.
+   *
+   * @param listener the listener to add
+   */
+  @Override
+  public synchronized void addListener(PetListener listener) {
+    Objects.requireNonNull(listener, "listener");
+    PetListener[] current = listeners;
+    PetListener[] updated = Arrays.copyOf(current, current.length + 1);
+    updated[current.length] = listener;
+    listeners = updated;
+  }
+
+  /**
+   * Removes one registration of a listener; listeners being notified at the time still
+   * receive the current event.
+   *
+   * @param listener the listener to remove
+   */
+  @Override
+  public synchronized void removeListener(PetListener listener) {
+    PetListener[] current = listeners;
+    for (int i = 0; i < current.length; i++) {
+      if (current[i] == listener) {
+        PetListener[] updated = new PetListener[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, i);
+        System.arraycopy(current, i + 1, updated, i, updated.length - i);
+        listeners = updated.length == 0 ? NO_LISTENERS : updated;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Replaces the state word if it is still {@code expected}, reporting a death the change
+   * causes and telling the listeners what changed. Returns {@code false} if another thread
+   * changed the word first.
+   */
+  private boolean install(long expected, long next) {
+    if (!STATE.compareAndSet(this, expected, next)) {
+      return false;
+    }
+    boolean died = (expected & ALIVE_BIT) != 0 && (next & ALIVE_BIT) == 0;
+    if (died) {
+      PetEvents.publish(PetEvent.DIED, id);
+    }
+    MoodEnum mood = moodOf(next);
+    Pet.report(listeners, id, (int) expected, (int) next,
+        mood != moodOf(expected) ? mood : null, died);
+    return true;
+  }
+
+  /**
+   * Returns the word with the given needs, after the health and mood checks that follow
+   * every step and interaction.
+   */
+  private static long settle(long current, int needs) {
+    boolean alive = !PackedNeeds.anyEmpty(needs);
+    MoodEnum mood = PackedNeeds.anyLow(needs) ? MoodEnum.SAD : MoodEnum.HAPPY;
+    return encode(needs, alive, mood, personalityOf(current));
+  }
+
+  private static long encode(int needs, boolean alive, MoodEnum mood, int personality) {
+    return (needs & NEEDS_MASK)
+        | (alive ? ALIVE_BIT : 0)
+        | (mood == MoodEnum.SAD ? SAD_BIT : 0)
+        | STARTED_BIT
+        | (long) personality << PERSONALITY_SHIFT;
+  }
+
+  private static int personalityOf(long state) {
+    return (int) ((state & PERSONALITY_MASK) >>> PERSONALITY_SHIFT);
+  }
+}
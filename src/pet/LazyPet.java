@@ -0,0 +1,183 @@
+package pet;
+
+import java.util.function.LongSupplier;
+import pet.helper.Action;
+import pet.helper.HealthStatus;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.Personality;
+
+/**
+ * The {@code LazyPet} class is a {@link Pet} whose needs decay on read instead of on every
+ * tick.
+ * <p>
+ * A lazy pet follows a shared tick clock, such as {@code ThresholdScheduler::now} or a
+ * {@code TimingWheel}'s current tick, and remembers the tick at which its state was last
+ * brought up to date. Nobody needs to call {@link #step()} on it: every query first
+ * catches the pet up with {@link Pet#advance(long)} by the ticks elapsed since then, and
+ * interactions do the same before they apply. A server can therefore hold millions of
+ * mostly idle pets at zero CPU cost per tick, paying only when a pet is looked at.
+ * <p>
+ * The state seen at any tick is identical to that of a {@code Pet} stepped once per tick.
+ * An explicit {@link #step()} or {@link #advance(long)} adds steps on top of the clock.
+ */
+public class LazyPet extends Pet {
+
+  private final LongSupplier clock;
+  private long syncedTick;
+
+  /**
+   * Constructs an uninitialized lazy pet with the given id.
+   * You must call {@link #startGame()} to begin the simulation.
+   *
+   * @param id    the pet's identifier
+   * @param clock supplies the current tick; it must never go backwards
+   */
+  public LazyPet(long id, LongSupplier clock) {
+    super(id);
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the tick up to which the pet's state was last brought up to date.
+   *
+   * @return the last materialized tick
+   */
+  public long getSyncedTick() {
+    return syncedTick;
+  }
+
+  /**
+   * Starts the pet at the current tick of the clock.
+   *
+   * @param seed the seed of the run
+   */
+  @Override
+  public void startGame(long seed) {
+    syncedTick = clock.getAsLong();
+    super.startGame(seed);
+  }
+
+  /**
+   * Catches the pet up to the current tick, then steps it once more.
+   */
+  @Override
+  public void step() {
+    materialize();
+    super.step();
+  }
+
+  @Override
+  public void advance(long steps) {
+    materialize();
+    super.advance(steps);
+  }
+
+  @Override
+  public void interactWith(Action action) {
+    materialize();
+    super.interactWith(action);
+  }
+
+  @Override
+  public void interactWith(Action action, int times) {
+    materialize();
+    super.interactWith(action, times);
+  }
+
+  @Override
+  public void interactBatch(Action[] actions, int[] times, int count) {
+    materialize();
+    super.interactBatch(actions, times, count);
+  }
+
+  @Override
+  public HealthStatus getHealth() {
+    materialize();
+    return super.getHealth();
+  }
+
+  @Override
+  public int getPackedNeeds() {
+    materialize();
+    return super.getPackedNeeds();
+  }
+
+  @Override
+  public long getTick() {
+    materialize();
+    return super.getTick();
+  }
+
+  @Override
+  public MoodEnum getMood() {
+    materialize();
+    return super.getMood();
+  }
+
+  @Override
+  public void setMood(MoodEnum mood) {
+    materialize();
+    super.setMood(mood);
+  }
+
+  @Override
+  public void setPersonality(Personality personality) {
+    materialize();
+    super.setPersonality(personality);
+  }
+
+  @Override
+  public boolean isAlive() {
+    materialize();
+    return super.isAlive();
+  }
+
+  @Override
+  public boolean needShower() {
+    materialize();
+    return super.needShower();
+  }
+
+  @Override
+  public boolean needFeed() {
+    materialize();
+    return super.needFeed();
+  }
+
+  @Override
+  public boolean needPlay() {
+    materialize();
+    return super.needPlay();
+  }
+
+  @Override
+  public boolean needSleep() {
+    materialize();
+    return super.needSleep();
+  }
+
+  @Override
+  public void adjustNeeds(int hungerDelta, int hygieneDelta, int socialDelta, int sleepDelta) {
+    materialize();
+    super.adjustNeeds(hungerDelta, hygieneDelta, socialDelta, sleepDelta);
+  }
+
+  @Override
+  public long stepsToNextCrossing() {
+    materialize();
+    return super.stepsToNextCrossing();
+  }
+
+  /**
+   * Applies the steps elapsed since the last update. The synced tick is moved first, so
+   * calls made by {@code Pet} while catching up find nothing left to apply.
+   */
+  private void materialize() {
+    long now = clock.getAsLong();
+    long elapsed = now - syncedTick;
+    if (elapsed > 0) {
+      syncedTick = now;
+      super.advance(elapsed);
+    }
+  }
+}
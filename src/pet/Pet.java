@@ -1,10 +1,18 @@
 package pet;
 
-import java.util.Random;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import pet.event.PetEvent;
+import pet.event.PetEvents;
+import pet.event.PetListener;
 import pet.helper.Action;
 import pet.helper.HealthStatus;
+import pet.helper.PackedNeeds;
 import pet.helper.mood.MoodEnum;
+import pet.helper.personality.CounterRandom;
 import pet.helper.personality.Personality;
+import pet.helper.personality.PersonalityTables;
 
 /**
  * The {@code Pet} class represents the internal model of a virtual pet.
@@ -14,37 +22,96 @@ import pet.helper.personality.Personality;
  * through periodic steps and interactions with the user.
  * <p>
  * This class uses a personality system that influences how needs degrade and respond to actions.
+ * The effects of each personality are read from {@link PersonalityTables}, so steps and
+ * interactions are table lookups rather than calls into the personality classes.
+ * <p>
+ * The four needs are stored packed into a single {@code int} (see {@link PackedNeeds}),
+ * so adjusting, clamping and threshold checks each work on all needs at once.
+ * <p>
+ * Randomness is counter-based: each step draws its random bits from the pet's id, the seed
+ * given to {@link #startGame(long)} and the number of steps taken so far
+ * (see {@link CounterRandom}), so a run can be reproduced from its seed.
+ * <p>
+ * Changes worth showing are pushed to {@link PetListener}s. The listeners are kept in a
+ * copy-on-write array, so notifying them takes no lock, and a pet without listeners
+ * compares a few fields per step and allocates nothing.
  */
 public class Pet implements PetInterface {
   private static final int INITIAL_STATE = 50;
 
-  private int hunger;
-  private int hygiene;
-  private int social;
-  private int sleep;
+  private static final int INITIAL_NEEDS =
+      PackedNeeds.pack(INITIAL_STATE, INITIAL_STATE, INITIAL_STATE, INITIAL_STATE);
+
+  private static final PetListener[] NO_LISTENERS = new PetListener[0];
+
+  // The event naming each need, indexed by lane.
+  private static final PetEvent[] NEED_EVENTS = {
+      PetEvent.NEEDS_FEED, PetEvent.NEEDS_CLEAN, PetEvent.NEEDS_PLAY, PetEvent.NEEDS_SLEEP};
+
+  private int needs;
   private boolean alive;
   private MoodEnum mood;
   private Personality personality;
+  private final long id;
+  private long seed;
+  private long stream;
+  private long tick;
+  // The needs as of the last report, kept even without listeners so that a listener added
+  // later is not told about old crossings.
+  private int reportedNeeds;
+  private volatile PetListener[] listeners = NO_LISTENERS;
 
   /**
    * Default constructor that leaves the pet uninitialized.
    * You must call {@link #startGame()} to begin the simulation.
+   * <p>
+   * The pet gets id 0, so two pets created this way and started with the same seed draw
+   * the same random numbers and behave identically step for step. Use {@link #Pet(long)}
+   * with distinct ids for pets that should behave independently.
+   */
+  public Pet() {
+    this(0);
+  }
+
+  /**
+   * Constructs an uninitialized pet with the given id. Pets started with the same seed
+   * need distinct ids to receive independent random streams.
+   *
+   * @param id the pet's identifier
    */
-  public Pet() {}
+  public Pet(long id) {
+    this.id = id;
+  }
 
   /**
    * Initializes the pet’s need values to a default midpoint, sets the pet as alive,
    * assigns a random personality, and starts with a HAPPY mood.
+   * A fresh seed is chosen at random; use {@link #startGame(long)} to replay a run.
    */
   @Override
   public void startGame() {
-    this.hunger = INITIAL_STATE;
-    this.hygiene = INITIAL_STATE;
-    this.social = INITIAL_STATE;
-    this.sleep = INITIAL_STATE;
+    startGame(ThreadLocalRandom.current().nextLong());
+  }
+
+  /**
+   * Initializes the pet like {@link #startGame()}, deriving its personality and all later
+   * random draws from the given seed and the pet's id. Pets with the same id started with
+   * the same seed replay the same run, whether or not that is intended.
+   *
+   * @param seed the seed of the run
+   */
+  @Override
+  public void startGame(long seed) {
+    MoodEnum previousMood = mood;
+    boolean wasAlive = alive;
+    this.needs = INITIAL_NEEDS;
     this.alive = true;
-    setMood(MoodEnum.HAPPY);
+    this.seed = seed;
+    this.stream = CounterRandom.stream(seed, id);
+    this.tick = 0;
+    this.mood = MoodEnum.HAPPY;
     setPersonality();
+    report(previousMood, wasAlive);
   }
 
   /**
@@ -57,14 +124,181 @@ public class Pet implements PetInterface {
     if (!alive) {
       return;
     }
-    personality.getPersonality().modifyStep(this, mood);
-    checkHealth();
-    updateMood();
+    int entry = PersonalityTables.stepIndex(personality.ordinal(), mood.ordinal());
+    int variation = PersonalityTables.stepVariation(personality.ordinal(),
+        CounterRandom.key(stream, tick++));
+    adjustNeeds(
+        PersonalityTables.stepDelta(entry, PersonalityTables.HUNGER)
+            + PackedNeeds.hunger(variation),
+        PersonalityTables.stepDelta(entry, PersonalityTables.HYGIENE)
+            + PackedNeeds.hygiene(variation),
+        PersonalityTables.stepDelta(entry, PersonalityTables.SOCIAL)
+            + PackedNeeds.social(variation),
+        PersonalityTables.stepDelta(entry, PersonalityTables.SLEEP)
+            + PackedNeeds.sleep(variation));
+    settle();
+  }
+
+  /**
+   * Advances the pet by the given number of steps, with the same result as calling
+   * {@link #step()} that many times.
+   * <p>
+   * For personalities with fixed steps, the deltas only change when the mood changes, and the
+   * mood only changes when a need crosses the SAD threshold. The pet therefore jumps straight
+   * to the next step at which any need crosses 20 or reaches 0, so the cost depends on the
+   * number of threshold crossings rather than on {@code steps}. Personalities with a random
+   * component are stepped one step at a time.
+   *
+   * @param steps the number of steps to advance
+   * @throws IllegalArgumentException if {@code steps} is negative
+   */
+  @Override
+  public void advance(long steps) {
+    if (steps < 0) {
+      throw new IllegalArgumentException("Steps must not be negative: " + steps);
+    }
+    long remaining = steps;
+    while (remaining > 0 && alive) {
+      if (!hasSteadyStep()) {
+        // A mood set by hand only lasts one step, and random steps cannot be skipped.
+        step();
+        remaining--;
+        continue;
+      }
+      int entry = PersonalityTables.stepIndex(personality.ordinal(), mood.ordinal());
+      int hungerDelta = PersonalityTables.stepDelta(entry, PersonalityTables.HUNGER);
+      int hygieneDelta = PersonalityTables.stepDelta(entry, PersonalityTables.HYGIENE);
+      int socialDelta = PersonalityTables.stepDelta(entry, PersonalityTables.SOCIAL);
+      int sleepDelta = PersonalityTables.stepDelta(entry, PersonalityTables.SLEEP);
+      long jump = Math.min(remaining,
+          repeatsToCrossing(hungerDelta, hygieneDelta, socialDelta, sleepDelta));
+      applyRepeated(hungerDelta, hygieneDelta, socialDelta, sleepDelta, jump);
+      tick += jump;
+      remaining -= jump;
+    }
+  }
+
+  /**
+   * Returns a lower bound on the number of steps until a need crosses the SAD threshold or
+   * reaches 0, i.e. until the pet's mood or alive status can next change. No step before
+   * that can produce a mood flip or a death.
+   * <p>
+   * The bound is exact for personalities with fixed steps. For personalities with a random
+   * component it assumes the fastest possible decay, and it is 1 whenever the next step
+   * cannot be predicted at all (e.g. right after {@link #setMood(MoodEnum)}).
+   *
+   * @return the number of steps, at least 1, or {@link Long#MAX_VALUE} if the pet is dead
+   *     or will never cross a threshold
+   */
+  public long stepsToNextCrossing() {
+    if (!alive) {
+      return Long.MAX_VALUE;
+    }
+    if (!moodMatchesNeeds()) {
+      return 1;
+    }
+    int entry = PersonalityTables.stepIndex(personality.ordinal(), mood.ordinal());
+    boolean fixed = PersonalityTables.hasFixedStep(personality.ordinal());
+    return Math.min(
+        Math.min(boundCrossing(PackedNeeds.hunger(needs), entry, PersonalityTables.HUNGER, fixed),
+            boundCrossing(PackedNeeds.hygiene(needs), entry, PersonalityTables.HYGIENE, fixed)),
+        Math.min(boundCrossing(PackedNeeds.social(needs), entry, PersonalityTables.SOCIAL, fixed),
+            boundCrossing(PackedNeeds.sleep(needs), entry, PersonalityTables.SLEEP, fixed)));
+  }
+
+  /**
+   * Bounds the steps until one need crosses a threshold. With a random component only a
+   * need whose fixed part decays can be bounded, because the random part is non-negative.
+   */
+  private static long boundCrossing(int value, int entry, int need, boolean fixed) {
+    int delta = PersonalityTables.stepDelta(entry, need);
+    if (!fixed && delta >= 0) {
+      return 1;
+    }
+    return stepsToCrossing(value, delta);
+  }
+
+  /**
+   * Returns whether the next steps follow the table deltas for the current mood exactly,
+   * so that several of them can be applied at once.
+   */
+  private boolean hasSteadyStep() {
+    return moodMatchesNeeds() && PersonalityTables.hasFixedStep(personality.ordinal());
+  }
+
+  /**
+   * Returns whether the mood is the one {@link #updateMood()} would assign, which is the
+   * case unless it was set by hand.
+   */
+  private boolean moodMatchesNeeds() {
+    return (mood == MoodEnum.SAD) == PackedNeeds.anyLow(needs);
+  }
+
+  /**
+   * Returns how many times the given deltas can be applied before a need crosses the SAD
+   * threshold or reaches 0, counting the repetition that crosses it.
+   */
+  private long repeatsToCrossing(int hungerDelta, int hygieneDelta, int socialDelta,
+      int sleepDelta) {
+    return Math.min(
+        Math.min(stepsToCrossing(PackedNeeds.hunger(needs), hungerDelta),
+            stepsToCrossing(PackedNeeds.hygiene(needs), hygieneDelta)),
+        Math.min(stepsToCrossing(PackedNeeds.social(needs), socialDelta),
+            stepsToCrossing(PackedNeeds.sleep(needs), sleepDelta)));
+  }
+
+  /**
+   * Applies the same deltas {@code count} times in closed form, followed by the health and
+   * mood checks. Exact as long as {@code count} does not exceed
+   * {@link #repeatsToCrossing(int, int, int, int)}, since the checks could not have changed
+   * anything before the last repetition.
+   */
+  private void applyRepeated(int hungerDelta, int hygieneDelta, int socialDelta,
+      int sleepDelta, long count) {
+    needs = PackedNeeds.pack(
+        project(PackedNeeds.hunger(needs), hungerDelta, count),
+        project(PackedNeeds.hygiene(needs), hygieneDelta, count),
+        project(PackedNeeds.social(needs), socialDelta, count),
+        project(PackedNeeds.sleep(needs), sleepDelta, count));
+    settle();
+  }
+
+  /**
+   * Returns the number of repetitions after which a need moving by {@code delta} each time
+   * first crosses the SAD threshold or reaches 0, or {@link Long#MAX_VALUE} if it never does.
+   */
+  private static long stepsToCrossing(int value, int delta) {
+    if (value == 0) {
+      // A need emptied through adjustNeeds kills the pet at the very next check.
+      return 1;
+    }
+    if (delta < 0) {
+      int target = value > PackedNeeds.SAD_THRESHOLD ? PackedNeeds.SAD_THRESHOLD : 0;
+      return ceilDiv(value - target, -delta);
+    }
+    if (delta > 0 && value <= PackedNeeds.SAD_THRESHOLD) {
+      return ceilDiv(PackedNeeds.SAD_THRESHOLD + 1 - value, delta);
+    }
+    return Long.MAX_VALUE;
+  }
+
+  /**
+   * Returns a need after {@code steps} steps of {@code delta}, clamped to [0, 100].
+   * Exact as long as no threshold is crossed before the last of those steps.
+   */
+  private static int project(int value, int delta, long steps) {
+    // Any non-zero delta saturates within MAX_NEED + 1 steps; capping avoids overflow.
+    long projected = value + delta * Math.min(steps, PackedNeeds.MAX_NEED + 1);
+    return (int) Math.max(0, Math.min(PackedNeeds.MAX_NEED, projected));
+  }
+
+  private static long ceilDiv(int dividend, int divisor) {
+    return (dividend + divisor - 1) / divisor;
   }
 
   /**
    * Applies a user interaction (e.g., FEED, PLAY, CLEAN, SLEEP).
-   * Delegates behavior to the personality logic.
+   * The effect is looked up from the personality's interaction table.
    *
    * @param action the interaction to apply
    */
@@ -73,9 +307,102 @@ public class Pet implements PetInterface {
     if (!alive) {
       return;
     }
-    personality.getPersonality().applyPersonalityInteract(this, mood, action);
-    checkHealth();
-    updateMood();
+    int entry = PersonalityTables.interactIndex(personality.ordinal(), mood.ordinal(),
+        action.ordinal());
+    adjustNeeds(
+        PersonalityTables.interactDelta(entry, PersonalityTables.HUNGER),
+        PersonalityTables.interactDelta(entry, PersonalityTables.HYGIENE),
+        PersonalityTables.interactDelta(entry, PersonalityTables.SOCIAL),
+        PersonalityTables.interactDelta(entry, PersonalityTables.SLEEP));
+    settle();
+  }
+
+  /**
+   * Applies the same interaction several times, with the same result as calling
+   * {@link #interactWith(Action)} that many times.
+   * <p>
+   * An interaction's deltas only depend on the personality and mood, so runs of identical
+   * interactions between two threshold crossings are applied in closed form: each need is
+   * moved by {@code n} deltas and clamped once, and the health check runs after the
+   * repetition that could first empty a need. The cost depends on the number of threshold
+   * crossings rather than on {@code times}.
+   *
+   * @param action the interaction to apply
+   * @param times  how many times to apply it
+   * @throws IllegalArgumentException if {@code times} is negative
+   */
+  @Override
+  public void interactWith(Action action, int times) {
+    if (times < 0) {
+      throw new IllegalArgumentException("Times must not be negative: " + times);
+    }
+    int remaining = times;
+    while (remaining > 0 && alive) {
+      if (!moodMatchesNeeds()) {
+        interactWith(action);
+        remaining--;
+        continue;
+      }
+      int entry = PersonalityTables.interactIndex(personality.ordinal(), mood.ordinal(),
+          action.ordinal());
+      int hungerDelta = PersonalityTables.interactDelta(entry, PersonalityTables.HUNGER);
+      int hygieneDelta = PersonalityTables.interactDelta(entry, PersonalityTables.HYGIENE);
+      int socialDelta = PersonalityTables.interactDelta(entry, PersonalityTables.SOCIAL);
+      int sleepDelta = PersonalityTables.interactDelta(entry, PersonalityTables.SLEEP);
+      int run = (int) Math.min(remaining,
+          repeatsToCrossing(hungerDelta, hygieneDelta, socialDelta, sleepDelta));
+      applyRepeated(hungerDelta, hygieneDelta, socialDelta, sleepDelta, run);
+      remaining -= run;
+    }
+  }
+
+  /**
+   * Applies a batch of interactions as one update. Every interaction is looked up with the
+   * mood from before the batch, and the needs are clamped after each one, so a run of
+   * {@code n} identical interactions costs one projection. The health and mood checks, and
+   * the listener calls, happen once for the whole batch.
+   *
+   * @param actions the interaction of each run
+   * @param times   the length of each run
+   * @param count   the number of runs to apply
+   * @throws IllegalArgumentException if a run length is negative
+   */
+  @Override
+  public void interactBatch(Action[] actions, int[] times, int count) {
+    for (int i = 0; i < count; i++) {
+      if (times[i] < 0) {
+        throw new IllegalArgumentException("Times must not be negative: " + times[i]);
+      }
+    }
+    if (!alive || count == 0) {
+      return;
+    }
+    int personalityOrdinal = personality.ordinal();
+    int moodOrdinal = mood.ordinal();
+    int packed = needs;
+    for (int i = 0; i < count; i++) {
+      int entry = PersonalityTables.interactIndex(personalityOrdinal, moodOrdinal,
+          actions[i].ordinal());
+      if (times[i] == 1) {
+        packed = PackedNeeds.adjust(packed,
+            PersonalityTables.interactDelta(entry, PersonalityTables.HUNGER),
+            PersonalityTables.interactDelta(entry, PersonalityTables.HYGIENE),
+            PersonalityTables.interactDelta(entry, PersonalityTables.SOCIAL),
+            PersonalityTables.interactDelta(entry, PersonalityTables.SLEEP));
+        continue;
+      }
+      packed = PackedNeeds.pack(
+          project(PackedNeeds.hunger(packed),
+              PersonalityTables.interactDelta(entry, PersonalityTables.HUNGER), times[i]),
+          project(PackedNeeds.hygiene(packed),
+              PersonalityTables.interactDelta(entry, PersonalityTables.HYGIENE), times[i]),
+          project(PackedNeeds.social(packed),
+              PersonalityTables.interactDelta(entry, PersonalityTables.SOCIAL), times[i]),
+          project(PackedNeeds.sleep(packed),
+              PersonalityTables.interactDelta(entry, PersonalityTables.SLEEP), times[i]));
+    }
+    needs = packed;
+    settle();
   }
 
   /**
@@ -85,7 +412,44 @@ public class Pet implements PetInterface {
    */
   @Override
   public HealthStatus getHealth() {
-    return new HealthStatus(hunger, hygiene, social, sleep);
+    return HealthStatus.fromPacked(needs);
+  }
+
+  /**
+   * Returns the pet's four needs packed into one word, without allocating a snapshot.
+   * Decode it with {@link HealthStatus#hungerOf(int)} and friends.
+   *
+   * @return the needs in the {@link PackedNeeds} layout
+   */
+  public int getPackedNeeds() {
+    return needs;
+  }
+
+  /**
+   * Returns the pet's identifier.
+   *
+   * @return the id given at construction
+   */
+  public long getId() {
+    return id;
+  }
+
+  /**
+   * Returns the seed the pet was last started with.
+   *
+   * @return the seed passed to {@link #startGame(long)}
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Returns the number of steps the pet has taken since it was started.
+   *
+   * @return the step count
+   */
+  public long getTick() {
+    return tick;
   }
 
   /**
@@ -109,22 +473,23 @@ public class Pet implements PetInterface {
   }
 
   /**
-   * Sets the pet's current mood.
+   * Sets the pet's current mood, notifying listeners if it changed.
    *
    * @param mood the new mood to assign
    */
   @Override
   public void setMood(MoodEnum mood) {
+    MoodEnum previousMood = this.mood;
     this.mood = mood;
+    report(previousMood, alive);
   }
 
   /**
-   * Randomly assigns a personality to the pet from the list of available personalities.
+   * Randomly assigns a personality to the pet from the list of available personalities,
+   * using the pet's seed and id.
    */
   private void setPersonality() {
-    Random rand = new Random();
-    Personality[] personalities = Personality.values();
-    personality = personalities[rand.nextInt(personalities.length)];
+    personality = Personality.forStream(stream);
   }
 
   /**
@@ -158,7 +523,7 @@ public class Pet implements PetInterface {
    */
   @Override
   public boolean needShower() {
-    return hygiene <= 20;
+    return PackedNeeds.isLow(needs, PackedNeeds.HYGIENE_SHIFT);
   }
 
   /**
@@ -168,7 +533,7 @@ public class Pet implements PetInterface {
    */
   @Override
   public boolean needFeed() {
-    return hunger <= 20;
+    return PackedNeeds.isLow(needs, PackedNeeds.HUNGER_SHIFT);
   }
 
   /**
@@ -178,7 +543,7 @@ public class Pet implements PetInterface {
    */
   @Override
   public boolean needPlay() {
-    return social <= 20;
+    return PackedNeeds.isLow(needs, PackedNeeds.SOCIAL_SHIFT);
   }
 
   /**
@@ -188,12 +553,13 @@ public class Pet implements PetInterface {
    */
   @Override
   public boolean needSleep() {
-    return sleep <= 20;
+    return PackedNeeds.isLow(needs, PackedNeeds.SLEEP_SHIFT);
   }
 
   /**
    * Adjusts the pet’s internal needs directly by specified deltas.
-   * Values are clamped between 0 and 100.
+   * Values are clamped between 0 and 100. Listeners hear of a threshold crossed this way
+   * with the next step, interaction or mood change.
    *
    * @param hungerDelta  amount to change hunger
    * @param hygieneDelta amount to change hygiene
@@ -202,10 +568,63 @@ public class Pet implements PetInterface {
    */
   @Override
   public void adjustNeeds(int hungerDelta, int hygieneDelta, int socialDelta, int sleepDelta) {
-    hunger = clamp(hunger + hungerDelta);
-    hygiene = clamp(hygiene + hygieneDelta);
-    social = clamp(social + socialDelta);
-    sleep = clamp(sleep + sleepDelta);
+    needs = PackedNeeds.adjust(needs, hungerDelta, hygieneDelta, socialDelta, sleepDelta);
+  }
+
+  /**
+   * Returns {@code true}: every change is reported to the listeners.
+   *
+   * @return {@code true}
+   */
+  @Override
+  public boolean supportsListeners() {
+    return true;
+  }
+
+  /**
+   * Registers a listener. It is called on the thread that steps or interacts with the pet.
+   *
+   * @param listener the listener to add
+   */
+  @Override
+  public synchronized void addListener(PetListener listener) {
+    Objects.requireNonNull(listener, "listener");
+    PetListener[] current = listeners;
+    PetListener[] updated = Arrays.copyOf(current, current.length + 1);
+    updated[current.length] = listener;
+    listeners = updated;
+  }
+
+  /**
+   * Removes one registration of a listener; listeners being notified at the time still
+   * receive the current event.
+   *
+   * @param listener the listener to remove
+   */
+  @Override
+  public synchronized void removeListener(PetListener listener) {
+    PetListener[] current = listeners;
+    for (int i = 0; i < current.length; i++) {
+      if (current[i] == listener) {
+        PetListener[] updated = new PetListener[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, i);
+        System.arraycopy(current, i + 1, updated, i, updated.length - i);
+        listeners = updated.length == 0 ? NO_LISTENERS : updated;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Runs the health and mood checks that follow every change of the needs, and reports
+   * what they changed.
+   */
+  private void settle() {
+    MoodEnum previousMood = mood;
+    boolean wasAlive = alive;
+    checkHealth();
+    updateMood();
+    report(previousMood, wasAlive);
   }
 
   /**
@@ -213,30 +632,67 @@ public class Pet implements PetInterface {
    * If any need is below 20, mood becomes SAD; otherwise, it is HAPPY.
    */
   private void updateMood() {
-    if (hunger <= 20 || hygiene <= 20 || social <= 20 || sleep <= 20) {
-      setMood(MoodEnum.SAD);
-    } else {
-      setMood(MoodEnum.HAPPY);
-    }
+    mood = PackedNeeds.anyLow(needs) ? MoodEnum.SAD : MoodEnum.HAPPY;
   }
 
   /**
-   * Checks the pet's vital status. If any need reaches 0, the pet dies.
+   * Tells the listeners what changed since the given state. The health snapshot is only
+   * created when there is a listener and something to tell it.
    */
-  private void checkHealth() {
-    if (hunger == 0 || hygiene == 0 || social == 0 || sleep == 0) {
-      alive = false;
-      System.out.println("Your pet has died due to neglect.");
-    }
+  private void report(MoodEnum previousMood, boolean wasAlive) {
+    int previousNeeds = reportedNeeds;
+    reportedNeeds = needs;
+    report(listeners, id, previousNeeds, needs, mood != previousMood ? mood : null,
+        wasAlive && !alive);
   }
 
   /**
-   * Clamps a value to the range [0, 100].
+   * Tells the listeners of pet {@code id} about one change of its state, in the order
+   * described by {@link PetListener}. Shared with {@link ConcurrentPet}, which reports each
+   * state word it installs.
    *
-   * @param value the value to clamp
-   * @return the clamped result
+   * @param listeners     the listeners to notify
+   * @param id            the pet's identifier
+   * @param previousNeeds the packed needs before the change
+   * @param needs         the packed needs after the change
+   * @param newMood       the new mood, or {@code null} if the mood did not change
+   * @param died          whether the change killed the pet
    */
-  private int clamp(int value) {
-    return Math.max(0, Math.min(100, value));
+  static void report(PetListener[] listeners, long id, int previousNeeds, int needs,
+      MoodEnum newMood, boolean died) {
+    if (listeners.length == 0 || (needs == previousNeeds && newMood == null && !died)) {
+      return;
+    }
+    int low = PackedNeeds.lowLanes(needs);
+    int crossed = low ^ PackedNeeds.lowLanes(previousNeeds);
+    HealthStatus health = HealthStatus.fromPacked(needs);
+    for (PetListener listener : listeners) {
+      if (needs != previousNeeds) {
+        listener.healthChanged(id, health);
+      }
+      for (int lane = 0; lane < NEED_EVENTS.length; lane++) {
+        int bit = 0x80 << (lane * Byte.SIZE);
+        if ((crossed & bit) != 0) {
+          listener.needChanged(id, NEED_EVENTS[lane], (low & bit) != 0, health);
+        }
+      }
+      if (newMood != null) {
+        listener.moodChanged(id, newMood, health);
+      }
+      if (died) {
+        listener.died(id, health);
+      }
+    }
+  }
+
+  /**
+   * Checks the pet's vital status. If any need reaches 0, the pet dies and
+   * {@link PetEvent#DIED} is reported to {@link PetEvents}.
+   */
+  private void checkHealth() {
+    if (PackedNeeds.anyEmpty(needs)) {
+      alive = false;
+      PetEvents.publish(PetEvent.DIED, id);
+    }
   }
 }
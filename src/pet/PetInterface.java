@@ -1,5 +1,6 @@
 package pet;
 
+import pet.event.PetListener;
 import pet.helper.Action;
 import pet.helper.HealthStatus;
 import pet.helper.mood.MoodEnum;
@@ -28,12 +29,41 @@ public interface PetInterface {
    */
   void startGame();
 
+  /**
+   * Initializes the pet's state like {@link #startGame()}, but derives the personality and
+   * every later random draw from the given seed. Two pets with the same id started with the
+   * same seed behave identically, step for step.
+   *
+   * @param seed the seed of the run
+   */
+  void startGame(long seed);
+
   /**
    * Advances the pet’s internal state by one unit of time.
    * This typically degrades the pet's needs and may alter mood or trigger death.
    */
   void step();
 
+  /**
+   * Advances the pet’s internal state by the given number of time units, with the same
+   * result as calling {@link #step()} that many times. Stepping stops early once the pet
+   * has died.
+   * <p>
+   * Implementations may skip over the intermediate steps, so this is the preferred way to
+   * catch a pet up after a long pause.
+   *
+   * @param steps the number of steps to advance
+   * @throws IllegalArgumentException if {@code steps} is negative
+   */
+  default void advance(long steps) {
+    if (steps < 0) {
+      throw new IllegalArgumentException("Steps must not be negative: " + steps);
+    }
+    for (long i = 0; i < steps && isAlive(); i++) {
+      step();
+    }
+  }
+
   /**
    * Applies an interaction (such as feeding, playing, cleaning, or sleeping) to the pet.
    * The pet’s needs are adjusted based on the interaction and personality.
@@ -42,6 +72,65 @@ public interface PetInterface {
    */
   void interactWith(Action action);
 
+  /**
+   * Applies the same interaction several times, with the same result as calling
+   * {@link #interactWith(Action)} that many times.
+   * <p>
+   * Implementations may apply the repetitions in closed form, so a large count is cheap.
+   *
+   * @param action the {@link Action} to apply
+   * @param times  how many times to apply it
+   * @throws IllegalArgumentException if {@code times} is negative
+   */
+  default void interactWith(Action action, int times) {
+    if (times < 0) {
+      throw new IllegalArgumentException("Times must not be negative: " + times);
+    }
+    for (int i = 0; i < times && isAlive(); i++) {
+      interactWith(action);
+    }
+  }
+
+  /**
+   * Applies a sequence of interactions in order. Consecutive identical actions are grouped
+   * and passed to {@link #interactWith(Action, int)}, so repeated actions benefit from its
+   * closed form.
+   *
+   * @param actions the interactions to apply, in order
+   */
+  default void interactAll(Action[] actions) {
+    int start = 0;
+    while (start < actions.length) {
+      int end = start + 1;
+      while (end < actions.length && actions[end] == actions[start]) {
+        end++;
+      }
+      interactWith(actions[start], end - start);
+      start = end;
+    }
+  }
+
+  /**
+   * Applies a batch of interactions collected between two ticks, in order. Run {@code i}
+   * applies {@code actions[i]} {@code times[i]} times.
+   * <p>
+   * By default every interaction is applied as by {@link #interactWith(Action, int)}.
+   * Implementations may instead treat the batch as one update: each interaction is looked
+   * up with the mood the pet had before the batch and clamped as it is applied, and the
+   * health and mood checks run once at the end. The two only differ when an interaction
+   * in the middle of the batch crosses a threshold.
+   *
+   * @param actions the interaction of each run
+   * @param times   the length of each run
+   * @param count   the number of runs to apply
+   * @throws IllegalArgumentException if a run length is negative
+   */
+  default void interactBatch(Action[] actions, int[] times, int count) {
+    for (int i = 0; i < count; i++) {
+      interactWith(actions[i], times[i]);
+    }
+  }
+
   /**
    * Retrieves the current health status of the pet as a read-only object.
    *
@@ -125,4 +214,34 @@ public interface PetInterface {
    * @param sleepDelta   change in sleep value
    */
   void adjustNeeds(int hungerDelta, int hygieneDelta, int socialDelta, int sleepDelta);
+
+  /**
+   * Tells whether this model reports its changes to listeners. Callers of a model that
+   * does not, which is the default, must poll it instead.
+   *
+   * @return {@code true} if {@link #addListener(PetListener)} registers the listener
+   */
+  default boolean supportsListeners() {
+    return false;
+  }
+
+  /**
+   * Registers a listener to be told about mood flips, need threshold crossings and death,
+   * so a view can react to changes instead of polling for them. A listener added twice is
+   * called twice. Models that do not {@linkplain #supportsListeners() support listeners}
+   * ignore it, which is the default.
+   *
+   * @param listener the listener to add
+   */
+  default void addListener(PetListener listener) {
+  }
+
+  /**
+   * Removes one registration of a listener added with {@link #addListener(PetListener)}.
+   * Removing a listener that is not registered does nothing.
+   *
+   * @param listener the listener to remove
+   */
+  default void removeListener(PetListener listener) {
+  }
 }
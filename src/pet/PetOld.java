@@ -1,5 +1,7 @@
 package pet;
 
+import pet.event.PetEvent;
+import pet.event.PetEvents;
 import pet.helper.Action;
 import pet.helper.HealthStatus;
 import pet.helper.mood.HappyBehavior;
@@ -185,18 +187,18 @@ public class PetOld {
    */
   private void updateMood() {
     if (hunger < 20 || hygiene < 20 || social < 20 || sleep < 20) {
-      System.out.println("Your pet is Sad, please take care of them!!");
+      PetEvents.publish(PetEvent.SAD, 0);
       if (hunger < 20) {
-        System.out.println("Pet need to feed");
+        PetEvents.publish(PetEvent.NEEDS_FEED, 0);
       }
       if (hygiene < 20) {
-        System.out.println("Pet need to clean");
+        PetEvents.publish(PetEvent.NEEDS_CLEAN, 0);
       }
       if (social < 20) {
-        System.out.println("Pet need to play");
+        PetEvents.publish(PetEvent.NEEDS_PLAY, 0);
       }
       if (sleep < 20) {
-        System.out.println("Pet need to sleep");
+        PetEvents.publish(PetEvent.NEEDS_SLEEP, 0);
       }
       setMood(MoodEnum.SAD);
     } else {
@@ -211,7 +213,7 @@ public class PetOld {
   private void checkHealth() {
     if (hunger == 0 || hygiene == 0 || social == 0 || sleep == 0) {
       alive = false;
-      System.out.println("Your pet has died due to neglect.");
+      PetEvents.publish(PetEvent.DIED, 0);
     }
   }
 
@@ -0,0 +1,27 @@
+package pet.actor;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The {@code OverflowPolicy} enum decides what a {@link PetActor} does with a message sent
+ * while its mailbox is full.
+ */
+public enum OverflowPolicy {
+
+  /**
+   * The sender waits until the actor has made room. Back pressure reaches the producers,
+   * and no message is lost.
+   */
+  BLOCK,
+
+  /**
+   * The message is discarded and counted; the send reports {@code false}. Suits inputs
+   * where a newer message soon supersedes a lost one, such as ticks.
+   */
+  DROP,
+
+  /**
+   * The send throws a {@link RejectedExecutionException}, for callers that must notice.
+   */
+  FAIL
+}
@@ -0,0 +1,352 @@
+package pet.actor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import pet.Pet;
+import pet.helper.Action;
+import pet.helper.HealthStatus;
+
+/**
+ * The {@code PetActor} class serializes all access to one {@link Pet} through a bounded
+ * mailbox, so any number of threads can drive the pet without locking it.
+ * <p>
+ * Senders only append a message to the mailbox. The first message that finds the actor
+ * idle starts a virtual thread, which drains the mailbox and then ends, so an idle actor
+ * holds no thread at all and a million of them cost only their pets and mailboxes. The
+ * pet is only ever touched by that drain thread, one at a time.
+ * <p>
+ * Every wakeup takes all messages queued at that moment as one batch. Runs of steps are
+ * applied with {@link Pet#advance(long)} and runs of identical interactions with
+ * {@link Pet#interactWith(Action, int)}, so a burst of messages pays the health and mood
+ * checks once per threshold crossing rather than once per message. Queries are answered
+ * in order, with the state after every message sent before them.
+ * <p>
+ * When the mailbox is full, the actor's {@link OverflowPolicy} decides whether the sender
+ * waits, the message is dropped, or the send fails. Messages of the batch being applied
+ * keep their slots until the whole batch is done.
+ * <p>
+ * If applying a batch throws, for example from a listener of the pet, the rest of that
+ * batch is dropped, its queries complete with the error, and the error goes to the
+ * {@linkplain #setFailureHandler(Consumer) failure handler}. The actor keeps working.
+ */
+public class PetActor {
+
+  // Mailbox entries other than actions and queries.
+  private static final Object STEP = new Object();
+
+  private final Pet pet;
+  private final OverflowPolicy policy;
+  private final Object[] mailbox;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notFull = lock.newCondition();
+  private final Runnable drainTask = this::drain;
+  // Guarded by lock.
+  private int head;
+  private int size;
+  private boolean scheduled;
+  private long dropped;
+  // Written only by the drain thread.
+  private volatile long processed;
+  private volatile long batches;
+  private volatile Consumer<? super Throwable> failureHandler;
+
+  /**
+   * Creates an actor owning the given pet. The pet must not be used directly afterwards.
+   *
+   * @param pet      the pet, usually already started
+   * @param capacity the number of messages the mailbox holds, including the batch being
+   *                 applied
+   * @param policy   what to do with a message sent while the mailbox is full
+   * @throws IllegalArgumentException if {@code capacity} is not positive
+   */
+  public PetActor(Pet pet, int capacity, OverflowPolicy policy) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.pet = pet;
+    this.policy = policy;
+    this.mailbox = new Object[capacity];
+  }
+
+  /**
+   * Sends an interaction.
+   *
+   * @param action the interaction to apply
+   * @return {@code false} if the message was dropped, or the sender was interrupted while
+   *     waiting for room
+   * @throws RejectedExecutionException if the mailbox is full and the policy is
+   *                                    {@link OverflowPolicy#FAIL}
+   */
+  public boolean interact(Action action) {
+    return send(action);
+  }
+
+  /**
+   * Sends one step.
+   *
+   * @return {@code false} if the message was dropped, or the sender was interrupted while
+   *     waiting for room
+   * @throws RejectedExecutionException if the mailbox is full and the policy is
+   *                                    {@link OverflowPolicy#FAIL}
+   */
+  public boolean step() {
+    return send(STEP);
+  }
+
+  /**
+   * Sends a query, answered on the actor's thread once every earlier message is applied.
+   * A query the mailbox has no room for completes exceptionally with a
+   * {@link RejectedExecutionException}, whatever the policy.
+   *
+   * @param query reads the answer from the pet; it must not keep the pet
+   * @param <T>   the type of the answer
+   * @return a future of the answer
+   */
+  public <T> CompletableFuture<T> ask(Function<? super Pet, ? extends T> query) {
+    Query<T> message = new Query<>(query);
+    try {
+      if (!send(message)) {
+        message.reply.completeExceptionally(new RejectedExecutionException("Mailbox full"));
+      }
+    } catch (RejectedExecutionException e) {
+      message.reply.completeExceptionally(e);
+    }
+    return message.reply;
+  }
+
+  /**
+   * Asks for the pet's health.
+   *
+   * @return a future of the health after every message sent before this one
+   */
+  public CompletableFuture<HealthStatus> health() {
+    return ask(Pet::getHealth);
+  }
+
+  /**
+   * Returns how many messages have been applied.
+   *
+   * @return the number of processed messages
+   */
+  public long getProcessedCount() {
+    return processed;
+  }
+
+  /**
+   * Sets what is told about an error that stopped a batch, on the actor's thread, after
+   * the batch's queries have completed with it. Without a handler, the error is left
+   * uncaught on that thread, which by default prints it.
+   *
+   * @param handler receives the error, or {@code null} to leave it uncaught
+   */
+  public void setFailureHandler(Consumer<? super Throwable> handler) {
+    this.failureHandler = handler;
+  }
+
+  /**
+   * Returns how many batches the actor has applied; each wakeup applies at least one.
+   *
+   * @return the number of batches
+   */
+  public long getBatchCount() {
+    return batches;
+  }
+
+  /**
+   * Returns how many messages were dropped because the mailbox was full.
+   *
+   * @return the number of dropped messages
+   */
+  public long getDroppedCount() {
+    lock.lock();
+    try {
+      return dropped;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns how many messages are waiting in the mailbox.
+   *
+   * @return the mailbox depth
+   */
+  public int getQueueDepth() {
+    lock.lock();
+    try {
+      return size;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean send(Object message) {
+    boolean start = false;
+    lock.lock();
+    try {
+      while (size == mailbox.length) {
+        switch (policy) {
+          case DROP -> {
+            dropped++;
+            return false;
+          }
+          case FAIL -> {
+            dropped++;
+            throw new RejectedExecutionException("Mailbox full");
+          }
+          default -> {
+            try {
+              notFull.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              return false;
+            }
+          }
+        }
+      }
+      mailbox[(head + size) % mailbox.length] = message;
+      size++;
+      if (!scheduled) {
+        scheduled = true;
+        start = true;
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (start) {
+      Thread.startVirtualThread(drainTask);
+    }
+    return true;
+  }
+
+  /**
+   * Applies batches until the mailbox is empty, then marks the actor idle. Messages sent
+   * meanwhile are picked up by the next batch, so no second thread is started for them.
+   * If applying a batch throws, the rest of that batch is abandoned, see
+   * {@link #abandon(int, int, Throwable)}, and the error goes to the failure handler.
+   */
+  private void drain() {
+    int start = 0;
+    int count = 0;
+    try {
+      while (true) {
+        lock.lock();
+        try {
+          if (size == 0) {
+            scheduled = false;
+            return;
+          }
+          start = head;
+          count = size;
+        } finally {
+          lock.unlock();
+        }
+        // Senders never touch the taken slots until head moves past them.
+        apply(start, count);
+        lock.lock();
+        try {
+          head = (head + count) % mailbox.length;
+          size -= count;
+          notFull.signalAll();
+        } finally {
+          lock.unlock();
+        }
+        processed += count;
+        batches++;
+        count = 0;
+      }
+    } catch (Throwable t) {
+      abandon(start, count, t);
+      Consumer<? super Throwable> handler = failureHandler;
+      if (handler == null) {
+        throw t;
+      }
+      handler.accept(t);
+    }
+  }
+
+  /**
+   * Releases a batch whose application failed, so the actor stays usable: queries not yet
+   * answered complete with the failure, the slots are freed for blocked senders, and a new
+   * drain thread takes over if more messages are waiting.
+   */
+  private void abandon(int start, int count, Throwable cause) {
+    for (int i = 0, slot = start; i < count; i++, slot = (slot + 1) % mailbox.length) {
+      if (mailbox[slot] instanceof Query<?> query) {
+        query.reply.completeExceptionally(cause);
+      }
+      mailbox[slot] = null;
+    }
+    boolean restart;
+    lock.lock();
+    try {
+      head = (head + count) % mailbox.length;
+      size -= count;
+      notFull.signalAll();
+      restart = size > 0;
+      scheduled = restart;
+    } finally {
+      lock.unlock();
+    }
+    if (restart) {
+      Thread.startVirtualThread(drainTask);
+    }
+  }
+
+  /**
+   * Applies {@code count} messages from slot {@code start}, merging runs of steps and of
+   * identical interactions.
+   */
+  private void apply(int start, int count) {
+    int slot = start;
+    int remaining = count;
+    while (remaining > 0) {
+      Object message = mailbox[slot];
+      int run = 1;
+      int next = (slot + 1) % mailbox.length;
+      if (!(message instanceof Query)) {
+        while (run < remaining && mailbox[next] == message) {
+          mailbox[next] = null;
+          next = (next + 1) % mailbox.length;
+          run++;
+        }
+      }
+      mailbox[slot] = null;
+      if (message == STEP) {
+        pet.advance(run);
+      } else if (message instanceof Action action) {
+        pet.interactWith(action, run);
+      } else {
+        ((Query<?>) message).answer(pet);
+      }
+      slot = next;
+      remaining -= run;
+    }
+  }
+
+  /**
+   * A query waiting in the mailbox, with the future its answer completes.
+   */
+  private static final class Query<T> {
+
+    private final Function<? super Pet, ? extends T> query;
+    private final CompletableFuture<T> reply = new CompletableFuture<>();
+
+    private Query(Function<? super Pet, ? extends T> query) {
+      this.query = query;
+    }
+
+    private void answer(Pet pet) {
+      try {
+        reply.complete(query.apply(pet));
+      } catch (Throwable t) {
+        // A failed assertion in a query is the caller's to see, not the actor's.
+        reply.completeExceptionally(t);
+      }
+    }
+  }
+}
@@ -0,0 +1,223 @@
+package pet.event;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * The {@code AsyncEventSink} class hands events to a background thread through a bounded,
+ * lock-free ring buffer, and that thread formats and writes them in batches.
+ * <p>
+ * Publishing claims a slot with one compare-and-set on the tail counter, stores the event
+ * in a plain array and releases the slot through its sequence number, so pets on any
+ * number of threads publish without locks, allocation or system calls. The writer thread
+ * drains every published slot, formats the messages into one buffer and writes it with a
+ * single call, so a burst of sad pets costs one write rather than one per line. Lines
+ * hold the event message only, as the model printed them before.
+ * <p>
+ * When the ring is full, the event is dropped and counted in {@link #getDroppedCount()}
+ * instead of making the simulation wait for the output. When it is empty, the writer parks
+ * until a publisher wakes it, so an idle sink costs no CPU time.
+ */
+public class AsyncEventSink implements EventSink, AutoCloseable {
+
+  /**
+   * Ring capacity used when none is given.
+   */
+  public static final int DEFAULT_CAPACITY = 8192;
+
+  private static final long FLUSH_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  private static final PetEvent[] EVENTS = PetEvent.values();
+
+  private final int mask;
+  private final AtomicLongArray sequences;
+  private final byte[] events;
+  private final AtomicLong tail = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final Supplier<PrintStream> target;
+  private final Thread writer;
+  // Advanced only by the writer thread.
+  private volatile long head;
+  private volatile long flushed;
+  private volatile long written;
+  private volatile boolean closed;
+  // Set by the writer before it parks on an empty ring.
+  private volatile boolean waiting;
+
+  private AsyncEventSink(Supplier<PrintStream> target, int capacity) {
+    if (capacity <= 0 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Capacity out of range: " + capacity);
+    }
+    int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    this.mask = size - 1;
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+    this.events = new byte[size];
+    this.target = target;
+    this.writer = new Thread(this::run, "event-writer");
+    writer.setDaemon(true);
+  }
+
+  /**
+   * Creates a sink that writes to the given stream and starts its writer thread.
+   *
+   * @param out      where event messages are written, one per line
+   * @param capacity the number of events the ring holds; rounded up to a power of two
+   * @return the running sink
+   * @throws IllegalArgumentException if {@code capacity} is not between 1 and 2^30
+   */
+  public static AsyncEventSink start(PrintStream out, int capacity) {
+    return start(() -> out, capacity);
+  }
+
+  /**
+   * Creates a sink that writes to whatever {@link System#out} is at the time of each write.
+   *
+   * @return a sink with the {@value #DEFAULT_CAPACITY}-event ring
+   */
+  public static AsyncEventSink toStandardOut() {
+    return start(() -> System.out, DEFAULT_CAPACITY);
+  }
+
+  private static AsyncEventSink start(Supplier<PrintStream> target, int capacity) {
+    AsyncEventSink sink = new AsyncEventSink(target, capacity);
+    sink.writer.start();
+    return sink;
+  }
+
+  @Override
+  public void publish(PetEvent event, long petId) {
+    if (closed) {
+      dropped.incrementAndGet();
+      return;
+    }
+    while (true) {
+      long claim = tail.get();
+      int slot = (int) claim & mask;
+      long sequence = sequences.getAcquire(slot);
+      if (sequence == claim) {
+        if (tail.compareAndSet(claim, claim + 1)) {
+          events[slot] = (byte) event.ordinal();
+          sequences.setRelease(slot, claim + 1);
+          if (waiting) {
+            LockSupport.unpark(writer);
+          }
+          return;
+        }
+      } else if (sequence < claim) {
+        dropped.incrementAndGet();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Waits until every event published before this call has been written.
+   */
+  @Override
+  public void flush() {
+    long target = tail.get();
+    while (flushed < target && writer.isAlive()) {
+      LockSupport.unpark(writer);
+      LockSupport.parkNanos(this, FLUSH_POLL_NANOS);
+    }
+  }
+
+  /**
+   * Returns how many events were dropped because the ring was full or the sink closed.
+   *
+   * @return the number of dropped events
+   */
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  /**
+   * Returns how many events have been written.
+   *
+   * @return the number of written events
+   */
+  public long getWrittenCount() {
+    return written;
+  }
+
+  /**
+   * Returns how many events the ring holds.
+   *
+   * @return the ring capacity
+   */
+  public int getCapacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Writes the events still in the ring and stops the writer thread. Events published
+   * afterwards are dropped.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    LockSupport.unpark(writer);
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run() {
+    StringBuilder text = new StringBuilder();
+    String newline = System.lineSeparator();
+    while (true) {
+      long next = head;
+      long count = 0;
+      while (count <= mask) {
+        int slot = (int) next & mask;
+        if (sequences.getAcquire(slot) != next + 1) {
+          break;
+        }
+        text.append(EVENTS[events[slot]].getMessage()).append(newline);
+        sequences.setRelease(slot, next + mask + 1);
+        next++;
+        count++;
+      }
+      if (count > 0) {
+        head = next;
+        PrintStream out = target.get();
+        out.append(text);
+        out.flush();
+        text.setLength(0);
+        written += count;
+        flushed = next;
+        continue;
+      }
+      flushed = next;
+      if (closed && next == tail.get()) {
+        return;
+      }
+      idle(next);
+    }
+  }
+
+  /**
+   * Parks the writer until an event is published past {@code next} or the sink closes.
+   * The writer announces itself before its last look at the tail, and a publisher checks
+   * for it after claiming a slot, so one of the two always sees the other.
+   */
+  private void idle(long next) {
+    waiting = true;
+    if (!closed && tail.get() == next) {
+      LockSupport.park(this);
+    } else {
+      // A publisher has claimed a slot and is about to fill it.
+      Thread.onSpinWait();
+    }
+    waiting = false;
+  }
+}
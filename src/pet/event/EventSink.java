@@ -0,0 +1,37 @@
+package pet.event;
+
+/**
+ * The {@code EventSink} interface receives the {@link PetEvent}s reported by the model.
+ * <p>
+ * {@link #publish(PetEvent, long)} is called on the simulation thread in the middle of a
+ * step, so implementations must return quickly and must not block; slow work such as
+ * formatting and writing belongs on another thread, as in {@link AsyncEventSink}.
+ */
+@FunctionalInterface
+public interface EventSink {
+
+  /**
+   * Reports an event.
+   *
+   * @param event the event
+   * @param petId the id of the pet it happened to
+   */
+  void publish(PetEvent event, long petId);
+
+  /**
+   * Waits until every event published so far has been handled. The default does nothing,
+   * for sinks that handle events inside {@link #publish(PetEvent, long)}.
+   */
+  default void flush() {
+  }
+
+  /**
+   * Returns a sink that discards every event, for benchmarks and batch runs.
+   *
+   * @return the no-op sink
+   */
+  static EventSink none() {
+    return (event, petId) -> {
+    };
+  }
+}
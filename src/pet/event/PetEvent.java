@@ -0,0 +1,56 @@
+package pet.event;
+
+/**
+ * The {@code PetEvent} enum lists the notable things that happen to a pet during the
+ * simulation, each with the message shown to the player.
+ * <p>
+ * The model reports these through {@link PetEvents} instead of printing them, so that
+ * stepping a pet never blocks on console output.
+ */
+public enum PetEvent {
+
+  /**
+   * A need reached zero and the pet died.
+   */
+  DIED("Your pet has died due to neglect."),
+
+  /**
+   * At least one need is low and the pet is sad.
+   */
+  SAD("Your pet is Sad, please take care of them!!"),
+
+  /**
+   * Hunger is low.
+   */
+  NEEDS_FEED("Pet need to feed"),
+
+  /**
+   * Hygiene is low.
+   */
+  NEEDS_CLEAN("Pet need to clean"),
+
+  /**
+   * Social is low.
+   */
+  NEEDS_PLAY("Pet need to play"),
+
+  /**
+   * Sleep is low.
+   */
+  NEEDS_SLEEP("Pet need to sleep");
+
+  private final String message;
+
+  PetEvent(String message) {
+    this.message = message;
+  }
+
+  /**
+   * Returns the message shown to the player for this event.
+   *
+   * @return the message text
+   */
+  public String getMessage() {
+    return message;
+  }
+}
@@ -0,0 +1,69 @@
+package pet.event;
+
+/**
+ * The {@code PetEvents} class holds the {@link EventSink} that the pet models report to.
+ * <p>
+ * Until another sink is set, events go to an {@link AsyncEventSink} that writes their
+ * messages to {@link System#out} from a background thread. It is created with the first
+ * event and flushed when the JVM exits. Benchmarks install {@link EventSink#none()}.
+ */
+public final class PetEvents {
+
+  private static volatile EventSink sink;
+
+  private PetEvents() {
+  }
+
+  /**
+   * Reports an event to the current sink.
+   *
+   * @param event the event
+   * @param petId the id of the pet it happened to
+   */
+  public static void publish(PetEvent event, long petId) {
+    getSink().publish(event, petId);
+  }
+
+  /**
+   * Waits until the current sink has handled every event published so far.
+   */
+  public static void flush() {
+    getSink().flush();
+  }
+
+  /**
+   * Returns the sink events are reported to.
+   *
+   * @return the current sink
+   */
+  public static EventSink getSink() {
+    EventSink current = sink;
+    return current != null ? current : DefaultSink.SINK;
+  }
+
+  /**
+   * Replaces the sink events are reported to. The previous sink is not closed.
+   *
+   * @param newSink the sink to use from now on
+   * @return the previous sink
+   */
+  public static EventSink setSink(EventSink newSink) {
+    if (newSink == null) {
+      throw new IllegalArgumentException("Sink must not be null");
+    }
+    EventSink previous = getSink();
+    sink = newSink;
+    return previous;
+  }
+
+  /**
+   * Creates the standard-output sink on first use only.
+   */
+  private static final class DefaultSink {
+    static final AsyncEventSink SINK = AsyncEventSink.toStandardOut();
+
+    static {
+      Runtime.getRuntime().addShutdownHook(new Thread(SINK::close, "event-sink-shutdown"));
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package pet.event;
+
+import pet.helper.HealthStatus;
+import pet.helper.mood.MoodEnum;
+
+/**
+ * The {@code PetListener} interface is notified by a pet model when its state changes in a
+ * way a view would show: the needs move, the mood flips, a need crosses the SAD threshold
+ * of 20, or the pet dies. Each call carries the health after the change, so a listener
+ * never has to query the model back.
+ * <p>
+ * Listeners are called on the thread that changed the pet, in the middle of a step or
+ * interaction, and should return quickly. When one change raises several events, they are
+ * delivered in the order health, need crossings, mood, death, all with the same health
+ * snapshot. Every method does nothing by default, so a listener overrides only what it shows.
+ */
+public interface PetListener {
+
+  /**
+   * Called when any need value changes, e.g. once per step.
+   *
+   * @param petId  the id of the pet
+   * @param health the pet's health after the change
+   */
+  default void healthChanged(long petId, HealthStatus health) {
+  }
+
+  /**
+   * Called when the pet's mood changes.
+   *
+   * @param petId  the id of the pet
+   * @param mood   the new mood
+   * @param health the pet's health after the change
+   */
+  default void moodChanged(long petId, MoodEnum mood, HealthStatus health) {
+  }
+
+  /**
+   * Called when a need drops to 20 or below, or rises back above it.
+   *
+   * @param petId  the id of the pet
+   * @param need   which need crossed: {@link PetEvent#NEEDS_FEED},
+   *               {@link PetEvent#NEEDS_CLEAN}, {@link PetEvent#NEEDS_PLAY} or
+   *               {@link PetEvent#NEEDS_SLEEP}
+   * @param low    {@code true} if the need is now low, {@code false} if it recovered
+   * @param health the pet's health after the change
+   */
+  default void needChanged(long petId, PetEvent need, boolean low, HealthStatus health) {
+  }
+
+  /**
+   * Called once when the pet dies.
+   *
+   * @param petId  the id of the pet
+   * @param health the pet's health at death, with at least one need at 0
+   */
+  default void died(long petId, HealthStatus health) {
+  }
+}
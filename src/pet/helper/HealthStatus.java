@@ -7,6 +7,10 @@ package pet.helper;
  * This class is immutable, meaning the values cannot be changed once created.
  * It is used by external components to safely read a pet's health without
  * directly modifying its internal state.
+ * <p>
+ * Health can also travel as a single packed {@code int} (see {@link PackedNeeds}).
+ * The static {@code ...Of(int)} accessors read a packed word without creating an object,
+ * and {@link #fromPacked(int)} turns one into a snapshot when an object is needed.
  */
 public class HealthStatus {
 
@@ -45,6 +49,66 @@ public class HealthStatus {
     this.sleep = sleep;
   }
 
+  /**
+   * Creates a {@code HealthStatus} snapshot from packed needs.
+   *
+   * @param packed the needs packed by {@link PackedNeeds}
+   * @return a new snapshot holding the decoded values
+   */
+  public static HealthStatus fromPacked(int packed) {
+    return new HealthStatus(hungerOf(packed), hygieneOf(packed), socialOf(packed),
+        sleepOf(packed));
+  }
+
+  /**
+   * Decodes the hunger level from packed needs without allocating a snapshot.
+   *
+   * @param packed the needs packed by {@link PackedNeeds}
+   * @return hunger level (0–100)
+   */
+  public static int hungerOf(int packed) {
+    return PackedNeeds.hunger(packed);
+  }
+
+  /**
+   * Decodes the hygiene level from packed needs without allocating a snapshot.
+   *
+   * @param packed the needs packed by {@link PackedNeeds}
+   * @return hygiene level (0–100)
+   */
+  public static int hygieneOf(int packed) {
+    return PackedNeeds.hygiene(packed);
+  }
+
+  /**
+   * Decodes the social level from packed needs without allocating a snapshot.
+   *
+   * @param packed the needs packed by {@link PackedNeeds}
+   * @return social level (0–100)
+   */
+  public static int socialOf(int packed) {
+    return PackedNeeds.social(packed);
+  }
+
+  /**
+   * Decodes the sleep level from packed needs without allocating a snapshot.
+   *
+   * @param packed the needs packed by {@link PackedNeeds}
+   * @return sleep level (0–100)
+   */
+  public static int sleepOf(int packed) {
+    return PackedNeeds.sleep(packed);
+  }
+
+  /**
+   * Packs this snapshot into a single word in the {@link PackedNeeds} layout.
+   *
+   * @return the packed needs
+   */
+  public int toPacked() {
+    return PackedNeeds.pack(hunger, hygiene, social, sleep);
+  }
+
   /**
    * Returns the current hunger level.
    *
@@ -0,0 +1,252 @@
+package pet.helper;
+
+/**
+ * The {@code PackedNeeds} class encodes a pet's four needs into a single {@code int}.
+ * <p>
+ * Each need occupies one 8-bit lane: hunger in bits 0–7, hygiene in bits 8–15,
+ * social in bits 16–23 and sleep in bits 24–31. Since needs never leave the range 0–100,
+ * only the low 7 bits of a lane are used and the top bit of every lane stays clear.
+ * That spare "guard" bit lets all four needs be adjusted, clamped and compared at once
+ * with plain integer arithmetic (SWAR: SIMD within a register) instead of four separate
+ * clamp calls and comparisons.
+ * <p>
+ * The packed word is a value, not a holder, so it can be stored in the model, written to
+ * journals or sent over the wire as-is. Use {@link HealthStatus#fromPacked(int)} to turn
+ * it into a snapshot object.
+ */
+public final class PackedNeeds {
+
+  /**
+   * Bit offset of the hunger lane.
+   */
+  public static final int HUNGER_SHIFT = 0;
+
+  /**
+   * Bit offset of the hygiene lane.
+   */
+  public static final int HYGIENE_SHIFT = 8;
+
+  /**
+   * Bit offset of the social lane.
+   */
+  public static final int SOCIAL_SHIFT = 16;
+
+  /**
+   * Bit offset of the sleep lane.
+   */
+  public static final int SLEEP_SHIFT = 24;
+
+  /**
+   * Upper bound of every need.
+   */
+  public static final int MAX_NEED = 100;
+
+  /**
+   * A need at or below this value makes the pet SAD.
+   */
+  public static final int SAD_THRESHOLD = 20;
+
+  private static final int LANE = 0xFF;
+  private static final int LOW_BITS = 0x7F7F7F7F;
+  private static final int GUARD_BITS = 0x80808080;
+  private static final int ONES = 0x01010101;
+  private static final int MAX_LANES = MAX_NEED * ONES;
+
+  /**
+   * Adding this to a lane sets its guard bit exactly when the lane exceeds 100.
+   */
+  private static final int ABOVE_MAX_BIAS = (0x80 - (MAX_NEED + 1)) * ONES;
+
+  /**
+   * Adding this to a lane sets its guard bit exactly when the lane exceeds 20.
+   */
+  private static final int ABOVE_SAD_BIAS = (0x80 - (SAD_THRESHOLD + 1)) * ONES;
+
+  /**
+   * Adding this to a lane sets its guard bit exactly when the lane is non-zero.
+   */
+  private static final int NON_ZERO_BIAS = 0x7F * ONES;
+
+  private PackedNeeds() {
+  }
+
+  /**
+   * Packs four need values into one word. Each value is clamped to [0, 100] first.
+   *
+   * @param hunger  hunger level
+   * @param hygiene hygiene level
+   * @param social  social level
+   * @param sleep   sleep level
+   * @return the packed needs
+   */
+  public static int pack(int hunger, int hygiene, int social, int sleep) {
+    return clamp(hunger) << HUNGER_SHIFT
+        | clamp(hygiene) << HYGIENE_SHIFT
+        | clamp(social) << SOCIAL_SHIFT
+        | clamp(sleep) << SLEEP_SHIFT;
+  }
+
+  /**
+   * Returns the hunger level stored in a packed word.
+   *
+   * @param packed the packed needs
+   * @return hunger level (0–100)
+   */
+  public static int hunger(int packed) {
+    return (packed >>> HUNGER_SHIFT) & LANE;
+  }
+
+  /**
+   * Returns the hygiene level stored in a packed word.
+   *
+   * @param packed the packed needs
+   * @return hygiene level (0–100)
+   */
+  public static int hygiene(int packed) {
+    return (packed >>> HYGIENE_SHIFT) & LANE;
+  }
+
+  /**
+   * Returns the social level stored in a packed word.
+   *
+   * @param packed the packed needs
+   * @return social level (0–100)
+   */
+  public static int social(int packed) {
+    return (packed >>> SOCIAL_SHIFT) & LANE;
+  }
+
+  /**
+   * Returns the sleep level stored in a packed word.
+   *
+   * @param packed the packed needs
+   * @return sleep level (0–100)
+   */
+  public static int sleep(int packed) {
+    return (packed >>> SLEEP_SHIFT) & LANE;
+  }
+
+  /**
+   * Adjusts all four needs by signed deltas with saturation at 0 and 100.
+   * This is the packed equivalent of {@code adjustNeeds()} followed by four clamps.
+   *
+   * @param packed       the packed needs
+   * @param hungerDelta  change in hunger
+   * @param hygieneDelta change in hygiene
+   * @param socialDelta  change in social
+   * @param sleepDelta   change in sleep
+   * @return the adjusted packed needs
+   */
+  public static int adjust(int packed, int hungerDelta, int hygieneDelta, int socialDelta,
+      int sleepDelta) {
+    int increments = increment(hungerDelta) << HUNGER_SHIFT
+        | increment(hygieneDelta) << HYGIENE_SHIFT
+        | increment(socialDelta) << SOCIAL_SHIFT
+        | increment(sleepDelta) << SLEEP_SHIFT;
+    int decrements = decrement(hungerDelta) << HUNGER_SHIFT
+        | decrement(hygieneDelta) << HYGIENE_SHIFT
+        | decrement(socialDelta) << SOCIAL_SHIFT
+        | decrement(sleepDelta) << SLEEP_SHIFT;
+    return addSaturating(subtractSaturating(packed, decrements), increments);
+  }
+
+  /**
+   * Adds per-lane increments, saturating each lane at 100.
+   *
+   * @param packed     the packed needs
+   * @param increments packed non-negative increments, each at most 127
+   * @return the packed sum
+   */
+  public static int addSaturating(int packed, int increments) {
+    int sum = packed + increments;
+    int over = ((sum + ABOVE_MAX_BIAS) & GUARD_BITS) >>> 7;
+    int overLanes = over * LANE;
+    return (sum & ~overLanes) | (MAX_LANES & overLanes);
+  }
+
+  /**
+   * Subtracts per-lane decrements, saturating each lane at 0.
+   *
+   * @param packed     the packed needs
+   * @param decrements packed non-negative decrements, each at most 127
+   * @return the packed difference
+   */
+  public static int subtractSaturating(int packed, int decrements) {
+    int difference = (packed | GUARD_BITS) - decrements;
+    int keptLanes = ((difference & GUARD_BITS) >>> 7) * LANE;
+    return difference & keptLanes & LOW_BITS;
+  }
+
+  /**
+   * Returns a mask with the guard bit set in every lane whose need is at or below 20.
+   * The result is zero when no need is low.
+   *
+   * @param packed the packed needs
+   * @return the guard bits of all low lanes
+   */
+  public static int lowLanes(int packed) {
+    return ~(packed + ABOVE_SAD_BIAS) & GUARD_BITS;
+  }
+
+  /**
+   * Returns a mask with the guard bit set in every lane whose need is zero.
+   * The result is zero when no need is empty.
+   *
+   * @param packed the packed needs
+   * @return the guard bits of all empty lanes
+   */
+  public static int emptyLanes(int packed) {
+    return ~(packed + NON_ZERO_BIAS) & GUARD_BITS;
+  }
+
+  /**
+   * Checks whether any need is at or below 20, i.e. whether the pet should be SAD.
+   *
+   * @param packed the packed needs
+   * @return {@code true} if at least one need is low
+   */
+  public static boolean anyLow(int packed) {
+    return lowLanes(packed) != 0;
+  }
+
+  /**
+   * Checks whether any need has reached zero, i.e. whether the pet should die.
+   *
+   * @param packed the packed needs
+   * @return {@code true} if at least one need is empty
+   */
+  public static boolean anyEmpty(int packed) {
+    return emptyLanes(packed) != 0;
+  }
+
+  /**
+   * Checks whether the need in the given lane is at or below 20.
+   *
+   * @param packed the packed needs
+   * @param shift  the lane offset, e.g. {@link #HUNGER_SHIFT}
+   * @return {@code true} if that need is low
+   */
+  public static boolean isLow(int packed, int shift) {
+    return (lowLanes(packed) & (0x80 << shift)) != 0;
+  }
+
+  /**
+   * Converts the positive part of a delta to a lane increment. Needs never differ by more
+   * than 100, so larger magnitudes saturate identically.
+   */
+  private static int increment(int delta) {
+    return delta <= 0 ? 0 : Math.min(delta, MAX_NEED);
+  }
+
+  /**
+   * Converts the negative part of a delta to a lane decrement, capped like
+   * {@link #increment(int)}.
+   */
+  private static int decrement(int delta) {
+    return delta >= 0 ? 0 : (delta < -MAX_NEED ? MAX_NEED : -delta);
+  }
+
+  private static int clamp(int value) {
+    return Math.max(0, Math.min(MAX_NEED, value));
+  }
+}
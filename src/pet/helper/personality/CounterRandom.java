@@ -0,0 +1,91 @@
+package pet.helper.personality;
+
+/**
+ * The {@code CounterRandom} class is a stateless, counter-based random number generator.
+ * <p>
+ * Instead of advancing a shared seed, each random value is computed by hashing a
+ * {@code (seed, pet id, tick)} triple with the SplitMix64 finalizer. Every pet therefore
+ * has its own independent random stream, and the value used for a given step only depends
+ * on which pet is stepping and how many steps it has taken. Results are the same no matter
+ * how many threads step the pets or in which order, and a whole run can be replayed
+ * from its seed.
+ */
+public final class CounterRandom {
+
+  /**
+   * Tick value reserved for randomness drawn when a pet is started.
+   */
+  public static final long SETUP_TICK = -1L;
+
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  private CounterRandom() {
+  }
+
+  /**
+   * Computes the random key for one pet at one tick.
+   *
+   * @param seed  the seed of the run
+   * @param petId the pet's identifier
+   * @param tick  the number of steps the pet has taken, or {@link #SETUP_TICK}
+   * @return 64 well-mixed random bits
+   */
+  public static long key(long seed, long petId, long tick) {
+    return key(stream(seed, petId), tick);
+  }
+
+  /**
+   * Combines a seed and a pet id into the pet's stream identifier. Callers that step the
+   * same pet many times can compute this once and use {@link #key(long, long)} per step.
+   *
+   * @param seed  the seed of the run
+   * @param petId the pet's identifier
+   * @return the stream identifier of that pet
+   */
+  public static long stream(long seed, long petId) {
+    return mix(mix(seed + GOLDEN_GAMMA) + petId * GOLDEN_GAMMA);
+  }
+
+  /**
+   * Computes the random key for a pet's stream at one tick.
+   *
+   * @param stream the pet's stream from {@link #stream(long, long)}
+   * @param tick   the number of steps the pet has taken, or {@link #SETUP_TICK}
+   * @return 64 well-mixed random bits
+   */
+  public static long key(long stream, long tick) {
+    return mix(stream + tick * GOLDEN_GAMMA);
+  }
+
+  /**
+   * Maps a random key to an integer in {@code [0, bound)}.
+   *
+   * @param key   a key from {@link #key(long, long, long)}
+   * @param bound the exclusive upper bound; must be positive
+   * @return a value between 0 (inclusive) and {@code bound} (exclusive)
+   */
+  public static int nextInt(long key, int bound) {
+    return (int) (((key >>> 32) * bound) >>> 32);
+  }
+
+  /**
+   * Extracts one of four independent percentiles (0–99) from a random key, using a
+   * separate 16-bit slice of the key for each.
+   *
+   * @param key   a key from {@link #key(long, long, long)}
+   * @param slice which slice to use, from 0 to 3
+   * @return a value between 0 and 99
+   */
+  public static int percentile(long key, int slice) {
+    return (int) ((((key >>> (16 * slice)) & 0xFFFFL) * 100) >>> 16);
+  }
+
+  /**
+   * The SplitMix64 finalizer: a bijective mix of all 64 input bits.
+   */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -42,6 +42,31 @@ public enum Personality {
     this.name = name;
   }
 
+  /**
+   * Picks the personality a pet receives when it is started with the given seed.
+   * The choice is uniform over all personalities and depends only on the seed and pet id.
+   *
+   * @param seed  the seed passed to {@code startGame}
+   * @param petId the pet's identifier
+   * @return the personality assigned to that pet
+   */
+  public static Personality forPet(long seed, long petId) {
+    return forStream(CounterRandom.stream(seed, petId));
+  }
+
+  /**
+   * Picks the personality for a pet whose stream was already computed with
+   * {@link CounterRandom#stream(long, long)}.
+   *
+   * @param stream the pet's random stream
+   * @return the personality assigned to that pet
+   */
+  public static Personality forStream(long stream) {
+    Personality[] personalities = values();
+    long key = CounterRandom.key(stream, CounterRandom.SETUP_TICK);
+    return personalities[CounterRandom.nextInt(key, personalities.length)];
+  }
+
   /**
    * Returns the {@link PersonalityInterface} instance associated with this personality.
    *
@@ -29,6 +29,21 @@ public interface PersonalityInterface {
    */
   void modifyStep(PetInterface pet, MoodEnum mood);
 
+  /**
+   * Applies personality-specific effects for one time step, drawing any randomness from
+   * the given key instead of a shared generator. Pets pass a key from
+   * {@link CounterRandom#key(long, long, long)}, so runs are reproducible.
+   * <p>
+   * Personalities without random behavior ignore the key.
+   *
+   * @param pet     the pet instance whose needs will be modified
+   * @param mood    the current mood of the pet
+   * @param stepKey the random bits for this pet and step
+   */
+  default void modifyStep(PetInterface pet, MoodEnum mood, long stepKey) {
+    modifyStep(pet, mood);
+  }
+
   /**
    * Applies personality-specific effects when the pet interacts with the player.
    * The impact may vary depending on the action taken and the pet's mood.
@@ -38,4 +53,30 @@ public interface PersonalityInterface {
    * @param action the action performed by the user (e.g., FEED, PLAY, CLEAN, SLEEP)
    */
   void applyPersonalityInteract(PetInterface pet, MoodEnum mood, Action action);
+
+  /**
+   * Returns whether {@link #modifyStep(PetInterface, MoodEnum)} always applies the same
+   * deltas for a given mood. Batch engines precompute those deltas once and only call
+   * {@code modifyStep} per pet for personalities that return {@code false}.
+   *
+   * @return {@code true} if time steps are fully determined by the mood
+   */
+  default boolean hasFixedStep() {
+    return true;
+  }
+
+  /**
+   * Returns the random part of a time step, so that a step can be applied from
+   * {@link PersonalityTables} as the table delta plus this variation.
+   * <p>
+   * {@link #modifyStep(PetInterface, MoodEnum, long)} must apply exactly the fixed deltas
+   * for the mood plus the variation returned here for the same key. Personalities with
+   * fixed steps have no random part.
+   *
+   * @param stepKey the random bits for this pet and step
+   * @return non-negative per-need additions in the {@link pet.helper.PackedNeeds} layout
+   */
+  default int stepVariation(long stepKey) {
+    return 0;
+  }
 }
@@ -0,0 +1,267 @@
+package pet.helper.personality;
+
+import java.util.Arrays;
+import pet.PetInterface;
+import pet.helper.Action;
+import pet.helper.HealthStatus;
+import pet.helper.PackedNeeds;
+import pet.helper.mood.MoodEnum;
+
+/**
+ * The {@code PersonalityTables} class holds the per-step and per-interaction need deltas of
+ * every personality in flat lookup tables, computed once when the class is initialized.
+ * <p>
+ * The tables are filled by running each personality's
+ * {@link PersonalityInterface#modifyStep(PetInterface, MoodEnum, long)} and
+ * {@link PersonalityInterface#applyPersonalityInteract(PetInterface, MoodEnum, Action)}
+ * against a recording pet, so they always agree with the personality classes. Pets and
+ * batch engines read the deltas from here instead of dispatching to a personality object.
+ * <p>
+ * Step entries are indexed by {@link #stepIndex(int, int)}, i.e. by
+ * {@code Personality.ordinal()} and {@code MoodEnum.ordinal()}; interaction entries by
+ * {@link #interactIndex(int, int, int)}, which adds {@code Action.ordinal()}.
+ * For personalities whose {@link PersonalityInterface#hasFixedStep()} returns
+ * {@code false}, the step table holds only the fixed part of a step, and the random part
+ * comes from {@link #stepVariation(int, long)}.
+ */
+public final class PersonalityTables {
+
+  /**
+   * Number of needs per table entry (hunger, hygiene, social, sleep).
+   */
+  public static final int NEEDS = 4;
+
+  /**
+   * Position of hunger within an entry.
+   */
+  public static final int HUNGER = 0;
+
+  /**
+   * Position of hygiene within an entry.
+   */
+  public static final int HYGIENE = 1;
+
+  /**
+   * Position of social within an entry.
+   */
+  public static final int SOCIAL = 2;
+
+  /**
+   * Position of sleep within an entry.
+   */
+  public static final int SLEEP = 3;
+
+  private static final Personality[] PERSONALITIES = Personality.values();
+  private static final MoodEnum[] MOODS = MoodEnum.values();
+  private static final Action[] ACTIONS = Action.values();
+
+  /**
+   * Number of distinct (personality, mood) step entries.
+   */
+  public static final int STEP_ENTRIES = PERSONALITIES.length * MOODS.length;
+
+  /**
+   * Number of distinct (personality, mood, action) interaction entries.
+   */
+  public static final int INTERACT_ENTRIES = STEP_ENTRIES * ACTIONS.length;
+
+  private static final int[] STEP_DELTAS = new int[STEP_ENTRIES * NEEDS];
+  private static final int[] INTERACT_DELTAS = new int[INTERACT_ENTRIES * NEEDS];
+  private static final boolean[] FIXED_STEP = new boolean[PERSONALITIES.length];
+  private static final PersonalityInterface[] BEHAVIORS =
+      new PersonalityInterface[PERSONALITIES.length];
+
+  static {
+    DeltaProbe probe = new DeltaProbe();
+    for (Personality personality : PERSONALITIES) {
+      int p = personality.ordinal();
+      PersonalityInterface behavior = personality.getPersonality();
+      BEHAVIORS[p] = behavior;
+      FIXED_STEP[p] = behavior.hasFixedStep();
+      // Any key works: the variation drawn from it is subtracted again below.
+      long probeKey = 0L;
+      int variation = behavior.stepVariation(probeKey);
+      for (MoodEnum mood : MOODS) {
+        int m = mood.ordinal();
+        probe.reset();
+        behavior.modifyStep(probe, mood, probeKey);
+        probe.adjustNeeds(-PackedNeeds.hunger(variation), -PackedNeeds.hygiene(variation),
+            -PackedNeeds.social(variation), -PackedNeeds.sleep(variation));
+        probe.copyTo(STEP_DELTAS, stepIndex(p, m) * NEEDS);
+        for (Action action : ACTIONS) {
+          probe.reset();
+          behavior.applyPersonalityInteract(probe, mood, action);
+          probe.copyTo(INTERACT_DELTAS, interactIndex(p, m, action.ordinal()) * NEEDS);
+        }
+      }
+    }
+  }
+
+  private PersonalityTables() {
+  }
+
+  /**
+   * Returns the index of the step entry for a personality and mood.
+   *
+   * @param personality the personality ordinal
+   * @param mood        the mood ordinal
+   * @return the entry index, between 0 and {@link #STEP_ENTRIES} (exclusive)
+   */
+  public static int stepIndex(int personality, int mood) {
+    return personality * MOODS.length + mood;
+  }
+
+  /**
+   * Returns the index of the interaction entry for a personality, mood and action.
+   *
+   * @param personality the personality ordinal
+   * @param mood        the mood ordinal
+   * @param action      the action ordinal
+   * @return the entry index, between 0 and {@link #INTERACT_ENTRIES} (exclusive)
+   */
+  public static int interactIndex(int personality, int mood, int action) {
+    return stepIndex(personality, mood) * ACTIONS.length + action;
+  }
+
+  /**
+   * Returns the delta a single time step applies to one need. For personalities without a
+   * fixed step this is the fixed part only; add {@link #stepVariation(int, long)}.
+   *
+   * @param entry the entry index from {@link #stepIndex(int, int)}
+   * @param need  the need position, e.g. {@link #HUNGER}
+   * @return the step delta
+   */
+  public static int stepDelta(int entry, int need) {
+    return STEP_DELTAS[entry * NEEDS + need];
+  }
+
+  /**
+   * Returns the delta an interaction applies to one need.
+   *
+   * @param entry the entry index from {@link #interactIndex(int, int, int)}
+   * @param need  the need position, e.g. {@link #HUNGER}
+   * @return the interaction delta
+   */
+  public static int interactDelta(int entry, int need) {
+    return INTERACT_DELTAS[entry * NEEDS + need];
+  }
+
+  /**
+   * Returns the random part of a time step for the personality with the given ordinal.
+   * Personalities with fixed steps return 0 without a call to the personality object.
+   *
+   * @param personality the personality ordinal
+   * @param stepKey     the random bits for this pet and step
+   * @return non-negative per-need additions in the {@link PackedNeeds} layout
+   * @see PersonalityInterface#stepVariation(long)
+   */
+  public static int stepVariation(int personality, long stepKey) {
+    return FIXED_STEP[personality] ? 0 : BEHAVIORS[personality].stepVariation(stepKey);
+  }
+
+  /**
+   * Returns whether the personality with the given ordinal has table-driven steps.
+   *
+   * @param personality the personality ordinal
+   * @return {@code true} if {@link #stepDelta(int, int)} describes its steps exactly
+   */
+  public static boolean hasFixedStep(int personality) {
+    return FIXED_STEP[personality];
+  }
+
+  /**
+   * A minimal {@link PetInterface} that only records the deltas passed to
+   * {@link #adjustNeeds(int, int, int, int)}. Used to read effects out of the
+   * personality classes.
+   */
+  private static final class DeltaProbe implements PetInterface {
+    private final int[] deltas = new int[NEEDS];
+
+    void reset() {
+      Arrays.fill(deltas, 0);
+    }
+
+    void copyTo(int[] target, int offset) {
+      System.arraycopy(deltas, 0, target, offset, NEEDS);
+    }
+
+    @Override
+    public void adjustNeeds(int hungerDelta, int hygieneDelta, int socialDelta,
+        int sleepDelta) {
+      deltas[HUNGER] += hungerDelta;
+      deltas[HYGIENE] += hygieneDelta;
+      deltas[SOCIAL] += socialDelta;
+      deltas[SLEEP] += sleepDelta;
+    }
+
+    @Override
+    public void startGame() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void startGame(long seed) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void step() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void interactWith(Action action) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public HealthStatus getHealth() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MoodEnum getMood() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Personality getPersonality() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setMood(MoodEnum mood) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setPersonality(Personality personality) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isAlive() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean needShower() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean needFeed() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean needPlay() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean needSleep() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
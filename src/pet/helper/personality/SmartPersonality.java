@@ -1,8 +1,9 @@
 package pet.helper.personality;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import pet.PetInterface;
 import pet.helper.Action;
+import pet.helper.PackedNeeds;
 import pet.helper.mood.MoodEnum;
 
 /**
@@ -13,11 +14,15 @@ import pet.helper.mood.MoodEnum;
  * This personality introduces a small random chance (20%) that each need will decay
  * slightly less during each time step.
  * <p>
+ * The random draws come from a per-step key (see {@link CounterRandom}) rather than a shared
+ * {@code Random}, so Smart pets can be stepped from many threads without contention and
+ * their behavior can be replayed from a seed.
+ * <p>
  * Implements the {@link PersonalityInterface}.
  */
 public class SmartPersonality implements PersonalityInterface {
 
-  private final Random random = new Random();
+  private static final int RESIST_PERCENT = 20;
 
   /**
    * Modifies the pet's needs at each time step depending on its current mood.
@@ -27,22 +32,62 @@ public class SmartPersonality implements PersonalityInterface {
    * </ul>
    * However, each need (hunger, hygiene, social, sleep) has a 20% chance to
    * resist decay and lose 1 less point.
+   * <p>
+   * Without a step key the draws are taken from a thread-local generator and cannot be
+   * replayed; pets call {@link #modifyStep(PetInterface, MoodEnum, long)} instead.
    *
    * @param pet  the pet model instance
    * @param mood the current mood of the pet
    */
   @Override
   public void modifyStep(PetInterface pet, MoodEnum mood) {
+    modifyStep(pet, mood, ThreadLocalRandom.current().nextLong());
+  }
+
+  /**
+   * Modifies the pet's needs like {@link #modifyStep(PetInterface, MoodEnum)}, taking the
+   * four 20% draws from independent slices of the step key.
+   *
+   * @param pet     the pet model instance
+   * @param mood    the current mood of the pet
+   * @param stepKey the random bits for this pet and step
+   */
+  @Override
+  public void modifyStep(PetInterface pet, MoodEnum mood, long stepKey) {
     int step = (mood == MoodEnum.HAPPY) ? -1 : -2;
 
     pet.adjustNeeds(
-        step + ((random.nextInt(100) < 20) ? 1 : 0), // Hunger
-        step + ((random.nextInt(100) < 20) ? 1 : 0), // Hygiene
-        step + ((random.nextInt(100) < 20) ? 1 : 0), // Social
-        step + ((random.nextInt(100) < 20) ? 1 : 0)  // Sleep
+        step + resist(stepKey, 0), // Hunger
+        step + resist(stepKey, 1), // Hygiene
+        step + resist(stepKey, 2), // Social
+        step + resist(stepKey, 3)  // Sleep
     );
   }
 
+  /**
+   * Returns the needs that resist decay for the given key: 1 in each resisting lane.
+   *
+   * @param stepKey the random bits for this pet and step
+   * @return the resist bonus in the {@link PackedNeeds} layout
+   */
+  @Override
+  public int stepVariation(long stepKey) {
+    return resist(stepKey, 0) << PackedNeeds.HUNGER_SHIFT
+        | resist(stepKey, 1) << PackedNeeds.HYGIENE_SHIFT
+        | resist(stepKey, 2) << PackedNeeds.SOCIAL_SHIFT
+        | resist(stepKey, 3) << PackedNeeds.SLEEP_SHIFT;
+  }
+
+  /**
+   * Smart pets randomly resist decay, so their step deltas cannot be precomputed.
+   *
+   * @return {@code false}
+   */
+  @Override
+  public boolean hasFixedStep() {
+    return false;
+  }
+
   /**
    * Applies the effect of user interactions for a smart pet.
    * Smart pets respond predictably and moderately well to all standard interactions.
@@ -68,4 +113,11 @@ public class SmartPersonality implements PersonalityInterface {
       default -> pet.adjustNeeds(0, 0, 0, 0);
     }
   }
+
+  /**
+   * Returns 1 if the need in the given slice resists decay this step, otherwise 0.
+   */
+  private static int resist(long stepKey, int slice) {
+    return CounterRandom.percentile(stepKey, slice) < RESIST_PERCENT ? 1 : 0;
+  }
 }
@@ -0,0 +1,107 @@
+package pet.persist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32C;
+
+/**
+ * The {@code ChecksummedOutput} class streams data into a file through one direct buffer
+ * and keeps a CRC32C of everything written, for the snapshot formats.
+ */
+final class ChecksummedOutput {
+
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  private final ByteBuffer buffer =
+      ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+  private final CRC32C checksum = new CRC32C();
+  private final FileChannel channel;
+  private final IoThrottle throttle;
+  private long written;
+
+  ChecksummedOutput(FileChannel channel) {
+    this(channel, IoThrottle.NONE);
+  }
+
+  ChecksummedOutput(FileChannel channel, IoThrottle throttle) {
+    this.channel = channel;
+    this.throttle = throttle;
+  }
+
+  /**
+   * Returns the buffer with room for at least {@code bytes} more bytes, draining it first
+   * if necessary. Callers put their data straight into it.
+   */
+  ByteBuffer reserve(int bytes) throws IOException {
+    if (buffer.remaining() < bytes) {
+      drain();
+    }
+    return buffer;
+  }
+
+  void putBytes(byte[] column) throws IOException {
+    for (int offset = 0; offset < column.length; ) {
+      int count = Math.min(room(1), column.length - offset);
+      buffer.put(column, offset, count);
+      offset += count;
+    }
+  }
+
+  void putBooleans(boolean[] column) throws IOException {
+    for (int offset = 0; offset < column.length; ) {
+      int count = Math.min(room(1), column.length - offset);
+      for (int i = offset; i < offset + count; i++) {
+        buffer.put((byte) (column[i] ? 1 : 0));
+      }
+      offset += count;
+    }
+  }
+
+  void putLongs(long[] column) throws IOException {
+    for (int offset = 0; offset < column.length; ) {
+      int count = Math.min(room(Long.BYTES), column.length - offset);
+      buffer.asLongBuffer().put(column, offset, count);
+      buffer.position(buffer.position() + count * Long.BYTES);
+      offset += count;
+    }
+  }
+
+  /**
+   * Writes the trailing checksum and everything still buffered.
+   *
+   * @return the total number of bytes written, including the checksum
+   */
+  long finish() throws IOException {
+    drain();
+    buffer.putInt((int) checksum.getValue());
+    buffer.flip();
+    throttle.acquire(buffer.remaining());
+    written += buffer.remaining();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+    return written;
+  }
+
+  /**
+   * Returns how many elements of the given width fit in the buffer, draining it first if
+   * none do.
+   */
+  private int room(int width) throws IOException {
+    return reserve(width).remaining() / width;
+  }
+
+  private void drain() throws IOException {
+    buffer.flip();
+    checksum.update(buffer.duplicate());
+    throttle.acquire(buffer.remaining());
+    written += buffer.remaining();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
@@ -0,0 +1,516 @@
+package pet.persist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The {@code EventJournal} class is an append-only file of {@link JournalRecord}s that makes
+ * pet state durable.
+ * <p>
+ * Any number of threads may append. With {@link FsyncPolicy#GROUP}, appends go into an
+ * in-memory batch and return immediately with a sequence number; a background flusher
+ * writes and forces the whole batch once it holds {@code batchRecords} records or its
+ * oldest record is {@code maxDelay} old, whichever comes first. Two batch buffers are
+ * swapped, so appenders keep filling one while the other is being written.
+ * <p>
+ * A caller that needs its event on disk waits with {@link #awaitDurable(long)}. As soon as
+ * anyone is waiting, the flusher commits without waiting for the triggers; everything
+ * appended while that fsync is in flight forms the next batch, so concurrent waiters share
+ * fsyncs without paying the delay.
+ * <p>
+ * The file starts with a {@value #HEADER_SIZE}-byte header holding a magic number and a
+ * format version, followed by the records. When an existing journal is opened, an
+ * incomplete record at the end (a torn write) is cut off before appending continues.
+ * <p>
+ * A journal opened with {@link #openSegmented(Path, FsyncPolicy, long)} is a directory of
+ * segment files instead of one file. After each commit that leaves the current segment at
+ * or past {@code segmentBytes}, the flusher starts a new segment whose header records its
+ * base sequence, so segments hold whole batches and every segment except the newest is
+ * immutable. Old segments can then be folded into a snapshot and deleted by a
+ * {@link JournalCompactor} while appends continue.
+ */
+public class EventJournal implements AutoCloseable {
+
+  /**
+   * Size of the file header in bytes.
+   */
+  public static final int HEADER_SIZE = 16;
+
+  /**
+   * Default number of records that triggers a group commit.
+   */
+  public static final int DEFAULT_BATCH_RECORDS = 1024;
+
+  /**
+   * Default time in milliseconds after which a partial batch is committed.
+   */
+  public static final long DEFAULT_MAX_DELAY_MILLIS = 5;
+
+  static final int MAGIC = 0x4A544550; // "PETJ" in little-endian
+  static final int VERSION = 1;
+
+  private final Path segmentDirectory;
+  private final long segmentBytes;
+  private final FsyncPolicy policy;
+  private final int batchBytes;
+  private final long maxDelayNanos;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition flushNeeded = lock.newCondition();
+  private final Condition progress = lock.newCondition();
+  private final Thread flusher;
+
+  // Replaced by the flusher when a segment rolls, or under the lock with EVERY_APPEND.
+  private FileChannel channel;
+  private ByteBuffer active;
+  private ByteBuffer spare;
+  private long appended;
+  private long durable;
+  private long firstPendingNanos;
+  private long commits;
+  private long rolls;
+  private boolean flushRequested;
+  private int waiting;
+  private boolean closed;
+  private IOException failure;
+
+  /**
+   * Opens a journal with the default batch size and delay.
+   *
+   * @param path   the journal file; created if it does not exist
+   * @param policy when to force writes to disk
+   * @return the open journal
+   * @throws IOException if the file cannot be opened or is not a journal
+   */
+  public static EventJournal open(Path path, FsyncPolicy policy) throws IOException {
+    return new EventJournal(path, policy, DEFAULT_BATCH_RECORDS, DEFAULT_MAX_DELAY_MILLIS,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Opens a segmented journal with the default batch size and delay.
+   *
+   * @param directory    the segment directory; created if it does not exist
+   * @param policy       when to force writes to disk
+   * @param segmentBytes the size at which a new segment is started
+   * @return the open journal, appending to the newest segment
+   * @throws IOException if the directory cannot be opened or holds a damaged segment
+   */
+  public static EventJournal openSegmented(Path directory, FsyncPolicy policy,
+      long segmentBytes) throws IOException {
+    return new EventJournal(directory, segmentBytes, policy, DEFAULT_BATCH_RECORDS,
+        DEFAULT_MAX_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Opens a journal for appending.
+   *
+   * @param path         the journal file; created if it does not exist
+   * @param policy       when to force writes to disk
+   * @param batchRecords the number of records that triggers a group commit
+   * @param maxDelay     the longest a record waits for its group commit
+   * @param unit         the unit of {@code maxDelay}
+   * @throws IOException if the file cannot be opened or is not a journal
+   */
+  public EventJournal(Path path, FsyncPolicy policy, int batchRecords, long maxDelay,
+      TimeUnit unit) throws IOException {
+    this(null, 0, path, policy, batchRecords, maxDelay, unit);
+  }
+
+  /**
+   * Opens a segmented journal for appending.
+   *
+   * @param directory    the segment directory; created if it does not exist
+   * @param segmentBytes the size at which a new segment is started
+   * @param policy       when to force writes to disk
+   * @param batchRecords the number of records that triggers a group commit
+   * @param maxDelay     the longest a record waits for its group commit
+   * @param unit         the unit of {@code maxDelay}
+   * @throws IOException if the directory cannot be opened or holds a damaged segment
+   */
+  public EventJournal(Path directory, long segmentBytes, FsyncPolicy policy,
+      int batchRecords, long maxDelay, TimeUnit unit) throws IOException {
+    this(Files.createDirectories(directory), segmentBytes, null, policy, batchRecords,
+        maxDelay, unit);
+  }
+
+  private EventJournal(Path segmentDirectory, long segmentBytes, Path path,
+      FsyncPolicy policy, int batchRecords, long maxDelay, TimeUnit unit) throws IOException {
+    if (batchRecords <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive: " + batchRecords);
+    }
+    if (segmentDirectory != null && segmentBytes <= HEADER_SIZE) {
+      throw new IllegalArgumentException("Segment size must exceed the header: "
+          + segmentBytes);
+    }
+    this.segmentDirectory = segmentDirectory;
+    this.segmentBytes = segmentBytes;
+    this.policy = policy;
+    this.batchBytes = batchRecords * JournalRecord.SIZE;
+    this.maxDelayNanos = unit.toNanos(maxDelay);
+    this.active = ByteBuffer.allocateDirect(batchBytes).order(ByteOrder.LITTLE_ENDIAN);
+    this.spare = ByteBuffer.allocateDirect(batchBytes).order(ByteOrder.LITTLE_ENDIAN);
+    long base = 0;
+    if (segmentDirectory != null) {
+      List<Path> segments = JournalSegments.list(segmentDirectory);
+      if (segments.isEmpty()) {
+        path = JournalSegments.path(segmentDirectory, 0);
+      } else {
+        path = segments.get(segments.size() - 1);
+        base = JournalSegments.base(path);
+      }
+    }
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      long sequence = prepare(channel, base);
+      appended = sequence;
+      durable = sequence;
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    if (policy == FsyncPolicy.EVERY_APPEND) {
+      flusher = null;
+    } else {
+      flusher = new Thread(this::runFlusher, "journal-flusher");
+      flusher.setDaemon(true);
+      flusher.start();
+    }
+  }
+
+  /**
+   * Appends a record.
+   * <p>
+   * With {@link FsyncPolicy#EVERY_APPEND} the record is on disk when this returns;
+   * otherwise it is queued for the next group commit.
+   *
+   * @param record the record to append
+   * @return the record's sequence number, for {@link #awaitDurable(long)}
+   * @throws IOException if the journal is closed or a previous write failed
+   */
+  public long append(JournalRecord record) throws IOException {
+    lock.lock();
+    try {
+      checkUsable();
+      if (policy == FsyncPolicy.EVERY_APPEND) {
+        active.clear();
+        record.encode(active);
+        active.flip();
+        writeFully(active);
+        channel.force(false);
+        commits++;
+        durable = ++appended;
+        if (rollIfFull(appended)) {
+          rolls++;
+        }
+        return appended;
+      }
+      while (active.remaining() < JournalRecord.SIZE) {
+        flushNeeded.signal();
+        progress.awaitUninterruptibly();
+        checkUsable();
+      }
+      if (active.position() == 0) {
+        firstPendingNanos = System.nanoTime();
+        flushNeeded.signal();
+      }
+      record.encode(active);
+      if (active.position() >= batchBytes) {
+        flushNeeded.signal();
+      }
+      return ++appended;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Waits until the record with the given sequence number, and every record before it,
+   * has been committed according to the policy.
+   *
+   * @param sequence a sequence number returned by {@link #append(JournalRecord)}
+   * @throws IOException if the commit failed
+   */
+  public void awaitDurable(long sequence) throws IOException {
+    lock.lock();
+    try {
+      while (durable < sequence) {
+        if (failure != null) {
+          throw failure;
+        }
+        waiting++;
+        flushNeeded.signal();
+        progress.awaitUninterruptibly();
+        waiting--;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Commits everything appended so far without waiting for the size or time trigger,
+   * and waits for it.
+   *
+   * @throws IOException if the commit failed
+   */
+  public void flush() throws IOException {
+    long target;
+    lock.lock();
+    try {
+      target = appended;
+      flushRequested = true;
+      flushNeeded.signal();
+    } finally {
+      lock.unlock();
+    }
+    awaitDurable(target);
+  }
+
+  /**
+   * Returns the number of records in the journal, including those not yet committed.
+   *
+   * @return the sequence number of the last appended record
+   */
+  public long appendedCount() {
+    lock.lock();
+    try {
+      return appended;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns how many write batches have been committed since the journal was opened.
+   * With {@link FsyncPolicy#GROUP} this is the number of fsyncs.
+   *
+   * @return the number of commits
+   */
+  public long commitCount() {
+    lock.lock();
+    try {
+      return commits;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns how many times a new segment has been started since the journal was opened.
+   *
+   * @return the number of segment rolls; always 0 for a single-file journal
+   */
+  public long rollCount() {
+    lock.lock();
+    try {
+      return rolls;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Commits all pending records, stops the flusher and closes the file.
+   *
+   * @throws IOException if the final commit failed
+   */
+  @Override
+  public void close() throws IOException {
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      flushNeeded.signal();
+    } finally {
+      lock.unlock();
+    }
+    try {
+      if (flusher != null) {
+        flusher.join();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      channel.close();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private void runFlusher() {
+    lock.lock();
+    try {
+      while (true) {
+        while (active.position() == 0 && !closed) {
+          flushNeeded.awaitUninterruptibly();
+        }
+        if (active.position() == 0) {
+          return;
+        }
+        while (!closed && !flushRequested && waiting == 0 && active.position() < batchBytes) {
+          long wait = firstPendingNanos + maxDelayNanos - System.nanoTime();
+          if (wait <= 0) {
+            break;
+          }
+          flushNeeded.awaitNanos(wait);
+        }
+        flushRequested = false;
+        ByteBuffer batch = active;
+        active = spare;
+        spare = batch;
+        long batchEnd = appended;
+        progress.signalAll();
+
+        lock.unlock();
+        IOException error = null;
+        boolean rolled = false;
+        try {
+          batch.flip();
+          writeFully(batch);
+          if (policy == FsyncPolicy.GROUP) {
+            channel.force(false);
+          }
+          rolled = rollIfFull(batchEnd);
+        } catch (IOException e) {
+          error = e;
+        } finally {
+          batch.clear();
+          lock.lock();
+        }
+        if (error != null) {
+          failure = error;
+          progress.signalAll();
+          return;
+        }
+        durable = batchEnd;
+        commits++;
+        if (rolled) {
+          rolls++;
+        }
+        progress.signalAll();
+      }
+    } catch (InterruptedException e) {
+      failure = new IOException("Journal flusher interrupted", e);
+      progress.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void checkUsable() throws IOException {
+    if (failure != null) {
+      throw failure;
+    }
+    if (closed) {
+      throw new IOException("Journal is closed");
+    }
+  }
+
+  /**
+   * Starts a new segment once the current one has reached the segment size. Only the
+   * thread that writes the file calls this: the flusher, or appenders under the lock with
+   * {@link FsyncPolicy#EVERY_APPEND}.
+   *
+   * @param base the sequence number of the last record in the current segment
+   * @return {@code true} if a new segment was started
+   */
+  private boolean rollIfFull(long base) throws IOException {
+    if (segmentDirectory == null || channel.position() < segmentBytes) {
+      return false;
+    }
+    Path path = JournalSegments.path(segmentDirectory, base);
+    FileChannel next = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      prepare(next, base);
+    } catch (IOException e) {
+      next.close();
+      // Left behind, the empty segment would make every later roll to this base fail.
+      try {
+        Files.deleteIfExists(path);
+      } catch (IOException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+      throw e;
+    }
+    JournalSegments.sync(segmentDirectory);
+    FileChannel full = channel;
+    channel = next;
+    full.close();
+    return true;
+  }
+
+  private void writeFully(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /**
+   * Writes the header of a new journal or segment, or checks the header of an existing one
+   * and cuts off a torn record at the end. Leaves the channel positioned for appending.
+   * <p>
+   * A file shorter than the header was cut off by a crash while it was being created, so
+   * it holds no records: its header is written again from {@code base}.
+   *
+   * @param base the base sequence to record in a new file
+   * @return the sequence number of the last complete record in the file
+   */
+  static long prepare(FileChannel channel, long base) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    if (channel.size() < HEADER_SIZE) {
+      channel.truncate(0);
+      header.putInt(MAGIC).putInt(VERSION).putLong(base).flip();
+      while (header.hasRemaining()) {
+        channel.write(header, header.position());
+      }
+      channel.force(true);
+      channel.position(HEADER_SIZE);
+      return base;
+    }
+    long existingBase = readHeader(channel, header);
+    long records = (channel.size() - HEADER_SIZE) / JournalRecord.SIZE;
+    long end = HEADER_SIZE + records * JournalRecord.SIZE;
+    if (channel.size() > end) {
+      channel.truncate(end);
+    }
+    channel.position(end);
+    return existingBase + records;
+  }
+
+  /**
+   * Reads and validates the header of an existing journal or segment.
+   *
+   * @return the base sequence: 0 for a journal file, or the number of records written
+   *         before the segment
+   */
+  static long readHeader(FileChannel channel, ByteBuffer header) throws IOException {
+    while (header.hasRemaining()) {
+      if (channel.read(header, header.position()) < 0) {
+        throw new IOException("Journal header is truncated");
+      }
+    }
+    header.flip();
+    if (header.getInt() != MAGIC) {
+      throw new IOException("Not a pet journal");
+    }
+    int version = header.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported journal version " + version);
+    }
+    return header.getLong();
+  }
+}
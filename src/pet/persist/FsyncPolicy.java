@@ -0,0 +1,27 @@
+package pet.persist;
+
+/**
+ * The {@code FsyncPolicy} enum selects when an {@link EventJournal} forces its writes to
+ * stable storage.
+ */
+public enum FsyncPolicy {
+
+  /**
+   * Every append is written and forced before it returns. Safest and slowest.
+   */
+  EVERY_APPEND,
+
+  /**
+   * Appends are collected into batches that are written and forced together once a batch
+   * is full or its oldest record has waited long enough (group commit). One fsync covers
+   * every pet that appended in the meantime.
+   */
+  GROUP,
+
+  /**
+   * Batches are written like {@link #GROUP} but never forced; durability is left to the
+   * operating system. Records can be lost on a power failure, though not on a crash of
+   * the process alone.
+   */
+  NEVER
+}
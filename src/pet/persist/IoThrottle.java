@@ -0,0 +1,79 @@
+package pet.persist;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code IoThrottle} class caps the bandwidth of background file I/O, so that
+ * maintenance work such as journal compaction leaves the disk to the group commit.
+ * <p>
+ * Callers report each chunk as they transfer it, and the throttle sleeps until the total
+ * fits under the rate. Unused time is not saved up, so a throttle that was idle does not
+ * allow a burst afterwards.
+ */
+final class IoThrottle {
+
+  /**
+   * A throttle that never waits.
+   */
+  static final IoThrottle NONE = new IoThrottle(0);
+
+  private final long bytesPerSecond;
+  private long nextFreeNanos;
+  private long throttledNanos;
+
+  /**
+   * Creates a throttle.
+   *
+   * @param bytesPerSecond the bandwidth cap; 0 or less means unlimited
+   */
+  IoThrottle(long bytesPerSecond) {
+    this.bytesPerSecond = bytesPerSecond;
+  }
+
+  /**
+   * Accounts for {@code bytes} transferred bytes, waiting until they fit under the rate.
+   *
+   * @throws InterruptedIOException if the thread is interrupted while waiting
+   */
+  void acquire(long bytes) throws IOException {
+    if (bytesPerSecond <= 0) {
+      return;
+    }
+    long wait;
+    synchronized (this) {
+      long now = System.nanoTime();
+      nextFreeNanos = Math.max(nextFreeNanos, now)
+          + (long) (bytes * (double) TimeUnit.SECONDS.toNanos(1) / bytesPerSecond);
+      wait = nextFreeNanos - now;
+      throttledNanos += Math.max(wait, 0);
+    }
+    if (wait > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(wait);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while throttled");
+      }
+    }
+  }
+
+  /**
+   * Returns the bandwidth cap.
+   *
+   * @return bytes per second, or 0 or less if unlimited
+   */
+  long getBytesPerSecond() {
+    return bytesPerSecond;
+  }
+
+  /**
+   * Returns how long callers have been made to wait in total.
+   *
+   * @return the throttled time in nanoseconds
+   */
+  synchronized long getThrottledNanos() {
+    return throttledNanos;
+  }
+}
@@ -0,0 +1,220 @@
+package pet.persist;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import pet.population.PetPopulation;
+
+/**
+ * The {@code JournalCompactor} class keeps a segmented {@link EventJournal} from growing
+ * without bound by folding old segments into a snapshot and deleting them.
+ * <p>
+ * A pass looks only at closed segments, i.e. every segment but the newest, which the
+ * journal never writes again, so it runs on its own thread while the tick loop keeps
+ * appending. It loads the latest state from the {@link SnapshotStore}, replays the closed
+ * segments past that state into it, and writes the result as a new full snapshot at the
+ * sequence where the newest segment begins. Closed segments that the latest snapshot
+ * covers are then deleted. When a checkpointer has already written a snapshot past them,
+ * they are deleted without replaying anything. Until the store holds a snapshot there is
+ * nothing to fold into and passes do nothing.
+ * <p>
+ * All file I/O of a pass, reading the snapshot and the segments as well as writing the new
+ * snapshot, goes through a bandwidth cap, so compaction does not starve the journal's
+ * group commit of disk time. A pass holds a copy of the population in memory while it
+ * folds.
+ */
+public class JournalCompactor implements AutoCloseable {
+
+  private final Path directory;
+  private final SnapshotStore store;
+  private final IoThrottle throttle;
+  private final ScheduledExecutorService scheduler;
+  // Written only by the thread running a pass, under this object's lock.
+  private volatile long passes;
+  private volatile long bytesReclaimed;
+  private volatile long segmentsDeleted;
+  private volatile long recordsFolded;
+  private volatile Exception lastFailure;
+
+  /**
+   * Creates a compactor that runs only when {@link #compact()} is called.
+   *
+   * @param directory      the directory of the segmented journal
+   * @param store          where snapshots are read from and written to
+   * @param bytesPerSecond the cap on compaction I/O; 0 or less means unlimited
+   */
+  public JournalCompactor(Path directory, SnapshotStore store, long bytesPerSecond) {
+    this(directory, store, bytesPerSecond, null);
+  }
+
+  private JournalCompactor(Path directory, SnapshotStore store, long bytesPerSecond,
+      ScheduledExecutorService scheduler) {
+    this.directory = directory;
+    this.store = store;
+    this.throttle = new IoThrottle(bytesPerSecond);
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Creates a compactor that runs a pass in the background after every {@code period}.
+   *
+   * @param directory      the directory of the segmented journal
+   * @param store          where snapshots are read from and written to
+   * @param bytesPerSecond the cap on compaction I/O; 0 or less means unlimited
+   * @param period         the delay between the end of one pass and the start of the next
+   * @param unit           the unit of {@code period}
+   * @return the compactor, already scheduled; {@link #close()} stops it
+   * @throws IllegalArgumentException if {@code period} is not positive
+   */
+  public static JournalCompactor start(Path directory, SnapshotStore store,
+      long bytesPerSecond, long period, TimeUnit unit) {
+    if (period <= 0) {
+      throw new IllegalArgumentException("Period must be positive: " + period);
+    }
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+      Thread thread = new Thread(task, "journal-compactor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    JournalCompactor compactor = new JournalCompactor(directory, store, bytesPerSecond,
+        scheduler);
+    scheduler.scheduleWithFixedDelay(compactor::compactQuietly, period, period, unit);
+    return compactor;
+  }
+
+  /**
+   * Runs one compaction pass on the calling thread.
+   *
+   * @return the number of segment bytes deleted by this pass
+   * @throws IOException if the segments or snapshots cannot be read, or the new snapshot
+   *                     cannot be written; no segment is deleted in that case
+   */
+  public synchronized long compact() throws IOException {
+    passes++;
+    List<Path> segments = JournalSegments.list(directory);
+    if (segments.size() < 2) {
+      return 0;
+    }
+    List<Path> closed = segments.subList(0, segments.size() - 1);
+    long closedEnd = JournalSegments.base(segments.get(segments.size() - 1));
+    SnapshotStore.Entry latest = store.loadLatest(throttle);
+    if (latest == null) {
+      return 0;
+    }
+    long covered = latest.getSequence();
+    if (covered < closedEnd) {
+      PetPopulation population = PetPopulation.restore(latest.getSnapshot());
+      long folded;
+      try (JournalReader reader = new JournalReader(closed, throttle)) {
+        folded = new JournalReplayer(population).applyAll(reader, covered);
+      }
+      if (folded > 0) {
+        covered += folded;
+        store.write(population.snapshot(), covered, throttle);
+        recordsFolded += folded;
+      }
+    }
+
+    long reclaimed = 0;
+    for (int i = 0; i < closed.size(); i++) {
+      long end = JournalSegments.base(segments.get(i + 1));
+      if (end > covered) {
+        break;
+      }
+      Path segment = closed.get(i);
+      long size = Files.size(segment);
+      Files.delete(segment);
+      reclaimed += size;
+      segmentsDeleted++;
+    }
+    if (reclaimed > 0) {
+      JournalSegments.sync(directory);
+      bytesReclaimed += reclaimed;
+    }
+    return reclaimed;
+  }
+
+  /**
+   * Returns how many passes have run, including those that found nothing to do.
+   *
+   * @return the number of passes
+   */
+  public long getPassCount() {
+    return passes;
+  }
+
+  /**
+   * Returns the total size of the segments deleted so far.
+   *
+   * @return the number of bytes reclaimed
+   */
+  public long getBytesReclaimed() {
+    return bytesReclaimed;
+  }
+
+  /**
+   * Returns how many segments have been deleted so far.
+   *
+   * @return the number of deleted segments
+   */
+  public long getSegmentsDeleted() {
+    return segmentsDeleted;
+  }
+
+  /**
+   * Returns how many journal records have been replayed into new snapshots so far.
+   *
+   * @return the number of folded records
+   */
+  public long getRecordsFolded() {
+    return recordsFolded;
+  }
+
+  /**
+   * Returns how long passes have waited for the bandwidth cap in total.
+   *
+   * @return the throttled time in nanoseconds
+   */
+  public long getThrottledNanos() {
+    return throttle.getThrottledNanos();
+  }
+
+  /**
+   * Returns the error of the most recent background pass that failed. A failed pass
+   * deletes nothing, and the next one starts over.
+   *
+   * @return the error, or {@code null} if no background pass has failed
+   */
+  public Exception getLastFailure() {
+    return lastFailure;
+  }
+
+  /**
+   * Stops background passes, waiting for a running one to finish.
+   */
+  @Override
+  public void close() {
+    if (scheduler == null) {
+      return;
+    }
+    scheduler.shutdown();
+    try {
+      scheduler.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void compactQuietly() {
+    try {
+      compact();
+    } catch (IOException | RuntimeException e) {
+      // Keep the schedule alive; the next pass starts over.
+      lastFailure = e;
+    }
+  }
+}
@@ -0,0 +1,216 @@
+package pet.persist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * The {@code JournalReader} class reads the records of an {@link EventJournal} file in
+ * order.
+ * <p>
+ * Reading stops at the end of the file, at an incomplete record left by a torn write, or at
+ * the first record that does not decode, so a journal that was cut short by a crash reads
+ * as its durable prefix.
+ * <p>
+ * Given the directory of a segmented journal, the reader continues from one segment into
+ * the next. It stops where a segment does not start at the sequence the previous one ended
+ * at, and it starts at the base sequence of the oldest segment left after compaction,
+ * see {@link #getStartSequence()}.
+ */
+public class JournalReader implements AutoCloseable {
+
+  private static final int BUFFER_RECORDS = 4096;
+
+  private final ByteBuffer buffer =
+      ByteBuffer.allocateDirect(BUFFER_RECORDS * JournalRecord.SIZE)
+          .order(ByteOrder.LITTLE_ENDIAN);
+  private final List<Path> files;
+  private final IoThrottle throttle;
+  private final long start;
+  private FileChannel channel;
+  private int file;
+  private boolean exhausted;
+  private long read;
+
+  /**
+   * Opens a journal for reading.
+   *
+   * @param path the journal file, or the directory of a segmented journal
+   * @throws IOException if the file cannot be opened or is not a journal
+   */
+  public JournalReader(Path path) throws IOException {
+    this(Files.isDirectory(path) ? JournalSegments.list(path) : List.of(path),
+        IoThrottle.NONE);
+  }
+
+  /**
+   * Opens a sequence of journal files for reading, in the given order.
+   *
+   * @param files    the journal file or segments
+   * @param throttle the cap on read bandwidth
+   */
+  JournalReader(List<Path> files, IoThrottle throttle) throws IOException {
+    this.files = files;
+    this.throttle = throttle;
+    buffer.flip();
+    if (files.isEmpty()) {
+      start = 0;
+      exhausted = true;
+    } else {
+      start = open(files.get(0));
+    }
+  }
+
+  /**
+   * Returns the next record.
+   *
+   * @return the record, or {@code null} when no complete record is left
+   * @throws IOException if the file cannot be read
+   */
+  public JournalRecord next() throws IOException {
+    if (exhausted) {
+      return null;
+    }
+    while (buffer.remaining() < JournalRecord.SIZE && !fill()) {
+      if (!nextFile()) {
+        return null;
+      }
+    }
+    JournalRecord record = JournalRecord.decode(buffer);
+    if (record == null) {
+      exhausted = true;
+      return null;
+    }
+    read++;
+    return record;
+  }
+
+  /**
+   * Skips records without decoding them. Since records have a fixed size, this seeks
+   * directly to the target record, and skips whole segments by their base sequence.
+   *
+   * @param records the number of records to skip
+   * @return the number of records skipped, less than requested if the file ends first
+   * @throws IOException if the file cannot be read
+   */
+  public long skip(long records) throws IOException {
+    if (records < 0) {
+      throw new IllegalArgumentException("Records must not be negative: " + records);
+    }
+    long skipped = 0;
+    while (!exhausted) {
+      long remaining = records - skipped;
+      long buffered = buffer.remaining() / JournalRecord.SIZE;
+      if (remaining <= buffered) {
+        buffer.position(buffer.position() + (int) remaining * JournalRecord.SIZE);
+        read += remaining;
+        return records;
+      }
+      long current = channel.position() - buffer.remaining();
+      long available = (channel.size() - current) / JournalRecord.SIZE;
+      long count = Math.min(remaining, available);
+      channel.position(current + count * JournalRecord.SIZE);
+      buffer.clear().flip();
+      read += count;
+      skipped += count;
+      if (skipped == records || !nextFile()) {
+        break;
+      }
+    }
+    return skipped;
+  }
+
+  /**
+   * Returns how many records have been read so far.
+   *
+   * @return the number of records returned by {@link #next()} or skipped
+   */
+  public long getRecordsRead() {
+    return read;
+  }
+
+  /**
+   * Returns the sequence number of the record before the first one this reader returns.
+   * It is 0 unless older segments have been compacted away.
+   *
+   * @return the base sequence of the oldest file
+   */
+  public long getStartSequence() {
+    return start;
+  }
+
+  @Override
+  public void close() throws IOException {
+    closeChannel();
+  }
+
+  private void closeChannel() throws IOException {
+    if (channel != null) {
+      channel.close();
+    }
+  }
+
+  /**
+   * Opens a journal file, closing the previous one, and positions it at the first record.
+   * A file shorter than the header, left by a crash while it was created, reads as empty.
+   *
+   * @return the base sequence from its header, or from its name if it has no header
+   */
+  private long open(Path path) throws IOException {
+    closeChannel();
+    channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      if (channel.size() < EventJournal.HEADER_SIZE) {
+        channel.position(channel.size());
+        return Math.max(JournalSegments.base(path), 0);
+      }
+      ByteBuffer header =
+          ByteBuffer.allocate(EventJournal.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      long base = EventJournal.readHeader(channel, header);
+      channel.position(EventJournal.HEADER_SIZE);
+      return base;
+    } catch (IOException e) {
+      channel.close();
+      channel = null;
+      throw e;
+    }
+  }
+
+  /**
+   * Moves on to the next segment, dropping any partial record left in the buffer.
+   *
+   * @return {@code true} if the next segment continues where the current one ended
+   */
+  private boolean nextFile() throws IOException {
+    exhausted = true;
+    if (file + 1 >= files.size() || open(files.get(++file)) != start + read) {
+      return false;
+    }
+    exhausted = false;
+    buffer.clear().flip();
+    return true;
+  }
+
+  /**
+   * Refills the buffer, keeping any partial record at its end.
+   *
+   * @return {@code true} if at least one complete record is available afterwards
+   */
+  private boolean fill() throws IOException {
+    buffer.compact();
+    while (buffer.hasRemaining()) {
+      int count = channel.read(buffer);
+      if (count < 0) {
+        break;
+      }
+      throttle.acquire(count);
+    }
+    buffer.flip();
+    return buffer.remaining() >= JournalRecord.SIZE;
+  }
+}
@@ -0,0 +1,306 @@
+package pet.persist;
+
+import java.nio.ByteBuffer;
+import pet.helper.Action;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.Personality;
+
+/**
+ * The {@code JournalRecord} class is one fixed-size entry of an {@link EventJournal}.
+ * <p>
+ * Every record takes {@value #SIZE} bytes, little-endian:
+ * <pre>
+ *   offset 0  byte   type code (see {@link Type})
+ *   offset 1  byte   argument: personality, action or mood ordinal
+ *   offset 2  short  reserved, always 0
+ *   offset 4  int    pet id
+ *   offset 8  long   value: seed, repeat count or packed deltas
+ * </pre>
+ * Because all records have the same size, a record can be located by its sequence number
+ * alone and a torn write at the end of a file is recognized by the file length.
+ */
+public final class JournalRecord {
+
+  /**
+   * Encoded size of every record in bytes.
+   */
+  public static final int SIZE = 16;
+
+  /**
+   * The kinds of events a journal records.
+   */
+  public enum Type {
+    /**
+     * {@code startGame(seed)}; the argument is the personality assigned at start.
+     */
+    START(1),
+    /**
+     * {@code advance(value)}, i.e. {@code value} calls to {@code step()}.
+     */
+    STEP(2),
+    /**
+     * {@code interactWith(action, value)}; the argument is the action.
+     */
+    INTERACT(3),
+    /**
+     * {@code setPersonality(personality)}; the argument is the personality.
+     */
+    PERSONALITY(4),
+    /**
+     * {@code setMood(mood)}; the argument is the mood.
+     */
+    MOOD(5),
+    /**
+     * {@code adjustNeeds(...)}; the value packs the four deltas as 16-bit fields.
+     */
+    ADJUST(6),
+    /**
+     * {@code value} ticks of a whole population, each stepping every living pet once; the
+     * pet id is unused.
+     */
+    TICK(7);
+
+    private static final Type[] BY_CODE = new Type[8];
+
+    static {
+      for (Type type : values()) {
+        BY_CODE[type.code] = type;
+      }
+    }
+
+    private final byte code;
+
+    Type(int code) {
+      this.code = (byte) code;
+    }
+
+    /**
+     * Returns the type with the given code.
+     *
+     * @param code the code read from a record
+     * @return the matching type, or {@code null} if the code is unknown
+     */
+    static Type fromCode(int code) {
+      return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+  }
+
+  private final Type type;
+  private final int argument;
+  private final int petId;
+  private final long value;
+
+  private JournalRecord(Type type, int argument, int petId, long value) {
+    this.type = type;
+    this.argument = argument;
+    this.petId = petId;
+    this.value = value;
+  }
+
+  /**
+   * Creates a record for a pet being started.
+   *
+   * @param petId       the pet's id
+   * @param personality the personality assigned at start
+   * @param seed        the seed passed to {@code startGame}
+   * @return the record
+   */
+  public static JournalRecord start(int petId, Personality personality, long seed) {
+    return new JournalRecord(Type.START, personality.ordinal(), petId, seed);
+  }
+
+  /**
+   * Creates a record for one or more steps.
+   *
+   * @param petId the pet's id
+   * @param steps the number of steps
+   * @return the record
+   */
+  public static JournalRecord step(int petId, long steps) {
+    return new JournalRecord(Type.STEP, 0, petId, steps);
+  }
+
+  /**
+   * Creates a record for one or more ticks of a whole population.
+   *
+   * @param ticks the number of ticks
+   * @return the record
+   */
+  public static JournalRecord tick(long ticks) {
+    return new JournalRecord(Type.TICK, 0, 0, ticks);
+  }
+
+  /**
+   * Creates a record for one or more identical interactions.
+   *
+   * @param petId  the pet's id
+   * @param action the interaction
+   * @param times  how many times it was applied
+   * @return the record
+   */
+  public static JournalRecord interact(int petId, Action action, int times) {
+    return new JournalRecord(Type.INTERACT, action.ordinal(), petId, times);
+  }
+
+  /**
+   * Creates a record for a personality change.
+   *
+   * @param petId       the pet's id
+   * @param personality the new personality
+   * @return the record
+   */
+  public static JournalRecord personality(int petId, Personality personality) {
+    return new JournalRecord(Type.PERSONALITY, personality.ordinal(), petId, 0);
+  }
+
+  /**
+   * Creates a record for a mood set by hand.
+   *
+   * @param petId the pet's id
+   * @param mood  the new mood
+   * @return the record
+   */
+  public static JournalRecord mood(int petId, MoodEnum mood) {
+    return new JournalRecord(Type.MOOD, mood.ordinal(), petId, 0);
+  }
+
+  /**
+   * Creates a record for a direct need adjustment. Deltas beyond ±32767 are stored
+   * saturated, which does not change their effect since needs stay within [0, 100].
+   *
+   * @param petId        the pet's id
+   * @param hungerDelta  change in hunger
+   * @param hygieneDelta change in hygiene
+   * @param socialDelta  change in social
+   * @param sleepDelta   change in sleep
+   * @return the record
+   */
+  public static JournalRecord adjust(int petId, int hungerDelta, int hygieneDelta,
+      int socialDelta, int sleepDelta) {
+    long packed = (shortOf(hungerDelta) & 0xFFFFL)
+        | (shortOf(hygieneDelta) & 0xFFFFL) << 16
+        | (shortOf(socialDelta) & 0xFFFFL) << 32
+        | (shortOf(sleepDelta) & 0xFFFFL) << 48;
+    return new JournalRecord(Type.ADJUST, 0, petId, packed);
+  }
+
+  /**
+   * Returns the kind of event.
+   *
+   * @return the record type
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Returns the pet the event applies to.
+   *
+   * @return the pet id
+   */
+  public int getPetId() {
+    return petId;
+  }
+
+  /**
+   * Returns the raw value field: the seed, repeat count or packed deltas.
+   *
+   * @return the value
+   */
+  public long getValue() {
+    return value;
+  }
+
+  /**
+   * Returns the personality of a {@link Type#START} or {@link Type#PERSONALITY} record.
+   *
+   * @return the personality
+   */
+  public Personality getPersonality() {
+    return Personality.values()[argument];
+  }
+
+  /**
+   * Returns the action of an {@link Type#INTERACT} record.
+   *
+   * @return the action
+   */
+  public Action getAction() {
+    return Action.values()[argument];
+  }
+
+  /**
+   * Returns the mood of a {@link Type#MOOD} record.
+   *
+   * @return the mood
+   */
+  public MoodEnum getMood() {
+    return MoodEnum.values()[argument];
+  }
+
+  /**
+   * Returns one of the four deltas of an {@link Type#ADJUST} record.
+   *
+   * @param need the need position, from 0 (hunger) to 3 (sleep)
+   * @return the delta
+   */
+  public int getDelta(int need) {
+    return (short) (value >>> (16 * need));
+  }
+
+  /**
+   * Writes this record at the buffer's position, which must have {@value #SIZE} bytes left.
+   * The buffer must be little-endian.
+   *
+   * @param buffer the buffer to write to
+   */
+  void encode(ByteBuffer buffer) {
+    buffer.put(type.code);
+    buffer.put((byte) argument);
+    buffer.putShort((short) 0);
+    buffer.putInt(petId);
+    buffer.putLong(value);
+  }
+
+  /**
+   * Reads a record at the buffer's position. The buffer must be little-endian.
+   *
+   * @param buffer the buffer to read from
+   * @return the record, or {@code null} if the bytes do not hold a valid record
+   */
+  static JournalRecord decode(ByteBuffer buffer) {
+    Type type = Type.fromCode(buffer.get());
+    int argument = buffer.get() & 0xFF;
+    short reserved = buffer.getShort();
+    int petId = buffer.getInt();
+    long value = buffer.getLong();
+    if (type == null || reserved != 0) {
+      return null;
+    }
+    return new JournalRecord(type, argument, petId, value);
+  }
+
+  private static short shortOf(int delta) {
+    return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, delta));
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof JournalRecord that)) {
+      return false;
+    }
+    return type == that.type && argument == that.argument && petId == that.petId
+        && value == that.value;
+  }
+
+  @Override
+  public int hashCode() {
+    return ((type.hashCode() * 31 + argument) * 31 + petId) * 31 + Long.hashCode(value);
+  }
+
+  @Override
+  public String toString() {
+    return "JournalRecord{" + type + ", arg=" + argument + ", pet=" + petId
+        + ", value=" + value + "}";
+  }
+}
@@ -0,0 +1,214 @@
+package pet.persist;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import pet.Pet;
+import pet.PetInterface;
+import pet.helper.personality.PersonalityTables;
+import pet.population.DecayKernel;
+import pet.population.PetPopulation;
+
+/**
+ * The {@code JournalReplayer} class rebuilds pets by applying journal records in order.
+ * <p>
+ * A {@link JournalRecord.Type#START} record starts the pet with the recorded seed, so its
+ * personality and every later random draw come out exactly as in the original run; all
+ * other records call the matching {@link PetInterface} method. Replaying a complete journal
+ * therefore reproduces the live pets field for field.
+ * <p>
+ * The pets are either standalone {@link Pet} objects, created by their start records, or
+ * the pets of a {@link PetPopulation}, addressed by index. A replayer over a population
+ * restored from a snapshot only needs the journal records written after the snapshot.
+ */
+public class JournalReplayer {
+
+  private final Map<Integer, Pet> pets = new HashMap<>();
+  private final PetPopulation population;
+  private final DecayKernel kernel;
+  private long applied;
+
+  /**
+   * Creates a replayer that builds standalone pets.
+   */
+  public JournalReplayer() {
+    this.population = null;
+    this.kernel = null;
+  }
+
+  /**
+   * Creates a replayer that applies records to the pets of a population.
+   *
+   * @param population the population, e.g. one restored from a snapshot
+   */
+  public JournalReplayer(PetPopulation population) {
+    this.population = population;
+    this.kernel = DecayKernel.create();
+  }
+
+  /**
+   * Replays a whole journal file into a new replayer of standalone pets.
+   *
+   * @param path the journal file
+   * @return the replayer holding the rebuilt pets
+   * @throws IOException if the file cannot be read or is not a journal
+   */
+  public static JournalReplayer replay(Path path) throws IOException {
+    JournalReplayer replayer = new JournalReplayer();
+    replayer.applyAll(path);
+    return replayer;
+  }
+
+  /**
+   * Applies every record of a journal file, in order.
+   *
+   * @param path the journal file, or the directory of a segmented journal
+   * @return the number of records applied
+   * @throws IOException if the file cannot be read or is not a journal
+   */
+  public long applyAll(Path path) throws IOException {
+    return applyAll(path, 0);
+  }
+
+  /**
+   * Applies the records of a journal file from the given sequence number on, in order.
+   *
+   * @param path  the journal file, or the directory of a segmented journal
+   * @param after the number of leading records to skip, e.g. the sequence number a
+   *              snapshot was taken at
+   * @return the number of records applied
+   * @throws IOException if the file cannot be read or is not a journal, or if the records
+   *                     right after {@code after} have been compacted away
+   */
+  public long applyAll(Path path, long after) throws IOException {
+    try (JournalReader reader = new JournalReader(path)) {
+      return applyAll(reader, after);
+    }
+  }
+
+  /**
+   * Applies the records of an open reader from the given sequence number on, in order.
+   */
+  long applyAll(JournalReader reader, long after) throws IOException {
+    if (after < reader.getStartSequence()) {
+      throw new IOException("Journal starts after record " + reader.getStartSequence()
+          + ", cannot replay from " + after);
+    }
+    reader.skip(after - reader.getStartSequence());
+    long count = 0;
+    JournalRecord record;
+    while ((record = reader.next()) != null) {
+      apply(record);
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Applies a single record.
+   *
+   * @param record the record to apply
+   * @throws IllegalStateException if the record refers to a pet that was never started
+   */
+  public void apply(JournalRecord record) {
+    switch (record.getType()) {
+      case START -> start(record);
+      case TICK -> tick(record.getValue());
+      case STEP -> target(record).advance(record.getValue());
+      case INTERACT -> target(record).interactWith(record.getAction(),
+          (int) record.getValue());
+      case PERSONALITY -> target(record).setPersonality(record.getPersonality());
+      case MOOD -> target(record).setMood(record.getMood());
+      case ADJUST -> target(record).adjustNeeds(record.getDelta(PersonalityTables.HUNGER),
+          record.getDelta(PersonalityTables.HYGIENE), record.getDelta(PersonalityTables.SOCIAL),
+          record.getDelta(PersonalityTables.SLEEP));
+      default -> throw new IllegalStateException("Unexpected record " + record);
+    }
+    applied++;
+  }
+
+  /**
+   * Returns the standalone pet with the given id.
+   *
+   * @param id the pet's id
+   * @return the rebuilt pet, or {@code null} if the journal never started it
+   */
+  public Pet getPet(int id) {
+    return pets.get(id);
+  }
+
+  /**
+   * Returns all rebuilt standalone pets by id. Empty for a replayer over a population.
+   *
+   * @return an unmodifiable view of the pets
+   */
+  public Map<Integer, Pet> getPets() {
+    return Collections.unmodifiableMap(pets);
+  }
+
+  /**
+   * Returns the population records are applied to.
+   *
+   * @return the population, or {@code null} for a replayer of standalone pets
+   */
+  public PetPopulation getPopulation() {
+    return population;
+  }
+
+  /**
+   * Returns how many records have been applied.
+   *
+   * @return the record count
+   */
+  public long getAppliedCount() {
+    return applied;
+  }
+
+  private void start(JournalRecord record) {
+    int id = record.getPetId();
+    if (population != null) {
+      checkIndex(id);
+      population.startGame(id, record.getValue());
+      population.get(id).setPersonality(record.getPersonality());
+      return;
+    }
+    Pet pet = new Pet(id);
+    pet.startGame(record.getValue());
+    pet.setPersonality(record.getPersonality());
+    pets.put(id, pet);
+  }
+
+  private void tick(long ticks) {
+    if (population == null) {
+      for (Pet pet : pets.values()) {
+        pet.advance(ticks);
+      }
+      return;
+    }
+    for (long t = 0; t < ticks; t++) {
+      population.stepAll(kernel);
+    }
+  }
+
+  private PetInterface target(JournalRecord record) {
+    int id = record.getPetId();
+    if (population != null) {
+      checkIndex(id);
+      return population.get(id);
+    }
+    Pet pet = pets.get(id);
+    if (pet == null) {
+      throw new IllegalStateException("Journal refers to unknown pet " + id);
+    }
+    return pet;
+  }
+
+  private void checkIndex(int id) {
+    if (id < 0 || id >= population.size()) {
+      throw new IllegalStateException("Journal refers to pet " + id
+          + " outside a population of " + population.size());
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package pet.persist;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The {@code JournalSegments} class names and lists the segment files of a segmented
+ * {@link EventJournal}.
+ * <p>
+ * A segment is named after its base sequence, the number of journal records written before
+ * its first record, so listing the directory in name order yields the journal in order, and
+ * every segment but the newest ends where the next one begins.
+ */
+final class JournalSegments {
+
+  private static final String PREFIX = "journal-";
+  private static final String SUFFIX = ".seg";
+
+  private JournalSegments() {
+  }
+
+  /**
+   * Returns the segment files in a directory, oldest first.
+   */
+  static List<Path> list(Path directory) throws IOException {
+    List<Path> segments = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+        PREFIX + "*" + SUFFIX)) {
+      for (Path file : files) {
+        if (base(file) >= 0) {
+          segments.add(file);
+        }
+      }
+    }
+    segments.sort(Comparator.comparingLong(JournalSegments::base));
+    return segments;
+  }
+
+  /**
+   * Returns the file of the segment starting after {@code base} records.
+   */
+  static Path path(Path directory, long base) {
+    return directory.resolve(String.format("%s%019d%s", PREFIX, base, SUFFIX));
+  }
+
+  /**
+   * Returns the base sequence encoded in a segment's name, or -1 if it is not a segment.
+   */
+  static long base(Path segment) {
+    String name = segment.getFileName().toString();
+    try {
+      return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    } catch (NumberFormatException | IndexOutOfBoundsException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Forces the directory entries of created and deleted segments to disk where the
+   * platform allows it.
+   */
+  static void sync(Path directory) {
+    try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException e) {
+      // Not supported for directories on every platform.
+    }
+  }
+}
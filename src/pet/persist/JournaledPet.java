@@ -0,0 +1,196 @@
+package pet.persist;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+import pet.Pet;
+import pet.PetInterface;
+import pet.event.PetListener;
+import pet.helper.Action;
+import pet.helper.HealthStatus;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.Personality;
+
+/**
+ * The {@code JournaledPet} class is a {@link PetInterface} that records every state change
+ * of a {@link Pet} in an {@link EventJournal} before applying it.
+ * <p>
+ * Reads go straight to the wrapped pet. Writes are appended to the journal first, so a
+ * change the pet has seen is always in the journal; whether it is already on disk depends
+ * on the journal's {@link FsyncPolicy}. Call {@link #awaitDurable()} to wait for it.
+ * Several journaled pets may share one journal, and their records are then committed
+ * together.
+ * <p>
+ * Journal failures are rethrown as {@link UncheckedIOException}, since the pet interface
+ * does not declare checked exceptions.
+ */
+public class JournaledPet implements PetInterface {
+
+  private final Pet pet;
+  private final int id;
+  private final EventJournal journal;
+  private long lastSequence;
+
+  /**
+   * Creates a journaled pet around a new {@link Pet} with the given id.
+   *
+   * @param id      the pet's id, which identifies it in the journal
+   * @param journal the journal to record to
+   */
+  public JournaledPet(int id, EventJournal journal) {
+    this.pet = new Pet(id);
+    this.id = id;
+    this.journal = journal;
+  }
+
+  /**
+   * Returns the wrapped pet. Changes made to it directly are not journaled.
+   *
+   * @return the underlying pet
+   */
+  public Pet getPet() {
+    return pet;
+  }
+
+  /**
+   * Waits until every change made through this pet has been committed.
+   *
+   * @throws UncheckedIOException if the journal failed
+   */
+  public void awaitDurable() {
+    try {
+      journal.awaitDurable(lastSequence);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void startGame() {
+    startGame(ThreadLocalRandom.current().nextLong());
+  }
+
+  @Override
+  public void startGame(long seed) {
+    record(JournalRecord.start(id, Personality.forPet(seed, id), seed));
+    pet.startGame(seed);
+  }
+
+  @Override
+  public void step() {
+    record(JournalRecord.step(id, 1));
+    pet.step();
+  }
+
+  @Override
+  public void advance(long steps) {
+    if (steps < 0) {
+      throw new IllegalArgumentException("Steps must not be negative: " + steps);
+    }
+    record(JournalRecord.step(id, steps));
+    pet.advance(steps);
+  }
+
+  @Override
+  public void interactWith(Action action) {
+    record(JournalRecord.interact(id, action, 1));
+    pet.interactWith(action);
+  }
+
+  @Override
+  public void interactWith(Action action, int times) {
+    if (times < 0) {
+      throw new IllegalArgumentException("Times must not be negative: " + times);
+    }
+    record(JournalRecord.interact(id, action, times));
+    pet.interactWith(action, times);
+  }
+
+  @Override
+  public void setMood(MoodEnum mood) {
+    record(JournalRecord.mood(id, mood));
+    pet.setMood(mood);
+  }
+
+  @Override
+  public void setPersonality(Personality personality) {
+    record(JournalRecord.personality(id, personality));
+    pet.setPersonality(personality);
+  }
+
+  @Override
+  public void adjustNeeds(int hungerDelta, int hygieneDelta, int socialDelta,
+      int sleepDelta) {
+    record(JournalRecord.adjust(id, hungerDelta, hygieneDelta, socialDelta, sleepDelta));
+    pet.adjustNeeds(hungerDelta, hygieneDelta, socialDelta, sleepDelta);
+  }
+
+  @Override
+  public HealthStatus getHealth() {
+    return pet.getHealth();
+  }
+
+  @Override
+  public MoodEnum getMood() {
+    return pet.getMood();
+  }
+
+  @Override
+  public Personality getPersonality() {
+    return pet.getPersonality();
+  }
+
+  @Override
+  public boolean isAlive() {
+    return pet.isAlive();
+  }
+
+  @Override
+  public boolean needShower() {
+    return pet.needShower();
+  }
+
+  @Override
+  public boolean needFeed() {
+    return pet.needFeed();
+  }
+
+  @Override
+  public boolean needPlay() {
+    return pet.needPlay();
+  }
+
+  @Override
+  public boolean needSleep() {
+    return pet.needSleep();
+  }
+
+  @Override
+  public boolean supportsListeners() {
+    return pet.supportsListeners();
+  }
+
+  /**
+   * Registers a listener on the wrapped pet. Listeners are not part of the pet's state and
+   * are not journaled.
+   *
+   * @param listener the listener to add
+   */
+  @Override
+  public void addListener(PetListener listener) {
+    pet.addListener(listener);
+  }
+
+  @Override
+  public void removeListener(PetListener listener) {
+    pet.removeListener(listener);
+  }
+
+  private void record(JournalRecord record) {
+    try {
+      lastSequence = journal.append(record);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
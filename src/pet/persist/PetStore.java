@@ -0,0 +1,404 @@
+package pet.persist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import pet.helper.Action;
+import pet.helper.PackedNeeds;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.CounterRandom;
+import pet.helper.personality.Personality;
+import pet.helper.personality.PersonalityTables;
+
+/**
+ * The {@code PetStore} class keeps the state of many pets in a memory-mapped file instead of
+ * on the Java heap.
+ * <p>
+ * Every pet is a fixed-width record of {@value #RECORD_SIZE} bytes, little-endian:
+ * <pre>
+ *   offset 0   long  random stream
+ *   offset 8   long  step counter
+ *   offset 16  int   needs in the {@link PackedNeeds} layout
+ *   offset 20  byte  mood ordinal
+ *   offset 21  byte  alive flag
+ *   offset 22  byte  personality ordinal
+ *   offset 23  byte  reserved
+ * </pre>
+ * The records follow a {@value #HEADER_SIZE}-byte header and are mapped in regions of
+ * {@value #REGION_PETS} pets, so a store can hold more pets than fit in a single buffer
+ * or in the heap. The garbage collector never sees pet state, the operating system pages
+ * records in and out on demand, and reopening the file after a restart finds every pet as
+ * it was left. Changes reach the file when the operating system writes the pages back, or
+ * at the latest on {@link #force()}.
+ * <p>
+ * Sweeps in index order such as {@link #stepAll()} touch each page once and run at memory
+ * speed. Random single-pet writes across a store whose dirty pages exceed the operating
+ * system's write-back limits are throttled by write-back instead, so such workloads should
+ * either fit those limits or be batched by index.
+ * <p>
+ * Pets are addressed by index, which is also their id, and behave exactly like a
+ * {@code Pet} with the same id started with the same seed. Use {@link #get(long)} for a
+ * {@link pet.PetInterface} handle. Like {@code PetPopulation}, a store is not thread-safe.
+ */
+public class PetStore implements AutoCloseable {
+
+  /**
+   * Size of one pet record in bytes.
+   */
+  public static final int RECORD_SIZE = 24;
+
+  /**
+   * Size of the file header in bytes.
+   */
+  public static final int HEADER_SIZE = 64;
+
+  /**
+   * Number of pets per mapped region.
+   */
+  public static final int REGION_PETS = 1 << 24;
+
+  static final int MAGIC = 0x4D544550; // "PETM" in little-endian
+  static final int VERSION = 1;
+
+  private static final int STREAM = 0;
+  private static final int TICK = 8;
+  private static final int NEEDS = 16;
+  private static final int MOOD = 20;
+  private static final int ALIVE = 21;
+  private static final int PERSONALITY = 22;
+
+  private static final int REGION_SHIFT = Integer.numberOfTrailingZeros(REGION_PETS);
+  private static final int REGION_MASK = REGION_PETS - 1;
+  private static final int INITIAL_NEEDS = PackedNeeds.pack(50, 50, 50, 50);
+  private static final MoodEnum[] MOODS = MoodEnum.values();
+  private static final Personality[] PERSONALITIES = Personality.values();
+  private static final int HAPPY = MoodEnum.HAPPY.ordinal();
+  private static final int SAD = MoodEnum.SAD.ordinal();
+
+  private final FileChannel channel;
+  private final long size;
+  private final MappedByteBuffer[] regions;
+  private boolean closed;
+
+  private PetStore(FileChannel channel, long size) throws IOException {
+    this.channel = channel;
+    this.size = size;
+    int count = (int) ((size + REGION_PETS - 1) >>> REGION_SHIFT);
+    this.regions = new MappedByteBuffer[count];
+    for (int region = 0; region < count; region++) {
+      long first = (long) region << REGION_SHIFT;
+      long pets = Math.min(REGION_PETS, size - first);
+      regions[region] = channel.map(FileChannel.MapMode.READ_WRITE,
+          HEADER_SIZE + first * RECORD_SIZE, pets * RECORD_SIZE);
+      regions[region].order(ByteOrder.LITTLE_ENDIAN);
+    }
+  }
+
+  /**
+   * Opens a store file, creating it if it does not exist.
+   * <p>
+   * An existing store keeps its pets. If it holds fewer than {@code size} pets it is grown,
+   * and the new pets are not started yet, like a freshly constructed {@code Pet}.
+   *
+   * @param path the store file
+   * @param size the minimum number of pets the store must hold
+   * @return the open store
+   * @throws IOException if the file cannot be opened or is not a pet store
+   */
+  public static PetStore open(Path path, long size) throws IOException {
+    if (size < 0) {
+      throw new IllegalArgumentException("Store size must not be negative: " + size);
+    }
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      long stored = 0;
+      if (channel.size() > 0) {
+        while (header.hasRemaining()) {
+          if (channel.read(header, header.position()) < 0) {
+            throw new IOException("Pet store header is truncated");
+          }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC) {
+          throw new IOException("Not a pet store");
+        }
+        int version = header.getInt();
+        int recordSize = header.getInt();
+        if (version != VERSION || recordSize != RECORD_SIZE) {
+          throw new IOException("Unsupported pet store version " + version);
+        }
+        header.getInt();
+        stored = header.getLong();
+        if (channel.size() < HEADER_SIZE + stored * RECORD_SIZE) {
+          throw new IOException("Pet store is shorter than its " + stored + " pets");
+        }
+      }
+      long capacity = Math.max(stored, size);
+      if (capacity != stored || channel.size() == 0) {
+        header.clear();
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0).putLong(capacity)
+            .position(HEADER_SIZE).flip();
+        while (header.hasRemaining()) {
+          channel.write(header, header.position());
+        }
+      }
+      return new PetStore(channel, capacity);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the number of pets in the store.
+   *
+   * @return the store size
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Returns a handle for the pet at the given index.
+   * The handle holds no state of its own; every call reads and writes the mapped record.
+   *
+   * @param index the index of the pet
+   * @return a handle backed by this store
+   */
+  public StoredPet get(long index) {
+    checkIndex(index);
+    return new StoredPet(this, index);
+  }
+
+  /**
+   * Starts every pet in the store, as if {@code startGame(seed)} had been called on each.
+   *
+   * @param seed the seed of the run
+   */
+  public void startAll(long seed) {
+    for (long i = 0; i < size; i++) {
+      start(i, seed);
+    }
+  }
+
+  /**
+   * Starts a single pet with a fresh random seed.
+   *
+   * @param index the index of the pet
+   */
+  public void startGame(long index) {
+    startGame(index, ThreadLocalRandom.current().nextLong());
+  }
+
+  /**
+   * Starts a single pet: all needs are set to the default midpoint, the pet is alive,
+   * HAPPY, and receives the personality its seed and id select.
+   *
+   * @param index the index of the pet
+   * @param seed  the seed of the run
+   */
+  public void startGame(long index, long seed) {
+    checkIndex(index);
+    start(index, seed);
+  }
+
+  /**
+   * Advances every living pet by one time step, in index order.
+   *
+   * @return the number of pets that died during this step
+   */
+  public int stepAll() {
+    int deaths = 0;
+    for (int region = 0; region < regions.length; region++) {
+      MappedByteBuffer buffer = regions[region];
+      int limit = buffer.capacity();
+      for (int offset = 0; offset < limit; offset += RECORD_SIZE) {
+        if (buffer.get(offset + ALIVE) != 0 && step(buffer, offset)) {
+          deaths++;
+        }
+      }
+    }
+    return deaths;
+  }
+
+  /**
+   * Advances a single pet by one time step.
+   *
+   * @param index the index of the pet
+   */
+  public void step(long index) {
+    checkIndex(index);
+    MappedByteBuffer buffer = region(index);
+    int offset = offset(index);
+    if (buffer.get(offset + ALIVE) != 0) {
+      step(buffer, offset);
+    }
+  }
+
+  /**
+   * Applies a user interaction to a single pet.
+   *
+   * @param index  the index of the pet
+   * @param action the interaction to apply
+   */
+  public void interactWith(long index, Action action) {
+    checkIndex(index);
+    MappedByteBuffer buffer = region(index);
+    int offset = offset(index);
+    if (buffer.get(offset + ALIVE) == 0) {
+      return;
+    }
+    int entry = PersonalityTables.interactIndex(buffer.get(offset + PERSONALITY),
+        buffer.get(offset + MOOD), action.ordinal());
+    int needs = PackedNeeds.adjust(buffer.getInt(offset + NEEDS),
+        PersonalityTables.interactDelta(entry, PersonalityTables.HUNGER),
+        PersonalityTables.interactDelta(entry, PersonalityTables.HYGIENE),
+        PersonalityTables.interactDelta(entry, PersonalityTables.SOCIAL),
+        PersonalityTables.interactDelta(entry, PersonalityTables.SLEEP));
+    evaluate(buffer, offset, needs);
+  }
+
+  /**
+   * Returns the number of pets that are currently alive.
+   *
+   * @return the count of living pets
+   */
+  public long aliveCount() {
+    long count = 0;
+    for (MappedByteBuffer buffer : regions) {
+      for (int offset = 0; offset < buffer.capacity(); offset += RECORD_SIZE) {
+        count += buffer.get(offset + ALIVE);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Writes every modified page back to the file.
+   */
+  public void force() {
+    for (MappedByteBuffer buffer : regions) {
+      buffer.force();
+    }
+  }
+
+  /**
+   * Forces all changes to the file and closes it. The mapping itself is released once the
+   * store is no longer reachable; handles must not be used after closing.
+   *
+   * @throws IOException if the file cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      force();
+      channel.close();
+    }
+  }
+
+  int packedNeeds(long index) {
+    return region(index).getInt(offset(index) + NEEDS);
+  }
+
+  void setPackedNeeds(long index, int needs) {
+    region(index).putInt(offset(index) + NEEDS, needs);
+  }
+
+  long tick(long index) {
+    return region(index).getLong(offset(index) + TICK);
+  }
+
+  boolean isAlive(long index) {
+    return region(index).get(offset(index) + ALIVE) != 0;
+  }
+
+  MoodEnum mood(long index) {
+    return MOODS[region(index).get(offset(index) + MOOD)];
+  }
+
+  void setMood(long index, MoodEnum mood) {
+    region(index).put(offset(index) + MOOD, (byte) mood.ordinal());
+  }
+
+  Personality personality(long index) {
+    return PERSONALITIES[region(index).get(offset(index) + PERSONALITY)];
+  }
+
+  void setPersonality(long index, Personality personality) {
+    region(index).put(offset(index) + PERSONALITY, (byte) personality.ordinal());
+  }
+
+  void checkIndex(long index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(
+          "Pet index " + index + " out of range [0, " + size + ")");
+    }
+  }
+
+  private void start(long index, long seed) {
+    MappedByteBuffer buffer = region(index);
+    int offset = offset(index);
+    long stream = CounterRandom.stream(seed, index);
+    buffer.putLong(offset + STREAM, stream);
+    buffer.putLong(offset + TICK, 0);
+    buffer.putInt(offset + NEEDS, INITIAL_NEEDS);
+    buffer.put(offset + MOOD, (byte) HAPPY);
+    buffer.put(offset + ALIVE, (byte) 1);
+    buffer.put(offset + PERSONALITY, (byte) Personality.forStream(stream).ordinal());
+  }
+
+  /**
+   * Steps one living pet, mirroring {@code Pet.step()}.
+   *
+   * @return {@code true} if the pet died
+   */
+  private static boolean step(MappedByteBuffer buffer, int offset) {
+    int personality = buffer.get(offset + PERSONALITY);
+    int entry = PersonalityTables.stepIndex(personality, buffer.get(offset + MOOD));
+    long tick = buffer.getLong(offset + TICK);
+    buffer.putLong(offset + TICK, tick + 1);
+    int variation = PersonalityTables.stepVariation(personality,
+        CounterRandom.key(buffer.getLong(offset + STREAM), tick));
+    int needs = PackedNeeds.adjust(buffer.getInt(offset + NEEDS),
+        PersonalityTables.stepDelta(entry, PersonalityTables.HUNGER)
+            + PackedNeeds.hunger(variation),
+        PersonalityTables.stepDelta(entry, PersonalityTables.HYGIENE)
+            + PackedNeeds.hygiene(variation),
+        PersonalityTables.stepDelta(entry, PersonalityTables.SOCIAL)
+            + PackedNeeds.social(variation),
+        PersonalityTables.stepDelta(entry, PersonalityTables.SLEEP)
+            + PackedNeeds.sleep(variation));
+    return evaluate(buffer, offset, needs);
+  }
+
+  /**
+   * Stores new needs and runs the health check and mood update.
+   *
+   * @return {@code true} if the pet died
+   */
+  private static boolean evaluate(MappedByteBuffer buffer, int offset, int needs) {
+    buffer.putInt(offset + NEEDS, needs);
+    boolean died = PackedNeeds.anyEmpty(needs);
+    if (died) {
+      buffer.put(offset + ALIVE, (byte) 0);
+    }
+    buffer.put(offset + MOOD, (byte) (PackedNeeds.anyLow(needs) ? SAD : HAPPY));
+    return died;
+  }
+
+  private MappedByteBuffer region(long index) {
+    return regions[(int) (index >>> REGION_SHIFT)];
+  }
+
+  private static int offset(long index) {
+    return (int) (index & REGION_MASK) * RECORD_SIZE;
+  }
+}
@@ -0,0 +1,174 @@
+package pet.persist;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import pet.population.PetPopulation;
+import pet.population.PopulationSnapshot;
+
+/**
+ * The {@code PopulationCheckpointer} class takes periodic snapshots of a journaled
+ * {@link PetPopulation} without stopping its tick loop.
+ * <p>
+ * The tick loop calls {@link #onTick()} after every tick. Every {@code interval} ticks the
+ * checkpointer copies the population with {@link PetPopulation#snapshot()}, notes how many
+ * records the journal held at that moment, and hands both to a background thread. That
+ * thread waits until those journal records are durable, so the snapshot never claims
+ * records a crash could still lose, and then writes the snapshot to the
+ * {@link SnapshotStore}. Only the array copy happens on the tick thread.
+ * <p>
+ * At most one snapshot is written at a time. If the previous one is still being written
+ * when the next is due, the new one is skipped rather than queued, which bounds memory to
+ * one extra copy of the population.
+ * <p>
+ * With a {@code fullEvery} greater than one, only every {@code fullEvery}-th checkpoint
+ * is a full snapshot; the ones in between are deltas against the previous checkpoint, which
+ * the checkpointer keeps in memory for that purpose. Mostly idle populations then write
+ * only the few pets that changed.
+ */
+public class PopulationCheckpointer implements AutoCloseable {
+
+  private final PetPopulation population;
+  private final EventJournal journal;
+  private final SnapshotStore store;
+  private final int interval;
+  private final int fullEvery;
+  private final ExecutorService writer;
+  private CompletableFuture<Path> pending = CompletableFuture.completedFuture(null);
+  private int ticksSinceCheckpoint;
+  private long written;
+  private long skipped;
+  // Written by the writer thread; read on the tick thread only once pending is done.
+  private PopulationSnapshot previous;
+  private long previousSequence;
+  private int deltasSinceFull;
+
+  /**
+   * Creates a checkpointer that writes a full snapshot every time.
+   *
+   * @param population the population the tick loop runs
+   * @param journal    the journal the tick loop records to
+   * @param store      where snapshots are written
+   * @param interval   the number of ticks between snapshots
+   */
+  public PopulationCheckpointer(PetPopulation population, EventJournal journal,
+      SnapshotStore store, int interval) {
+    this(population, journal, store, interval, 1);
+  }
+
+  /**
+   * Creates a checkpointer that writes deltas between full snapshots.
+   *
+   * @param population the population the tick loop runs
+   * @param journal    the journal the tick loop records to
+   * @param store      where snapshots are written
+   * @param interval   the number of ticks between checkpoints
+   * @param fullEvery  how often a checkpoint is a full snapshot rather than a delta; 1
+   *                   writes only full snapshots
+   */
+  public PopulationCheckpointer(PetPopulation population, EventJournal journal,
+      SnapshotStore store, int interval, int fullEvery) {
+    if (interval <= 0) {
+      throw new IllegalArgumentException("Interval must be positive: " + interval);
+    }
+    if (fullEvery <= 0) {
+      throw new IllegalArgumentException("Full snapshot period must be positive: "
+          + fullEvery);
+    }
+    this.population = population;
+    this.journal = journal;
+    this.store = store;
+    this.interval = interval;
+    this.fullEvery = fullEvery;
+    this.writer = Executors.newSingleThreadExecutor(task -> {
+      Thread thread = new Thread(task, "snapshot-writer");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Counts a finished tick and starts a snapshot when one is due. Must be called from the
+   * tick loop, between ticks.
+   */
+  public void onTick() {
+    if (++ticksSinceCheckpoint >= interval) {
+      ticksSinceCheckpoint = 0;
+      checkpoint();
+    }
+  }
+
+  /**
+   * Starts a snapshot of the population as it is now. Must be called while no other thread
+   * modifies the population or appends to the journal.
+   *
+   * @return a future completed with the snapshot file, or with {@code null} if the snapshot
+   *         was skipped because the previous one is still being written
+   */
+  public CompletableFuture<Path> checkpoint() {
+    if (!pending.isDone()) {
+      skipped++;
+      return CompletableFuture.completedFuture(null);
+    }
+    long sequence = journal.appendedCount();
+    PopulationSnapshot snapshot = population.snapshot();
+    PopulationSnapshot base = deltasSinceFull + 1 < fullEvery ? previous : null;
+    long baseSequence = previousSequence;
+    pending = CompletableFuture.supplyAsync(() -> {
+      try {
+        journal.awaitDurable(sequence);
+        Path path;
+        if (base != null && baseSequence < sequence && base.size() == snapshot.size()) {
+          path = store.writeDelta(base, baseSequence, snapshot, sequence);
+          deltasSinceFull++;
+        } else {
+          path = store.write(snapshot, sequence);
+          deltasSinceFull = 0;
+        }
+        previous = fullEvery > 1 ? snapshot : null;
+        previousSequence = sequence;
+        return path;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }, writer);
+    written++;
+    return pending;
+  }
+
+  /**
+   * Returns how many snapshots have been started.
+   *
+   * @return the number of snapshots handed to the writer
+   */
+  public long getStartedCount() {
+    return written;
+  }
+
+  /**
+   * Returns how many due snapshots were skipped because a write was still in progress.
+   *
+   * @return the number of skipped snapshots
+   */
+  public long getSkippedCount() {
+    return skipped;
+  }
+
+  /**
+   * Waits for the snapshot being written, if any, and stops the writer thread.
+   */
+  @Override
+  public void close() {
+    pending.exceptionally(failure -> null).join();
+    writer.shutdown();
+    try {
+      writer.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package pet.persist;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import pet.population.PetPopulation;
+
+/**
+ * The {@code PopulationRecovery} class restores a journaled {@link PetPopulation} after a
+ * restart.
+ * <p>
+ * Recovery loads the latest valid snapshot from a {@link SnapshotStore} and then replays
+ * only the journal records written after it, so restart time depends on the snapshot
+ * interval rather than on the age of the journal. Without a snapshot the whole journal is
+ * replayed into a fresh population of the given size.
+ */
+public final class PopulationRecovery {
+
+  private final PetPopulation population;
+  private final long snapshotSequence;
+  private final long replayed;
+
+  private PopulationRecovery(PetPopulation population, long snapshotSequence,
+      long replayed) {
+    this.population = population;
+    this.snapshotSequence = snapshotSequence;
+    this.replayed = replayed;
+  }
+
+  /**
+   * Restores the population from the latest snapshot and the journal tail.
+   *
+   * @param store   the snapshots to start from
+   * @param journal the journal file or segment directory; a missing file counts as empty
+   * @param size    the population size to use if there is no snapshot
+   * @return the recovered population and what it was built from
+   * @throws IOException if the snapshots or the journal cannot be read
+   */
+  public static PopulationRecovery recover(SnapshotStore store, Path journal, int size)
+      throws IOException {
+    SnapshotStore.Entry latest = store.loadLatest();
+    PetPopulation population;
+    long sequence;
+    if (latest == null) {
+      population = new PetPopulation(size);
+      sequence = 0;
+    } else {
+      population = PetPopulation.restore(latest.getSnapshot());
+      sequence = latest.getSequence();
+    }
+    long replayed = 0;
+    if (Files.exists(journal)) {
+      replayed = new JournalReplayer(population).applyAll(journal, sequence);
+    }
+    return new PopulationRecovery(population, sequence, replayed);
+  }
+
+  /**
+   * Returns the recovered population.
+   *
+   * @return the population
+   */
+  public PetPopulation getPopulation() {
+    return population;
+  }
+
+  /**
+   * Returns the journal sequence number of the snapshot recovery started from.
+   *
+   * @return the snapshot's sequence number, or 0 if there was no snapshot
+   */
+  public long getSnapshotSequence() {
+    return snapshotSequence;
+  }
+
+  /**
+   * Returns how many journal records were replayed on top of the snapshot.
+   *
+   * @return the number of replayed records
+   */
+  public long getReplayedCount() {
+    return replayed;
+  }
+}
@@ -0,0 +1,241 @@
+package pet.persist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import pet.population.PopulationSnapshot;
+
+/**
+ * The {@code SnapshotDelta} class writes and applies incremental checkpoints: the pets that
+ * changed between two {@link PopulationSnapshot}s, each field stored as the difference to
+ * its previous value.
+ * <p>
+ * A delta file holds, little-endian:
+ * <pre>
+ *   header   int magic "PETD", int version, int pet count, int reserved,
+ *            long journal sequence, long base sequence
+ *   entries  one per changed pet, in index order:
+ *            varint index gap, varint field mask, then one zig-zag varint difference
+ *            per field in the mask
+ *   trailer  int number of entries, int CRC32C of everything before it
+ * </pre>
+ * The index gap is the distance to the previous entry's index minus one, so runs of
+ * changed pets cost one byte each. The mask bits follow {@link #HUNGER} to {@link #STREAM};
+ * the frequently changing fields come first so the mask usually fits one byte. Pets that
+ * did not change cost nothing, and needs that moved by a few points cost one byte.
+ */
+final class SnapshotDelta {
+
+  static final int MAGIC = 0x44544550; // "PETD" in little-endian
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 32;
+  static final int TRAILER_SIZE = 8;
+
+  static final int HUNGER = 1;
+  static final int HYGIENE = 1 << 1;
+  static final int SOCIAL = 1 << 2;
+  static final int SLEEP = 1 << 3;
+  static final int TICK = 1 << 4;
+  static final int MOOD = 1 << 5;
+  static final int ALIVE = 1 << 6;
+  static final int PERSONALITY = 1 << 7;
+  static final int STREAM = 1 << 8;
+
+  /**
+   * Upper bound on the encoded size of one entry.
+   */
+  private static final int MAX_ENTRY = (2 + 9) * Varints.MAX_LONG_BYTES;
+
+  private SnapshotDelta() {
+  }
+
+  /**
+   * Writes the differences from {@code previous} to {@code current}.
+   *
+   * @param channel  the file to write to
+   * @param previous the state at the base sequence
+   * @param current  the state at the new sequence
+   * @param base     the journal sequence of {@code previous}
+   * @param sequence the journal sequence of {@code current}
+   * @return the number of changed pets written
+   * @throws IOException if the file cannot be written
+   */
+  static int write(FileChannel channel, PopulationSnapshot previous,
+      PopulationSnapshot current, long base, long sequence) throws IOException {
+    if (previous.size() != current.size()) {
+      throw new IllegalArgumentException("Snapshots differ in size: " + previous.size()
+          + " and " + current.size());
+    }
+    byte[] oldHunger = previous.hunger();
+    byte[] oldHygiene = previous.hygiene();
+    byte[] oldSocial = previous.social();
+    byte[] oldSleep = previous.sleep();
+    long[] oldTick = previous.tick();
+    byte[] oldMood = previous.mood();
+    boolean[] oldAlive = previous.alive();
+    byte[] oldPersonality = previous.personality();
+    long[] oldStream = previous.stream();
+    byte[] hunger = current.hunger();
+    byte[] hygiene = current.hygiene();
+    byte[] social = current.social();
+    byte[] sleep = current.sleep();
+    long[] tick = current.tick();
+    byte[] mood = current.mood();
+    boolean[] alive = current.alive();
+    byte[] personality = current.personality();
+    long[] stream = current.stream();
+
+    ChecksummedOutput out = new ChecksummedOutput(channel);
+    out.reserve(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putInt(current.size()).putInt(0)
+        .putLong(sequence).putLong(base);
+    int entries = 0;
+    int last = -1;
+    for (int i = 0; i < current.size(); i++) {
+      int mask = (hunger[i] != oldHunger[i] ? HUNGER : 0)
+          | (hygiene[i] != oldHygiene[i] ? HYGIENE : 0)
+          | (social[i] != oldSocial[i] ? SOCIAL : 0)
+          | (sleep[i] != oldSleep[i] ? SLEEP : 0)
+          | (tick[i] != oldTick[i] ? TICK : 0)
+          | (mood[i] != oldMood[i] ? MOOD : 0)
+          | (alive[i] != oldAlive[i] ? ALIVE : 0)
+          | (personality[i] != oldPersonality[i] ? PERSONALITY : 0)
+          | (stream[i] != oldStream[i] ? STREAM : 0);
+      if (mask == 0) {
+        continue;
+      }
+      ByteBuffer buffer = out.reserve(MAX_ENTRY);
+      Varints.putVarLong(buffer, i - last - 1);
+      Varints.putVarLong(buffer, mask);
+      putDifference(buffer, mask, HUNGER, hunger[i] - oldHunger[i]);
+      putDifference(buffer, mask, HYGIENE, hygiene[i] - oldHygiene[i]);
+      putDifference(buffer, mask, SOCIAL, social[i] - oldSocial[i]);
+      putDifference(buffer, mask, SLEEP, sleep[i] - oldSleep[i]);
+      putDifference(buffer, mask, TICK, tick[i] - oldTick[i]);
+      putDifference(buffer, mask, MOOD, mood[i] - oldMood[i]);
+      putDifference(buffer, mask, ALIVE, (alive[i] ? 1 : 0) - (oldAlive[i] ? 1 : 0));
+      putDifference(buffer, mask, PERSONALITY, personality[i] - oldPersonality[i]);
+      putDifference(buffer, mask, STREAM, stream[i] - oldStream[i]);
+      last = i;
+      entries++;
+    }
+    out.reserve(Integer.BYTES).putInt(entries);
+    out.finish();
+    return entries;
+  }
+
+  /**
+   * Maps a delta file and checks its checksum and header.
+   *
+   * @param path the delta file
+   * @return the mapped file
+   * @throws IOException if the file cannot be read, is not a delta or fails its checksum
+   */
+  static MappedByteBuffer open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long length = channel.size();
+      if (length < HEADER_SIZE + TRAILER_SIZE || length > Integer.MAX_VALUE) {
+        throw new IOException("Delta has invalid length: " + path);
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      CRC32C checksum = new CRC32C();
+      checksum.update(buffer.slice(0, (int) length - Integer.BYTES));
+      if (buffer.getInt((int) length - Integer.BYTES) != (int) checksum.getValue()) {
+        throw new IOException("Delta checksum mismatch: " + path);
+      }
+      if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+        throw new IOException("Not a pet snapshot delta: " + path);
+      }
+      return buffer;
+    }
+  }
+
+  /**
+   * Returns the journal sequence the delta brings the state to.
+   */
+  static long sequence(ByteBuffer delta) {
+    return delta.getLong(16);
+  }
+
+  /**
+   * Returns the journal sequence of the state the delta applies to.
+   */
+  static long base(ByteBuffer delta) {
+    return delta.getLong(24);
+  }
+
+  /**
+   * Applies a delta opened with {@link #open(Path)} to the columns of a snapshot in place.
+   * Only the snapshot store calls this, on snapshots it loaded itself and has not handed
+   * out yet; the result must be validated by building a new snapshot from the columns.
+   *
+   * @param delta  the mapped delta file
+   * @param target the state at the delta's base sequence
+   * @throws IOException if the delta does not match the snapshot or is malformed
+   */
+  static void apply(ByteBuffer delta, PopulationSnapshot target) throws IOException {
+    int size = delta.getInt(8);
+    if (size != target.size()) {
+      throw new IOException("Delta is for " + size + " pets, snapshot has " + target.size());
+    }
+    byte[] hunger = target.hunger();
+    byte[] hygiene = target.hygiene();
+    byte[] social = target.social();
+    byte[] sleep = target.sleep();
+    long[] tick = target.tick();
+    byte[] mood = target.mood();
+    boolean[] alive = target.alive();
+    byte[] personality = target.personality();
+    long[] stream = target.stream();
+
+    int end = delta.capacity() - TRAILER_SIZE;
+    ByteBuffer entries = delta.slice(HEADER_SIZE, end - HEADER_SIZE);
+    int expected = delta.getInt(end);
+    int count = 0;
+    long index = -1;
+    try {
+      while (entries.hasRemaining()) {
+        index += Varints.getVarLong(entries) + 1;
+        if (index >= size) {
+          throw new IOException("Delta entry " + index + " is outside the population");
+        }
+        int i = (int) index;
+        long mask = Varints.getVarLong(entries);
+        if (mask == 0 || mask >= STREAM << 1) {
+          throw new IOException("Delta entry " + index + " has invalid mask " + mask);
+        }
+        int fields = (int) mask;
+        hunger[i] += (byte) getDifference(entries, fields, HUNGER);
+        hygiene[i] += (byte) getDifference(entries, fields, HYGIENE);
+        social[i] += (byte) getDifference(entries, fields, SOCIAL);
+        sleep[i] += (byte) getDifference(entries, fields, SLEEP);
+        tick[i] += getDifference(entries, fields, TICK);
+        mood[i] += (byte) getDifference(entries, fields, MOOD);
+        alive[i] ^= getDifference(entries, fields, ALIVE) != 0;
+        personality[i] += (byte) getDifference(entries, fields, PERSONALITY);
+        stream[i] += getDifference(entries, fields, STREAM);
+        count++;
+      }
+    } catch (RuntimeException e) {
+      throw new IOException("Delta is malformed", e);
+    }
+    if (count != expected) {
+      throw new IOException("Delta holds " + count + " entries, expected " + expected);
+    }
+  }
+
+  private static void putDifference(ByteBuffer buffer, int mask, int field, long difference) {
+    if ((mask & field) != 0) {
+      Varints.putSignedVarLong(buffer, difference);
+    }
+  }
+
+  private static long getDifference(ByteBuffer buffer, int mask, int field) {
+    return (mask & field) != 0 ? Varints.getSignedVarLong(buffer) : 0;
+  }
+}
@@ -0,0 +1,520 @@
+package pet.persist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+import pet.population.PopulationSnapshot;
+
+/**
+ * The {@code SnapshotStore} class writes {@link PopulationSnapshot}s to a directory and
+ * finds the latest valid one again after a restart.
+ * <p>
+ * Each snapshot file is named after the journal sequence number it was taken at and holds,
+ * little-endian:
+ * <pre>
+ *   header   int magic "PETS", int version, int pet count, int reserved,
+ *            long journal sequence
+ *   columns  hunger, hygiene, social, sleep, alive, mood, personality (one byte per pet),
+ *            random stream (long per pet), step counter (long per pet)
+ *   trailer  int CRC32C of everything before it
+ * </pre>
+ * Columns are copied in bulk through one direct buffer, so writing and loading run at
+ * close to disk speed. A file is written under a temporary name, forced and then renamed,
+ * so a crash never leaves a partial snapshot under a final name; a snapshot whose length or
+ * checksum does not match is skipped on load and the next older one is used.
+ * <p>
+ * Between full snapshots the store can hold incremental deltas written with
+ * {@link #writeDelta(PopulationSnapshot, long, PopulationSnapshot, long)}, which record only
+ * the pets that changed (see {@link SnapshotDelta}). Loading starts from the newest valid
+ * full snapshot and applies the chain of deltas that follows it; the chain ends at the
+ * first delta that is missing, damaged or based on another state. {@link #mergeDeltas()}
+ * folds the chain into a new full snapshot. Retention counts full snapshots, and deltas
+ * older than the oldest retained full snapshot are deleted with it.
+ */
+public class SnapshotStore {
+
+  /**
+   * Number of snapshots kept when none is given.
+   */
+  public static final int DEFAULT_RETAINED = 2;
+
+  static final int MAGIC = 0x53544550; // "PETS" in little-endian
+  static final int VERSION = 2;
+  static final int HEADER_SIZE = 24;
+  static final int BYTES_PER_PET = 7 + Long.BYTES + Long.BYTES;
+
+  private static final String PREFIX = "snapshot-";
+  private static final String SUFFIX = ".snap";
+  private static final String DELTA_SUFFIX = ".delta";
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  private final Path directory;
+  private final int retained;
+
+  /**
+   * Creates a store that keeps the {@value #DEFAULT_RETAINED} latest snapshots.
+   *
+   * @param directory the directory to keep snapshots in; created if missing
+   * @throws IOException if the directory cannot be created
+   */
+  public SnapshotStore(Path directory) throws IOException {
+    this(directory, DEFAULT_RETAINED);
+  }
+
+  /**
+   * Creates a store.
+   *
+   * @param directory the directory to keep snapshots in; created if missing
+   * @param retained  how many of the latest snapshots to keep after each write
+   * @throws IOException if the directory cannot be created
+   */
+  public SnapshotStore(Path directory, int retained) throws IOException {
+    if (retained <= 0) {
+      throw new IllegalArgumentException("Must retain at least one snapshot: " + retained);
+    }
+    this.directory = Files.createDirectories(directory);
+    this.retained = retained;
+  }
+
+  /**
+   * Writes a snapshot and then deletes snapshots beyond the retained count.
+   *
+   * @param snapshot the snapshot to write
+   * @param sequence the number of journal records the snapshot includes
+   * @return the path of the new snapshot file
+   * @throws IOException if the snapshot cannot be written
+   */
+  public Path write(PopulationSnapshot snapshot, long sequence) throws IOException {
+    return write(snapshot, sequence, IoThrottle.NONE);
+  }
+
+  /**
+   * Writes a snapshot at no more than the throttle's bandwidth.
+   */
+  Path write(PopulationSnapshot snapshot, long sequence, IoThrottle throttle)
+      throws IOException {
+    return publish(fileName(sequence), channel -> {
+      ChecksummedOutput writer = new ChecksummedOutput(channel, throttle);
+      writer.reserve(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putInt(snapshot.size())
+          .putInt(0).putLong(sequence);
+      writer.putBytes(snapshot.hunger());
+      writer.putBytes(snapshot.hygiene());
+      writer.putBytes(snapshot.social());
+      writer.putBytes(snapshot.sleep());
+      writer.putBooleans(snapshot.alive());
+      writer.putBytes(snapshot.mood());
+      writer.putBytes(snapshot.personality());
+      writer.putLongs(snapshot.stream());
+      writer.putLongs(snapshot.tick());
+      writer.finish();
+    });
+  }
+
+  /**
+   * Writes an incremental delta holding the pets that changed from {@code previous} to
+   * {@code current}. It extends the chain only if {@code previous} is the state the store
+   * last recorded, i.e. the one written at {@code base}.
+   *
+   * @param previous the state written at the base sequence
+   * @param base     the journal sequence of {@code previous}
+   * @param current  the new state
+   * @param sequence the number of journal records {@code current} includes
+   * @return the path of the new delta file
+   * @throws IOException if the delta cannot be written
+   */
+  public Path writeDelta(PopulationSnapshot previous, long base, PopulationSnapshot current,
+      long sequence) throws IOException {
+    if (sequence <= base) {
+      throw new IllegalArgumentException(
+          "Delta sequence " + sequence + " must follow its base " + base);
+    }
+    return publish(deltaName(sequence),
+        channel -> SnapshotDelta.write(channel, previous, current, base, sequence));
+  }
+
+  /**
+   * Loads the latest state and writes it as a new full snapshot, so that later loads need
+   * no deltas and the old chain can be pruned. Does nothing if the latest state is already
+   * a full snapshot.
+   *
+   * @return the new snapshot file, or {@code null} if nothing was merged
+   * @throws IOException if the state cannot be loaded or written
+   */
+  public Path mergeDeltas() throws IOException {
+    Entry latest = loadLatest();
+    if (latest == null || latest.getDeltaCount() == 0) {
+      return null;
+    }
+    return write(latest.getSnapshot(), latest.getSequence());
+  }
+
+  /**
+   * Loads the newest snapshot that is complete and passes its checksum.
+   *
+   * @return the snapshot, or {@code null} if the directory holds no valid snapshot
+   * @throws IOException if the directory cannot be listed
+   */
+  public Entry loadLatest() throws IOException {
+    return loadLatest(IoThrottle.NONE);
+  }
+
+  /**
+   * Loads the latest state at no more than the throttle's bandwidth.
+   */
+  Entry loadLatest(IoThrottle throttle) throws IOException {
+    List<Long> fulls = list(SUFFIX);
+    List<Long> deltas = list(DELTA_SUFFIX);
+    for (int i = fulls.size() - 1; i >= 0; i--) {
+      Path path = directory.resolve(fileName(fulls.get(i)));
+      try {
+        Entry base = load(path, throttle);
+        return applyChain(path, base, deltas, throttle);
+      } catch (IOException | IllegalArgumentException e) {
+        // A damaged snapshot is skipped in favor of an older one.
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Loads a single snapshot file.
+   *
+   * @param path the snapshot file
+   * @return the snapshot
+   * @throws IOException if the file cannot be read, is incomplete or fails its checksum
+   */
+  public static Entry load(Path path) throws IOException {
+    return load(path, IoThrottle.NONE);
+  }
+
+  private static Entry load(Path path, IoThrottle throttle) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ColumnReader reader = new ColumnReader(channel, throttle);
+      ByteBuffer header = reader.take(HEADER_SIZE);
+      if (header.getInt() != MAGIC) {
+        throw new IOException("Not a pet snapshot: " + path);
+      }
+      int version = header.getInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported snapshot version " + version);
+      }
+      int size = header.getInt();
+      header.getInt();
+      long sequence = header.getLong();
+      if (size < 0 || channel.size() != HEADER_SIZE + (long) size * BYTES_PER_PET + 4) {
+        throw new IOException("Snapshot is incomplete: " + path);
+      }
+      byte[] hunger = reader.getBytes(size);
+      byte[] hygiene = reader.getBytes(size);
+      byte[] social = reader.getBytes(size);
+      byte[] sleep = reader.getBytes(size);
+      boolean[] alive = reader.getBooleans(size);
+      byte[] mood = reader.getBytes(size);
+      byte[] personality = reader.getBytes(size);
+      long[] stream = reader.getLongs(size);
+      long[] tick = reader.getLongs(size);
+      int expected = (int) reader.checksum.getValue();
+      if (reader.take(Integer.BYTES).getInt() != expected) {
+        throw new IOException("Snapshot checksum mismatch: " + path);
+      }
+      PopulationSnapshot snapshot = new PopulationSnapshot(hunger, hygiene, social, sleep,
+          alive, mood, personality, stream, tick);
+      return new Entry(snapshot, sequence, path, 0);
+    }
+  }
+
+  /**
+   * Applies the deltas that continue from a full snapshot, in sequence order.
+   */
+  private Entry applyChain(Path basePath, Entry base, List<Long> deltas, IoThrottle throttle)
+      throws IOException {
+    List<ByteBuffer> chain = new ArrayList<>();
+    long sequence = base.getSequence();
+    for (long candidate : deltas) {
+      if (candidate <= sequence) {
+        continue;
+      }
+      ByteBuffer delta;
+      try {
+        delta = SnapshotDelta.open(directory.resolve(deltaName(candidate)));
+      } catch (IOException e) {
+        break;
+      }
+      if (SnapshotDelta.base(delta) != sequence) {
+        break;
+      }
+      throttle.acquire(delta.capacity());
+      chain.add(delta);
+      sequence = SnapshotDelta.sequence(delta);
+    }
+    if (chain.isEmpty()) {
+      return base;
+    }
+    // Deltas patch the freshly loaded columns in place; on a bad delta the base is
+    // reloaded and only the deltas before it are applied.
+    int applied = 0;
+    PopulationSnapshot state = base.getSnapshot();
+    try {
+      for (ByteBuffer delta : chain) {
+        SnapshotDelta.apply(delta, state);
+        applied++;
+      }
+    } catch (IOException e) {
+      state = load(basePath, throttle).getSnapshot();
+      for (int i = 0; i < applied; i++) {
+        SnapshotDelta.apply(chain.get(i), state);
+      }
+    }
+    if (applied == 0) {
+      return new Entry(state, base.getSequence(), basePath, 0);
+    }
+    PopulationSnapshot validated = new PopulationSnapshot(state.hunger(), state.hygiene(),
+        state.social(), state.sleep(), state.alive(), state.mood(), state.personality(),
+        state.stream(), state.tick());
+    long head = SnapshotDelta.sequence(chain.get(applied - 1));
+    return new Entry(validated, head, directory.resolve(deltaName(head)), applied);
+  }
+
+  /**
+   * Returns the directory snapshots are kept in.
+   *
+   * @return the snapshot directory
+   */
+  public Path getDirectory() {
+    return directory;
+  }
+
+  private List<Long> list(String suffix) throws IOException {
+    List<Long> sequences = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+        PREFIX + "*" + suffix)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        try {
+          sequences.add(Long.parseLong(
+              name.substring(PREFIX.length(), name.length() - suffix.length())));
+        } catch (NumberFormatException e) {
+          // Not one of ours.
+        }
+      }
+    }
+    sequences.sort(null);
+    return sequences;
+  }
+
+  private void prune() throws IOException {
+    List<Long> fulls = list(SUFFIX);
+    if (fulls.size() <= retained) {
+      return;
+    }
+    long oldestKept = fulls.get(fulls.size() - retained);
+    for (long sequence : fulls) {
+      if (sequence < oldestKept) {
+        Files.deleteIfExists(directory.resolve(fileName(sequence)));
+      }
+    }
+    for (long sequence : list(DELTA_SUFFIX)) {
+      if (sequence <= oldestKept) {
+        Files.deleteIfExists(directory.resolve(deltaName(sequence)));
+      }
+    }
+  }
+
+  /**
+   * Writes a file under a temporary name, forces it and renames it into place. The
+   * temporary name is unique per thread, since a {@link JournalCompactor} may write while
+   * a checkpointer does.
+   */
+  private Path publish(String name, FileWriter writer) throws IOException {
+    Path target = directory.resolve(name);
+    Path temporary =
+        directory.resolve(name + "." + Thread.currentThread().threadId() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      writer.write(channel);
+      channel.force(true);
+    }
+    Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+    syncDirectory();
+    prune();
+    return target;
+  }
+
+  /**
+   * Forces the directory entry of a rename to disk where the platform allows it.
+   */
+  private void syncDirectory() {
+    try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException e) {
+      // Not supported for directories on every platform; the rename is still atomic.
+    }
+  }
+
+  private static String fileName(long sequence) {
+    return String.format("%s%019d%s", PREFIX, sequence, SUFFIX);
+  }
+
+  private static String deltaName(long sequence) {
+    return String.format("%s%019d%s", PREFIX, sequence, DELTA_SUFFIX);
+  }
+
+  /**
+   * Writes the contents of one snapshot or delta file.
+   */
+  private interface FileWriter {
+    void write(FileChannel channel) throws IOException;
+  }
+
+  /**
+   * A snapshot loaded from the store together with where it came from.
+   */
+  public static final class Entry {
+    private final PopulationSnapshot snapshot;
+    private final long sequence;
+    private final Path path;
+    private final int deltaCount;
+
+    Entry(PopulationSnapshot snapshot, long sequence, Path path, int deltaCount) {
+      this.snapshot = snapshot;
+      this.sequence = sequence;
+      this.path = path;
+      this.deltaCount = deltaCount;
+    }
+
+    /**
+     * Returns the loaded snapshot.
+     *
+     * @return the snapshot
+     */
+    public PopulationSnapshot getSnapshot() {
+      return snapshot;
+    }
+
+    /**
+     * Returns the number of journal records the snapshot includes. Replay continues with
+     * the record after it.
+     *
+     * @return the journal sequence number
+     */
+    public long getSequence() {
+      return sequence;
+    }
+
+    /**
+     * Returns the file the state was loaded from: the full snapshot, or the last delta
+     * applied to it.
+     *
+     * @return the snapshot or delta file
+     */
+    public Path getPath() {
+      return path;
+    }
+
+    /**
+     * Returns how many deltas were applied on top of the full snapshot.
+     *
+     * @return the length of the applied delta chain
+     */
+    public int getDeltaCount() {
+      return deltaCount;
+    }
+  }
+
+  /**
+   * Reads columns from a file through one direct buffer, updating the checksum with every
+   * byte consumed.
+   */
+  private static final class ColumnReader {
+    final CRC32C checksum = new CRC32C();
+    private final ByteBuffer buffer =
+        ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final FileChannel channel;
+    private final IoThrottle throttle;
+
+    ColumnReader(FileChannel channel, IoThrottle throttle) {
+      this.channel = channel;
+      this.throttle = throttle;
+      buffer.flip();
+    }
+
+    /**
+     * Returns a view of the next {@code count} bytes, which must fit in the buffer.
+     */
+    ByteBuffer take(int count) throws IOException {
+      available(count);
+      ByteBuffer view = buffer.slice(buffer.position(), count).order(ByteOrder.LITTLE_ENDIAN);
+      consume(count);
+      return view;
+    }
+
+    byte[] getBytes(int size) throws IOException {
+      byte[] column = new byte[size];
+      for (int offset = 0; offset < size; ) {
+        int count = Math.min(available(1), size - offset);
+        buffer.slice(buffer.position(), count).get(column, offset, count);
+        consume(count);
+        offset += count;
+      }
+      return column;
+    }
+
+    boolean[] getBooleans(int size) throws IOException {
+      byte[] bytes = getBytes(size);
+      boolean[] column = new boolean[size];
+      for (int i = 0; i < size; i++) {
+        if (bytes[i] > 1 || bytes[i] < 0) {
+          throw new IOException("Snapshot holds invalid alive flag " + bytes[i]);
+        }
+        column[i] = bytes[i] != 0;
+      }
+      return column;
+    }
+
+    long[] getLongs(int size) throws IOException {
+      long[] column = new long[size];
+      for (int offset = 0; offset < size; ) {
+        int count = Math.min(available(Long.BYTES) / Long.BYTES, size - offset);
+        buffer.slice(buffer.position(), count * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN)
+            .asLongBuffer().get(column, offset, count);
+        consume(count * Long.BYTES);
+        offset += count;
+      }
+      return column;
+    }
+
+    /**
+     * Makes at least {@code minimum} bytes available, refilling the buffer if needed.
+     *
+     * @return the number of bytes available
+     */
+    private int available(int minimum) throws IOException {
+      if (buffer.remaining() < minimum) {
+        buffer.compact();
+        while (buffer.position() < minimum) {
+          int count = channel.read(buffer);
+          if (count < 0) {
+            throw new IOException("Snapshot ends early");
+          }
+          throttle.acquire(count);
+        }
+        buffer.flip();
+      }
+      return buffer.remaining();
+    }
+
+    private void consume(int count) {
+      checksum.update(buffer.slice(buffer.position(), count));
+      buffer.position(buffer.position() + count);
+    }
+  }
+}
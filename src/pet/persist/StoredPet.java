@@ -0,0 +1,136 @@
+package pet.persist;
+
+import pet.PetInterface;
+import pet.helper.Action;
+import pet.helper.HealthStatus;
+import pet.helper.PackedNeeds;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.Personality;
+
+/**
+ * The {@code StoredPet} class is a thin {@link PetInterface} handle onto one record of a
+ * {@link PetStore}.
+ * <p>
+ * It stores nothing but the owning store and the pet's index, and every call reads or
+ * writes the mapped record directly, so pets in a store can be used wherever a
+ * {@code Pet} is expected.
+ */
+public class StoredPet implements PetInterface {
+
+  private final PetStore store;
+  private final long index;
+
+  /**
+   * Constructs a handle for the pet at the given index.
+   *
+   * @param store the store that holds the pet's record
+   * @param index the index of the pet within the store
+   */
+  StoredPet(PetStore store, long index) {
+    this.store = store;
+    this.index = index;
+  }
+
+  /**
+   * Returns the index of the pet this handle points at, which is also its id.
+   *
+   * @return the pet's index within its store
+   */
+  public long getIndex() {
+    return index;
+  }
+
+  /**
+   * Returns the number of steps the pet has taken since it was started.
+   *
+   * @return the step count
+   */
+  public long getTick() {
+    return store.tick(index);
+  }
+
+  /**
+   * Returns the pet's four needs packed into one word, without allocating a snapshot.
+   *
+   * @return the needs in the {@link PackedNeeds} layout
+   */
+  public int getPackedNeeds() {
+    return store.packedNeeds(index);
+  }
+
+  @Override
+  public void startGame() {
+    store.startGame(index);
+  }
+
+  @Override
+  public void startGame(long seed) {
+    store.startGame(index, seed);
+  }
+
+  @Override
+  public void step() {
+    store.step(index);
+  }
+
+  @Override
+  public void interactWith(Action action) {
+    store.interactWith(index, action);
+  }
+
+  @Override
+  public HealthStatus getHealth() {
+    return HealthStatus.fromPacked(store.packedNeeds(index));
+  }
+
+  @Override
+  public MoodEnum getMood() {
+    return store.mood(index);
+  }
+
+  @Override
+  public Personality getPersonality() {
+    return store.personality(index);
+  }
+
+  @Override
+  public void setMood(MoodEnum mood) {
+    store.setMood(index, mood);
+  }
+
+  @Override
+  public void setPersonality(Personality personality) {
+    store.setPersonality(index, personality);
+  }
+
+  @Override
+  public boolean isAlive() {
+    return store.isAlive(index);
+  }
+
+  @Override
+  public boolean needShower() {
+    return PackedNeeds.isLow(store.packedNeeds(index), PackedNeeds.HYGIENE_SHIFT);
+  }
+
+  @Override
+  public boolean needFeed() {
+    return PackedNeeds.isLow(store.packedNeeds(index), PackedNeeds.HUNGER_SHIFT);
+  }
+
+  @Override
+  public boolean needPlay() {
+    return PackedNeeds.isLow(store.packedNeeds(index), PackedNeeds.SOCIAL_SHIFT);
+  }
+
+  @Override
+  public boolean needSleep() {
+    return PackedNeeds.isLow(store.packedNeeds(index), PackedNeeds.SLEEP_SHIFT);
+  }
+
+  @Override
+  public void adjustNeeds(int hungerDelta, int hygieneDelta, int socialDelta, int sleepDelta) {
+    store.setPackedNeeds(index, PackedNeeds.adjust(store.packedNeeds(index), hungerDelta,
+        hygieneDelta, socialDelta, sleepDelta));
+  }
+}
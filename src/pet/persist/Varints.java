@@ -0,0 +1,108 @@
+package pet.persist;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The {@code Varints} class encodes integers in a variable number of bytes.
+ * <p>
+ * A varint stores seven bits per byte, least significant group first, and sets the top bit
+ * of every byte except the last. Small non-negative values therefore take one byte.
+ * Signed values are first mapped with zig-zag encoding, which interleaves them as
+ * 0, -1, 1, -2, 2, ..., so that small deltas of either sign stay small.
+ */
+public final class Varints {
+
+  /**
+   * Largest number of bytes a {@code long} can take.
+   */
+  public static final int MAX_LONG_BYTES = 10;
+
+  private Varints() {
+  }
+
+  /**
+   * Maps a signed value to an unsigned one with small magnitudes near zero.
+   *
+   * @param value the signed value
+   * @return the zig-zag encoded value
+   */
+  public static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  /**
+   * Reverses {@link #zigZag(long)}.
+   *
+   * @param encoded the zig-zag encoded value
+   * @return the signed value
+   */
+  public static long unZigZag(long encoded) {
+    return (encoded >>> 1) ^ -(encoded & 1);
+  }
+
+  /**
+   * Writes a value as an unsigned varint.
+   *
+   * @param buffer the buffer to write to, with at least {@link #MAX_LONG_BYTES} bytes left
+   *               for arbitrary values
+   * @param value  the value, treated as unsigned
+   */
+  public static void putVarLong(ByteBuffer buffer, long value) {
+    while ((value & ~0x7FL) != 0) {
+      buffer.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+
+  /**
+   * Writes a signed value as a zig-zag varint.
+   *
+   * @param buffer the buffer to write to
+   * @param value  the signed value
+   */
+  public static void putSignedVarLong(ByteBuffer buffer, long value) {
+    putVarLong(buffer, zigZag(value));
+  }
+
+  /**
+   * Reads an unsigned varint.
+   *
+   * @param buffer the buffer to read from
+   * @return the value
+   * @throws IllegalArgumentException if the varint is longer than {@link #MAX_LONG_BYTES}
+   * @throws java.nio.BufferUnderflowException if the buffer ends inside the varint
+   */
+  public static long getVarLong(ByteBuffer buffer) {
+    long value = 0;
+    for (int shift = 0; shift < 7 * MAX_LONG_BYTES; shift += 7) {
+      byte b = buffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Varint is too long");
+  }
+
+  /**
+   * Reads a zig-zag varint.
+   *
+   * @param buffer the buffer to read from
+   * @return the signed value
+   */
+  public static long getSignedVarLong(ByteBuffer buffer) {
+    return unZigZag(getVarLong(buffer));
+  }
+
+  /**
+   * Returns how many bytes {@link #putVarLong(ByteBuffer, long)} writes for a value.
+   *
+   * @param value the value, treated as unsigned
+   * @return the encoded length, from 1 to {@link #MAX_LONG_BYTES}
+   */
+  public static int length(long value) {
+    int bits = 64 - Long.numberOfLeadingZeros(value | 1);
+    return (bits + 6) / 7;
+  }
+}
@@ -0,0 +1,205 @@
+package pet.pipeline;
+
+import java.util.concurrent.locks.LockSupport;
+import pet.helper.Action;
+import pet.population.DecayKernel;
+import pet.population.PetPopulation;
+
+/**
+ * The {@code CommandPipeline} class feeds interactions and ticks from any number of producer
+ * threads into a {@link PetPopulation} without locking any pet.
+ * <p>
+ * The population is split into contiguous shards, each owned by one thread that is the only
+ * writer of its pets. A producer publishes a {@code (petId, Action)} command into the
+ * bounded multi-producer ring of the pet's shard, and {@link #tick()} publishes a tick into
+ * every ring. Each shard takes all commands published since its last batch, applies them in
+ * ring order and then returns the slots, which are preallocated and reused, so publishing
+ * allocates nothing. Commands from one producer reach a pet in the order they were
+ * published; with a single producer the population ends up exactly as if every command had
+ * been applied directly, in order.
+ * <p>
+ * The {@link WaitStrategy} decides how shards wait for commands and how producers wait for
+ * room in a full ring. The pipeline reports the number of commands waiting and the
+ * latency from publishing a command to the end of the batch that applied it.
+ */
+public class CommandPipeline implements AutoCloseable {
+
+  /**
+   * Ring capacity per shard used when none is given.
+   */
+  public static final int DEFAULT_RING_CAPACITY = 4096;
+
+  private final PetPopulation population;
+  private final SimulationShard[] shards;
+  private final int petsPerShard;
+  private volatile boolean closed;
+
+  /**
+   * Creates a pipeline over a population and starts its shard threads. The population must
+   * not be used directly while the pipeline runs, except between {@link #awaitIdle()} and
+   * the next publish.
+   *
+   * @param population   the pets to drive, usually already started
+   * @param shards       the number of shard threads
+   * @param ringCapacity the number of commands each shard's ring holds, including the batch
+   *                     being applied; rounded up to a power of two
+   * @param wait         how shards and producers wait
+   * @throws IllegalArgumentException if {@code shards} or {@code ringCapacity} is out of
+   *                                  range
+   */
+  public CommandPipeline(PetPopulation population, int shards, int ringCapacity,
+      WaitStrategy wait) {
+    if (shards <= 0) {
+      throw new IllegalArgumentException("Shard count must be positive: " + shards);
+    }
+    if (ringCapacity <= 0 || ringCapacity > 1 << 30) {
+      throw new IllegalArgumentException("Ring capacity out of range: " + ringCapacity);
+    }
+    int size = ringCapacity == 1 ? 1 : Integer.highestOneBit(ringCapacity - 1) << 1;
+    DecayKernel kernel = DecayKernel.create();
+    this.population = population;
+    this.petsPerShard = Math.max(1, (population.size() + shards - 1) / shards);
+    this.shards = new SimulationShard[shards];
+    for (int s = 0; s < shards; s++) {
+      int from = Math.min(population.size(), s * petsPerShard);
+      int to = Math.min(population.size(), from + petsPerShard);
+      this.shards[s] = new SimulationShard(population, kernel, from, to, size, wait,
+          "pet-shard-" + s);
+    }
+  }
+
+  /**
+   * Publishes an interaction for one pet, waiting while its shard's ring is full.
+   *
+   * @param petId  the pet's index in the population
+   * @param action the interaction to apply
+   * @throws IndexOutOfBoundsException if there is no such pet
+   * @throws IllegalStateException     if the pipeline is closed
+   */
+  public void publish(int petId, Action action) {
+    if (petId < 0 || petId >= population.size()) {
+      throw new IndexOutOfBoundsException(
+          "Pet index " + petId + " out of range [0, " + population.size() + ")");
+    }
+    checkOpen();
+    shards[petId / petsPerShard].publish(petId, action.ordinal());
+  }
+
+  /**
+   * Publishes one tick to every shard. Each shard steps its pets after the commands
+   * published to it before the tick.
+   *
+   * @throws IllegalStateException if the pipeline is closed
+   */
+  public void tick() {
+    checkOpen();
+    for (SimulationShard shard : shards) {
+      shard.publish(SimulationShard.TICK, 0);
+    }
+  }
+
+  /**
+   * Waits until every command published before this call has been applied. Afterwards the
+   * population reflects those commands and may be read until the next publish.
+   */
+  public void awaitIdle() {
+    for (SimulationShard shard : shards) {
+      long target = shard.claimed();
+      while (shard.applied() < target) {
+        LockSupport.parkNanos(this, WaitStrategy.PARK_MICROS * 1_000L);
+      }
+    }
+  }
+
+  /**
+   * Returns how many commands are published but not yet applied across all shards.
+   *
+   * @return the total queue depth
+   */
+  public long getQueueDepth() {
+    long depth = 0;
+    for (int s = 0; s < shards.length; s++) {
+      depth += getQueueDepth(s);
+    }
+    return depth;
+  }
+
+  /**
+   * Returns how many commands are waiting for one shard, including its current batch.
+   *
+   * @param shard the shard's number
+   * @return the shard's queue depth
+   */
+  public long getQueueDepth(int shard) {
+    SimulationShard owner = shards[shard];
+    long applied = owner.applied();
+    return Math.max(0, owner.claimed() - applied);
+  }
+
+  /**
+   * Returns how many commands, ticks included, have been applied.
+   *
+   * @return the number of applied commands
+   */
+  public long getAppliedCount() {
+    long applied = 0;
+    for (SimulationShard shard : shards) {
+      applied += shard.applied();
+    }
+    return applied;
+  }
+
+  /**
+   * Returns how many batches the shards have applied.
+   *
+   * @return the number of batches
+   */
+  public long getBatchCount() {
+    long batches = 0;
+    for (SimulationShard shard : shards) {
+      batches += shard.batches();
+    }
+    return batches;
+  }
+
+  /**
+   * Returns a percentile of the time from publishing a command to the end of the batch that
+   * applied it, over every command so far. The value is the top of a bucket about 6% wide.
+   *
+   * @param fraction the percentile as a fraction, e.g. {@code 0.99}
+   * @return the latency in nanoseconds, or 0 before any command was applied
+   */
+  public long getLatencyNanos(double fraction) {
+    long[] table = LatencyHistogram.newTable();
+    for (SimulationShard shard : shards) {
+      shard.addLatencies(table);
+    }
+    return LatencyHistogram.percentile(table, fraction);
+  }
+
+  /**
+   * Returns the number of shard threads.
+   *
+   * @return the shard count
+   */
+  public int getShardCount() {
+    return shards.length;
+  }
+
+  /**
+   * Applies the commands already published and stops the shard threads.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    for (SimulationShard shard : shards) {
+      shard.close();
+    }
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("Pipeline is closed");
+    }
+  }
+}
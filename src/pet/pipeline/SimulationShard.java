@@ -0,0 +1,164 @@
+package pet.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import pet.helper.Action;
+import pet.population.DecayKernel;
+import pet.population.PetPopulation;
+
+/**
+ * The {@code SimulationShard} class owns a contiguous range of pets in a population and
+ * the ring its commands arrive through. Its thread is the only one that writes those pets.
+ * <p>
+ * The ring works like the one in {@code AsyncEventSink}: producers claim a slot with one
+ * compare-and-set on the tail, fill the preallocated columns and release the slot through
+ * its sequence number. The shard thread takes every published slot as one batch, applies
+ * it in ring order, records each command's latency and only then hands the slots back, so
+ * a full ring holds producers back instead of losing commands.
+ */
+final class SimulationShard {
+
+  /**
+   * Pet value of a slot holding a tick for the shard's whole range.
+   */
+  static final int TICK = -1;
+
+  private static final Action[] ACTIONS = Action.values();
+
+  private final PetPopulation population;
+  private final DecayKernel kernel;
+  private final int from;
+  private final int to;
+  private final WaitStrategy wait;
+  private final int mask;
+  private final AtomicLongArray sequences;
+  private final int[] pets;
+  private final byte[] actions;
+  private final long[] publishedAt;
+  private final AtomicLong tail = new AtomicLong();
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final Thread thread;
+  // Advanced only by the shard thread.
+  private volatile long head;
+  private volatile long batches;
+  private volatile boolean closed;
+
+  SimulationShard(PetPopulation population, DecayKernel kernel, int from, int to, int size,
+      WaitStrategy wait, String name) {
+    this.population = population;
+    this.kernel = kernel;
+    this.from = from;
+    this.to = to;
+    this.wait = wait;
+    this.mask = size - 1;
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+    this.pets = new int[size];
+    this.actions = new byte[size];
+    this.publishedAt = new long[size];
+    this.thread = new Thread(this::run, name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Publishes one command, waiting while the ring is full.
+   *
+   * @param pet    the pet's index, or {@link #TICK}
+   * @param action the ordinal of the interaction; ignored for ticks
+   */
+  void publish(int pet, int action) {
+    int attempts = 0;
+    while (true) {
+      long claim = tail.get();
+      int slot = (int) claim & mask;
+      long sequence = sequences.getAcquire(slot);
+      if (sequence == claim) {
+        if (tail.compareAndSet(claim, claim + 1)) {
+          pets[slot] = pet;
+          actions[slot] = (byte) action;
+          publishedAt[slot] = System.nanoTime();
+          sequences.setRelease(slot, claim + 1);
+          return;
+        }
+      } else if (sequence < claim) {
+        wait.idle(attempts++);
+      }
+    }
+  }
+
+  /**
+   * Returns how many commands were claimed: published or about to be.
+   */
+  long claimed() {
+    return tail.get();
+  }
+
+  /**
+   * Returns how many commands have been applied.
+   */
+  long applied() {
+    return head;
+  }
+
+  long batches() {
+    return batches;
+  }
+
+  void addLatencies(long[] table) {
+    latency.addTo(table);
+  }
+
+  /**
+   * Applies the commands still in the ring and stops the shard thread. The caller must not
+   * publish afterwards.
+   */
+  void close() {
+    closed = true;
+    LockSupport.unpark(thread);
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run() {
+    int idle = 0;
+    while (true) {
+      long next = head;
+      long end = next;
+      while (end - next <= mask && sequences.getAcquire((int) end & mask) == end + 1) {
+        end++;
+      }
+      if (end == next) {
+        if (closed && next == tail.get()) {
+          return;
+        }
+        wait.idle(idle++);
+        continue;
+      }
+      idle = 0;
+      for (long s = next; s < end; s++) {
+        int slot = (int) s & mask;
+        int pet = pets[slot];
+        if (pet == TICK) {
+          kernel.stepRange(population, from, to);
+        } else {
+          population.interactWith(pet, ACTIONS[actions[slot]]);
+        }
+      }
+      long now = System.nanoTime();
+      for (long s = next; s < end; s++) {
+        int slot = (int) s & mask;
+        latency.record(now - publishedAt[slot]);
+        sequences.setRelease(slot, s + mask + 1);
+      }
+      batches++;
+      head = end;
+    }
+  }
+}
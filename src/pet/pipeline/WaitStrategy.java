@@ -0,0 +1,56 @@
+package pet.pipeline;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code WaitStrategy} enum decides how a {@link CommandPipeline} thread waits: a shard
+ * whose ring is empty, or a producer whose shard's ring is full.
+ * <p>
+ * The strategies trade CPU for latency. Waiting threads are never signalled, so a
+ * publish costs no system call whichever strategy is chosen.
+ */
+public enum WaitStrategy {
+
+  /**
+   * Spins on the CPU. The lowest latency, but every waiting thread keeps a core busy, so
+   * it only suits machines with a core to spare per shard.
+   */
+  BUSY_SPIN,
+
+  /**
+   * Spins briefly, then yields the CPU to other runnable threads on every attempt. Close
+   * to busy-spin latency while other work can still run.
+   */
+  YIELD,
+
+  /**
+   * Spins briefly, then sleeps for {@value #PARK_MICROS} microseconds per attempt. Idle
+   * shards cost almost nothing, at the price of that much extra latency after a quiet
+   * period.
+   */
+  PARK;
+
+  /**
+   * How long a parked thread sleeps before looking again.
+   */
+  static final int PARK_MICROS = 50;
+
+  private static final int SPIN_ATTEMPTS = 100;
+  private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(PARK_MICROS);
+
+  /**
+   * Waits once after the given number of failed attempts in a row.
+   *
+   * @param attempts how many times the caller has already waited without progress
+   */
+  void idle(int attempts) {
+    if (this == BUSY_SPIN || attempts < SPIN_ATTEMPTS) {
+      Thread.onSpinWait();
+    } else if (this == YIELD) {
+      Thread.yield();
+    } else {
+      LockSupport.parkNanos(this, PARK_NANOS);
+    }
+  }
+}
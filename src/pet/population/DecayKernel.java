@@ -0,0 +1,76 @@
+package pet.population;
+
+/**
+ * The {@code DecayKernel} interface is a batch strategy for advancing a {@link PetPopulation}
+ * by one time step.
+ * <p>
+ * A kernel applies the personality- and mood-specific need decay to a range of pets,
+ * clamps the needs to [0, 100], and updates mood and alive status, producing exactly the
+ * same state as stepping each pet individually.
+ * <p>
+ * Kernels keep no per-call state, so one kernel may step disjoint ranges of the same
+ * population from several threads at once.
+ * <p>
+ * {@link #create()} returns the fastest kernel available in the running JVM: a SIMD kernel
+ * built on the incubating Vector API when the {@code jdk.incubator.vector} module is
+ * enabled (with {@code --add-modules jdk.incubator.vector}), and a scalar loop otherwise.
+ * The SIMD kernel lives in the separate {@code src-vector} source root, which only compiles
+ * with that flag, so it may also be missing from the build altogether.
+ */
+public interface DecayKernel {
+
+  /**
+   * Advances the living pets with indexes in {@code [from, to)} by one time step.
+   *
+   * @param population the population to step
+   * @param from       the first index (inclusive)
+   * @param to         the last index (exclusive)
+   * @return the deaths and mood changes within the range
+   */
+  TickResult stepRange(PetPopulation population, int from, int to);
+
+  /**
+   * Advances every living pet in the population by one time step.
+   *
+   * @param population the population to step
+   * @return the deaths and mood changes across the population
+   */
+  default TickResult stepAll(PetPopulation population) {
+    return stepRange(population, 0, population.size());
+  }
+
+  /**
+   * Returns the fastest kernel supported by the running JVM.
+   *
+   * @return the Vector API kernel if it was built and is usable, otherwise the scalar kernel
+   */
+  static DecayKernel create() {
+    if (VectorSupport.isAvailable()) {
+      try {
+        return (DecayKernel) Class.forName("pet.population.VectorDecayKernel")
+            .getDeclaredConstructor().newInstance();
+      } catch (ReflectiveOperationException | LinkageError e) {
+        return scalar();
+      }
+    }
+    return scalar();
+  }
+
+  /**
+   * Returns the portable scalar kernel.
+   *
+   * @return a kernel that steps one pet at a time using the precomputed delta tables
+   */
+  static DecayKernel scalar() {
+    return new ScalarDecayKernel();
+  }
+
+  /**
+   * Returns the kernel that steps pets grouped by personality.
+   *
+   * @return a kernel that runs one loop per personality
+   */
+  static DecayKernel grouped() {
+    return new GroupedDecayKernel();
+  }
+}
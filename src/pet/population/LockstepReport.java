@@ -0,0 +1,120 @@
+package pet.population;
+
+import java.util.Arrays;
+
+/**
+ * The {@code LockstepReport} class describes one tick run by a {@link LockstepTicker}: what
+ * happened to the population and how long each phase took.
+ * <p>
+ * The counts only depend on the population and the tick, never on the number of workers.
+ * The timings show where the tick went: the wall time of each phase, and each worker's
+ * busy time in the step phase, so a worker that holds the others up at the barrier
+ * stands out against the rest.
+ */
+public final class LockstepReport {
+
+  private final long tick;
+  private final TickResult result;
+  private final int alive;
+  private final long stepNanos;
+  private final long reduceNanos;
+  private final long[] workerStepNanos;
+
+  LockstepReport(long tick, TickResult result, int alive, long stepNanos, long reduceNanos,
+      long[] workerStepNanos) {
+    this.tick = tick;
+    this.result = result;
+    this.alive = alive;
+    this.stepNanos = stepNanos;
+    this.reduceNanos = reduceNanos;
+    this.workerStepNanos = workerStepNanos;
+  }
+
+  /**
+   * Returns the number of the tick, counting from 0 for the first tick of the ticker.
+   *
+   * @return the tick number
+   */
+  public long getTick() {
+    return tick;
+  }
+
+  /**
+   * Returns the deaths and mood changes of the whole population during the tick.
+   *
+   * @return the merged tick result
+   */
+  public TickResult getResult() {
+    return result;
+  }
+
+  /**
+   * Returns the number of pets alive after the tick.
+   *
+   * @return the alive count
+   */
+  public int getAliveCount() {
+    return alive;
+  }
+
+  /**
+   * Returns the wall time of the step phase, from releasing the workers until the last
+   * one reached the barrier.
+   *
+   * @return the step phase in nanoseconds
+   */
+  public long getStepNanos() {
+    return stepNanos;
+  }
+
+  /**
+   * Returns the wall time of the reduction phase.
+   *
+   * @return the reduction phase in nanoseconds
+   */
+  public long getReduceNanos() {
+    return reduceNanos;
+  }
+
+  /**
+   * Returns how long one worker spent stepping its shards during the tick.
+   *
+   * @param worker the worker's number
+   * @return the worker's busy time in nanoseconds
+   */
+  public long getWorkerStepNanos(int worker) {
+    return workerStepNanos[worker];
+  }
+
+  /**
+   * Returns the worker that took longest in the step phase, the one the others waited for.
+   *
+   * @return the straggler's number
+   */
+  public int getSlowestWorker() {
+    int slowest = 0;
+    for (int w = 1; w < workerStepNanos.length; w++) {
+      if (workerStepNanos[w] > workerStepNanos[slowest]) {
+        slowest = w;
+      }
+    }
+    return slowest;
+  }
+
+  /**
+   * Returns a string representation of this report.
+   *
+   * @return string representation of the report
+   */
+  @Override
+  public String toString() {
+    return "LockstepReport{"
+        + "tick=" + tick
+        + ", result=" + result
+        + ", alive=" + alive
+        + ", stepNanos=" + stepNanos
+        + ", reduceNanos=" + reduceNanos
+        + ", workerStepNanos=" + Arrays.toString(workerStepNanos)
+        + '}';
+  }
+}
@@ -0,0 +1,244 @@
+package pet.population;
+
+import java.util.concurrent.Phaser;
+import java.util.function.Consumer;
+
+/**
+ * The {@code LockstepTicker} class advances a {@link PetPopulation} tick by tick on a fixed
+ * set of worker threads, with every worker finishing tick N before any starts tick N+1.
+ * <p>
+ * Each tick runs three phases separated by one {@link Phaser} barrier each:
+ * <ol>
+ *   <li>Step: every worker steps its shards with a {@link DecayKernel}.</li>
+ *   <li>Reduce: every worker totals the deaths, mood changes and living pets of its shards,
+ *       reading a population that no one is writing.</li>
+ *   <li>Publish: the calling thread merges the totals into a {@link LockstepReport} and
+ *       hands it to the publisher while the workers wait, so the publisher may read or
+ *       snapshot the whole population.</li>
+ * </ol>
+ * <p>
+ * The population is split into shards of a fixed size, and worker {@code w} owns shards
+ * {@code w}, {@code w + workers}, and so on. A shard's pets only depend on their own
+ * state, and the totals are integer sums, so the population and the reported counts are
+ * byte for byte the same for any number of workers.
+ * <p>
+ * Workers are platform threads that wait at the barrier between ticks; {@link #close()}
+ * terminates the phaser and with it the workers.
+ */
+public class LockstepTicker implements AutoCloseable {
+
+  /**
+   * The phases of a tick, for {@link #getPhaseNanos(Phase)}.
+   */
+  public enum Phase {
+    /** Workers step their shards. */
+    STEP,
+    /** Workers total the statistics of their shards. */
+    REDUCE,
+    /** The caller merges the totals and publishes the report. */
+    PUBLISH
+  }
+
+  private final PetPopulation population;
+  private final DecayKernel kernel;
+  private final Consumer<? super LockstepReport> publisher;
+  private final int workers;
+  private final int shardSize;
+  private final int shards;
+  private final Phaser phaser;
+  private final Thread[] threads;
+  // Indexed by shard; each entry is written by the shard's owner in the step phase.
+  private final TickResult[] shardResults;
+  // Indexed by worker; written by that worker, read by the caller after the barrier.
+  private final long[] workerStepNanos;
+  private final int[] workerDeaths;
+  private final int[] workerMoodFlips;
+  private final int[] workerAlive;
+  private final long[] phaseNanos = new long[Phase.values().length];
+  private volatile Throwable failure;
+  private long tick;
+
+  /**
+   * Creates a ticker and starts its workers.
+   *
+   * @param population the population to step; the ticker's caller and publisher are the
+   *                   only other threads that may use it
+   * @param workers    the number of worker threads
+   * @param shardSize  the number of pets in each shard
+   * @param kernel     the kernel that steps each shard
+   * @param publisher  receives the report of every tick, on the thread calling
+   *                   {@link #tick()}
+   * @throws IllegalArgumentException if {@code workers} or {@code shardSize} is not
+   *                                  positive
+   */
+  public LockstepTicker(PetPopulation population, int workers, int shardSize,
+      DecayKernel kernel, Consumer<? super LockstepReport> publisher) {
+    if (workers <= 0) {
+      throw new IllegalArgumentException("Worker count must be positive: " + workers);
+    }
+    if (shardSize <= 0) {
+      throw new IllegalArgumentException("Shard size must be positive: " + shardSize);
+    }
+    this.population = population;
+    this.kernel = kernel;
+    this.publisher = publisher;
+    this.workers = workers;
+    this.shardSize = shardSize;
+    this.shards = (population.size() + shardSize - 1) / shardSize;
+    this.shardResults = new TickResult[shards];
+    this.workerStepNanos = new long[workers];
+    this.workerDeaths = new int[workers];
+    this.workerMoodFlips = new int[workers];
+    this.workerAlive = new int[workers];
+    // The caller is a party too: it releases each tick and publishes its report.
+    this.phaser = new Phaser(workers + 1);
+    this.threads = new Thread[workers];
+    for (int w = 0; w < workers; w++) {
+      int worker = w;
+      threads[w] = new Thread(() -> work(worker), "lockstep-" + w);
+      threads[w].setDaemon(true);
+      threads[w].start();
+    }
+  }
+
+  /**
+   * Runs one tick through all three phases and returns its report, after the publisher
+   * has received it.
+   *
+   * @return the report of the tick
+   * @throws IllegalStateException if the ticker is closed, or a worker failed; the
+   *                               worker's exception is the cause
+   */
+  public LockstepReport tick() {
+    if (phaser.isTerminated()) {
+      throw new IllegalStateException("Ticker is closed");
+    }
+    long start = System.nanoTime();
+    phaser.arriveAndAwaitAdvance();
+    phaser.arriveAndAwaitAdvance();
+    long stepped = System.nanoTime();
+    phaser.arriveAndAwaitAdvance();
+    long reduced = System.nanoTime();
+    Throwable failed = failure;
+    if (failed != null) {
+      close();
+      throw new IllegalStateException("Worker failed", failed);
+    }
+
+    int deaths = 0;
+    int moodFlips = 0;
+    int alive = 0;
+    for (int w = 0; w < workers; w++) {
+      deaths += workerDeaths[w];
+      moodFlips += workerMoodFlips[w];
+      alive += workerAlive[w];
+    }
+    LockstepReport report = new LockstepReport(tick++, new TickResult(deaths, moodFlips),
+        alive, stepped - start, reduced - stepped, workerStepNanos.clone());
+    publisher.accept(report);
+    long published = System.nanoTime();
+    phaseNanos[Phase.STEP.ordinal()] += stepped - start;
+    phaseNanos[Phase.REDUCE.ordinal()] += reduced - stepped;
+    phaseNanos[Phase.PUBLISH.ordinal()] += published - reduced;
+    return report;
+  }
+
+  /**
+   * Returns the total wall time spent in one phase over all ticks so far.
+   *
+   * @param phase the phase
+   * @return the time in nanoseconds
+   */
+  public long getPhaseNanos(Phase phase) {
+    return phaseNanos[phase.ordinal()];
+  }
+
+  /**
+   * Returns the number of worker threads.
+   *
+   * @return the worker count
+   */
+  public int getWorkerCount() {
+    return workers;
+  }
+
+  /**
+   * Returns the number of shards the population is split into.
+   *
+   * @return the shard count
+   */
+  public int getShardCount() {
+    return shards;
+  }
+
+  /**
+   * Stops the workers. Ticks requested afterwards fail.
+   */
+  @Override
+  public void close() {
+    phaser.forceTermination();
+    for (Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void work(int worker) {
+    // Each wait returns a negative phase once the phaser is terminated.
+    while (phaser.arriveAndAwaitAdvance() >= 0) {
+      long start = System.nanoTime();
+      try {
+        for (int shard = worker; shard < shards; shard += workers) {
+          int from = shard * shardSize;
+          shardResults[shard] = kernel.stepRange(population, from,
+              Math.min(population.size(), from + shardSize));
+        }
+      } catch (Throwable t) {
+        // Recorded rather than thrown, so the worker still arrives and tick() can report it.
+        failure = t;
+      }
+      workerStepNanos[worker] = System.nanoTime() - start;
+      if (phaser.arriveAndAwaitAdvance() < 0) {
+        return;
+      }
+      try {
+        reduce(worker);
+      } catch (Throwable t) {
+        failure = t;
+      }
+      if (phaser.arriveAndAwaitAdvance() < 0) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Totals the worker's shards into its slots of the per-worker arrays.
+   */
+  private void reduce(int worker) {
+    int deaths = 0;
+    int moodFlips = 0;
+    int alive = 0;
+    for (int shard = worker; shard < shards; shard += workers) {
+      TickResult result = shardResults[shard];
+      if (result != null) {
+        deaths += result.getDeaths();
+        moodFlips += result.getMoodFlips();
+      }
+      int from = shard * shardSize;
+      int to = Math.min(population.size(), from + shardSize);
+      for (int i = from; i < to; i++) {
+        if (population.alive[i]) {
+          alive++;
+        }
+      }
+    }
+    workerDeaths[worker] = deaths;
+    workerMoodFlips[worker] = moodFlips;
+    workerAlive[worker] = alive;
+  }
+}
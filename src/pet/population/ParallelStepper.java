@@ -0,0 +1,133 @@
+package pet.population;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The {@code ParallelStepper} class advances a {@link PetPopulation} by one tick using
+ * several cores.
+ * <p>
+ * The population is split recursively into chunks of at most {@code chunkSize} pets, and
+ * each chunk is stepped by a {@link DecayKernel} on a {@link ForkJoinPool}. Pets never
+ * interact, so chunks touch disjoint parts of the columns and need no locking. Each chunk
+ * returns its own {@link TickResult}, and the results are merged as the fork/join tree
+ * unwinds, so aggregate counts are built without any shared counter.
+ * <p>
+ * Pets with random steps draw from their own counter-based streams, so the resulting
+ * state is identical to {@link PetPopulation#stepAll()} regardless of chunk size or
+ * parallelism, for every personality.
+ */
+public class ParallelStepper implements AutoCloseable {
+
+  /**
+   * Chunk size used when none is given; large enough to amortize task overhead.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 16_384;
+
+  private final ForkJoinPool pool;
+  private final boolean ownsPool;
+  private final int chunkSize;
+  private final DecayKernel kernel;
+
+  /**
+   * Creates a stepper with its own pool of the given parallelism.
+   * The pool is shut down by {@link #close()}.
+   *
+   * @param parallelism the number of worker threads
+   * @param chunkSize   the maximum number of pets stepped by one task
+   */
+  public ParallelStepper(int parallelism, int chunkSize) {
+    this(new ForkJoinPool(parallelism), true, chunkSize, DecayKernel.create());
+  }
+
+  /**
+   * Creates a stepper that runs on an existing pool with the given kernel.
+   * The pool is not shut down by {@link #close()}.
+   *
+   * @param pool      the pool to run on
+   * @param chunkSize the maximum number of pets stepped by one task
+   * @param kernel    the kernel that steps each chunk
+   */
+  public ParallelStepper(ForkJoinPool pool, int chunkSize, DecayKernel kernel) {
+    this(pool, false, chunkSize, kernel);
+  }
+
+  private ParallelStepper(ForkJoinPool pool, boolean ownsPool, int chunkSize,
+      DecayKernel kernel) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+    }
+    this.pool = pool;
+    this.ownsPool = ownsPool;
+    this.chunkSize = chunkSize;
+    this.kernel = kernel;
+  }
+
+  /**
+   * Advances every living pet in the population by one tick, in parallel.
+   *
+   * @param population the population to step
+   * @return the deaths and mood changes merged across all chunks
+   */
+  public TickResult tick(PetPopulation population) {
+    return pool.invoke(new ChunkTask(population, 0, population.size()));
+  }
+
+  /**
+   * Returns the maximum number of pets stepped by a single task.
+   *
+   * @return the chunk size
+   */
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * Returns the target parallelism of the underlying pool.
+   *
+   * @return the number of worker threads
+   */
+  public int getParallelism() {
+    return pool.getParallelism();
+  }
+
+  /**
+   * Shuts down the pool if this stepper created it.
+   */
+  @Override
+  public void close() {
+    if (ownsPool) {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Steps the range {@code [from, to)}, splitting it in half until it fits in one chunk.
+   */
+  private final class ChunkTask extends RecursiveTask<TickResult> {
+    private static final long serialVersionUID = 1L;
+
+    // Tasks are never serialized; the population only lives for one tick.
+    private final transient PetPopulation population;
+    private final int from;
+    private final int to;
+
+    ChunkTask(PetPopulation population, int from, int to) {
+      this.population = population;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected TickResult compute() {
+      if (to - from <= chunkSize) {
+        return kernel.stepRange(population, from, to);
+      }
+      int middle = (from + to) >>> 1;
+      ChunkTask left = new ChunkTask(population, from, middle);
+      left.fork();
+      TickResult right = new ChunkTask(population, middle, to).compute();
+      return left.join().merge(right);
+    }
+  }
+}
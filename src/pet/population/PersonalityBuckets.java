@@ -0,0 +1,73 @@
+package pet.population;
+
+import java.util.Arrays;
+import pet.helper.personality.Personality;
+
+/**
+ * The {@code PersonalityBuckets} class groups the pets of a population by personality.
+ * <p>
+ * It holds every pet index exactly once, sorted by personality ordinal with a stable
+ * counting sort, so indexes within one bucket stay in ascending order. Batch loops can then
+ * process one personality at a time, and pets of the same personality are always visited
+ * in the same relative order as a plain index loop.
+ * <p>
+ * Instances are immutable snapshots; the population rebuilds them after personalities change.
+ */
+final class PersonalityBuckets {
+
+  private static final int PERSONALITY_COUNT = Personality.values().length;
+
+  private final int[] order;
+  private final int[] start;
+
+  /**
+   * Builds the buckets from a personality column.
+   *
+   * @param personality the personality ordinal of every pet
+   */
+  PersonalityBuckets(byte[] personality) {
+    start = new int[PERSONALITY_COUNT + 1];
+    for (byte ordinal : personality) {
+      start[ordinal + 1]++;
+    }
+    for (int p = 0; p < PERSONALITY_COUNT; p++) {
+      start[p + 1] += start[p];
+    }
+    order = new int[personality.length];
+    int[] next = Arrays.copyOf(start, PERSONALITY_COUNT);
+    for (int i = 0; i < personality.length; i++) {
+      order[next[personality[i]]++] = i;
+    }
+  }
+
+  /**
+   * Returns all pet indexes, grouped by personality.
+   *
+   * @return the grouped indexes; must not be modified
+   */
+  int[] order() {
+    return order;
+  }
+
+  /**
+   * Returns the position in {@link #order()} of the first pet of the given personality
+   * whose index is at least {@code index}.
+   *
+   * @param personality the personality ordinal
+   * @param index       the smallest pet index of interest
+   * @return a position between the bucket's start and end (inclusive)
+   */
+  int lowerBound(int personality, int index) {
+    int low = start[personality];
+    int high = start[personality + 1];
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (order[middle] < index) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,414 @@
+package pet.population;
+
+import java.util.concurrent.ThreadLocalRandom;
+import pet.PetInterface;
+import pet.helper.Action;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.CounterRandom;
+import pet.helper.personality.Personality;
+import pet.helper.personality.PersonalityTables;
+
+/**
+ * The {@code PetPopulation} class stores a large number of pets in a structure-of-arrays layout.
+ * <p>
+ * Instead of one object per pet, every attribute lives in its own primitive column:
+ * the four needs are kept in {@code byte} arrays (values are always between 0 and 100),
+ * while alive status, mood and personality are stored as parallel flag and ordinal columns.
+ * Each pet also has a random stream and a step counter, so pets with random steps draw
+ * the same numbers as a standalone {@code Pet} with the same id and seed
+ * (see {@link CounterRandom}); the pet's index is its id.
+ * This keeps the memory footprint small and lets {@link #stepAll()} advance every pet
+ * in a single tight loop.
+ * <p>
+ * Individual pets can still be used through the {@link PetInterface} by requesting a
+ * lightweight handle with {@link #get(int)}.
+ */
+public class PetPopulation {
+  private static final int INITIAL_STATE = 50;
+  private static final Personality[] PERSONALITIES = Personality.values();
+  private static final MoodEnum[] MOODS = MoodEnum.values();
+
+  /**
+   * Outcome flag returned by {@link #evaluate(int)} when the pet died.
+   */
+  static final int DIED = 1;
+
+  /**
+   * Outcome flag returned by {@link #evaluate(int)} when the pet's mood changed.
+   */
+  static final int MOOD_CHANGED = 2;
+
+  private final int size;
+  // Created on first use, so the constructor does not hand out 'this'.
+  private PopulationPet cursor;
+  private volatile PersonalityBuckets buckets;
+
+  // Columns are package-private so the batch kernels in this package can sweep them directly.
+  final byte[] hunger;
+  final byte[] hygiene;
+  final byte[] social;
+  final byte[] sleep;
+  final boolean[] alive;
+  final byte[] mood;
+  final byte[] personality;
+  final long[] stream;
+  final long[] tick;
+
+  /**
+   * Creates a population with room for the given number of pets.
+   * Like a freshly constructed {@code Pet}, the pets are not started yet;
+   * call {@link #startAll()} or {@link #startGame(int)} before stepping them.
+   *
+   * @param size the number of pets in the population
+   * @throws IllegalArgumentException if {@code size} is negative
+   */
+  public PetPopulation(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Population size must not be negative: " + size);
+    }
+    this.size = size;
+    this.hunger = new byte[size];
+    this.hygiene = new byte[size];
+    this.social = new byte[size];
+    this.sleep = new byte[size];
+    this.alive = new boolean[size];
+    this.mood = new byte[size];
+    this.personality = new byte[size];
+    this.stream = new long[size];
+    this.tick = new long[size];
+  }
+
+  /**
+   * Creates a population holding the state captured in a snapshot.
+   *
+   * @param snapshot the snapshot to restore
+   * @return a new population equal to the one the snapshot was taken from
+   */
+  public static PetPopulation restore(PopulationSnapshot snapshot) {
+    PetPopulation population = new PetPopulation(snapshot.size());
+    int size = snapshot.size();
+    System.arraycopy(snapshot.hunger(), 0, population.hunger, 0, size);
+    System.arraycopy(snapshot.hygiene(), 0, population.hygiene, 0, size);
+    System.arraycopy(snapshot.social(), 0, population.social, 0, size);
+    System.arraycopy(snapshot.sleep(), 0, population.sleep, 0, size);
+    System.arraycopy(snapshot.alive(), 0, population.alive, 0, size);
+    System.arraycopy(snapshot.mood(), 0, population.mood, 0, size);
+    System.arraycopy(snapshot.personality(), 0, population.personality, 0, size);
+    System.arraycopy(snapshot.stream(), 0, population.stream, 0, size);
+    System.arraycopy(snapshot.tick(), 0, population.tick, 0, size);
+    return population;
+  }
+
+  /**
+   * Copies the state of every pet into a snapshot.
+   * <p>
+   * The copy is consistent as long as no other thread steps or modifies the population
+   * while it is taken, e.g. when it is called from the tick loop between two ticks. It costs
+   * one array copy per column and no I/O, so the snapshot can be written out elsewhere
+   * while the loop continues.
+   *
+   * @return a snapshot of the current state
+   */
+  public PopulationSnapshot snapshot() {
+    return new PopulationSnapshot(this);
+  }
+
+  /**
+   * Returns the number of pets in this population.
+   *
+   * @return the population size
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns a {@link PetInterface} handle for the pet at the given index.
+   * The handle holds no state of its own; every call reads and writes this population.
+   *
+   * @param index the index of the pet
+   * @return a handle backed by this population
+   */
+  public PopulationPet get(int index) {
+    checkIndex(index);
+    return new PopulationPet(this, index);
+  }
+
+  /**
+   * Starts every pet in the population with a fresh random seed.
+   */
+  public void startAll() {
+    startAll(ThreadLocalRandom.current().nextLong());
+  }
+
+  /**
+   * Starts every pet in the population, as if {@code startGame(seed)} had been called on
+   * each. The pet at index {@code i} behaves exactly like {@code new Pet(i)} started with
+   * the same seed.
+   *
+   * @param seed the seed of the run
+   */
+  public void startAll(long seed) {
+    for (int i = 0; i < size; i++) {
+      start(i, seed);
+    }
+    buckets = null;
+  }
+
+  /**
+   * Starts a single pet: all needs are set to the default midpoint, the pet is alive,
+   * HAPPY, and receives a random personality.
+   *
+   * @param index the index of the pet
+   */
+  public void startGame(int index) {
+    startGame(index, ThreadLocalRandom.current().nextLong());
+  }
+
+  /**
+   * Starts a single pet like {@link #startGame(int)}, deriving its personality and random
+   * steps from the given seed.
+   *
+   * @param index the index of the pet
+   * @param seed  the seed of the run
+   */
+  public void startGame(int index, long seed) {
+    checkIndex(index);
+    start(index, seed);
+    buckets = null;
+  }
+
+  /**
+   * Advances every living pet by one time step.
+   * <p>
+   * This is equivalent to calling {@code step()} on each pet in index order,
+   * but runs over the primitive columns without allocating any per-pet objects.
+   */
+  public void stepAll() {
+    for (int i = 0; i < size; i++) {
+      if (alive[i]) {
+        stepThroughPersonality(cursor(), i);
+      }
+    }
+  }
+
+  /**
+   * Advances the pets in this population with the given batch kernel.
+   * The resulting state is the same as after {@link #stepAll()}.
+   *
+   * @param kernel the kernel to run, e.g. {@link DecayKernel#create()}
+   * @return the number of deaths and mood changes caused by this tick
+   */
+  public TickResult stepAll(DecayKernel kernel) {
+    return kernel.stepAll(this);
+  }
+
+  /**
+   * Advances a single pet by one time step.
+   *
+   * @param index the index of the pet
+   */
+  public void step(int index) {
+    checkIndex(index);
+    if (alive[index]) {
+      stepThroughPersonality(cursor(), index);
+    }
+  }
+
+  /**
+   * Applies a user interaction to a single pet.
+   *
+   * @param index  the index of the pet
+   * @param action the interaction to apply
+   */
+  public void interactWith(int index, Action action) {
+    checkIndex(index);
+    if (!alive[index]) {
+      return;
+    }
+    int entry = PersonalityTables.interactIndex(personality[index], mood[index],
+        action.ordinal());
+    adjustNeeds(index,
+        PersonalityTables.interactDelta(entry, PersonalityTables.HUNGER),
+        PersonalityTables.interactDelta(entry, PersonalityTables.HYGIENE),
+        PersonalityTables.interactDelta(entry, PersonalityTables.SOCIAL),
+        PersonalityTables.interactDelta(entry, PersonalityTables.SLEEP));
+    evaluate(index);
+  }
+
+  /**
+   * Returns the number of pets that are currently alive.
+   *
+   * @return the count of living pets
+   */
+  public int aliveCount() {
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if (alive[i]) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  int hunger(int index) {
+    return hunger[index];
+  }
+
+  int hygiene(int index) {
+    return hygiene[index];
+  }
+
+  int social(int index) {
+    return social[index];
+  }
+
+  int sleep(int index) {
+    return sleep[index];
+  }
+
+  boolean isAlive(int index) {
+    return alive[index];
+  }
+
+  long tick(int index) {
+    return tick[index];
+  }
+
+  MoodEnum mood(int index) {
+    return MOODS[mood[index]];
+  }
+
+  void setMood(int index, MoodEnum value) {
+    mood[index] = (byte) value.ordinal();
+  }
+
+  Personality personality(int index) {
+    return PERSONALITIES[personality[index]];
+  }
+
+  void setPersonality(int index, Personality value) {
+    personality[index] = (byte) value.ordinal();
+    buckets = null;
+  }
+
+  void adjustNeeds(int index, int hungerDelta, int hygieneDelta, int socialDelta,
+      int sleepDelta) {
+    hunger[index] = clamp(hunger[index] + hungerDelta);
+    hygiene[index] = clamp(hygiene[index] + hygieneDelta);
+    social[index] = clamp(social[index] + socialDelta);
+    sleep[index] = clamp(sleep[index] + sleepDelta);
+  }
+
+  /**
+   * Returns the pets grouped by personality, rebuilding the grouping if any personality
+   * changed since it was last built.
+   */
+  PersonalityBuckets buckets() {
+    PersonalityBuckets current = buckets;
+    if (current == null) {
+      synchronized (this) {
+        current = buckets;
+        if (current == null) {
+          current = new PersonalityBuckets(personality);
+          buckets = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Creates a handle that batch loops can move from pet to pet. Each thread stepping the
+   * population needs its own cursor.
+   */
+  PopulationPet newCursor() {
+    return new PopulationPet(this, 0);
+  }
+
+  /**
+   * Returns the cursor used by {@link #stepAll()} and {@link #step(int)}.
+   */
+  private PopulationPet cursor() {
+    if (cursor == null) {
+      cursor = newCursor();
+    }
+    return cursor;
+  }
+
+  /**
+   * Steps one living pet by dispatching to its personality object through the given cursor,
+   * so no per-pet object is allocated.
+   *
+   * @return the outcome flags from {@link #evaluate(int)}
+   */
+  int stepThroughPersonality(PopulationPet cursor, int index) {
+    cursor.moveTo(index);
+    PERSONALITIES[personality[index]].getPersonality()
+        .modifyStep(cursor, MOODS[mood[index]], nextStepKey(index));
+    return evaluate(index);
+  }
+
+  /**
+   * Returns the random key for the pet's next step and advances its step counter.
+   * Every stepping path must either call this or increment {@code tick} itself.
+   */
+  long nextStepKey(int index) {
+    return CounterRandom.key(stream[index], tick[index]++);
+  }
+
+  void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(
+          "Pet index " + index + " out of range [0, " + size + ")");
+    }
+  }
+
+  private void start(int index, long seed) {
+    long petStream = CounterRandom.stream(seed, index);
+    stream[index] = petStream;
+    tick[index] = 0;
+    hunger[index] = INITIAL_STATE;
+    hygiene[index] = INITIAL_STATE;
+    social[index] = INITIAL_STATE;
+    sleep[index] = INITIAL_STATE;
+    alive[index] = true;
+    mood[index] = (byte) MoodEnum.HAPPY.ordinal();
+    personality[index] = (byte) Personality.forStream(petStream).ordinal();
+  }
+
+  /**
+   * Runs the health check followed by the mood update for one pet,
+   * mirroring {@code checkHealth()} and {@code updateMood()} in {@code Pet}.
+   *
+   * @return a combination of {@link #DIED} and {@link #MOOD_CHANGED}, or 0
+   */
+  int evaluate(int index) {
+    int h = hunger[index];
+    int y = hygiene[index];
+    int s = social[index];
+    int z = sleep[index];
+    int outcome = 0;
+    if (h == 0 || y == 0 || s == 0 || z == 0) {
+      alive[index] = false;
+      outcome |= DIED;
+    }
+    boolean sad = h <= 20 || y <= 20 || s <= 20 || z <= 20;
+    byte newMood = (byte) (sad ? MoodEnum.SAD.ordinal() : MoodEnum.HAPPY.ordinal());
+    if (mood[index] != newMood) {
+      mood[index] = newMood;
+      outcome |= MOOD_CHANGED;
+    }
+    return outcome;
+  }
+
+  /**
+   * Clamps a value to the range [0, 100] and narrows it to a byte.
+   *
+   * @param value the value to clamp
+   * @return the clamped result
+   */
+  static byte clamp(int value) {
+    return (byte) Math.max(0, Math.min(100, value));
+  }
+}
@@ -0,0 +1,136 @@
+package pet.population;
+
+import pet.PetInterface;
+import pet.helper.Action;
+import pet.helper.HealthStatus;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.Personality;
+
+/**
+ * The {@code PopulationPet} class is a thin {@link PetInterface} handle onto one row
+ * of a {@link PetPopulation}.
+ * <p>
+ * It stores nothing but the owning population and the pet's index, so existing callers
+ * of the pet model (controllers, personalities, tests) can work with pooled pets
+ * exactly as they would with a standalone {@code Pet}.
+ */
+public class PopulationPet implements PetInterface {
+
+  private final PetPopulation population;
+  private int index;
+
+  /**
+   * Constructs a handle for the pet at the given index.
+   *
+   * @param population the population that owns the pet's state
+   * @param index      the index of the pet within the population
+   */
+  PopulationPet(PetPopulation population, int index) {
+    this.population = population;
+    this.index = index;
+  }
+
+  /**
+   * Re-targets this handle at another pet. Only used by the population's own
+   * batch loops, which reuse a single handle instead of allocating one per pet.
+   *
+   * @param index the index of the pet to point at
+   */
+  void moveTo(int index) {
+    this.index = index;
+  }
+
+  /**
+   * Returns the index of the pet this handle points at.
+   *
+   * @return the pet's index within its population
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  /**
+   * Returns the number of steps the pet has taken since it was started.
+   *
+   * @return the step count
+   */
+  public long getTick() {
+    return population.tick(index);
+  }
+
+  @Override
+  public void startGame() {
+    population.startGame(index);
+  }
+
+  @Override
+  public void startGame(long seed) {
+    population.startGame(index, seed);
+  }
+
+  @Override
+  public void step() {
+    population.step(index);
+  }
+
+  @Override
+  public void interactWith(Action action) {
+    population.interactWith(index, action);
+  }
+
+  @Override
+  public HealthStatus getHealth() {
+    return new HealthStatus(population.hunger(index), population.hygiene(index),
+        population.social(index), population.sleep(index));
+  }
+
+  @Override
+  public MoodEnum getMood() {
+    return population.mood(index);
+  }
+
+  @Override
+  public Personality getPersonality() {
+    return population.personality(index);
+  }
+
+  @Override
+  public void setMood(MoodEnum mood) {
+    population.setMood(index, mood);
+  }
+
+  @Override
+  public void setPersonality(Personality personality) {
+    population.setPersonality(index, personality);
+  }
+
+  @Override
+  public boolean isAlive() {
+    return population.isAlive(index);
+  }
+
+  @Override
+  public boolean needShower() {
+    return population.hygiene(index) <= 20;
+  }
+
+  @Override
+  public boolean needFeed() {
+    return population.hunger(index) <= 20;
+  }
+
+  @Override
+  public boolean needPlay() {
+    return population.social(index) <= 20;
+  }
+
+  @Override
+  public boolean needSleep() {
+    return population.sleep(index) <= 20;
+  }
+
+  @Override
+  public void adjustNeeds(int hungerDelta, int hygieneDelta, int socialDelta, int sleepDelta) {
+    population.adjustNeeds(index, hungerDelta, hygieneDelta, socialDelta, sleepDelta);
+  }
+}
@@ -0,0 +1,184 @@
+package pet.population;
+
+import pet.helper.PackedNeeds;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.Personality;
+
+/**
+ * The {@code PopulationSnapshot} class is a point-in-time copy of every column of a
+ * {@link PetPopulation}.
+ * <p>
+ * A snapshot is taken with {@link PetPopulation#snapshot()}, which only copies arrays, so it
+ * can be taken between two ticks without holding up the tick loop for long; the copy can then
+ * be written out on another thread while the population keeps running. Pet ids are implicit:
+ * the pet at index {@code i} has id {@code i}, as in the population itself.
+ * <p>
+ * The column accessors return the snapshot's own arrays without copying, so that large
+ * snapshots can be written in bulk. They must not be modified.
+ */
+public final class PopulationSnapshot {
+
+  private final byte[] hunger;
+  private final byte[] hygiene;
+  private final byte[] social;
+  private final byte[] sleep;
+  private final boolean[] alive;
+  private final byte[] mood;
+  private final byte[] personality;
+  private final long[] stream;
+  private final long[] tick;
+
+  /**
+   * Creates a snapshot from column arrays, e.g. ones read back from a file. The snapshot
+   * takes ownership of the arrays.
+   *
+   * @param hunger      hunger of every pet
+   * @param hygiene     hygiene of every pet
+   * @param social      social of every pet
+   * @param sleep       sleep of every pet
+   * @param alive       alive flag of every pet
+   * @param mood        mood ordinal of every pet
+   * @param personality personality ordinal of every pet
+   * @param stream      random stream of every pet
+   * @param tick        step counter of every pet
+   * @throws IllegalArgumentException if the columns differ in length or hold a value no
+   *                                  population can contain
+   */
+  public PopulationSnapshot(byte[] hunger, byte[] hygiene, byte[] social, byte[] sleep,
+      boolean[] alive, byte[] mood, byte[] personality, long[] stream, long[] tick) {
+    int size = hunger.length;
+    if (hygiene.length != size || social.length != size || sleep.length != size
+        || alive.length != size || mood.length != size || personality.length != size
+        || stream.length != size || tick.length != size) {
+      throw new IllegalArgumentException("Snapshot columns differ in length");
+    }
+    checkRange(hunger, PackedNeeds.MAX_NEED, "need");
+    checkRange(hygiene, PackedNeeds.MAX_NEED, "need");
+    checkRange(social, PackedNeeds.MAX_NEED, "need");
+    checkRange(sleep, PackedNeeds.MAX_NEED, "need");
+    checkRange(mood, MoodEnum.values().length - 1, "mood");
+    checkRange(personality, Personality.values().length - 1, "personality");
+    this.hunger = hunger;
+    this.hygiene = hygiene;
+    this.social = social;
+    this.sleep = sleep;
+    this.alive = alive;
+    this.mood = mood;
+    this.personality = personality;
+    this.stream = stream;
+    this.tick = tick;
+  }
+
+  /**
+   * Copies the columns of a population.
+   */
+  PopulationSnapshot(PetPopulation population) {
+    this.hunger = population.hunger.clone();
+    this.hygiene = population.hygiene.clone();
+    this.social = population.social.clone();
+    this.sleep = population.sleep.clone();
+    this.alive = population.alive.clone();
+    this.mood = population.mood.clone();
+    this.personality = population.personality.clone();
+    this.stream = population.stream.clone();
+    this.tick = population.tick.clone();
+  }
+
+  /**
+   * Returns the number of pets in the snapshot.
+   *
+   * @return the population size
+   */
+  public int size() {
+    return hunger.length;
+  }
+
+  /**
+   * Returns the hunger column.
+   *
+   * @return hunger of every pet, not to be modified
+   */
+  public byte[] hunger() {
+    return hunger;
+  }
+
+  /**
+   * Returns the hygiene column.
+   *
+   * @return hygiene of every pet, not to be modified
+   */
+  public byte[] hygiene() {
+    return hygiene;
+  }
+
+  /**
+   * Returns the social column.
+   *
+   * @return social of every pet, not to be modified
+   */
+  public byte[] social() {
+    return social;
+  }
+
+  /**
+   * Returns the sleep column.
+   *
+   * @return sleep of every pet, not to be modified
+   */
+  public byte[] sleep() {
+    return sleep;
+  }
+
+  /**
+   * Returns the alive column.
+   *
+   * @return the alive flag of every pet, not to be modified
+   */
+  public boolean[] alive() {
+    return alive;
+  }
+
+  /**
+   * Returns the mood column.
+   *
+   * @return the {@link MoodEnum} ordinal of every pet, not to be modified
+   */
+  public byte[] mood() {
+    return mood;
+  }
+
+  /**
+   * Returns the personality column.
+   *
+   * @return the {@link Personality} ordinal of every pet, not to be modified
+   */
+  public byte[] personality() {
+    return personality;
+  }
+
+  /**
+   * Returns the random stream column.
+   *
+   * @return the random stream of every pet, not to be modified
+   */
+  public long[] stream() {
+    return stream;
+  }
+
+  /**
+   * Returns the step counter column.
+   *
+   * @return the number of steps every pet has taken, not to be modified
+   */
+  public long[] tick() {
+    return tick;
+  }
+
+  private static void checkRange(byte[] column, int max, String name) {
+    for (byte value : column) {
+      if (value < 0 || value > max) {
+        throw new IllegalArgumentException("Snapshot holds invalid " + name + " " + value);
+      }
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package pet.population;
+
+import pet.helper.PackedNeeds;
+import pet.helper.personality.PersonalityTables;
+
+/**
+ * The {@code ScalarDecayKernel} class steps a population one pet at a time, reading the
+ * step deltas from {@link PersonalityTables} instead of calling the personality objects.
+ * <p>
+ * Pets whose personality has no fixed step (such as {@code Smart}) add the random part
+ * from {@link PersonalityTables#stepVariation(int, long)} to their table deltas. This
+ * kernel is the fallback when the Vector API is unavailable, and also finishes the tail of
+ * a range that does not fill a whole vector.
+ */
+class ScalarDecayKernel implements DecayKernel {
+
+  @Override
+  public TickResult stepRange(PetPopulation population, int from, int to) {
+    boolean[] alive = population.alive;
+    int deaths = 0;
+    int moodFlips = 0;
+
+    for (int i = from; i < to; i++) {
+      if (!alive[i]) {
+        continue;
+      }
+      int outcome = step(population, i);
+      if ((outcome & PetPopulation.DIED) != 0) {
+        deaths++;
+      }
+      if ((outcome & PetPopulation.MOOD_CHANGED) != 0) {
+        moodFlips++;
+      }
+    }
+    return new TickResult(deaths, moodFlips);
+  }
+
+  /**
+   * Steps one living pet from the tables.
+   *
+   * @return the outcome flags from {@link PetPopulation#evaluate(int)}
+   */
+  static int step(PetPopulation population, int i) {
+    int personality = population.personality[i];
+    int entry = PersonalityTables.stepIndex(personality, population.mood[i]);
+    int variation;
+    if (PersonalityTables.hasFixedStep(personality)) {
+      population.tick[i]++;
+      variation = 0;
+    } else {
+      variation = PersonalityTables.stepVariation(personality, population.nextStepKey(i));
+    }
+    population.hunger[i] = PetPopulation.clamp(population.hunger[i]
+        + PersonalityTables.stepDelta(entry, PersonalityTables.HUNGER)
+        + PackedNeeds.hunger(variation));
+    population.hygiene[i] = PetPopulation.clamp(population.hygiene[i]
+        + PersonalityTables.stepDelta(entry, PersonalityTables.HYGIENE)
+        + PackedNeeds.hygiene(variation));
+    population.social[i] = PetPopulation.clamp(population.social[i]
+        + PersonalityTables.stepDelta(entry, PersonalityTables.SOCIAL)
+        + PackedNeeds.social(variation));
+    population.sleep[i] = PetPopulation.clamp(population.sleep[i]
+        + PersonalityTables.stepDelta(entry, PersonalityTables.SLEEP)
+        + PackedNeeds.sleep(variation));
+    return population.evaluate(i);
+  }
+}
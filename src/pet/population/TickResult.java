@@ -0,0 +1,71 @@
+package pet.population;
+
+/**
+ * The {@code TickResult} class summarizes what happened to a population during one tick.
+ * <p>
+ * It is immutable. Results for separate ranges of a population are combined with
+ * {@link #merge(TickResult)}, so parallel workers can each build their own result and
+ * merge them afterwards instead of updating shared counters.
+ */
+public final class TickResult {
+
+  /**
+   * A result with no deaths and no mood changes.
+   */
+  public static final TickResult EMPTY = new TickResult(0, 0);
+
+  private final int deaths;
+  private final int moodFlips;
+
+  /**
+   * Constructs a new {@code TickResult}.
+   *
+   * @param deaths    the number of pets that died
+   * @param moodFlips the number of pets whose mood changed
+   */
+  public TickResult(int deaths, int moodFlips) {
+    this.deaths = deaths;
+    this.moodFlips = moodFlips;
+  }
+
+  /**
+   * Returns the number of pets that died during the tick.
+   *
+   * @return the death count
+   */
+  public int getDeaths() {
+    return deaths;
+  }
+
+  /**
+   * Returns the number of pets whose mood changed during the tick.
+   *
+   * @return the mood flip count
+   */
+  public int getMoodFlips() {
+    return moodFlips;
+  }
+
+  /**
+   * Combines this result with the result of another, disjoint range of pets.
+   *
+   * @param other the result to add
+   * @return a result holding the sum of both
+   */
+  public TickResult merge(TickResult other) {
+    return new TickResult(deaths + other.deaths, moodFlips + other.moodFlips);
+  }
+
+  /**
+   * Returns a string representation of this result.
+   *
+   * @return string representation of the tick result
+   */
+  @Override
+  public String toString() {
+    return "TickResult{"
+        + "deaths=" + deaths
+        + ", moodFlips=" + moodFlips
+        + '}';
+  }
+}
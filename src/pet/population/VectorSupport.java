@@ -0,0 +1,28 @@
+package pet.population;
+
+/**
+ * The {@code VectorSupport} class detects whether the incubating Vector API can be used.
+ * <p>
+ * The {@code jdk.incubator.vector} module is only resolved when the JVM is started with
+ * {@code --add-modules jdk.incubator.vector}. Classes that use it are therefore kept in the
+ * {@code src-vector} source root, compiled only when the flag is given, and loaded
+ * reflectively, and only after this check succeeds.
+ */
+final class VectorSupport {
+
+  private static final boolean AVAILABLE = ModuleLayer.boot()
+      .findModule("jdk.incubator.vector")
+      .isPresent();
+
+  private VectorSupport() {
+  }
+
+  /**
+   * Returns whether the Vector API module is present in the boot layer.
+   *
+   * @return {@code true} if vector kernels may be loaded
+   */
+  static boolean isAvailable() {
+    return AVAILABLE;
+  }
+}
@@ -0,0 +1,71 @@
+package pet.sim;
+
+import java.util.concurrent.TimeUnit;
+import pet.PetInterface;
+
+/**
+ * The {@code PetTimers} class schedules the per-pet timers of the game on a shared
+ * {@link TimingWheel}, so that a server can run millions of pets without one
+ * {@code javax.swing.Timer} or {@code ScheduledFuture} each.
+ * <p>
+ * The intervals match the desktop game: a pet steps every {@value #STEP_INTERVAL_SECONDS}
+ * seconds, and an interaction takes {@value #COOLDOWN_SECONDS} seconds to complete.
+ */
+public class PetTimers {
+
+  /**
+   * Seconds between two steps of a pet, as driven by the step timer of the view.
+   */
+  public static final long STEP_INTERVAL_SECONDS = 10;
+
+  /**
+   * Seconds an interaction takes before the pet can be used again, as shown by the
+   * progress bar of the view.
+   */
+  public static final long COOLDOWN_SECONDS = 5;
+
+  private final TimingWheel wheel;
+
+  /**
+   * Creates timers on the given wheel.
+   *
+   * @param wheel the wheel to schedule on; its tick must be at most one second
+   */
+  public PetTimers(TimingWheel wheel) {
+    this.wheel = wheel;
+  }
+
+  /**
+   * Steps the pet every {@value #STEP_INTERVAL_SECONDS} seconds until the returned handle is
+   * cancelled.
+   *
+   * @param pet the pet to step
+   * @return the handle of the step timer
+   */
+  public TimerHandle startStepping(PetInterface pet) {
+    return wheel.scheduleAtFixedRate(STEP_INTERVAL_SECONDS, STEP_INTERVAL_SECONDS,
+        TimeUnit.SECONDS, pet::step);
+  }
+
+  /**
+   * Starts an interaction cooldown that runs {@code onReady} when it ends.
+   *
+   * @param onReady what to do once the cooldown is over, e.g. apply the interaction
+   * @return the handle of the cooldown timer
+   */
+  public TimerHandle startCooldown(Runnable onReady) {
+    return wheel.schedule(COOLDOWN_SECONDS, TimeUnit.SECONDS, onReady);
+  }
+
+  /**
+   * Schedules a one-off reminder, e.g. to tell the player that a pet is getting hungry.
+   *
+   * @param delay    the delay before the reminder
+   * @param unit     the unit of {@code delay}
+   * @param reminder the reminder to run
+   * @return the handle of the reminder timer
+   */
+  public TimerHandle remind(long delay, TimeUnit unit, Runnable reminder) {
+    return wheel.schedule(delay, unit, reminder);
+  }
+}
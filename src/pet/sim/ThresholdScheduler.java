@@ -0,0 +1,205 @@
+package pet.sim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import pet.Pet;
+import pet.helper.Action;
+import pet.helper.mood.MoodEnum;
+
+/**
+ * The {@code ThresholdScheduler} class simulates many pets without stepping each of them on
+ * every tick.
+ * <p>
+ * A pet's mood and alive status only change when one of its needs crosses the SAD threshold
+ * or reaches 0, and {@link Pet#stepsToNextCrossing()} tells how many steps away that is.
+ * The scheduler keeps every living pet in a priority queue keyed by the tick of its next
+ * crossing. Advancing the clock only touches the pets whose crossing is due: each is caught
+ * up with {@link Pet#advance(long)}, its events are reported, and it is queued again.
+ * Pets in between crossings are not touched at all, so idle pets cost nothing per tick.
+ * <p>
+ * Pets are materialized lazily: {@link #get(int)} brings a pet up to the current tick before
+ * returning it. The reported events are the same, in the same order, as when every pet is
+ * stepped in index order on every tick and checked for mood changes and deaths.
+ */
+public class ThresholdScheduler {
+
+  /**
+   * Receives the observable events of the scheduled pets.
+   */
+  public interface Listener {
+
+    /**
+     * Called when a pet's mood changes.
+     *
+     * @param id   the pet's scheduler id
+     * @param tick the tick at which the mood changed
+     * @param mood the new mood
+     */
+    default void onMoodChange(int id, long tick, MoodEnum mood) {
+    }
+
+    /**
+     * Called when a pet dies.
+     *
+     * @param id   the pet's scheduler id
+     * @param tick the tick at which the pet died
+     */
+    default void onDeath(int id, long tick) {
+    }
+  }
+
+  private final Listener listener;
+  private final List<Pet> pets = new ArrayList<>();
+  private final TickHeap queue = new TickHeap(16);
+  private long[] syncedTick = new long[16];
+  private long now;
+
+  /**
+   * Creates an empty scheduler at tick 0.
+   *
+   * @param listener receives mood changes and deaths
+   */
+  public ThresholdScheduler(Listener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Adds a started pet to the scheduler. From now on the pet is stepped by the scheduler
+   * only; it must not be stepped directly.
+   *
+   * @param pet the pet to schedule
+   * @return the pet's id within this scheduler
+   */
+  public int add(Pet pet) {
+    int id = pets.size();
+    pets.add(pet);
+    if (id == syncedTick.length) {
+      syncedTick = Arrays.copyOf(syncedTick, id * 2);
+    }
+    syncedTick[id] = now;
+    reschedule(id);
+    return id;
+  }
+
+  /**
+   * Returns the current tick.
+   *
+   * @return the number of ticks simulated so far
+   */
+  public long now() {
+    return now;
+  }
+
+  /**
+   * Returns the number of pets added to this scheduler.
+   *
+   * @return the number of pets
+   */
+  public int size() {
+    return pets.size();
+  }
+
+  /**
+   * Returns the number of pets with a pending threshold crossing.
+   *
+   * @return the number of queued pets
+   */
+  public int pendingCount() {
+    return queue.size();
+  }
+
+  /**
+   * Advances the clock by one tick.
+   */
+  public void tick() {
+    advanceTo(now + 1);
+  }
+
+  /**
+   * Advances the clock to the given tick, processing every threshold crossing on the way in
+   * tick order, and pet id order within a tick.
+   *
+   * @param tick the tick to advance to
+   * @throws IllegalArgumentException if {@code tick} is in the past
+   */
+  public void advanceTo(long tick) {
+    if (tick < now) {
+      throw new IllegalArgumentException("Cannot go back from tick " + now + " to " + tick);
+    }
+    while (!queue.isEmpty() && queue.dueTick(queue.peek()) <= tick) {
+      int id = queue.peek();
+      now = queue.dueTick(id);
+      update(id, pet -> { });
+    }
+    now = tick;
+  }
+
+  /**
+   * Returns the pet with the given id, brought up to the current tick.
+   * Use the returned pet for reading only; change it through {@link #interactWith(int,
+   * Action)} or {@link #modify(int, Consumer)} so its next crossing is recomputed.
+   *
+   * @param id the pet's scheduler id
+   * @return the materialized pet
+   */
+  public Pet get(int id) {
+    materialize(id);
+    return pets.get(id);
+  }
+
+  /**
+   * Applies a user interaction to a pet at the current tick.
+   *
+   * @param id     the pet's scheduler id
+   * @param action the interaction to apply
+   */
+  public void interactWith(int id, Action action) {
+    modify(id, pet -> pet.interactWith(action));
+  }
+
+  /**
+   * Applies an arbitrary change to a pet at the current tick, reports any resulting mood
+   * change or death, and reschedules the pet.
+   *
+   * @param id     the pet's scheduler id
+   * @param change the change to apply to the materialized pet
+   */
+  public void modify(int id, Consumer<? super Pet> change) {
+    update(id, change);
+  }
+
+  private void update(int id, Consumer<? super Pet> change) {
+    Pet pet = pets.get(id);
+    MoodEnum moodBefore = pet.getMood();
+    boolean aliveBefore = pet.isAlive();
+    materialize(id);
+    change.accept(pet);
+    if (aliveBefore && !pet.isAlive()) {
+      listener.onDeath(id, now);
+    }
+    if (pet.getMood() != moodBefore) {
+      listener.onMoodChange(id, now, pet.getMood());
+    }
+    reschedule(id);
+  }
+
+  /**
+   * Catches a pet up to the current tick. No threshold lies in between, so this never
+   * produces an event.
+   */
+  private void materialize(int id) {
+    pets.get(id).advance(now - syncedTick[id]);
+    syncedTick[id] = now;
+  }
+
+  private void reschedule(int id) {
+    long steps = pets.get(id).stepsToNextCrossing();
+    if (steps == Long.MAX_VALUE) {
+      queue.remove(id);
+    } else {
+      queue.schedule(id, syncedTick[id] + steps);
+    }
+  }
+}
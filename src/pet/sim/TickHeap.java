@@ -0,0 +1,147 @@
+package pet.sim;
+
+import java.util.Arrays;
+
+/**
+ * The {@code TickHeap} class is an indexed binary min-heap of pet ids ordered by due tick.
+ * <p>
+ * Each pet appears at most once. Its position in the heap is tracked, so moving a pet to a
+ * new due tick or removing it is {@code O(log n)} and never leaves stale entries behind.
+ * Ties are broken by pet id, so pets due at the same tick come out in index order.
+ * Everything is stored in primitive arrays; no object is allocated per pet or per update.
+ */
+final class TickHeap {
+
+  private static final int ABSENT = -1;
+
+  private int[] heap;
+  private long[] due;
+  private int[] position;
+  private int size;
+
+  TickHeap(int capacity) {
+    heap = new int[Math.max(1, capacity)];
+    due = new long[Math.max(1, capacity)];
+    position = new int[Math.max(1, capacity)];
+    Arrays.fill(position, ABSENT);
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Returns the id of the pet with the earliest due tick. The heap must not be empty.
+   */
+  int peek() {
+    return heap[0];
+  }
+
+  /**
+   * Returns the due tick of the given pet, which must be in the heap.
+   */
+  long dueTick(int id) {
+    return due[id];
+  }
+
+  boolean contains(int id) {
+    return id < position.length && position[id] != ABSENT;
+  }
+
+  /**
+   * Schedules a pet at the given tick, or moves it there if it is already scheduled.
+   */
+  void schedule(int id, long tick) {
+    ensureCapacity(id + 1);
+    if (position[id] == ABSENT) {
+      heap[size] = id;
+      position[id] = size;
+      due[id] = tick;
+      siftUp(size++);
+    } else {
+      long previous = due[id];
+      due[id] = tick;
+      if (tick < previous) {
+        siftUp(position[id]);
+      } else {
+        siftDown(position[id]);
+      }
+    }
+  }
+
+  /**
+   * Removes a pet from the heap if it is scheduled.
+   */
+  void remove(int id) {
+    if (!contains(id)) {
+      return;
+    }
+    int index = position[id];
+    position[id] = ABSENT;
+    size--;
+    if (index == size) {
+      return;
+    }
+    int last = heap[size];
+    heap[index] = last;
+    position[last] = index;
+    siftDown(index);
+    siftUp(position[last]);
+  }
+
+  private void siftUp(int index) {
+    int id = heap[index];
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      int other = heap[parent];
+      if (!before(id, other)) {
+        break;
+      }
+      heap[index] = other;
+      position[other] = index;
+      index = parent;
+    }
+    heap[index] = id;
+    position[id] = index;
+  }
+
+  private void siftDown(int index) {
+    int id = heap[index];
+    int half = size >>> 1;
+    while (index < half) {
+      int child = 2 * index + 1;
+      int right = child + 1;
+      if (right < size && before(heap[right], heap[child])) {
+        child = right;
+      }
+      int other = heap[child];
+      if (!before(other, id)) {
+        break;
+      }
+      heap[index] = other;
+      position[other] = index;
+      index = child;
+    }
+    heap[index] = id;
+    position[id] = index;
+  }
+
+  private boolean before(int a, int b) {
+    return due[a] < due[b] || (due[a] == due[b] && a < b);
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > position.length) {
+      int grown = Math.max(capacity, position.length * 2);
+      heap = Arrays.copyOf(heap, grown);
+      due = Arrays.copyOf(due, grown);
+      int old = position.length;
+      position = Arrays.copyOf(position, grown);
+      Arrays.fill(position, old, grown, ABSENT);
+    }
+  }
+}
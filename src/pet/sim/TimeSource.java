@@ -0,0 +1,27 @@
+package pet.sim;
+
+/**
+ * The {@code TimeSource} interface supplies the current time to a {@link TimingWheel}.
+ * <p>
+ * Production code uses {@link #system()}; tests and simulations use a {@link VirtualClock}
+ * so that hours of pet time can pass in milliseconds.
+ */
+public interface TimeSource {
+
+  /**
+   * Returns the current time in nanoseconds. Only differences between values are
+   * meaningful, as with {@link System#nanoTime()}.
+   *
+   * @return the current time in nanoseconds
+   */
+  long nanoTime();
+
+  /**
+   * Returns the time source backed by {@link System#nanoTime()}.
+   *
+   * @return the system time source
+   */
+  static TimeSource system() {
+    return System::nanoTime;
+  }
+}
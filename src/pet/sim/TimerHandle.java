@@ -0,0 +1,71 @@
+package pet.sim;
+
+/**
+ * The {@code TimerHandle} class represents one timer scheduled on a {@link TimingWheel}.
+ * <p>
+ * A handle is also the node of the doubly linked list that makes up its wheel slot, so
+ * cancelling a timer unlinks it in constant time.
+ */
+public final class TimerHandle {
+
+  final TimingWheel wheel;
+  final Runnable task;
+  final long period;
+  long deadline;
+  TimerHandle previous;
+  TimerHandle next;
+  TimerList list;
+  boolean done;
+  private boolean cancelled;
+
+  TimerHandle(TimingWheel wheel, Runnable task, long deadline, long period) {
+    this.wheel = wheel;
+    this.task = task;
+    this.deadline = deadline;
+    this.period = period;
+  }
+
+  /**
+   * Cancels the timer. A cancelled timer never fires again; cancelling a timer that has
+   * already finished has no effect.
+   */
+  public void cancel() {
+    if (done) {
+      return;
+    }
+    done = true;
+    cancelled = true;
+    if (list != null) {
+      list.remove(this);
+    }
+    wheel.finished();
+  }
+
+  /**
+   * Returns whether {@link #cancel()} has been called.
+   *
+   * @return {@code true} if the timer was cancelled
+   */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Returns whether the timer is still waiting to fire.
+   *
+   * @return {@code true} while a one-shot timer has not fired, or a periodic timer has not
+   *     been cancelled
+   */
+  public boolean isPending() {
+    return !done;
+  }
+
+  /**
+   * Returns the wheel tick at which the timer fires next.
+   *
+   * @return the deadline in ticks
+   */
+  public long getDeadline() {
+    return deadline;
+  }
+}
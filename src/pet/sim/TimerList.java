@@ -0,0 +1,68 @@
+package pet.sim;
+
+/**
+ * A doubly linked list of {@link TimerHandle}s: one slot of a {@link TimingWheel}, or its
+ * overflow list. Adding and removing are constant-time. Each list also keeps the timer count
+ * of its whole level up to date, so the wheel can tell which levels are empty.
+ */
+final class TimerList {
+
+  private final int[] levelCounts;
+  private final int level;
+  private TimerHandle head;
+  private TimerHandle tail;
+  private int size;
+
+  TimerList(int[] levelCounts, int level) {
+    this.levelCounts = levelCounts;
+    this.level = level;
+  }
+
+  void add(TimerHandle handle) {
+    size++;
+    levelCounts[level]++;
+    handle.list = this;
+    handle.next = null;
+    handle.previous = tail;
+    if (tail == null) {
+      head = handle;
+    } else {
+      tail.next = handle;
+    }
+    tail = handle;
+  }
+
+  void remove(TimerHandle handle) {
+    size--;
+    levelCounts[level]--;
+    if (handle.previous == null) {
+      head = handle.next;
+    } else {
+      handle.previous.next = handle.next;
+    }
+    if (handle.next == null) {
+      tail = handle.previous;
+    } else {
+      handle.next.previous = handle.previous;
+    }
+    handle.previous = null;
+    handle.next = null;
+    handle.list = null;
+  }
+
+  /**
+   * Empties the list and returns its former head. The returned chain can still be walked
+   * through {@code next}; each handle is marked as belonging to no list.
+   */
+  TimerHandle detach() {
+    TimerHandle first = head;
+    for (TimerHandle handle = first; handle != null; handle = handle.next) {
+      handle.list = null;
+    }
+    levelCounts[level] -= size;
+    size = 0;
+    head = null;
+    tail = null;
+    return first;
+  }
+}
@@ -0,0 +1,237 @@
+package pet.sim;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code TimingWheel} class is a hashed hierarchical timing wheel for very large numbers
+ * of timers, such as one step timer and a few cooldowns per pet on a server.
+ * <p>
+ * Time is divided into ticks of a fixed duration. The wheel has {@value #LEVELS} levels of
+ * {@value #SLOTS} slots each: a slot on level 0 covers one tick, and a slot on level
+ * {@code k} covers {@code 64^k} ticks. A timer is placed on the lowest level whose range
+ * reaches its deadline, and is moved down ("cascaded") when the wheel below it wraps around.
+ * Timers further away than the top level can reach wait on an overflow list.
+ * <p>
+ * Scheduling and cancelling are constant-time. {@link #advance()} walks the elapsed ticks and
+ * fires each level-0 slot as one batch: the slot is detached in one operation and its
+ * callbacks run back to back. Stretches of ticks in which nothing can fire or cascade are
+ * skipped entirely, so an idle wheel costs nothing to advance.
+ * <p>
+ * The wheel reads time from a {@link TimeSource}, so it can be driven by a
+ * {@link VirtualClock}. It is not thread-safe: schedule, cancel and advance from the thread
+ * that drives it.
+ */
+public class TimingWheel {
+
+  /**
+   * Number of slots per level.
+   */
+  public static final int SLOTS = 64;
+
+  /**
+   * Number of levels.
+   */
+  public static final int LEVELS = 5;
+
+  private static final int SLOT_BITS = 6;
+  private static final int SLOT_MASK = SLOTS - 1;
+  private static final long RANGE = 1L << (SLOT_BITS * LEVELS);
+
+  private final TimeSource source;
+  private final long tickNanos;
+  private final long startNanos;
+  private final int[] levelCounts = new int[LEVELS + 1];
+  private final TimerList[][] levels = new TimerList[LEVELS][SLOTS];
+  private final TimerList overflow = new TimerList(levelCounts, LEVELS);
+  private long currentTick;
+  private int pending;
+
+  /**
+   * Creates a wheel that starts at tick 0 at the current time of the source.
+   *
+   * @param source       where to read the time from
+   * @param tickDuration the duration of one tick
+   * @param unit         the unit of {@code tickDuration}
+   * @throws IllegalArgumentException if the tick duration is not positive
+   */
+  public TimingWheel(TimeSource source, long tickDuration, TimeUnit unit) {
+    this.tickNanos = unit.toNanos(tickDuration);
+    if (tickNanos <= 0) {
+      throw new IllegalArgumentException("Tick duration must be positive: " + tickDuration);
+    }
+    this.source = source;
+    this.startNanos = source.nanoTime();
+    for (int level = 0; level < LEVELS; level++) {
+      for (int slot = 0; slot < SLOTS; slot++) {
+        levels[level][slot] = new TimerList(levelCounts, level);
+      }
+    }
+  }
+
+  /**
+   * Schedules a task to run once after the given delay, rounded up to whole ticks.
+   * A delay of zero fires on the next tick.
+   *
+   * @param delay the delay before the task runs
+   * @param unit  the unit of {@code delay}
+   * @param task  the task to run
+   * @return a handle that can cancel the timer
+   */
+  public TimerHandle schedule(long delay, TimeUnit unit, Runnable task) {
+    return add(new TimerHandle(this, task, currentTick + toTicks(delay, unit), 0));
+  }
+
+  /**
+   * Schedules a task to run repeatedly, first after {@code initialDelay} and then every
+   * {@code period}, until the returned handle is cancelled.
+   *
+   * @param initialDelay the delay before the first run
+   * @param period       the time between runs; must be at least one tick
+   * @param unit         the unit of both durations
+   * @param task         the task to run
+   * @return a handle that can cancel the timer
+   */
+  public TimerHandle scheduleAtFixedRate(long initialDelay, long period, TimeUnit unit,
+      Runnable task) {
+    long firstDeadline = currentTick + toTicks(initialDelay, unit);
+    return add(new TimerHandle(this, task, firstDeadline, toTicks(period, unit)));
+  }
+
+  /**
+   * Processes every tick that has elapsed on the time source, running all timers that are
+   * due in tick order.
+   *
+   * @return the number of callbacks that ran
+   */
+  public int advance() {
+    long targetTick = Math.floorDiv(source.nanoTime() - startNanos, tickNanos);
+    int fired = 0;
+    while (currentTick < targetTick) {
+      long next = nextBusyTick();
+      if (next > targetTick) {
+        currentTick = targetTick;
+        break;
+      }
+      currentTick = next;
+      cascade();
+      fired += fire(levels[0][(int) (currentTick & SLOT_MASK)]);
+    }
+    return fired;
+  }
+
+  /**
+   * Returns the last tick processed by {@link #advance()}.
+   *
+   * @return the current tick
+   */
+  public long currentTick() {
+    return currentTick;
+  }
+
+  /**
+   * Returns the number of timers waiting to fire.
+   *
+   * @return the pending timer count
+   */
+  public int pendingCount() {
+    return pending;
+  }
+
+  /**
+   * Called by a handle when it is cancelled.
+   */
+  void finished() {
+    pending--;
+  }
+
+  private TimerHandle add(TimerHandle handle) {
+    insert(handle);
+    pending++;
+    return handle;
+  }
+
+  private void insert(TimerHandle handle) {
+    long deadline = handle.deadline;
+    long delta = deadline - currentTick;
+    if (delta >= RANGE) {
+      overflow.add(handle);
+      return;
+    }
+    int level = 0;
+    while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+      level++;
+    }
+    levels[level][(int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK)].add(handle);
+  }
+
+  /**
+   * Returns the next tick at which a timer can fire or cascade: the next tick if level 0
+   * holds timers, otherwise the next boundary of the lowest level that holds any.
+   */
+  private long nextBusyTick() {
+    for (int level = 0; level <= LEVELS; level++) {
+      if (levelCounts[level] > 0) {
+        int shift = SLOT_BITS * level;
+        return ((currentTick >>> shift) + 1) << shift;
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+
+  /**
+   * Moves timers down from every level whose lower neighbor just wrapped around.
+   */
+  private void cascade() {
+    for (int level = 1; level < LEVELS; level++) {
+      int shift = SLOT_BITS * level;
+      if ((currentTick & ((1L << shift) - 1)) != 0) {
+        return;
+      }
+      reinsert(levels[level][(int) ((currentTick >>> shift) & SLOT_MASK)].detach());
+    }
+    if ((currentTick & (RANGE - 1)) == 0) {
+      reinsert(overflow.detach());
+    }
+  }
+
+  private void reinsert(TimerHandle first) {
+    TimerHandle handle = first;
+    while (handle != null) {
+      TimerHandle next = handle.next;
+      insert(handle);
+      handle = next;
+    }
+  }
+
+  private int fire(TimerList slot) {
+    TimerHandle handle = slot.detach();
+    int fired = 0;
+    while (handle != null) {
+      TimerHandle next = handle.next;
+      handle.next = null;
+      handle.previous = null;
+      if (!handle.done) {
+        if (handle.period == 0) {
+          handle.done = true;
+          pending--;
+        }
+        handle.task.run();
+        fired++;
+        if (!handle.done) {
+          handle.deadline += handle.period;
+          insert(handle);
+        }
+      }
+      handle = next;
+    }
+    return fired;
+  }
+
+  private long toTicks(long delay, TimeUnit unit) {
+    if (delay < 0) {
+      throw new IllegalArgumentException("Delay must not be negative: " + delay);
+    }
+    long nanos = unit.toNanos(delay);
+    return Math.max(1, (nanos + tickNanos - 1) / tickNanos);
+  }
+}
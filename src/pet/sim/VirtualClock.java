@@ -0,0 +1,32 @@
+package pet.sim;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code VirtualClock} class is a {@link TimeSource} that only moves when told to.
+ * Driving a {@link TimingWheel} from a virtual clock makes timer tests deterministic and
+ * lets simulations run faster than real time.
+ */
+public class VirtualClock implements TimeSource {
+
+  private long nanos;
+
+  /**
+   * Moves the clock forward.
+   *
+   * @param amount the amount of time to add
+   * @param unit   the unit of {@code amount}
+   * @throws IllegalArgumentException if {@code amount} is negative
+   */
+  public void advance(long amount, TimeUnit unit) {
+    if (amount < 0) {
+      throw new IllegalArgumentException("Time cannot go backwards: " + amount);
+    }
+    nanos += unit.toNanos(amount);
+  }
+
+  @Override
+  public long nanoTime() {
+    return nanos;
+  }
+}
@@ -0,0 +1,167 @@
+package view;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+import javax.swing.SwingUtilities;
+import pet.event.PetEvent;
+import pet.event.PetListener;
+import pet.helper.HealthStatus;
+import pet.helper.mood.MoodEnum;
+
+/**
+ * The {@code CoalescingRenderer} class turns the changes a pet model pushes into as few
+ * renders on the Swing event dispatch thread as possible.
+ * <p>
+ * Each change records the latest mood and health and marks the parts of the view it
+ * affects as dirty. Only the change that finds the view clean schedules a render; changes
+ * arriving before that render runs just add their parts to it. The render callback then
+ * receives all dirty parts at once on the EDT and reads the values from
+ * {@link #getMood()} and {@link #getHealth()}, so a step that moves the needs, crosses a
+ * threshold and flips the mood costs one render, and a pet that does not change costs
+ * nothing.
+ */
+public class CoalescingRenderer implements PetListener {
+
+  /**
+   * The mood label needs updating.
+   */
+  public static final int MOOD = 1;
+
+  /**
+   * The status line with the need values needs updating.
+   */
+  public static final int STATUS = 1 << 1;
+
+  /**
+   * The need bubbles need updating.
+   */
+  public static final int NEEDS = 1 << 2;
+
+  private final IntConsumer render;
+  private final Runnable renderTask = this::renderNow;
+  private final AtomicInteger dirty = new AtomicInteger();
+  private final AtomicLong changes = new AtomicLong();
+  private volatile long renders;
+  private volatile MoodEnum mood;
+  private volatile HealthStatus health;
+  private volatile boolean alive;
+
+  /**
+   * Creates a renderer that passes the dirty parts to the given callback.
+   *
+   * @param render called on the EDT with the bitwise or of the dirty parts, e.g.
+   *               {@code MOOD | STATUS}
+   */
+  public CoalescingRenderer(IntConsumer render) {
+    this.render = render;
+  }
+
+  /**
+   * Replaces the recorded state, e.g. after the game was started, and marks every part
+   * dirty.
+   *
+   * @param mood   the current mood
+   * @param health the current health
+   * @param alive  whether the pet is alive
+   */
+  public void sync(MoodEnum mood, HealthStatus health, boolean alive) {
+    this.mood = mood;
+    this.health = health;
+    this.alive = alive;
+    markDirty(MOOD | STATUS | NEEDS);
+  }
+
+  /**
+   * Marks parts of the view dirty, scheduling a render on the EDT unless one is pending.
+   * May be called from any thread.
+   *
+   * @param parts the bitwise or of the parts to redraw
+   */
+  public void markDirty(int parts) {
+    changes.incrementAndGet();
+    if (dirty.getAndAccumulate(parts, (current, added) -> current | added) == 0) {
+      SwingUtilities.invokeLater(renderTask);
+    }
+  }
+
+  /**
+   * Returns the mood reported last.
+   *
+   * @return the mood, or {@code null} before anything was reported
+   */
+  public MoodEnum getMood() {
+    return mood;
+  }
+
+  /**
+   * Returns the health reported last.
+   *
+   * @return the health, or {@code null} before anything was reported
+   */
+  public HealthStatus getHealth() {
+    return health;
+  }
+
+  /**
+   * Returns whether the pet was alive as of the last report.
+   *
+   * @return {@code false} once a death was reported, until the next {@link #sync}
+   */
+  public boolean isAlive() {
+    return alive;
+  }
+
+  /**
+   * Returns how many times parts were marked dirty.
+   *
+   * @return the number of changes
+   */
+  public long getChangeCount() {
+    return changes.get();
+  }
+
+  /**
+   * Returns how many renders ran, each covering one or more changes.
+   *
+   * @return the number of renders
+   */
+  public long getRenderCount() {
+    return renders;
+  }
+
+  @Override
+  public void healthChanged(long petId, HealthStatus health) {
+    this.health = health;
+    markDirty(STATUS);
+  }
+
+  @Override
+  public void needChanged(long petId, PetEvent need, boolean low, HealthStatus health) {
+    this.health = health;
+    markDirty(NEEDS);
+  }
+
+  @Override
+  public void moodChanged(long petId, MoodEnum mood, HealthStatus health) {
+    this.mood = mood;
+    this.health = health;
+    markDirty(MOOD);
+  }
+
+  @Override
+  public void died(long petId, HealthStatus health) {
+    this.health = health;
+    this.alive = false;
+    // The view reads isAlive() after the step or interaction that killed the pet.
+    markDirty(NEEDS);
+  }
+
+  private void renderNow() {
+    int parts = dirty.getAndSet(0);
+    if (parts != 0) {
+      renders++;
+      render.accept(parts);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package view;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+
+/**
+ * The {@code EdtMonitor} class measures how busy the Swing event dispatch thread is.
+ * <p>
+ * Once installed, it sits on top of the system event queue and times every event the EDT
+ * dispatches: timer ticks, invocations posted with {@code invokeLater}, repaints and input
+ * alike. Sampling {@link #getBusyNanos()} and {@link #getEventCount()} once per second
+ * gives the EDT time and wakeups per second of a window.
+ */
+public class EdtMonitor extends EventQueue {
+
+  // Written only by the EDT.
+  private volatile long busyNanos;
+  private volatile long events;
+
+  private EdtMonitor() {
+  }
+
+  /**
+   * Installs a monitor on the system event queue.
+   *
+   * @return the installed monitor
+   */
+  public static EdtMonitor install() {
+    EdtMonitor monitor = new EdtMonitor();
+    Toolkit.getDefaultToolkit().getSystemEventQueue().push(monitor);
+    return monitor;
+  }
+
+  /**
+   * Removes this monitor from the system event queue. Pending events are handed on to the
+   * queue below it.
+   */
+  public void uninstall() {
+    pop();
+  }
+
+  /**
+   * Returns the total time spent dispatching events since the monitor was installed.
+   *
+   * @return the busy time in nanoseconds
+   */
+  public long getBusyNanos() {
+    return busyNanos;
+  }
+
+  /**
+   * Returns the number of events dispatched since the monitor was installed.
+   *
+   * @return the event count
+   */
+  public long getEventCount() {
+    return events;
+  }
+
+  @Override
+  protected void dispatchEvent(AWTEvent event) {
+    long start = System.nanoTime();
+    try {
+      super.dispatchEvent(event);
+    } finally {
+      busyNanos += System.nanoTime() - start;
+      events++;
+    }
+  }
+}
@@ -25,6 +25,7 @@ import javax.swing.Timer;
 import javax.swing.plaf.basic.BasicProgressBarUI;
 import pet.helper.Action;
 import pet.helper.HealthStatus;
+import pet.helper.PackedNeeds;
 import pet.helper.mood.MoodEnum;
 
 /**
@@ -49,6 +50,11 @@ import pet.helper.mood.MoodEnum;
  *   <li>Game state reset and automatic updates via timers</li>
  * </ul>
  *
+ * <p>Mood, status and need bubbles are not polled. The model pushes its changes through the
+ * controller to a {@link CoalescingRenderer}, which redraws only the parts that changed,
+ * in one pass on the event dispatch thread per batch of changes. Running with
+ * {@code -Dpet.edtStats=true} prints the EDT time and wakeups per second to standard error.
+ *
  * <p>Images and resources must be available in the expected file structure under
  * {@code images/}.
  *
@@ -59,12 +65,15 @@ import pet.helper.mood.MoodEnum;
 public class PetView extends JFrame {
 
   private static final int INTERACT_FRAME_DELAY = 500;
-  private static final int INTERACT_DURATION = 10;
   private static final int IMAGE_WIDTH = 600;
   private static final int IMAGE_HEIGHT = 600;
   private static final int BUBBLE_SIZE = 100;
 
   private boolean usingShowAdapter = true;
+  private boolean playing;
+  private boolean interacting;
+  // False when the model does not report changes, so the view reads it after each change.
+  private boolean listening;
 
   private final JLabel imageLabel = new JLabel();
   private final JLabel gameStart = new JLabel();
@@ -104,7 +113,6 @@ public class PetView extends JFrame {
       statusButton.setText("HIDE");
       usingShowAdapter = false;
       statusInfo.setVisible(true);
-      statusTimer.start();
     }
   };
   private final MouseAdapter hideAdapter = new MouseAdapter() {
@@ -115,7 +123,6 @@ public class PetView extends JFrame {
       statusButton.setText("SHOW");
       usingShowAdapter = true;
       statusInfo.setVisible(false);
-      statusTimer.stop();
     }
   };
   private int defaultImageIndex = 0;
@@ -123,8 +130,7 @@ public class PetView extends JFrame {
     defaultImageIndex = (defaultImageIndex + 1) % defaultImages.length;
     imageLabel.setIcon(defaultImages[defaultImageIndex]);
   });
-  private final Timer statusTimer = new Timer(INTERACT_DURATION, e -> displayStatus());
-  private final Timer moodTimer = new Timer(INTERACT_DURATION, e -> moodLabel.setText(getMood()));
+  private final transient CoalescingRenderer renderer = new CoalescingRenderer(this::render);
   private final Timer stepTimer = new Timer(10000, e -> step()); // every 10 secs
   private int interactImageIndex = 0;
   private int progressBarValue;
@@ -156,6 +162,13 @@ public class PetView extends JFrame {
     // Set the view
     initFrame();
     setView();
+    listening = controller.supportsListeners();
+    if (listening) {
+      controller.addListener(renderer);
+    }
+    if (Boolean.getBoolean("pet.edtStats")) {
+      startEdtStats();
+    }
     this.setVisible(true);
   }
 
@@ -349,7 +362,9 @@ public class PetView extends JFrame {
     registerActionListeners();
     setAllButtonsCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
     defaultImageAnimation();
-    moodTimer.start();
+    playing = true;
+    interacting = false;
+    renderer.sync(controller.getMood(), controller.getHealth(), controller.isAlive());
     stepTimer.restart();
   }
 
@@ -404,6 +419,7 @@ public class PetView extends JFrame {
     if (images == sleepImages) {
       this.getContentPane().setBackground(nightSkyBlue);
     }
+    interacting = true;
     setSadLabelDisabled();
     defaultTimer.stop();
     stepTimer.stop();
@@ -440,6 +456,7 @@ public class PetView extends JFrame {
         progressBar.setValue(progressBarValue);
       } else {
         controller.interactPet(images);
+        poll();
         ((Timer) e.getSource()).stop(); // stop the timer
         progressBar.setVisible(false); // make invisible when finished
         imageLabel.setIcon(defaultImages[0]);
@@ -480,26 +497,43 @@ public class PetView extends JFrame {
     setAllButtonsCursor(Cursor.getPredefinedCursor(Cursor.DEFAULT_CURSOR));
     defaultTimer.stop();
     imageLabel.setIcon(defaultImages[0]);
-    moodTimer.stop();
+    playing = false;
+    setSadLabelDisabled();
     moodLabel.setText("MOOD");
   }
 
-  private void displayStatus() {
-    HealthStatus health = controller.getHealth();
+  /**
+   * Redraws the parts of the view the model reported as changed. Runs on the EDT, once per
+   * batch of changes.
+   */
+  private void render(int parts) {
+    if (!playing) {
+      return;
+    }
+    if ((parts & CoalescingRenderer.MOOD) != 0) {
+      moodLabel.setText(getMood());
+    }
+    if ((parts & CoalescingRenderer.STATUS) != 0) {
+      displayStatus(renderer.getHealth());
+    }
+    if ((parts & CoalescingRenderer.NEEDS) != 0 && !interacting) {
+      showNeedBubbles(renderer.getHealth());
+    }
+  }
+
+  private void displayStatus(HealthStatus health) {
     String healthText = "HYGIENE: %d  HUNGER: %d  SOCIAL: %d  SLEEP: %d".formatted(
         health.getHygiene(), health.getHunger(), health.getSocial(), health.getSleep());
     statusInfo.setText(healthText);
   }
 
   private void afterInteract() {
-    if (!controller.isAlive()) {
+    interacting = false;
+    if (!renderer.isAlive()) {
       gameOverModeSetting();
     } else {
-      if (controller.getMood() == MoodEnum.HAPPY) {
-        happyModeSetting();
-      } else {
-        sadModeSetting();
-      }
+      setAllButtonsEnabled(true);
+      renderer.markDirty(CoalescingRenderer.NEEDS);
     }
   }
 
@@ -523,34 +557,35 @@ public class PetView extends JFrame {
     restartButton.setEnabled(true);
   }
 
-
-  private void happyModeSetting() {
-    setAllButtonsEnabled(true);
+  private void showNeedBubbles(HealthStatus health) {
+    boolean alive = renderer.isAlive();
+    wantShowerLabel.setVisible(alive && isLow(health.getHygiene()));
+    hungerLabel.setVisible(alive && isLow(health.getHunger()));
+    wantPlayLabel.setVisible(alive && isLow(health.getSocial()));
+    sleepyLabel.setVisible(alive && isLow(health.getSleep()));
   }
 
-  private void sadModeSetting() {
-    setAllButtonsEnabled(true);
-    if (controller.needShower()) {
-      wantShowerLabel.setVisible(true);
-    }
-    if (controller.needFeed()) {
-      hungerLabel.setVisible(true);
-    }
-    if (controller.needPlay()) {
-      wantPlayLabel.setVisible(true);
-    }
-    if (controller.needSleep()) {
-      sleepyLabel.setVisible(true);
-    }
+  private static boolean isLow(int need) {
+    return need <= PackedNeeds.SAD_THRESHOLD;
   }
 
   private void step() {
-    setSadLabelDisabled();
     setAllButtonsEnabled(false);
     controller.step();
+    poll();
     afterInteract();
   }
 
+  /**
+   * Reads the model into the renderer when it does not report its own changes. Called after
+   * every step and interaction, the only times such a model changes.
+   */
+  private void poll() {
+    if (!listening) {
+      renderer.sync(controller.getMood(), controller.getHealth(), controller.isAlive());
+    }
+  }
+
   private void setSadLabelDisabled() {
     wantShowerLabel.setVisible(false);
     hungerLabel.setVisible(false);
@@ -559,10 +594,32 @@ public class PetView extends JFrame {
   }
 
   private String getMood() {
-    if (controller.getMood() == MoodEnum.HAPPY) {
+    if (renderer.getMood() == MoodEnum.HAPPY) {
       return "HAPPY";
     } else {
       return "SAD";
     }
   }
+
+  /**
+   * Prints once per second how long the EDT was busy and how often it woke up, and how
+   * many model changes were drawn in how many renders.
+   */
+  private void startEdtStats() {
+    EdtMonitor monitor = EdtMonitor.install();
+    long[] last = new long[4];
+    Timer statsTimer = new Timer(1000, e -> {
+      long busy = monitor.getBusyNanos();
+      long events = monitor.getEventCount();
+      long changes = renderer.getChangeCount();
+      long renders = renderer.getRenderCount();
+      System.err.printf("EDT %.3f ms/s, %d events/s, %d changes in %d renders%n",
+          (busy - last[0]) / 1e6, events - last[1], changes - last[2], renders - last[3]);
+      last[0] = busy;
+      last[1] = events;
+      last[2] = changes;
+      last[3] = renders;
+    });
+    statsTimer.start();
+  }
 }
@@ -0,0 +1,108 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import pet.helper.Action;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.Personality;
+
+/**
+ * Unit tests for {@link PetInterface#advance(long)}.
+ * Advancing by {@code n} must leave a pet in exactly the state reached by {@code n} calls
+ * to {@link PetInterface#step()}.
+ */
+public class AdvanceTest {
+
+  @Rule
+  public final SilentEvents events = new SilentEvents();
+
+  /**
+   * Tests every personality and mood from many random starting states and jump lengths.
+   */
+  @Test
+  public void testAdvanceMatchesSteps() {
+    Random random = new Random(2024);
+    for (Personality personality : Personality.values()) {
+      for (MoodEnum mood : MoodEnum.values()) {
+        for (int trial = 0; trial < 200; trial++) {
+          long seed = random.nextLong();
+          int[] deltas = {random.nextInt(101) - 50, random.nextInt(101) - 50,
+              random.nextInt(101) - 50, random.nextInt(101) - 50};
+          Pet stepped = createPet(personality, mood, seed, deltas);
+          Pet advanced = createPet(personality, mood, seed, deltas);
+          int steps = random.nextInt(120);
+
+          for (int i = 0; i < steps; i++) {
+            stepped.step();
+          }
+          advanced.advance(steps);
+          assertSameState(personality + " " + mood + " trial " + trial, stepped, advanced);
+        }
+      }
+    }
+  }
+
+  /**
+   * Tests jumps interleaved with interactions that keep the pet alive over a long run.
+   */
+  @Test
+  public void testAdvanceWithInteractions() {
+    for (Personality personality : Personality.values()) {
+      Pet stepped = createPet(personality, MoodEnum.HAPPY, 5L, new int[4]);
+      Pet advanced = createPet(personality, MoodEnum.HAPPY, 5L, new int[4]);
+      for (int round = 0; round < 50; round++) {
+        int steps = 1 + round % 9;
+        for (int i = 0; i < steps; i++) {
+          stepped.step();
+        }
+        advanced.advance(steps);
+        for (Action action : Action.values()) {
+          stepped.interactWith(action);
+          advanced.interactWith(action);
+        }
+        assertSameState(personality + " round " + round, stepped, advanced);
+      }
+    }
+  }
+
+  /**
+   * Tests that a huge jump ends in death without overflowing, and that zero is a no-op.
+   */
+  @Test
+  public void testLongAndEmptyAdvance() {
+    Pet pet = createPet(Personality.Glutton, MoodEnum.HAPPY, 1L, new int[4]);
+    pet.advance(0);
+    assertEquals(0, pet.getTick());
+    pet.advance(Long.MAX_VALUE);
+    assertFalse(pet.isAlive());
+  }
+
+  /**
+   * Tests that negative step counts are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeAdvance() {
+    new Pet().advance(-1);
+  }
+
+  private static Pet createPet(Personality personality, MoodEnum mood, long seed,
+      int[] deltas) {
+    Pet pet = new Pet(9);
+    pet.startGame(seed);
+    pet.setPersonality(personality);
+    pet.adjustNeeds(deltas[0], deltas[1], deltas[2], deltas[3]);
+    pet.setMood(mood);
+    return pet;
+  }
+
+  private static void assertSameState(String message, Pet expected, Pet actual) {
+    assertEquals(message, expected.getHealth().toString(), actual.getHealth().toString());
+    assertEquals(message, expected.getMood(), actual.getMood());
+    assertEquals(message, expected.isAlive(), actual.isAlive());
+    assertEquals(message, expected.getTick(), actual.getTick());
+  }
+}
@@ -0,0 +1,109 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import controller.InteractionMode;
+import controller.PetController;
+import org.junit.Test;
+import pet.event.PetListener;
+import pet.helper.Action;
+import pet.helper.HealthStatus;
+import pet.helper.personality.Personality;
+
+/**
+ * Unit tests for {@link InteractionMode#BATCHED} in {@link PetController} and for
+ * {@link Pet#interactBatch(Action[], int[], int)}.
+ * Queued interactions must reach the model only at the next tick, in arrival order.
+ */
+public class BatchedControllerTest {
+
+  private static final Action[] ACTIONS = {Action.FEED, Action.PLAY, Action.CLEAN};
+  private static final int[] TIMES = {3, 2, 4};
+
+  /**
+   * Tests that a batch without threshold crossings matches applying each interaction.
+   */
+  @Test
+  public void testBatchMatchesSingleInteractions() {
+    for (Personality personality : Personality.values()) {
+      Pet single = createPet(personality);
+      Pet batched = createPet(personality);
+      for (int i = 0; i < ACTIONS.length; i++) {
+        single.interactWith(ACTIONS[i], TIMES[i]);
+      }
+      batched.interactBatch(ACTIONS, TIMES, ACTIONS.length);
+      assertEquals(personality.toString(), single.getHealth().toString(),
+          batched.getHealth().toString());
+      assertEquals(single.getMood(), batched.getMood());
+    }
+  }
+
+  /**
+   * Tests that a batch is checked and reported once, however many interactions it holds.
+   */
+  @Test
+  public void testBatchReportedOnce() {
+    Pet pet = createPet(Personality.Glutton);
+    int[] changes = new int[1];
+    pet.addListener(new PetListener() {
+      @Override
+      public void healthChanged(long petId, HealthStatus health) {
+        changes[0]++;
+      }
+    });
+    pet.interactBatch(ACTIONS, TIMES, ACTIONS.length);
+    assertEquals(1, changes[0]);
+  }
+
+  /**
+   * Tests that queued interactions leave the model untouched until the next step, and are
+   * then applied in arrival order before it.
+   */
+  @Test
+  public void testAppliedAtNextTick() {
+    Pet expected = createPet(Personality.Energetic);
+    Pet model = createPet(Personality.Energetic);
+    PetController controller = new PetController(model, null, InteractionMode.BATCHED);
+    String before = model.getHealth().toString();
+    controller.interact(Action.FEED, 3);
+    controller.interactAll(new Action[] {Action.PLAY, Action.PLAY});
+    controller.interact(Action.CLEAN, 4);
+    assertEquals(9, controller.getPendingCount());
+    assertEquals(before, model.getHealth().toString());
+
+    controller.step();
+    expected.interactBatch(ACTIONS, TIMES, ACTIONS.length);
+    expected.step();
+    assertEquals(0, controller.getPendingCount());
+    assertEquals(expected.getHealth().toString(), model.getHealth().toString());
+    assertEquals(expected.getMood(), model.getMood());
+  }
+
+  /**
+   * Tests that immediate mode still applies interactions at once, and that restarting a
+   * batched game drops what was queued.
+   */
+  @Test
+  public void testModes() {
+    Pet model = createPet(Personality.Lazy);
+    PetController immediate = new PetController(model, null);
+    assertEquals(InteractionMode.IMMEDIATE, immediate.getMode());
+    String before = model.getHealth().toString();
+    immediate.interact(Action.FEED, 1);
+    assertTrue(!before.equals(model.getHealth().toString()));
+    assertEquals(0, immediate.getPendingCount());
+
+    PetController batched = new PetController(model, null, InteractionMode.BATCHED);
+    batched.interact(Action.SLEEP, 5);
+    batched.startGame();
+    assertEquals(0, batched.getPendingCount());
+  }
+
+  private static Pet createPet(Personality personality) {
+    Pet pet = new Pet(2);
+    pet.startGame(6L);
+    pet.setPersonality(personality);
+    return pet;
+  }
+}
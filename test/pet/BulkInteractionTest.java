@@ -0,0 +1,119 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import pet.helper.Action;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.Personality;
+import pet.population.PetPopulation;
+
+/**
+ * Unit tests for {@link PetInterface#interactWith(Action, int)} and
+ * {@link PetInterface#interactAll(Action[])}.
+ * Bulk interactions must match repeated single interactions exactly.
+ */
+public class BulkInteractionTest {
+
+  @Rule
+  public final SilentEvents events = new SilentEvents();
+
+  /**
+   * Tests repeated actions for every personality, mood and action from random states,
+   * including needs that are already empty.
+   */
+  @Test
+  public void testRepeatedActionMatchesLoop() {
+    Random random = new Random(8);
+    for (Personality personality : Personality.values()) {
+      for (MoodEnum mood : MoodEnum.values()) {
+        for (Action action : Action.values()) {
+          for (int trial = 0; trial < 40; trial++) {
+            int[] deltas = {random.nextInt(111) - 55, random.nextInt(111) - 55,
+                random.nextInt(111) - 55, random.nextInt(111) - 55};
+            Pet looped = createPet(personality, mood, deltas);
+            Pet bulk = createPet(personality, mood, deltas);
+            int times = random.nextInt(80);
+            for (int i = 0; i < times; i++) {
+              looped.interactWith(action);
+            }
+            bulk.interactWith(action, times);
+            assertSameState(personality + " " + mood + " " + action + " trial " + trial,
+                looped, bulk);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Tests that a sequence with runs of identical actions matches single interactions,
+   * for a standalone pet and a population handle.
+   */
+  @Test
+  public void testInteractAllMatchesLoop() {
+    Random random = new Random(12);
+    Action[] actions = new Action[300];
+    for (int i = 0; i < actions.length; ) {
+      Action action = Action.values()[random.nextInt(Action.values().length)];
+      int run = 1 + random.nextInt(6);
+      for (int j = 0; j < run && i < actions.length; j++) {
+        actions[i++] = action;
+      }
+    }
+    for (Personality personality : Personality.values()) {
+      Pet looped = createPet(personality, MoodEnum.HAPPY, new int[] {40, 40, 40, 40});
+      Pet bulk = createPet(personality, MoodEnum.HAPPY, new int[] {40, 40, 40, 40});
+      for (Action action : actions) {
+        looped.interactWith(action);
+      }
+      bulk.interactAll(actions);
+      assertSameState(personality.toString(), looped, bulk);
+
+      PetPopulation population = new PetPopulation(1);
+      population.startAll(3L);
+      population.get(0).setPersonality(personality);
+      population.get(0).adjustNeeds(40, 40, 40, 40);
+      population.get(0).interactAll(actions);
+      assertEquals(looped.getHealth().toString(), population.get(0).getHealth().toString());
+    }
+  }
+
+  /**
+   * Tests that a million feeds end in the same state as a loop would reach: the other
+   * needs drain until the pet dies.
+   */
+  @Test
+  public void testMillionFeeds() {
+    Pet pet = createPet(Personality.Glutton, MoodEnum.HAPPY, new int[4]);
+    pet.interactWith(Action.FEED, 1_000_000);
+    assertFalse(pet.isAlive());
+    assertEquals(100, pet.getHealth().getHunger());
+  }
+
+  /**
+   * Tests that negative counts are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeTimes() {
+    createPet(Personality.Lazy, MoodEnum.HAPPY, new int[4]).interactWith(Action.PLAY, -1);
+  }
+
+  private static Pet createPet(Personality personality, MoodEnum mood, int[] deltas) {
+    Pet pet = new Pet();
+    pet.startGame(3L);
+    pet.setPersonality(personality);
+    pet.adjustNeeds(deltas[0], deltas[1], deltas[2], deltas[3]);
+    pet.setMood(mood);
+    return pet;
+  }
+
+  private static void assertSameState(String message, Pet expected, Pet actual) {
+    assertEquals(message, expected.getHealth().toString(), actual.getHealth().toString());
+    assertEquals(message, expected.getMood(), actual.getMood());
+    assertEquals(message, expected.isAlive(), actual.isAlive());
+  }
+}
@@ -0,0 +1,150 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import pet.helper.Action;
+import pet.pipeline.CommandPipeline;
+import pet.pipeline.WaitStrategy;
+import pet.population.PetPopulation;
+import pet.population.PopulationSnapshot;
+
+/**
+ * Unit tests for {@link CommandPipeline}.
+ * Commands applied by the shards must leave the population as applying them directly
+ * would, with every wait strategy and ring size.
+ */
+public class CommandPipelineTest {
+
+  private static final int SIZE = 500;
+
+  /**
+   * Tests a single producer's commands and ticks against sequential application, with a
+   * tiny ring that wraps and fills constantly.
+   */
+  @Test
+  public void testMatchesSequential() {
+    for (WaitStrategy wait : WaitStrategy.values()) {
+      PetPopulation expected = createPopulation();
+      PetPopulation actual = createPopulation();
+      Action[] actions = Action.values();
+      Random random = new Random(5);
+      try (CommandPipeline pipeline = new CommandPipeline(actual, 3, 4, wait)) {
+        for (int i = 0; i < 20_000; i++) {
+          if (i % 1_000 == 999) {
+            expected.stepAll();
+            pipeline.tick();
+          } else {
+            int pet = random.nextInt(SIZE);
+            Action action = actions[random.nextInt(actions.length)];
+            expected.interactWith(pet, action);
+            pipeline.publish(pet, action);
+          }
+        }
+        pipeline.awaitIdle();
+        assertEquals(0, pipeline.getQueueDepth());
+        assertEquals(wait + " applied", 20_000 - 20 + 20L * 3, pipeline.getAppliedCount());
+      }
+      assertSameState(wait.toString(), expected.snapshot(), actual.snapshot());
+    }
+  }
+
+  /**
+   * Tests producers on several threads, each driving its own pets, against sequential
+   * application of each producer's commands.
+   */
+  @Test
+  public void testConcurrentProducers() throws InterruptedException {
+    int producers = 4;
+    PetPopulation expected = createPopulation();
+    PetPopulation actual = createPopulation();
+    for (int p = 0; p < producers; p++) {
+      produce(p, producers, (pet, action) -> expected.interactWith(pet, action));
+    }
+    try (CommandPipeline pipeline = new CommandPipeline(actual, 2, 16, WaitStrategy.YIELD)) {
+      Thread[] threads = new Thread[producers];
+      for (int p = 0; p < producers; p++) {
+        int first = p;
+        threads[p] = new Thread(() -> produce(first, producers, pipeline::publish));
+        threads[p].start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      pipeline.awaitIdle();
+    }
+    assertSameState("concurrent", expected.snapshot(), actual.snapshot());
+  }
+
+  /**
+   * Tests that applied commands are counted and their latencies reported.
+   */
+  @Test
+  public void testMetrics() {
+    PetPopulation population = createPopulation();
+    try (CommandPipeline pipeline = new CommandPipeline(population, 2, 64,
+        WaitStrategy.PARK)) {
+      assertEquals(0, pipeline.getLatencyNanos(0.5));
+      for (int i = 0; i < 1_000; i++) {
+        pipeline.publish(i % SIZE, Action.PLAY);
+      }
+      pipeline.tick();
+      pipeline.awaitIdle();
+      assertEquals(1_002, pipeline.getAppliedCount());
+      assertTrue(pipeline.getBatchCount() > 0);
+      assertTrue(pipeline.getBatchCount() <= 1_002);
+      long median = pipeline.getLatencyNanos(0.5);
+      long max = pipeline.getLatencyNanos(1.0);
+      assertTrue(median > 0);
+      assertTrue(median <= max);
+    }
+  }
+
+  /**
+   * Tests that publishing after close is rejected.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testPublishAfterClose() {
+    CommandPipeline pipeline = new CommandPipeline(createPopulation(), 1, 8,
+        WaitStrategy.PARK);
+    pipeline.close();
+    pipeline.publish(0, Action.FEED);
+  }
+
+  /**
+   * Sends 5,000 interactions to the pets {@code first}, {@code first + stride}, ... in a
+   * fixed random order.
+   */
+  private static void produce(int first, int stride, Command command) {
+    Action[] actions = Action.values();
+    Random random = new Random(first);
+    int pets = (SIZE - first + stride - 1) / stride;
+    for (int i = 0; i < 5_000; i++) {
+      command.send(first + random.nextInt(pets) * stride, actions[random.nextInt(4)]);
+    }
+  }
+
+  private static void assertSameState(String message, PopulationSnapshot expected,
+      PopulationSnapshot actual) {
+    assertTrue(message, Arrays.equals(expected.hunger(), actual.hunger()));
+    assertTrue(message, Arrays.equals(expected.hygiene(), actual.hygiene()));
+    assertTrue(message, Arrays.equals(expected.social(), actual.social()));
+    assertTrue(message, Arrays.equals(expected.sleep(), actual.sleep()));
+    assertTrue(message, Arrays.equals(expected.alive(), actual.alive()));
+    assertTrue(message, Arrays.equals(expected.mood(), actual.mood()));
+    assertTrue(message, Arrays.equals(expected.tick(), actual.tick()));
+  }
+
+  private static PetPopulation createPopulation() {
+    PetPopulation population = new PetPopulation(SIZE);
+    population.startAll(11L);
+    return population;
+  }
+
+  private interface Command {
+    void send(int pet, Action action);
+  }
+}
@@ -0,0 +1,159 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Rule;
+import org.junit.Test;
+import pet.helper.Action;
+import pet.helper.HealthStatus;
+import pet.helper.PackedNeeds;
+import pet.helper.mood.MoodEnum;
+
+/**
+ * Unit tests for {@link ConcurrentPet}.
+ * Used from one thread it must match {@link Pet}; used from many it must lose no update
+ * and never expose an inconsistent state.
+ */
+public class ConcurrentPetTest {
+
+  private static final int THREADS = 8;
+
+  @Rule
+  public final SilentEvents events = new SilentEvents();
+
+  /**
+   * Tests that a concurrent pet follows a {@link Pet} with the same id and seed step for
+   * step, through random interactions until death.
+   */
+  @Test
+  public void testMatchesPetSingleThreaded() {
+    Action[] actions = Action.values();
+    for (long seed = 1; seed <= 30; seed++) {
+      Pet expected = new Pet(5);
+      ConcurrentPet actual = new ConcurrentPet(5);
+      expected.startGame(seed);
+      actual.startGame(seed);
+      assertEquals(expected.getPersonality(), actual.getPersonality());
+      Random random = new Random(seed);
+      for (int i = 0; i < 400; i++) {
+        if (random.nextInt(3) == 0) {
+          Action action = actions[random.nextInt(actions.length)];
+          expected.interactWith(action);
+          actual.interactWith(action);
+        } else {
+          expected.step();
+          actual.step();
+        }
+        String label = "seed " + seed + " op " + i;
+        assertEquals(label, expected.getHealth().toString(), actual.getHealth().toString());
+        assertEquals(label, expected.getMood(), actual.getMood());
+        assertEquals(label, expected.isAlive(), actual.isAlive());
+        assertEquals(label, expected.getTick(), actual.getTick());
+      }
+    }
+  }
+
+  /**
+   * Tests that an unstarted pet reports no mood or personality and ignores steps.
+   */
+  @Test
+  public void testUnstarted() {
+    ConcurrentPet pet = new ConcurrentPet(1);
+    pet.step();
+    pet.interactWith(Action.FEED);
+    assertFalse(pet.isAlive());
+    assertNull(pet.getMood());
+    assertNull(pet.getPersonality());
+    assertEquals(0, pet.getTick());
+  }
+
+  /**
+   * Tests that adjustments racing on all threads are all applied.
+   */
+  @Test
+  public void testNoLostUpdates() throws InterruptedException {
+    ConcurrentPet pet = new ConcurrentPet(2);
+    pet.startGame(3L);
+    runConcurrently(thread -> {
+      for (int i = 0; i < 20_000; i++) {
+        pet.adjustNeeds(1, -1, 1, -1);
+        pet.adjustNeeds(-1, 1, -1, 1);
+      }
+    });
+    HealthStatus health = pet.getHealth();
+    assertEquals(50, health.getHunger());
+    assertEquals(50, health.getHygiene());
+    assertEquals(50, health.getSocial());
+    assertEquals(50, health.getSleep());
+  }
+
+  /**
+   * Tests that steps and interactions from many threads always leave a state word whose
+   * mood and alive flag agree with its needs, and that each step claims one tick.
+   */
+  @Test
+  public void testConsistentUnderContention() throws InterruptedException {
+    ConcurrentPet pet = new ConcurrentPet(4);
+    pet.startGame(11L);
+    AtomicBoolean running = new AtomicBoolean(true);
+    AtomicReference<String> failure = new AtomicReference<>();
+    Thread reader = new Thread(() -> {
+      while (running.get()) {
+        long state = pet.getState();
+        int needs = (int) state;
+        if (ConcurrentPet.isAlive(state) == PackedNeeds.anyEmpty(needs)
+            || (ConcurrentPet.moodOf(state) == MoodEnum.SAD) != PackedNeeds.anyLow(needs)) {
+          failure.compareAndSet(null, HealthStatus.fromPacked(needs) + " "
+              + ConcurrentPet.moodOf(state) + " " + ConcurrentPet.isAlive(state));
+        }
+      }
+    });
+    reader.start();
+    Action[] actions = Action.values();
+    runConcurrently(thread -> {
+      for (int i = 0; i < 5_000 && pet.isAlive(); i++) {
+        if (thread == 0) {
+          pet.step();
+        } else {
+          pet.interactWith(actions[(thread + i) % actions.length]);
+        }
+      }
+    });
+    running.set(false);
+    reader.join();
+    assertNull(failure.get());
+    assertTrue(pet.getTick() > 0);
+  }
+
+  private interface Work {
+    void run(int thread);
+  }
+
+  private static void runConcurrently(Work work) throws InterruptedException {
+    CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[THREADS];
+    for (int t = 0; t < THREADS; t++) {
+      int thread = t;
+      threads[t] = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        work.run(thread);
+      });
+      threads[t].start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+  }
+}
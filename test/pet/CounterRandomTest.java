@@ -0,0 +1,140 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import pet.helper.personality.CounterRandom;
+import pet.helper.personality.Personality;
+import pet.population.PetPopulation;
+
+/**
+ * Unit tests for {@link CounterRandom} and seeded pets.
+ * A seed must fully determine a run, independently of which engine steps the pets.
+ */
+public class CounterRandomTest {
+
+  @Rule
+  public final SilentEvents events = new SilentEvents();
+
+  /**
+   * Tests that keys depend only on their inputs, and that each input changes the key.
+   */
+  @Test
+  public void testKeyIsPureFunction() {
+    long key = CounterRandom.key(1L, 2L, 3L);
+    assertEquals(key, CounterRandom.key(1L, 2L, 3L));
+    assertEquals(key, CounterRandom.key(CounterRandom.stream(1L, 2L), 3L));
+    assertNotEquals(key, CounterRandom.key(2L, 2L, 3L));
+    assertNotEquals(key, CounterRandom.key(1L, 3L, 3L));
+    assertNotEquals(key, CounterRandom.key(1L, 2L, 4L));
+  }
+
+  /**
+   * Tests that {@code nextInt} and {@code percentile} stay in range and are roughly uniform.
+   */
+  @Test
+  public void testDistribution() {
+    int draws = 70_000;
+    int[] buckets = new int[7];
+    int resisted = 0;
+    for (int tick = 0; tick < draws; tick++) {
+      long key = CounterRandom.key(99L, 5L, tick);
+      buckets[CounterRandom.nextInt(key, buckets.length)]++;
+      for (int slice = 0; slice < 4; slice++) {
+        int percentile = CounterRandom.percentile(key, slice);
+        assertTrue(percentile >= 0 && percentile < 100);
+        if (percentile < 20) {
+          resisted++;
+        }
+      }
+    }
+    for (int count : buckets) {
+      assertTrue("bucket count " + count, Math.abs(count - draws / 7) < draws / 70);
+    }
+    double share = resisted / (4.0 * draws);
+    assertTrue("resist share " + share, Math.abs(share - 0.2) < 0.01);
+  }
+
+  /**
+   * Tests that two Smart pets with the same id and seed evolve identically,
+   * while a different seed leads to a different run.
+   */
+  @Test
+  public void testSeedReproducesSmartPet() {
+    Pet first = smartPet(3, 1234L);
+    Pet second = smartPet(3, 1234L);
+    Pet other = smartPet(3, 4321L);
+    boolean diverged = false;
+    for (int tick = 0; tick < 20; tick++) {
+      first.step();
+      second.step();
+      other.step();
+      assertEquals(first.getHealth().toString(), second.getHealth().toString());
+      diverged |= !first.getHealth().toString().equals(other.getHealth().toString());
+    }
+    assertTrue(diverged);
+    assertEquals(20, first.getTick());
+  }
+
+  /**
+   * Tests that the same seed assigns the same personality, and that seeds spread
+   * personalities over all values.
+   */
+  @Test
+  public void testSeedChoosesPersonality() {
+    boolean[] seen = new boolean[Personality.values().length];
+    for (long seed = 0; seed < 200; seed++) {
+      Pet pet = new Pet(17);
+      pet.startGame(seed);
+      assertEquals(Personality.forPet(seed, 17), pet.getPersonality());
+      assertEquals(seed, pet.getSeed());
+      seen[pet.getPersonality().ordinal()] = true;
+    }
+    for (boolean personalitySeen : seen) {
+      assertTrue(personalitySeen);
+    }
+  }
+
+  /**
+   * Tests that a seeded population matches standalone pets with the same ids and seed,
+   * Smart pets included.
+   */
+  @Test
+  public void testPopulationMatchesSeededPets() {
+    int size = 200;
+    long seed = 77L;
+    PetPopulation population = new PetPopulation(size);
+    population.startAll(seed);
+    Pet[] pets = new Pet[size];
+    for (int i = 0; i < size; i++) {
+      pets[i] = new Pet(i);
+      pets[i].startGame(seed);
+      assertEquals(pets[i].getPersonality(), population.get(i).getPersonality());
+      if (i % 2 == 0) {
+        pets[i].setPersonality(Personality.Smart);
+        population.get(i).setPersonality(Personality.Smart);
+      }
+    }
+    for (int tick = 0; tick < 40; tick++) {
+      population.stepAll();
+      for (Pet pet : pets) {
+        pet.step();
+      }
+      for (int i = 0; i < size; i++) {
+        assertEquals("tick " + tick + " pet " + i, pets[i].getHealth().toString(),
+            population.get(i).getHealth().toString());
+        assertEquals(pets[i].getTick(), population.get(i).getTick());
+      }
+    }
+  }
+
+  private static Pet smartPet(long id, long seed) {
+    Pet pet = new Pet(id);
+    pet.startGame(seed);
+    pet.setPersonality(Personality.Smart);
+    return pet;
+  }
+}
@@ -0,0 +1,117 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+import pet.helper.Action;
+import pet.helper.personality.Personality;
+import pet.population.DecayKernel;
+import pet.population.PetPopulation;
+import pet.population.PopulationPet;
+
+/**
+ * Unit tests for the batch {@link DecayKernel} implementations.
+ * Each kernel must leave a population in exactly the state produced by
+ * {@link PetPopulation#stepAll()}.
+ */
+public class DecayKernelTest {
+
+  private static final int SIZE = 1_003;
+
+  /**
+   * Tests the scalar kernel against per-pet stepping.
+   */
+  @Test
+  public void testScalarKernelMatchesStepAll() {
+    assertKernelMatches(DecayKernel.scalar());
+  }
+
+  /**
+   * Tests the best available kernel (the Vector API kernel when the module is enabled)
+   * against per-pet stepping.
+   */
+  @Test
+  public void testDefaultKernelMatchesStepAll() {
+    assertKernelMatches(DecayKernel.create());
+  }
+
+  /**
+   * Tests the personality-grouped kernel against per-pet stepping.
+   */
+  @Test
+  public void testGroupedKernelMatchesStepAll() {
+    assertKernelMatches(DecayKernel.grouped());
+  }
+
+  /**
+   * Tests that the grouped kernel notices personalities changed between ticks.
+   */
+  @Test
+  public void testGroupedKernelTracksPersonalityChanges() {
+    PetPopulation expected = createPopulation();
+    PetPopulation actual = createPopulation();
+    DecayKernel kernel = DecayKernel.grouped();
+    for (int tick = 0; tick < 10; tick++) {
+      for (int i = tick; i < SIZE; i += 11) {
+        Personality personality = Personality.values()[(i + tick) % 6];
+        expected.get(i).setPersonality(personality);
+        actual.get(i).setPersonality(personality);
+      }
+      expected.stepAll();
+      actual.stepAll(kernel);
+      for (int i = 0; i < SIZE; i++) {
+        assertEquals("tick " + tick + " pet " + i, expected.get(i).getHealth().toString(),
+            actual.get(i).getHealth().toString());
+      }
+    }
+  }
+
+  /**
+   * Tests that pets with random steps are still stepped by the kernels.
+   */
+  @Test
+  public void testSmartPetsAreStepped() {
+    PetPopulation population = new PetPopulation(64);
+    population.startAll(5L);
+    for (int i = 0; i < population.size(); i++) {
+      population.get(i).setPersonality(Personality.Smart);
+    }
+    String before = population.get(10).getHealth().toString();
+    population.stepAll(DecayKernel.create());
+    assertNotEquals(before, population.get(10).getHealth().toString());
+    before = population.get(10).getHealth().toString();
+    population.stepAll(DecayKernel.grouped());
+    assertNotEquals(before, population.get(10).getHealth().toString());
+  }
+
+  private static void assertKernelMatches(DecayKernel kernel) {
+    PetPopulation expected = createPopulation();
+    PetPopulation actual = createPopulation();
+
+    for (int tick = 0; tick < 40; tick++) {
+      expected.stepAll();
+      actual.stepAll(kernel);
+      if (tick % 6 == 0) {
+        for (int i = tick; i < SIZE; i += 5) {
+          Action action = Action.values()[i % Action.values().length];
+          expected.interactWith(i, action);
+          actual.interactWith(i, action);
+        }
+      }
+      for (int i = 0; i < SIZE; i++) {
+        PopulationPet want = expected.get(i);
+        PopulationPet got = actual.get(i);
+        String message = "tick " + tick + " pet " + i;
+        assertEquals(message, want.getHealth().toString(), got.getHealth().toString());
+        assertEquals(message, want.getMood(), got.getMood());
+        assertEquals(message, want.isAlive(), got.isAlive());
+        assertEquals(message, want.getTick(), got.getTick());
+      }
+    }
+  }
+
+  private static PetPopulation createPopulation() {
+    return TestPopulations.create(SIZE, 42L, -40);
+  }
+}
@@ -0,0 +1,173 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pet.helper.Action;
+import pet.helper.personality.Personality;
+import pet.persist.EventJournal;
+import pet.persist.FsyncPolicy;
+import pet.persist.PopulationCheckpointer;
+import pet.persist.PopulationRecovery;
+import pet.persist.SnapshotStore;
+import pet.persist.Varints;
+import pet.population.PetPopulation;
+import pet.population.PopulationPet;
+import pet.population.PopulationSnapshot;
+
+/**
+ * Unit tests for incremental snapshot deltas and the {@link Varints} encoding they use.
+ */
+public class DeltaSnapshotTest {
+
+  private static final int PETS = 1000;
+
+  private Path directory;
+  private SnapshotStore store;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("delta-test");
+    store = new SnapshotStore(directory.resolve("snapshots"));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  /**
+   * Tests that varints and zig-zag encoding round-trip and keep small values short.
+   */
+  @Test
+  public void testVarints() {
+    long[] values = {0, 1, -1, 63, -64, 64, 127, 128, -100, 100, Integer.MAX_VALUE,
+        Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+    ByteBuffer buffer = ByteBuffer.allocate(values.length * Varints.MAX_LONG_BYTES * 2);
+    for (long value : values) {
+      Varints.putSignedVarLong(buffer, value);
+      Varints.putVarLong(buffer, value);
+    }
+    buffer.flip();
+    for (long value : values) {
+      assertEquals(value, Varints.getSignedVarLong(buffer));
+      assertEquals(value, Varints.getVarLong(buffer));
+    }
+    assertEquals(1, Varints.length(Varints.zigZag(-64)));
+    assertEquals(2, Varints.length(Varints.zigZag(64)));
+    assertEquals(Varints.MAX_LONG_BYTES, Varints.length(-1L));
+  }
+
+  /**
+   * Tests that a delta only holds the pets that changed and that the chain loads back to
+   * the current state.
+   */
+  @Test
+  public void testDeltaHoldsOnlyChangedPets() throws IOException {
+    PetPopulation population = new PetPopulation(PETS);
+    population.startAll(6L);
+    PopulationPet lastStarted = population.get(PETS - 1);
+    store.write(population.snapshot(), 1);
+    PopulationSnapshot previous = population.snapshot();
+    for (int i = 0; i < PETS; i += 100) {
+      population.step(i);
+      population.interactWith(i, Action.FEED);
+    }
+    lastStarted.setPersonality(lastStarted.getPersonality() == Personality.Lazy
+        ? Personality.Aloof : Personality.Lazy);
+    Path delta = store.writeDelta(previous, 1, population.snapshot(), 2);
+
+    // 11 changed pets, each a few bytes, against a full snapshot of about 19 KB.
+    assertTrue("delta size " + Files.size(delta), Files.size(delta) < 200);
+    SnapshotStore.Entry entry = store.loadLatest();
+    assertEquals(2, entry.getSequence());
+    assertEquals(1, entry.getDeltaCount());
+    JournaledPopulations.assertSamePets("restored", population,
+        PetPopulation.restore(entry.getSnapshot()));
+  }
+
+  /**
+   * Tests recovery from a full snapshot, a chain of deltas and the journal tail, and that
+   * merging the chain gives the same state from a single file.
+   */
+  @Test
+  public void testRecoveryThroughDeltaChain() throws IOException {
+    Path journalFile = directory.resolve("pets.journal");
+    PetPopulation live = new PetPopulation(PETS);
+    try (EventJournal journal = EventJournal.open(journalFile, FsyncPolicy.NEVER)) {
+      JournaledPopulations.start(live, journal, 21L);
+      try (PopulationCheckpointer checkpointer =
+          new PopulationCheckpointer(live, journal, store, 1, 4)) {
+        Random random = new Random(10);
+        for (int round = 0; round < 6; round++) {
+          JournaledPopulations.runSparse(live, journal, 30, random);
+          checkpointer.checkpoint().join();
+        }
+        JournaledPopulations.runSparse(live, journal, 30, random);
+      }
+    }
+    SnapshotStore.Entry entry = store.loadLatest();
+    assertEquals(1, entry.getDeltaCount());
+
+    PopulationRecovery recovery = PopulationRecovery.recover(store, journalFile, PETS);
+    assertEquals(entry.getSequence(), recovery.getSnapshotSequence());
+    JournaledPopulations.assertSamePets("recovered", live, recovery.getPopulation());
+
+    assertNotNull(store.mergeDeltas());
+    assertNull(store.mergeDeltas());
+    assertEquals(0, store.loadLatest().getDeltaCount());
+    JournaledPopulations.assertSamePets("merged", live,
+        PopulationRecovery.recover(store, journalFile, PETS).getPopulation());
+  }
+
+  /**
+   * Tests that a damaged delta ends the chain and recovery replays the journal from there.
+   */
+  @Test
+  public void testDamagedDeltaEndsChain() throws IOException {
+    Path journalFile = directory.resolve("pets.journal");
+    PetPopulation live = new PetPopulation(PETS);
+    Path middle;
+    try (EventJournal journal = EventJournal.open(journalFile, FsyncPolicy.NEVER)) {
+      JournaledPopulations.start(live, journal, 21L);
+      try (PopulationCheckpointer checkpointer =
+          new PopulationCheckpointer(live, journal, store, 1, 10)) {
+        Random random = new Random(3);
+        checkpointer.checkpoint().join();
+        JournaledPopulations.runSparse(live, journal, 30, random);
+        middle = checkpointer.checkpoint().join();
+        JournaledPopulations.runSparse(live, journal, 30, random);
+        checkpointer.checkpoint().join();
+        JournaledPopulations.runSparse(live, journal, 30, random);
+      }
+    }
+    assertEquals(2, store.loadLatest().getDeltaCount());
+    try (FileChannel channel = FileChannel.open(middle, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {0x55}), 40);
+    }
+
+    SnapshotStore.Entry entry = store.loadLatest();
+    assertEquals(0, entry.getDeltaCount());
+    assertEquals(PETS, entry.getSequence());
+    JournaledPopulations.assertSamePets("damaged", live,
+        PopulationRecovery.recover(store, journalFile, PETS).getPopulation());
+  }
+}
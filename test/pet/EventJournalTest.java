@@ -0,0 +1,246 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import pet.helper.Action;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.Personality;
+import pet.persist.EventJournal;
+import pet.persist.FsyncPolicy;
+import pet.persist.JournalReader;
+import pet.persist.JournalRecord;
+import pet.persist.JournalReplayer;
+import pet.persist.JournaledPet;
+
+/**
+ * Unit tests for {@link EventJournal} and the classes that write and replay it.
+ * Replaying a journal must rebuild exactly the pets that wrote it.
+ */
+public class EventJournalTest {
+
+  @Rule
+  public final SilentEvents events = new SilentEvents();
+
+  private Path directory;
+  private Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("journal-test");
+    file = directory.resolve("pets.journal");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  /**
+   * Tests that every record type is read back unchanged.
+   */
+  @Test
+  public void testRecordsRoundTrip() throws IOException {
+    List<JournalRecord> written = List.of(
+        JournalRecord.start(7, Personality.Smart, -123456789L),
+        JournalRecord.step(7, 1L << 40),
+        JournalRecord.interact(7, Action.SLEEP, 3),
+        JournalRecord.personality(7, Personality.Lazy),
+        JournalRecord.mood(7, MoodEnum.SAD),
+        JournalRecord.adjust(7, -5, 100_000, 0, -100_000));
+    try (EventJournal journal = EventJournal.open(file, FsyncPolicy.EVERY_APPEND)) {
+      for (JournalRecord record : written) {
+        journal.append(record);
+      }
+    }
+    assertEquals(EventJournal.HEADER_SIZE + written.size() * JournalRecord.SIZE,
+        Files.size(file));
+    assertEquals(written, readAll());
+    JournalRecord adjust = written.get(5);
+    assertEquals(-5, adjust.getDelta(0));
+    assertEquals(Short.MAX_VALUE, adjust.getDelta(1));
+    assertEquals(Short.MIN_VALUE, adjust.getDelta(3));
+  }
+
+  /**
+   * Tests that replaying the journal of a random session rebuilds every pet, including
+   * pets with random steps, under each policy.
+   */
+  @Test
+  public void testReplayMatchesLivePets() throws IOException {
+    for (FsyncPolicy policy : FsyncPolicy.values()) {
+      Files.deleteIfExists(file);
+      Random random = new Random(5);
+      List<JournaledPet> pets = new ArrayList<>();
+      try (EventJournal journal =
+          new EventJournal(file, policy, 16, 1, TimeUnit.MILLISECONDS)) {
+        for (int id = 0; id < 12; id++) {
+          JournaledPet pet = new JournaledPet(id, journal);
+          pet.startGame(99L);
+          if (id % 3 == 0) {
+            pet.setPersonality(Personality.values()[id % Personality.values().length]);
+          }
+          pets.add(pet);
+        }
+        for (int round = 0; round < 300; round++) {
+          JournaledPet pet = pets.get(random.nextInt(pets.size()));
+          switch (random.nextInt(5)) {
+            case 0 -> pet.step();
+            case 1 -> pet.advance(random.nextInt(20));
+            case 2 -> pet.interactWith(Action.values()[random.nextInt(4)],
+                random.nextInt(3));
+            case 3 -> pet.adjustNeeds(random.nextInt(11) - 5, 0, random.nextInt(7), -1);
+            default -> pet.interactWith(Action.values()[random.nextInt(4)]);
+          }
+        }
+      }
+
+      JournalReplayer replayer = JournalReplayer.replay(file);
+      assertEquals(policy.name(), pets.size(), replayer.getPets().size());
+      for (int id = 0; id < pets.size(); id++) {
+        Pet live = pets.get(id).getPet();
+        Pet rebuilt = replayer.getPet(id);
+        String message = policy + " pet " + id;
+        assertEquals(message, live.getPackedNeeds(), rebuilt.getPackedNeeds());
+        assertEquals(message, live.getMood(), rebuilt.getMood());
+        assertEquals(message, live.getPersonality(), rebuilt.getPersonality());
+        assertEquals(message, live.isAlive(), rebuilt.isAlive());
+        assertEquals(message, live.getTick(), rebuilt.getTick());
+      }
+    }
+  }
+
+  /**
+   * Tests that a torn record at the end is ignored by the reader and cut off when the
+   * journal is reopened for appending.
+   */
+  @Test
+  public void testTornTailIsTruncated() throws IOException {
+    try (EventJournal journal = EventJournal.open(file, FsyncPolicy.GROUP)) {
+      journal.append(JournalRecord.start(1, Personality.Needy, 4L));
+      journal.append(JournalRecord.step(1, 5));
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(Files.size(file) - 3);
+    }
+    assertEquals(1, readAll().size());
+
+    try (EventJournal journal = EventJournal.open(file, FsyncPolicy.GROUP)) {
+      assertEquals(1, journal.appendedCount());
+      journal.append(JournalRecord.step(1, 2));
+    }
+    assertEquals(List.of(JournalRecord.start(1, Personality.Needy, 4L),
+        JournalRecord.step(1, 2)), readAll());
+  }
+
+  /**
+   * Tests that group commit needs far fewer commits than records, and that a waiter is
+   * released once its record is committed.
+   */
+  @Test
+  public void testGroupCommitBatchesRecords() throws IOException {
+    try (EventJournal journal =
+        new EventJournal(file, FsyncPolicy.GROUP, 64, 1, TimeUnit.SECONDS)) {
+      long last = 0;
+      for (int i = 0; i < 1000; i++) {
+        last = journal.append(JournalRecord.step(i, 1));
+      }
+      journal.awaitDurable(last);
+      assertEquals(1000, last);
+      assertTrue("commits " + journal.commitCount(), journal.commitCount() <= 1000 / 64 + 1);
+    }
+    assertEquals(1000, readAll().size());
+  }
+
+  /**
+   * Tests that a partial batch is committed by the time trigger when nobody waits for it.
+   */
+  @Test
+  public void testPartialBatchCommitsAfterDelay() throws Exception {
+    try (EventJournal journal =
+        new EventJournal(file, FsyncPolicy.GROUP, 1024, 2, TimeUnit.MILLISECONDS)) {
+      journal.append(JournalRecord.step(0, 1));
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (journal.commitCount() == 0 && System.nanoTime() < deadline) {
+        Thread.sleep(1);
+      }
+      assertEquals(1, journal.commitCount());
+      assertEquals(1, readAll().size());
+    }
+  }
+
+  /**
+   * Tests that a waiter does not have to sit out the delay of a partial batch.
+   */
+  @Test
+  public void testWaiterCommitsPartialBatch() throws IOException {
+    try (EventJournal journal =
+        new EventJournal(file, FsyncPolicy.GROUP, 1024, 1, TimeUnit.HOURS)) {
+      long start = System.nanoTime();
+      journal.awaitDurable(journal.append(JournalRecord.step(0, 1)));
+      assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+      assertEquals(1, journal.commitCount());
+    }
+  }
+
+  /**
+   * Tests that appending to a closed journal fails.
+   */
+  @Test(expected = IOException.class)
+  public void testAppendAfterClose() throws IOException {
+    EventJournal journal = EventJournal.open(file, FsyncPolicy.NEVER);
+    journal.close();
+    journal.append(JournalRecord.step(0, 1));
+  }
+
+  /**
+   * Tests that a file without the journal header is rejected.
+   */
+  @Test(expected = IOException.class)
+  public void testRejectsForeignFile() throws IOException {
+    Files.write(file, new byte[32]);
+    new JournalReader(file).close();
+  }
+
+  /**
+   * Tests that the reader returns nothing for a new journal.
+   */
+  @Test
+  public void testEmptyJournal() throws IOException {
+    EventJournal.open(file, FsyncPolicy.GROUP).close();
+    try (JournalReader reader = new JournalReader(file)) {
+      assertNull(reader.next());
+    }
+  }
+
+  private List<JournalRecord> readAll() throws IOException {
+    List<JournalRecord> records = new ArrayList<>();
+    try (JournalReader reader = new JournalReader(file)) {
+      JournalRecord record;
+      while ((record = reader.next()) != null) {
+        records.add(record);
+      }
+    }
+    return records;
+  }
+}
@@ -0,0 +1,148 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pet.event.AsyncEventSink;
+import pet.event.EventSink;
+import pet.event.PetEvent;
+import pet.event.PetEvents;
+
+/**
+ * Unit tests for the event sinks that replace console output in the pet models.
+ */
+public class EventSinkTest {
+
+  private EventSink original;
+
+  @Before
+  public void setUp() {
+    original = PetEvents.getSink();
+  }
+
+  @After
+  public void tearDown() {
+    PetEvents.setSink(original);
+  }
+
+  /**
+   * Tests that the asynchronous sink writes every message, in order, by the time
+   * {@link AsyncEventSink#flush()} returns.
+   */
+  @Test
+  public void testAsyncSinkWritesInOrder() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (AsyncEventSink sink = AsyncEventSink.start(new PrintStream(bytes), 16)) {
+      PetEvent[] events = PetEvent.values();
+      for (int i = 0; i < 12; i++) {
+        sink.publish(events[i % events.length], i);
+      }
+      sink.flush();
+      String[] lines = bytes.toString().split(System.lineSeparator());
+      assertEquals(12, lines.length);
+      for (int i = 0; i < 12; i++) {
+        assertEquals(events[i % events.length].getMessage(), lines[i]);
+      }
+      assertEquals(12, sink.getWrittenCount());
+      assertEquals(0, sink.getDroppedCount());
+    }
+  }
+
+  /**
+   * Tests that events are dropped and counted, rather than waited for, while the writer
+   * is stuck and the ring is full.
+   */
+  @Test
+  public void testFullRingDropsEvents() throws InterruptedException {
+    CountDownLatch writing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    OutputStream stuck = new OutputStream() {
+      @Override
+      public void write(int b) {
+        write(new byte[] {(byte) b}, 0, 1);
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) {
+        writing.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+    try (AsyncEventSink sink = AsyncEventSink.start(new PrintStream(stuck), 4)) {
+      assertEquals(4, sink.getCapacity());
+      sink.publish(PetEvent.DIED, 1);
+      writing.await();
+      for (int i = 0; i < 7; i++) {
+        sink.publish(PetEvent.SAD, i);
+      }
+      assertEquals(3, sink.getDroppedCount());
+      release.countDown();
+      sink.flush();
+      assertEquals(5, sink.getWrittenCount());
+    }
+  }
+
+  /**
+   * Tests that concurrent publishers lose no events while the ring has room.
+   */
+  @Test
+  public void testConcurrentPublishers() throws InterruptedException {
+    int threads = 4;
+    int perThread = 5_000;
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (AsyncEventSink sink = AsyncEventSink.start(new PrintStream(bytes), threads * perThread)) {
+      List<Thread> publishers = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        Thread thread = new Thread(() -> {
+          for (int i = 0; i < perThread; i++) {
+            sink.publish(PetEvent.NEEDS_PLAY, i);
+          }
+        });
+        publishers.add(thread);
+        thread.start();
+      }
+      for (Thread thread : publishers) {
+        thread.join();
+      }
+      sink.flush();
+      assertEquals(0, sink.getDroppedCount());
+      assertEquals(threads * perThread, sink.getWrittenCount());
+      assertEquals(threads * perThread, bytes.toString().split(System.lineSeparator()).length);
+    }
+  }
+
+  /**
+   * Tests that a dying pet reports its death with its id, and that the no-op sink
+   * swallows it.
+   */
+  @Test
+  public void testPetReportsDeath() {
+    List<String> seen = new ArrayList<>();
+    PetEvents.setSink((event, petId) -> seen.add(event + "#" + petId));
+    Pet pet = new Pet(7);
+    pet.startGame(1L);
+    pet.adjustNeeds(-100, 0, 0, 0);
+    pet.step();
+    assertTrue(seen.contains(PetEvent.DIED + "#7"));
+
+    PetEvents.setSink(EventSink.none());
+    Pet quiet = new Pet(8);
+    quiet.startGame(1L);
+    quiet.adjustNeeds(-100, 0, 0, 0);
+    quiet.step();
+    assertEquals(1, seen.size());
+  }
+}
@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 
 import org.junit.Test;
 import pet.helper.HealthStatus;
+import pet.helper.PackedNeeds;
 
 
 /**
@@ -34,4 +35,21 @@ public class HealthStatusTest {
     String expected = "HealthStatus{hunger=10, hygiene=20, social=30, sleep=40}";
     assertEquals(expected, health.toString());
   }
+
+  /**
+   * Tests the packed factory and the allocation-free accessors.
+   */
+  @Test
+  public void testPackedRoundTrip() {
+    int packed = PackedNeeds.pack(25, 50, 75, 90);
+
+    assertEquals(25, HealthStatus.hungerOf(packed));
+    assertEquals(50, HealthStatus.hygieneOf(packed));
+    assertEquals(75, HealthStatus.socialOf(packed));
+    assertEquals(90, HealthStatus.sleepOf(packed));
+
+    HealthStatus health = HealthStatus.fromPacked(packed);
+    assertEquals("HealthStatus{hunger=25, hygiene=50, social=75, sleep=90}", health.toString());
+    assertEquals(packed, health.toPacked());
+  }
 }
@@ -0,0 +1,258 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pet.persist.EventJournal;
+import pet.persist.FsyncPolicy;
+import pet.persist.JournalCompactor;
+import pet.persist.JournalReader;
+import pet.persist.JournalRecord;
+import pet.persist.JournalReplayer;
+import pet.persist.PopulationRecovery;
+import pet.persist.SnapshotStore;
+import pet.population.PetPopulation;
+
+/**
+ * Unit tests for segmented journals and journal compaction.
+ * A population recovered after compaction must equal the live one.
+ */
+public class JournalCompactionTest {
+
+  private static final int PETS = 200;
+  private static final int BATCH = 16;
+  private static final long SEGMENT_BYTES = EventJournal.HEADER_SIZE + 64L * 16;
+
+  private Path directory;
+  private Path segments;
+  private SnapshotStore store;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("compaction-test");
+    segments = directory.resolve("journal");
+    store = new SnapshotStore(directory.resolve("snapshots"));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  /**
+   * Tests that a segmented journal rolls by size, reads back in order across segments and
+   * continues its sequence when reopened.
+   */
+  @Test
+  public void testSegmentsRollAndReadInOrder() throws IOException {
+    try (EventJournal journal = openJournal()) {
+      for (int i = 1; i <= 1000; i++) {
+        journal.append(JournalRecord.tick(i));
+      }
+      journal.flush();
+      assertTrue(journal.rollCount() > 0);
+    }
+    assertTrue(segmentCount() > 1);
+
+    try (JournalReader reader = new JournalReader(segments)) {
+      assertEquals(0, reader.getStartSequence());
+      assertEquals(500, reader.skip(500));
+      for (int i = 501; i <= 1000; i++) {
+        assertEquals(i, reader.next().getValue());
+      }
+      assertNull(reader.next());
+    }
+    try (EventJournal journal = openJournal()) {
+      assertEquals(1000, journal.appendedCount());
+      assertEquals(1001, journal.append(JournalRecord.tick(1001)));
+    }
+  }
+
+  /**
+   * Tests that a newest segment cut off inside its header, as a crash during a roll leaves
+   * it, reads as empty and is repaired when the journal is reopened.
+   */
+  @Test
+  public void testPartialHeaderRecovered() throws IOException {
+    try (EventJournal journal = openJournal()) {
+      for (int i = 1; i <= 100; i++) {
+        journal.append(JournalRecord.tick(i));
+      }
+    }
+    int count = segmentCount();
+    Path partial = segments.resolve(String.format("journal-%019d.seg", 100));
+    Files.write(partial, new byte[7]);
+
+    try (JournalReader reader = new JournalReader(segments)) {
+      assertEquals(100, reader.skip(1000));
+      assertNull(reader.next());
+    }
+    try (EventJournal journal = openJournal()) {
+      assertEquals(100, journal.appendedCount());
+      assertEquals(101, journal.append(JournalRecord.tick(101)));
+    }
+    assertEquals(count + 1, segmentCount());
+    try (JournalReader reader = new JournalReader(segments)) {
+      assertEquals(100, reader.skip(100));
+      assertEquals(101, reader.next().getValue());
+      assertNull(reader.next());
+    }
+  }
+
+  /**
+   * Tests that compaction folds closed segments into a new snapshot, deletes them, and
+   * that recovery afterwards still rebuilds the live population.
+   */
+  @Test
+  public void testCompactionFoldsClosedSegments() throws IOException {
+    PetPopulation live = new PetPopulation(PETS);
+    Random random = new Random(6);
+    long segmentBytes;
+    JournalCompactor compactor = new JournalCompactor(segments, store, 0);
+    try (EventJournal journal = openJournal()) {
+      JournaledPopulations.start(live, journal, 12L);
+      journal.flush();
+      store.write(live.snapshot(), journal.appendedCount());
+      JournaledPopulations.run(live, journal, null, 30, random);
+      journal.flush();
+      int before = segmentCount();
+      segmentBytes = directorySize(segments);
+
+      long reclaimed = compactor.compact();
+      assertTrue(reclaimed > 0);
+      assertEquals(reclaimed, compactor.getBytesReclaimed());
+      assertEquals(before - 1, compactor.getSegmentsDeleted());
+      assertEquals(1, segmentCount());
+      assertTrue(compactor.getRecordsFolded() > 0);
+      assertTrue(directorySize(segments) < segmentBytes);
+
+      // Appends continue into the open segment and roll on as before.
+      JournaledPopulations.run(live, journal, null, 10, random);
+    }
+
+    SnapshotStore.Entry latest = store.loadLatest();
+    assertNotNull(latest);
+    PopulationRecovery recovery = PopulationRecovery.recover(store, segments, PETS);
+    assertEquals(latest.getSequence(), recovery.getSnapshotSequence());
+    JournaledPopulations.assertSamePets("compacted", live, recovery.getPopulation());
+  }
+
+  /**
+   * Tests that segments already covered by a checkpoint are deleted without replay.
+   */
+  @Test
+  public void testCoveredSegmentsDeletedWithoutReplay() throws IOException {
+    PetPopulation live = new PetPopulation(PETS);
+    JournalCompactor compactor = new JournalCompactor(segments, store, 0);
+    try (EventJournal journal = openJournal()) {
+      JournaledPopulations.start(live, journal, 4L);
+      JournaledPopulations.run(live, journal, null, 20, new Random(1));
+      journal.flush();
+      store.write(live.snapshot(), journal.appendedCount());
+      assertTrue(compactor.compact() > 0);
+    }
+    assertEquals(0, compactor.getRecordsFolded());
+    assertEquals(1, segmentCount());
+    JournaledPopulations.assertSamePets("covered", live,
+        PopulationRecovery.recover(store, segments, PETS).getPopulation());
+  }
+
+  /**
+   * Tests that nothing is deleted while there is no snapshot to fold into.
+   */
+  @Test
+  public void testNoSnapshotKeepsSegments() throws IOException {
+    PetPopulation live = new PetPopulation(PETS);
+    JournalCompactor compactor = new JournalCompactor(segments, store, 0);
+    try (EventJournal journal = openJournal()) {
+      JournaledPopulations.start(live, journal, 2L);
+      JournaledPopulations.run(live, journal, null, 10, new Random(3));
+      journal.flush();
+    }
+    int before = segmentCount();
+    assertEquals(0, compactor.compact());
+    assertEquals(before, segmentCount());
+    assertEquals(1, compactor.getPassCount());
+  }
+
+  /**
+   * Tests that a full replay of a compacted journal is refused instead of silently
+   * skipping the deleted records.
+   */
+  @Test(expected = IOException.class)
+  public void testReplayFromCompactedRecordFails() throws IOException {
+    PetPopulation live = new PetPopulation(PETS);
+    try (EventJournal journal = openJournal()) {
+      JournaledPopulations.start(live, journal, 8L);
+      JournaledPopulations.run(live, journal, null, 20, new Random(5));
+      journal.flush();
+      store.write(live.snapshot(), journal.appendedCount());
+      new JournalCompactor(segments, store, 0).compact();
+    }
+    JournalReplayer.replay(segments);
+  }
+
+  /**
+   * Tests that a bandwidth cap slows a pass down, and that background passes run while
+   * the journal keeps appending.
+   */
+  @Test
+  public void testThrottledBackgroundCompaction() throws IOException, InterruptedException {
+    PetPopulation live = new PetPopulation(PETS);
+    Random random = new Random(9);
+    try (EventJournal journal = openJournal();
+        JournalCompactor compactor = JournalCompactor.start(segments, store, 256 * 1024, 5,
+            TimeUnit.MILLISECONDS)) {
+      JournaledPopulations.start(live, journal, 7L);
+      journal.flush();
+      store.write(live.snapshot(), journal.appendedCount());
+      for (int round = 0; round < 20 && compactor.getSegmentsDeleted() == 0; round++) {
+        JournaledPopulations.run(live, journal, null, 5, random);
+        journal.flush();
+        Thread.sleep(20);
+      }
+      assertNull(compactor.getLastFailure());
+      assertTrue(compactor.getSegmentsDeleted() > 0);
+      assertTrue(compactor.getThrottledNanos() > 0);
+    }
+    JournaledPopulations.assertSamePets("background", live,
+        PopulationRecovery.recover(store, segments, PETS).getPopulation());
+  }
+
+  private EventJournal openJournal() throws IOException {
+    return new EventJournal(segments, SEGMENT_BYTES, FsyncPolicy.NEVER, BATCH, 1,
+        TimeUnit.MILLISECONDS);
+  }
+
+  private int segmentCount() throws IOException {
+    try (Stream<Path> files = Files.list(segments)) {
+      return (int) files.count();
+    }
+  }
+
+  private static long directorySize(Path path) throws IOException {
+    long size = 0;
+    try (Stream<Path> files = Files.list(path)) {
+      for (Path file : files.toList()) {
+        size += Files.size(file);
+      }
+    }
+    return size;
+  }
+}
@@ -0,0 +1,114 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import pet.helper.Action;
+import pet.persist.EventJournal;
+import pet.persist.JournalRecord;
+import pet.persist.PopulationCheckpointer;
+import pet.population.DecayKernel;
+import pet.population.PetPopulation;
+import pet.population.PopulationPet;
+
+/**
+ * The {@code JournaledPopulations} class drives a live population while writing every
+ * change to an event journal, so that the persistence tests can compare the live pets
+ * with the pets recovered from disk.
+ */
+final class JournaledPopulations {
+
+  private JournaledPopulations() {
+  }
+
+  /**
+   * Starts every pet of the population and journals each start.
+   *
+   * @param population the population to start
+   * @param journal    the journal to append to
+   * @param seed       the seed of every pet
+   * @throws IOException if the journal cannot be written
+   */
+  static void start(PetPopulation population, EventJournal journal, long seed)
+      throws IOException {
+    for (int i = 0; i < population.size(); i++) {
+      population.startGame(i, seed);
+      journal.append(JournalRecord.start(i, population.get(i).getPersonality(), seed));
+    }
+  }
+
+  /**
+   * Steps the whole population for the given number of ticks, interacting with 20 random
+   * pets after each tick, and journals every change.
+   *
+   * @param population   the population to run
+   * @param journal      the journal to append to
+   * @param checkpointer the checkpointer told of every tick, or {@code null} for none
+   * @param ticks        the number of ticks
+   * @param random       the source of the pets and actions to interact with
+   * @throws IOException if the journal cannot be written
+   */
+  static void run(PetPopulation population, EventJournal journal,
+      PopulationCheckpointer checkpointer, int ticks, Random random) throws IOException {
+    List<Action> actions = List.of(Action.values());
+    for (int tick = 0; tick < ticks; tick++) {
+      population.stepAll(DecayKernel.create());
+      journal.append(JournalRecord.tick(1));
+      for (int n = 0; n < 20; n++) {
+        int index = random.nextInt(population.size());
+        Action action = actions.get(random.nextInt(actions.size()));
+        population.interactWith(index, action);
+        journal.append(JournalRecord.interact(index, action, 1));
+      }
+      if (checkpointer != null) {
+        checkpointer.onTick();
+      }
+    }
+  }
+
+  /**
+   * Steps and interacts with the given number of random pets, leaving the rest idle, and
+   * journals every change.
+   *
+   * @param population the population to run
+   * @param journal    the journal to append to
+   * @param count      the number of random pets to step
+   * @param random     the source of the pets and actions
+   * @throws IOException if the journal cannot be written
+   */
+  static void runSparse(PetPopulation population, EventJournal journal, int count,
+      Random random) throws IOException {
+    List<Action> actions = List.of(Action.values());
+    for (int n = 0; n < count; n++) {
+      int index = random.nextInt(population.size());
+      population.step(index);
+      journal.append(JournalRecord.step(index, 1));
+      Action action = actions.get(random.nextInt(actions.size()));
+      population.interactWith(index, action);
+      journal.append(JournalRecord.interact(index, action, 1));
+    }
+  }
+
+  /**
+   * Asserts that both populations hold the same pets in the same state.
+   *
+   * @param message  the label of the failure message
+   * @param expected the population to match
+   * @param actual   the population to check
+   */
+  static void assertSamePets(String message, PetPopulation expected, PetPopulation actual) {
+    assertEquals(message, expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      PopulationPet want = expected.get(i);
+      PopulationPet got = actual.get(i);
+      String label = message + " pet " + i;
+      assertEquals(label, want.getHealth().toString(), got.getHealth().toString());
+      assertEquals(label, want.getMood(), got.getMood());
+      assertEquals(label, want.getPersonality(), got.getPersonality());
+      assertEquals(label, want.isAlive(), got.isAlive());
+      assertEquals(label, want.getTick(), got.getTick());
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import pet.helper.Action;
+import pet.helper.personality.Personality;
+
+/**
+ * Unit tests for {@link LazyPet}.
+ * A lazy pet read at any tick must match a {@link Pet} stepped once per tick,
+ * no matter how often or how rarely it is read.
+ */
+public class LazyPetTest {
+
+  @Rule
+  public final SilentEvents events = new SilentEvents();
+
+  private long now;
+
+  /**
+   * Tests every personality against eagerly stepped pets, with sparse reads and
+   * interactions at random ticks.
+   */
+  @Test
+  public void testMatchesEagerPet() {
+    Random random = new Random(31);
+    for (Personality personality : Personality.values()) {
+      now = 0;
+      LazyPet lazy = new LazyPet(4, () -> now);
+      lazy.startGame(21L);
+      lazy.setPersonality(personality);
+      Pet eager = new Pet(4);
+      eager.startGame(21L);
+      eager.setPersonality(personality);
+
+      for (int tick = 1; tick <= 400; tick++) {
+        now = tick;
+        eager.step();
+        if (random.nextInt(10) == 0) {
+          Action action = Action.values()[random.nextInt(Action.values().length)];
+          eager.interactWith(action);
+          lazy.interactWith(action);
+        }
+        if (random.nextInt(25) == 0) {
+          String message = personality + " tick " + tick;
+          assertEquals(message, eager.getHealth().toString(), lazy.getHealth().toString());
+          assertEquals(message, eager.getMood(), lazy.getMood());
+          assertEquals(message, eager.isAlive(), lazy.isAlive());
+          assertEquals(message, eager.needFeed(), lazy.needFeed());
+          assertEquals(message, eager.getTick(), lazy.getTick());
+        }
+      }
+    }
+  }
+
+  /**
+   * Tests that an unread pet does no work until it is queried, and then catches up
+   * through every threshold in one read.
+   */
+  @Test
+  public void testCatchUpOnRead() {
+    now = 100;
+    LazyPet lazy = new LazyPet(0, () -> now);
+    lazy.startGame(1L);
+    lazy.setPersonality(Personality.Aloof);
+    now = 1_000_000_000L;
+    assertEquals(100, lazy.getSyncedTick());
+    assertFalse(lazy.isAlive());
+    assertEquals(now, lazy.getSyncedTick());
+  }
+
+  /**
+   * Tests that an explicit step adds to the clock-driven steps.
+   */
+  @Test
+  public void testExplicitStep() {
+    now = 0;
+    LazyPet lazy = new LazyPet(0, () -> now);
+    lazy.startGame(2L);
+    lazy.setPersonality(Personality.Glutton);
+    Pet eager = new Pet();
+    eager.startGame(2L);
+    eager.setPersonality(Personality.Glutton);
+    now = 3;
+    lazy.step();
+    eager.advance(4);
+    assertEquals(eager.getHealth().toString(), lazy.getHealth().toString());
+  }
+}
@@ -0,0 +1,141 @@
+package pet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import pet.population.DecayKernel;
+import pet.population.LockstepReport;
+import pet.population.LockstepTicker;
+import pet.population.PetPopulation;
+import pet.population.PopulationSnapshot;
+import pet.population.TickResult;
+
+/**
+ * Unit tests for {@link LockstepTicker}.
+ * Lockstep ticks must leave the population and the reported counts exactly as sequential
+ * stepping does, for any number of workers.
+ */
+public class LockstepTickerTest {
+
+  private static final int SIZE = 3_001;
+  private static final int TICKS = 60;
+
+  /**
+   * Tests every worker count against sequential ticks, comparing every column of the
+   * population and every report.
+   */
+  @Test
+  public void testIdenticalForAnyWorkerCount() {
+    PetPopulation expected = createPopulation();
+    List<String> wanted = new ArrayList<>();
+    for (int tick = 0; tick < TICKS; tick++) {
+      TickResult result = expected.stepAll(DecayKernel.scalar());
+      wanted.add(tick + " " + result + " " + expected.aliveCount());
+    }
+    for (int workers : new int[] {1, 2, 3, 7}) {
+      PetPopulation actual = createPopulation();
+      List<String> got = new ArrayList<>();
+      try (LockstepTicker ticker = new LockstepTicker(actual, workers, 128,
+          DecayKernel.create(), report -> got.add(report.getTick() + " "
+              + report.getResult() + " " + report.getAliveCount()))) {
+        for (int tick = 0; tick < TICKS; tick++) {
+          ticker.tick();
+        }
+      }
+      assertEquals("workers=" + workers, wanted, got);
+      assertSameColumns(expected.snapshot(), actual.snapshot());
+    }
+  }
+
+  /**
+   * Tests that the publisher sees a population that no worker is writing.
+   */
+  @Test
+  public void testPublisherSeesCompletedTick() {
+    PetPopulation population = createPopulation();
+    int[] mismatches = new int[1];
+    try (LockstepTicker ticker = new LockstepTicker(population, 4, 50, DecayKernel.scalar(),
+        report -> {
+          if (population.aliveCount() != report.getAliveCount()) {
+            mismatches[0]++;
+          }
+        })) {
+      for (int tick = 0; tick < 20; tick++) {
+        ticker.tick();
+      }
+    }
+    assertEquals(0, mismatches[0]);
+  }
+
+  /**
+   * Tests that phase and per-worker timings are recorded.
+   */
+  @Test
+  public void testTimings() {
+    try (LockstepTicker ticker = new LockstepTicker(createPopulation(), 3, 100,
+        DecayKernel.scalar(), report -> { })) {
+      LockstepReport report = ticker.tick();
+      assertEquals(31, ticker.getShardCount());
+      assertTrue(report.getStepNanos() > 0);
+      assertTrue(report.getReduceNanos() > 0);
+      int slowest = report.getSlowestWorker();
+      for (int w = 0; w < ticker.getWorkerCount(); w++) {
+        assertTrue(report.getWorkerStepNanos(w) > 0);
+        assertTrue(report.getWorkerStepNanos(w) <= report.getWorkerStepNanos(slowest));
+      }
+      assertEquals(report.getStepNanos(), ticker.getPhaseNanos(LockstepTicker.Phase.STEP));
+      assertTrue(ticker.getPhaseNanos(LockstepTicker.Phase.PUBLISH) >= 0);
+    }
+  }
+
+  /**
+   * Tests that a closed ticker refuses to tick.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testTickAfterClose() {
+    LockstepTicker ticker = new LockstepTicker(createPopulation(), 2, 100,
+        DecayKernel.scalar(), report -> { });
+    ticker.close();
+    ticker.tick();
+  }
+
+  /**
+   * Tests that an error thrown by the kernel on a worker reaches the caller instead of
+   * leaving it waiting at the barrier.
+   */
+  @Test
+  public void testWorkerError() {
+    DecayKernel failing = (population, from, to) -> {
+      throw new AssertionError("kernel failed");
+    };
+    try (LockstepTicker ticker = new LockstepTicker(createPopulation(), 2, 100, failing,
+        report -> { })) {
+      ticker.tick();
+      throw new AssertionError("Expected the tick to fail");
+    } catch (IllegalStateException expected) {
+      assertTrue(expected.getCause() instanceof AssertionError);
+    }
+  }
+
+  private static void assertSameColumns(PopulationSnapshot expected,
+      PopulationSnapshot actual) {
+    assertArrayEquals(expected.hunger(), actual.hunger());
+    assertArrayEquals(expected.hygiene(), actual.hygiene());
+    assertArrayEquals(expected.social(), actual.social());
+    assertArrayEquals(expected.sleep(), actual.sleep());
+    assertArrayEquals(expected.mood(), actual.mood());
+    assertArrayEquals(expected.personality(), actual.personality());
+    assertArrayEquals(expected.tick(), actual.tick());
+    assertEquals(Arrays.toString(expected.alive()),
+        Arrays.toString(actual.alive()));
+  }
+
+  private static PetPopulation createPopulation() {
+    return TestPopulations.create(SIZE, 21L, -20);
+  }
+}
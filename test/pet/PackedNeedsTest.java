@@ -0,0 +1,76 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import pet.helper.PackedNeeds;
+
+/**
+ * Unit tests for the SWAR arithmetic in {@link PackedNeeds}.
+ * Every packed operation is checked against the plain per-need clamp it replaces.
+ */
+public class PackedNeedsTest {
+
+  private static final int[] DELTAS = {-1000, -101, -100, -80, -6, -3, -2, -1, 0, 1, 2, 40,
+      60, 80, 100, 101, 1000, Integer.MIN_VALUE, Integer.MAX_VALUE};
+
+  /**
+   * Tests that packing and unpacking round-trips every lane independently.
+   */
+  @Test
+  public void testPackAndUnpack() {
+    int packed = PackedNeeds.pack(1, 20, 99, 100);
+    assertEquals(1, PackedNeeds.hunger(packed));
+    assertEquals(20, PackedNeeds.hygiene(packed));
+    assertEquals(99, PackedNeeds.social(packed));
+    assertEquals(100, PackedNeeds.sleep(packed));
+
+    int clamped = PackedNeeds.pack(-5, 500, 0, 50);
+    assertEquals(0, PackedNeeds.hunger(clamped));
+    assertEquals(100, PackedNeeds.hygiene(clamped));
+  }
+
+  /**
+   * Tests that saturating adjustment matches {@code clamp(value + delta)} for every value
+   * and a range of deltas, including deltas far outside [-100, 100].
+   */
+  @Test
+  public void testAdjustMatchesClamp() {
+    for (int value = 0; value <= 100; value++) {
+      for (int delta : DELTAS) {
+        int negated = delta == Integer.MIN_VALUE ? Integer.MAX_VALUE : -delta;
+        int packed = PackedNeeds.pack(value, 100 - value, value, 50);
+        int adjusted = PackedNeeds.adjust(packed, delta, delta, negated, 0);
+        assertEquals(clamp((long) value + delta), PackedNeeds.hunger(adjusted));
+        assertEquals(clamp((long) 100 - value + delta), PackedNeeds.hygiene(adjusted));
+        assertEquals(clamp((long) value + negated), PackedNeeds.social(adjusted));
+        assertEquals(50, PackedNeeds.sleep(adjusted));
+      }
+    }
+  }
+
+  /**
+   * Tests the low (≤ 20) and empty (= 0) masks against scalar comparisons.
+   */
+  @Test
+  public void testThresholdMasks() {
+    for (int value = 0; value <= 100; value++) {
+      int packed = PackedNeeds.pack(100, 100, value, 100);
+      assertEquals(value <= 20, PackedNeeds.anyLow(packed));
+      assertEquals(value == 0, PackedNeeds.anyEmpty(packed));
+      assertEquals(value <= 20, PackedNeeds.isLow(packed, PackedNeeds.SOCIAL_SHIFT));
+      assertFalse(PackedNeeds.isLow(packed, PackedNeeds.SLEEP_SHIFT));
+    }
+    int packed = PackedNeeds.pack(0, 20, 21, 0);
+    assertTrue(PackedNeeds.isLow(packed, PackedNeeds.HUNGER_SHIFT));
+    assertTrue(PackedNeeds.isLow(packed, PackedNeeds.HYGIENE_SHIFT));
+    assertFalse(PackedNeeds.isLow(packed, PackedNeeds.SOCIAL_SHIFT));
+    assertEquals(0x80000080, PackedNeeds.emptyLanes(packed));
+  }
+
+  private static int clamp(long value) {
+    return (int) Math.max(0, Math.min(100, value));
+  }
+}
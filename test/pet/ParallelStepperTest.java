@@ -0,0 +1,80 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import pet.helper.mood.MoodEnum;
+import pet.population.DecayKernel;
+import pet.population.ParallelStepper;
+import pet.population.PetPopulation;
+import pet.population.TickResult;
+
+/**
+ * Unit tests for {@link ParallelStepper}.
+ * Parallel ticks must produce the same state and the same aggregate counts as
+ * sequential stepping, for any chunk size and parallelism.
+ */
+public class ParallelStepperTest {
+
+  private static final int SIZE = 5_000;
+
+  /**
+   * Tests parallel ticks against sequential ticks until the whole population has died.
+   */
+  @Test
+  public void testParallelMatchesSequential() {
+    PetPopulation expected = createPopulation();
+    PetPopulation actual = createPopulation();
+    DecayKernel sequential = DecayKernel.scalar();
+    int totalDeaths = 0;
+
+    try (ParallelStepper stepper = new ParallelStepper(4, 97)) {
+      for (int tick = 0; tick < 80; tick++) {
+        TickResult want = expected.stepAll(sequential);
+        TickResult got = stepper.tick(actual);
+        assertEquals("deaths at tick " + tick, want.getDeaths(), got.getDeaths());
+        assertEquals("mood flips at tick " + tick, want.getMoodFlips(), got.getMoodFlips());
+        totalDeaths += got.getDeaths();
+        for (int i = 0; i < SIZE; i++) {
+          assertEquals("tick " + tick + " pet " + i,
+              expected.get(i).getHealth().toString(), actual.get(i).getHealth().toString());
+          assertEquals(expected.get(i).getMood(), actual.get(i).getMood());
+        }
+      }
+    }
+    assertEquals(SIZE, totalDeaths);
+    assertEquals(0, actual.aliveCount());
+  }
+
+  /**
+   * Tests that the counts reported by a tick match the observable changes.
+   */
+  @Test
+  public void testTickResultCounts() {
+    PetPopulation population = createPopulation();
+    try (ParallelStepper stepper = new ParallelStepper(2, 1_000)) {
+      for (int tick = 0; tick < 30; tick++) {
+        int aliveBefore = population.aliveCount();
+        int sadBefore = countSad(population);
+        TickResult result = stepper.tick(population);
+        assertEquals(aliveBefore - population.aliveCount(), result.getDeaths());
+        assertTrue(result.getMoodFlips() >= Math.abs(countSad(population) - sadBefore));
+      }
+    }
+  }
+
+  private static int countSad(PetPopulation population) {
+    int sad = 0;
+    for (int i = 0; i < population.size(); i++) {
+      if (population.get(i).getMood() == MoodEnum.SAD) {
+        sad++;
+      }
+    }
+    return sad;
+  }
+
+  private static PetPopulation createPopulation() {
+    return TestPopulations.create(SIZE, 7L, -20);
+  }
+}
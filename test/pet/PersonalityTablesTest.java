@@ -0,0 +1,109 @@
+package pet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Proxy;
+import org.junit.Test;
+import pet.helper.Action;
+import pet.helper.PackedNeeds;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.CounterRandom;
+import pet.helper.personality.Personality;
+import pet.helper.personality.PersonalityInterface;
+import pet.helper.personality.PersonalityTables;
+
+/**
+ * Unit tests for {@link PersonalityTables}.
+ * Every table entry must match what the personality classes do for the same
+ * personality, mood and action.
+ */
+public class PersonalityTablesTest {
+
+  /**
+   * Tests every (personality, mood, action) interaction entry against
+   * {@code applyPersonalityInteract}.
+   */
+  @Test
+  public void testInteractTablesMatchPersonalities() {
+    for (Personality personality : Personality.values()) {
+      for (MoodEnum mood : MoodEnum.values()) {
+        for (Action action : Action.values()) {
+          int[] recorded = new int[PersonalityTables.NEEDS];
+          personality.getPersonality()
+              .applyPersonalityInteract(recorder(recorded), mood, action);
+          int entry = PersonalityTables.interactIndex(personality.ordinal(), mood.ordinal(),
+              action.ordinal());
+          assertArrayEquals(personality + " " + mood + " " + action, recorded,
+              tableRow(entry, true));
+        }
+      }
+    }
+  }
+
+  /**
+   * Tests every (personality, mood) step entry plus the random variation against
+   * {@code modifyStep} for many step keys.
+   */
+  @Test
+  public void testStepTablesMatchPersonalities() {
+    for (Personality personality : Personality.values()) {
+      PersonalityInterface behavior = personality.getPersonality();
+      for (MoodEnum mood : MoodEnum.values()) {
+        int entry = PersonalityTables.stepIndex(personality.ordinal(), mood.ordinal());
+        for (long tick = 0; tick < 500; tick++) {
+          long key = CounterRandom.key(11L, personality.ordinal(), tick);
+          int[] recorded = new int[PersonalityTables.NEEDS];
+          behavior.modifyStep(recorder(recorded), mood, key);
+          int variation = PersonalityTables.stepVariation(personality.ordinal(), key);
+          int[] expected = tableRow(entry, false);
+          expected[PersonalityTables.HUNGER] += PackedNeeds.hunger(variation);
+          expected[PersonalityTables.HYGIENE] += PackedNeeds.hygiene(variation);
+          expected[PersonalityTables.SOCIAL] += PackedNeeds.social(variation);
+          expected[PersonalityTables.SLEEP] += PackedNeeds.sleep(variation);
+          assertArrayEquals(personality + " " + mood + " key " + key, recorded, expected);
+        }
+      }
+    }
+  }
+
+  /**
+   * Tests that personalities with fixed steps have no random part.
+   */
+  @Test
+  public void testFixedStepsHaveNoVariation() {
+    for (Personality personality : Personality.values()) {
+      if (PersonalityTables.hasFixedStep(personality.ordinal())) {
+        for (long key = -50; key < 50; key++) {
+          assertEquals(0, PersonalityTables.stepVariation(personality.ordinal(), key));
+        }
+      }
+    }
+  }
+
+  private static int[] tableRow(int entry, boolean interact) {
+    int[] row = new int[PersonalityTables.NEEDS];
+    for (int need = 0; need < row.length; need++) {
+      row[need] = interact ? PersonalityTables.interactDelta(entry, need)
+          : PersonalityTables.stepDelta(entry, need);
+    }
+    return row;
+  }
+
+  /**
+   * Creates a pet that sums the deltas passed to {@code adjustNeeds} into {@code deltas}.
+   * Any other call fails the test.
+   */
+  private static PetInterface recorder(int[] deltas) {
+    return (PetInterface) Proxy.newProxyInstance(PetInterface.class.getClassLoader(),
+        new Class<?>[] {PetInterface.class}, (proxy, method, args) -> {
+          if (!method.getName().equals("adjustNeeds")) {
+            throw new AssertionError("Unexpected call to " + method.getName());
+          }
+          for (int need = 0; need < deltas.length; need++) {
+            deltas[need] += (Integer) args[need];
+          }
+          return null;
+        });
+  }
+}
@@ -0,0 +1,250 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Rule;
+import org.junit.Test;
+import pet.actor.OverflowPolicy;
+import pet.actor.PetActor;
+import pet.event.PetListener;
+import pet.helper.Action;
+import pet.helper.HealthStatus;
+
+/**
+ * Unit tests for {@link PetActor}.
+ * An actor must apply its messages in order with the same result as calling the pet
+ * directly, and must handle a full mailbox as its policy says.
+ */
+public class PetActorTest {
+
+  @Rule
+  public final SilentEvents events = new SilentEvents();
+
+  /**
+   * Tests that random messages give the same state as applying them to a pet directly,
+   * with queries seeing every earlier message.
+   */
+  @Test
+  public void testMatchesDirectCalls() throws Exception {
+    Action[] actions = Action.values();
+    Pet expected = new Pet(3);
+    Pet owned = new Pet(3);
+    expected.startGame(9L);
+    owned.startGame(9L);
+    PetActor actor = new PetActor(owned, 64, OverflowPolicy.BLOCK);
+    Random random = new Random(2);
+    List<CompletableFuture<String>> answers = new ArrayList<>();
+    List<String> wanted = new ArrayList<>();
+    for (int i = 0; i < 2_000; i++) {
+      int pick = random.nextInt(10);
+      if (pick < 4) {
+        expected.step();
+        assertTrue(actor.step());
+      } else if (pick < 9) {
+        // Repeats give the actor runs to merge.
+        Action action = actions[random.nextInt(2)];
+        expected.interactWith(action);
+        assertTrue(actor.interact(action));
+      } else {
+        wanted.add(expected.getHealth() + " " + expected.getMood());
+        answers.add(actor.ask(pet -> pet.getHealth() + " " + pet.getMood()));
+      }
+    }
+    for (int i = 0; i < answers.size(); i++) {
+      assertEquals("answer " + i, wanted.get(i), answers.get(i).get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(expected.getHealth().toString(),
+        actor.health().get(5, TimeUnit.SECONDS).toString());
+  }
+
+  /**
+   * Tests that messages queued while the actor is busy are applied in one batch.
+   */
+  @Test
+  public void testQueuedMessagesBatched() throws Exception {
+    PetActor actor = new PetActor(started(), 16, OverflowPolicy.BLOCK);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Boolean> blocker = stall(actor, release);
+    long batchesBefore = actor.getBatchCount();
+    for (int i = 0; i < 10; i++) {
+      actor.interact(Action.FEED);
+    }
+    // The running query keeps its slot until its batch is done.
+    assertEquals(11, actor.getQueueDepth());
+    release.countDown();
+    assertTrue(blocker.get(5, TimeUnit.SECONDS));
+    actor.health().get(5, TimeUnit.SECONDS);
+    awaitProcessed(actor, 12);
+    assertTrue(actor.getBatchCount() - batchesBefore <= 3);
+  }
+
+  /**
+   * Tests that a full mailbox drops messages under {@link OverflowPolicy#DROP}.
+   */
+  @Test
+  public void testDropPolicy() throws Exception {
+    PetActor actor = new PetActor(started(), 4, OverflowPolicy.DROP);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Boolean> blocker = stall(actor, release);
+    for (int i = 0; i < 3; i++) {
+      assertTrue(actor.step());
+    }
+    assertFalse(actor.step());
+    assertTrue(actor.health().isCompletedExceptionally());
+    assertEquals(2, actor.getDroppedCount());
+    release.countDown();
+    blocker.get(5, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Tests that a full mailbox rejects messages under {@link OverflowPolicy#FAIL}.
+   */
+  @Test
+  public void testFailPolicy() throws Exception {
+    PetActor actor = new PetActor(started(), 3, OverflowPolicy.FAIL);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Boolean> blocker = stall(actor, release);
+    actor.step();
+    actor.step();
+    try {
+      actor.interact(Action.PLAY);
+      throw new AssertionError("Expected a rejection");
+    } catch (RejectedExecutionException expected) {
+      assertEquals(1, actor.getDroppedCount());
+    }
+    release.countDown();
+    blocker.get(5, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Tests that a sender waits for room under {@link OverflowPolicy#BLOCK} and that its
+   * message is applied afterwards.
+   */
+  @Test
+  public void testBlockPolicy() throws Exception {
+    PetActor actor = new PetActor(started(), 2, OverflowPolicy.BLOCK);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Boolean> blocker = stall(actor, release);
+    actor.step();
+    CompletableFuture<Boolean> sent = CompletableFuture.supplyAsync(actor::step);
+    try {
+      sent.get(100, TimeUnit.MILLISECONDS);
+      throw new AssertionError("Expected the sender to wait");
+    } catch (TimeoutException expected) {
+      // The mailbox is full until the blocker returns.
+    }
+    release.countDown();
+    assertTrue(sent.get(5, TimeUnit.SECONDS));
+    blocker.get(5, TimeUnit.SECONDS);
+    actor.health().get(5, TimeUnit.SECONDS);
+    awaitProcessed(actor, 4);
+    assertEquals(0, actor.getDroppedCount());
+  }
+
+  /**
+   * Tests that an error thrown by a query completes its future and leaves the actor
+   * working.
+   */
+  @Test
+  public void testQueryError() throws Exception {
+    PetActor actor = new PetActor(started(), 8, OverflowPolicy.BLOCK);
+    CompletableFuture<Object> failed = actor.ask(pet -> {
+      throw new AssertionError("query failed");
+    });
+    try {
+      failed.get(5, TimeUnit.SECONDS);
+      throw new AssertionError("Expected the query to fail");
+    } catch (ExecutionException expected) {
+      assertTrue(expected.getCause() instanceof AssertionError);
+    }
+    assertEquals(50, actor.health().get(5, TimeUnit.SECONDS).getHunger());
+  }
+
+  /**
+   * Tests that a batch whose application throws fails its pending queries, reports the
+   * error to the failure handler, and that the actor applies messages sent afterwards.
+   */
+  @Test
+  public void testFailedBatchReleased() throws Exception {
+    Pet pet = started();
+    AtomicBoolean armed = new AtomicBoolean();
+    pet.addListener(new PetListener() {
+      @Override
+      public void healthChanged(long petId, HealthStatus health) {
+        if (armed.getAndSet(false)) {
+          throw new AssertionError("listener failed");
+        }
+      }
+    });
+    PetActor actor = new PetActor(pet, 8, OverflowPolicy.BLOCK);
+    CompletableFuture<Throwable> reported = new CompletableFuture<>();
+    actor.setFailureHandler(reported::complete);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Boolean> blocker = stall(actor, release);
+    actor.step();
+    CompletableFuture<HealthStatus> lost = actor.health();
+    armed.set(true);
+    release.countDown();
+    blocker.get(5, TimeUnit.SECONDS);
+    try {
+      lost.get(5, TimeUnit.SECONDS);
+      throw new AssertionError("Expected the batch to fail");
+    } catch (ExecutionException expected) {
+      assertTrue(expected.getCause() instanceof AssertionError);
+    }
+    assertEquals("listener failed", reported.get(5, TimeUnit.SECONDS).getMessage());
+    actor.step();
+    assertTrue(actor.health().get(5, TimeUnit.SECONDS).getHunger() < 50);
+    // The abandoned step and query are not counted.
+    awaitProcessed(actor, 3);
+    assertEquals(0, actor.getQueueDepth());
+  }
+
+  private static Pet started() {
+    Pet pet = new Pet(1);
+    pet.startGame(4L);
+    return pet;
+  }
+
+  /**
+   * Waits for the count to reach the expected value: a query is answered before the rest
+   * of its batch is counted.
+   */
+  private static void awaitProcessed(PetActor actor, long expected)
+      throws InterruptedException {
+    for (int i = 0; i < 500 && actor.getProcessedCount() < expected; i++) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+    assertEquals(expected, actor.getProcessedCount());
+  }
+
+  /**
+   * Occupies the actor with a query that waits for the latch, so later messages queue.
+   */
+  private static CompletableFuture<Boolean> stall(PetActor actor, CountDownLatch release)
+      throws InterruptedException {
+    CountDownLatch running = new CountDownLatch(1);
+    CompletableFuture<Boolean> blocker = actor.ask(pet -> {
+      running.countDown();
+      try {
+        return release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        return false;
+      }
+    });
+    assertTrue(running.await(5, TimeUnit.SECONDS));
+    return blocker;
+  }
+}
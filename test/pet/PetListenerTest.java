@@ -0,0 +1,233 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import pet.event.PetEvent;
+import pet.event.PetListener;
+import pet.helper.Action;
+import pet.helper.HealthStatus;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.Personality;
+import pet.population.PetPopulation;
+
+/**
+ * Unit tests for {@link PetListener} notifications from {@link Pet}.
+ */
+public class PetListenerTest {
+
+  @Rule
+  public final SilentEvents events = new SilentEvents();
+
+  private Pet pet;
+  private Recorder recorder;
+
+  /**
+   * Starts a {@link Personality#Glutton} pet, whose hunger drops by 4 per happy step.
+   */
+  @Before
+  public void setUp() {
+    pet = new Pet(7);
+    pet.startGame(1L);
+    pet.setPersonality(Personality.Glutton);
+    recorder = new Recorder();
+  }
+
+  /**
+   * Tests that a need crossing 20 and the mood flip it causes are reported together, with
+   * the health after the step, and that recovering reports both back.
+   */
+  @Test
+  public void testThresholdCrossingAndMoodFlip() {
+    pet.adjustNeeds(-26, 0, 0, 0);
+    pet.addListener(recorder);
+
+    pet.step();
+    assertEquals(List.of("7 NEEDS_FEED low 20", "7 mood SAD 20"), recorder.events);
+
+    recorder.events.clear();
+    pet.step();
+    assertEquals("No crossing, no events", List.of(), recorder.events);
+
+    pet.interactWith(Action.FEED);
+    assertEquals(2, recorder.events.size());
+    assertTrue(recorder.events.get(0).startsWith("7 NEEDS_FEED ok "));
+    assertTrue(recorder.events.get(1).startsWith("7 mood HAPPY "));
+  }
+
+  /**
+   * Tests that death is reported once, after the events of the same step.
+   */
+  @Test
+  public void testDeathReportedOnce() {
+    pet.adjustNeeds(-46, 0, 0, 0);
+    pet.addListener(recorder);
+
+    pet.step();
+    assertEquals(List.of("7 NEEDS_FEED low 0", "7 mood SAD 0", "7 died 0"), recorder.events);
+    pet.step();
+    pet.advance(100);
+    assertEquals(3, recorder.events.size());
+  }
+
+  /**
+   * Tests that a crossing made while nobody listened is not reported to a listener added
+   * later, and that a manual mood change is reported.
+   */
+  @Test
+  public void testLateListenerAndManualMood() {
+    pet.adjustNeeds(-26, 0, 0, 0);
+    pet.step();
+    pet.addListener(recorder);
+
+    pet.step();
+    assertEquals(List.of(), recorder.events);
+    pet.setMood(MoodEnum.HAPPY);
+    assertEquals(List.of("7 mood HAPPY 14"), recorder.events);
+  }
+
+  /**
+   * Tests that the closed form of {@link Pet#advance(long)} reports every crossing it
+   * jumps to.
+   */
+  @Test
+  public void testAdvanceReportsCrossings() {
+    pet.addListener(recorder);
+    pet.advance(1000);
+    assertEquals("7 died 0", recorder.events.get(recorder.events.size() - 1));
+    assertTrue(recorder.events.contains("7 NEEDS_FEED low 18"));
+    assertTrue(recorder.events.contains("7 mood SAD 18"));
+  }
+
+  /**
+   * Tests that every change of the needs is reported once, and that a step of a dead pet
+   * reports nothing.
+   */
+  @Test
+  public void testHealthChangedPerStep() {
+    List<Integer> hunger = new ArrayList<>();
+    pet.addListener(new PetListener() {
+      @Override
+      public void healthChanged(long petId, HealthStatus health) {
+        hunger.add(health.getHunger());
+      }
+    });
+    pet.step();
+    pet.step();
+    pet.setMood(MoodEnum.HAPPY);
+    assertEquals(List.of(46, 42), hunger);
+
+    pet.advance(1000);
+    int reported = hunger.size();
+    pet.step();
+    assertEquals(reported, hunger.size());
+  }
+
+  /**
+   * Tests that listeners added or removed during a notification only take effect from the
+   * next one, and that a removed listener hears nothing more.
+   */
+  @Test
+  public void testCopyOnWriteDuringNotification() {
+    Recorder late = new Recorder();
+    PetListener swapper = new PetListener() {
+      @Override
+      public void moodChanged(long petId, MoodEnum mood, HealthStatus health) {
+        pet.removeListener(this);
+        pet.addListener(late);
+      }
+    };
+    pet.addListener(swapper);
+    pet.addListener(recorder);
+
+    pet.setMood(MoodEnum.SAD);
+    assertEquals(List.of("7 mood SAD 50"), recorder.events);
+    assertEquals(List.of(), late.events);
+
+    pet.setMood(MoodEnum.HAPPY);
+    assertEquals(List.of("7 mood HAPPY 50"), late.events);
+
+    pet.removeListener(recorder);
+    pet.removeListener(late);
+    pet.removeListener(late);
+    pet.setMood(MoodEnum.SAD);
+    assertEquals(2, recorder.events.size());
+    assertEquals(1, late.events.size());
+  }
+
+  /**
+   * Tests that models without change reporting say so and ignore listeners.
+   */
+  @Test
+  public void testUnsupportedModel() {
+    PetInterface unsupported = new PetPopulation(1).get(0);
+    assertFalse(unsupported.supportsListeners());
+    unsupported.startGame();
+    unsupported.addListener(recorder);
+    unsupported.advance(1000);
+    assertFalse(unsupported.isAlive());
+    assertEquals(List.of(), recorder.events);
+  }
+
+  /**
+   * Tests that a {@link ConcurrentPet} used from one thread reports the same events as a
+   * {@link Pet} with the same id and seed, through random steps and interactions until
+   * death.
+   */
+  @Test
+  public void testConcurrentPetReportsLikePet() {
+    ConcurrentPet concurrent = new ConcurrentPet(7);
+    concurrent.startGame(1L);
+    concurrent.setPersonality(Personality.Glutton);
+    Recorder concurrentRecorder = new Recorder();
+    assertTrue(concurrent.supportsListeners());
+    pet.addListener(recorder);
+    concurrent.addListener(concurrentRecorder);
+
+    Random random = new Random(3);
+    Action[] actions = Action.values();
+    while (pet.isAlive()) {
+      if (random.nextInt(4) == 0) {
+        Action action = actions[random.nextInt(actions.length)];
+        pet.interactWith(action);
+        concurrent.interactWith(action);
+      } else {
+        pet.step();
+        concurrent.step();
+      }
+    }
+    assertFalse(concurrent.isAlive());
+    assertTrue(recorder.events.size() > 1);
+    assertEquals(recorder.events, concurrentRecorder.events);
+  }
+
+  /**
+   * Records events as "id kind value hunger".
+   */
+  private static final class Recorder implements PetListener {
+
+    private final List<String> events = new ArrayList<>();
+
+    @Override
+    public void moodChanged(long petId, MoodEnum mood, HealthStatus health) {
+      events.add(petId + " mood " + mood + " " + health.getHunger());
+    }
+
+    @Override
+    public void needChanged(long petId, PetEvent need, boolean low, HealthStatus health) {
+      events.add(petId + " " + need + (low ? " low " : " ok ") + health.getHunger());
+    }
+
+    @Override
+    public void died(long petId, HealthStatus health) {
+      events.add(petId + " died " + health.getHunger());
+    }
+  }
+}
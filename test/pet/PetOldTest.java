@@ -6,7 +6,9 @@ import static org.junit.Assert.assertTrue;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import pet.event.PetEvents;
 import pet.helper.Action;
 import pet.helper.HealthStatus;
 import pet.helper.mood.MoodEnum;
@@ -16,6 +18,9 @@ import pet.helper.mood.MoodEnum;
  */
 public class PetOldTest {
 
+  @Rule
+  public final SilentEvents events = new SilentEvents();
+
   private PetOld pet;
   private ByteArrayOutputStream outputStream;
   private PrintStream originalOut;
@@ -325,14 +330,16 @@ public class PetOldTest {
    */
   @Test
   public void testNeedsImproves() {
-    // Step 1: Capture System.out
+    // Step 1: Capture System.out, where the default event sink writes
+    PetEvents.setSink(events.getPrevious());
     System.setOut(new PrintStream(outputStream));
 
     // Simulate 10 steps of time with no interactions
     for (int i = 0; i < 16; i++) {
       pet.step();
     }
-    // Step 3: Restore System.out
+    // Step 3: Wait for the event writer, then restore System.out
+    PetEvents.flush();
     System.setOut(originalOut);
     // Step 4: Verify output
     String capturedOutput = outputStream.toString().trim();
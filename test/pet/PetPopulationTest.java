@@ -0,0 +1,128 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import pet.helper.Action;
+import pet.helper.HealthStatus;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.Personality;
+import pet.population.PetPopulation;
+
+/**
+ * Unit tests for {@link PetPopulation} and its {@link PetInterface} handles.
+ * <p>
+ * Pooled pets must behave exactly like standalone {@link Pet} objects
+ * for every deterministic personality.
+ */
+public class PetPopulationTest {
+
+  private static final Personality[] DETERMINISTIC = {
+      Personality.Glutton, Personality.Lazy, Personality.Energetic,
+      Personality.Mysophobia, Personality.Needy, Personality.Aloof
+  };
+
+  @Rule
+  public final SilentEvents events = new SilentEvents();
+
+  private PetPopulation population;
+
+  /**
+   * Creates a small population and starts every pet.
+   */
+  @Before
+  public void setUp() {
+    population = new PetPopulation(DETERMINISTIC.length);
+    population.startAll();
+    for (int i = 0; i < DETERMINISTIC.length; i++) {
+      population.get(i).setPersonality(DETERMINISTIC[i]);
+    }
+  }
+
+  /**
+   * Verifies that a started handle matches a freshly started pet.
+   */
+  @Test
+  public void testHandleInitialization() {
+    PetInterface handle = population.get(0);
+    HealthStatus health = handle.getHealth();
+
+    assertEquals(50, health.getHunger());
+    assertEquals(50, health.getHygiene());
+    assertEquals(50, health.getSocial());
+    assertEquals(50, health.getSleep());
+    assertEquals(MoodEnum.HAPPY, handle.getMood());
+    assertTrue(handle.isAlive());
+    assertEquals(DETERMINISTIC.length, population.aliveCount());
+  }
+
+  /**
+   * Verifies that {@code stepAll()} and interactions through handles produce the same
+   * state as standalone pets, through mood flips and until every pet has died.
+   */
+  @Test
+  public void testStepAllMatchesPet() {
+    Pet[] pets = new Pet[DETERMINISTIC.length];
+    for (int i = 0; i < pets.length; i++) {
+      pets[i] = new Pet();
+      pets[i].startGame();
+      pets[i].setPersonality(DETERMINISTIC[i]);
+    }
+
+    for (int tick = 0; tick < 60; tick++) {
+      population.stepAll();
+      for (Pet pet : pets) {
+        pet.step();
+      }
+      if (tick % 7 == 0) {
+        Action action = Action.values()[tick % Action.values().length];
+        for (int i = 0; i < pets.length; i++) {
+          population.get(i).interactWith(action);
+          pets[i].interactWith(action);
+        }
+      }
+      for (int i = 0; i < pets.length; i++) {
+        assertSameState("tick " + tick + " pet " + i, pets[i], population.get(i));
+      }
+    }
+    assertEquals(0, population.aliveCount());
+  }
+
+  /**
+   * Verifies that a handle clamps needs and triggers death like {@link Pet}.
+   */
+  @Test
+  public void testHandleAdjustAndDeath() {
+    PetInterface handle = population.get(2);
+    handle.adjustNeeds(1000, 0, -1000, 0);
+    assertEquals(100, handle.getHealth().getHunger());
+    assertEquals(0, handle.getHealth().getSocial());
+    assertTrue(handle.needPlay());
+    assertFalse(handle.needFeed());
+
+    handle.step();
+    assertFalse("Pet with social 0 should die", handle.isAlive());
+    HealthStatus before = handle.getHealth();
+    handle.interactWith(Action.PLAY);
+    assertEquals(before.toString(), handle.getHealth().toString());
+  }
+
+  /**
+   * Verifies that indexes outside the population are rejected.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testInvalidIndex() {
+    population.get(DETERMINISTIC.length);
+  }
+
+  private static void assertSameState(String message, PetInterface expected,
+      PetInterface actual) {
+    assertEquals(message, expected.getHealth().toString(), actual.getHealth().toString());
+    assertEquals(message, expected.getMood(), actual.getMood());
+    assertEquals(message, expected.isAlive(), actual.isAlive());
+  }
+}
@@ -0,0 +1,162 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import pet.helper.Action;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.Personality;
+import pet.persist.PetStore;
+import pet.persist.StoredPet;
+
+/**
+ * Unit tests for {@link PetStore} and its {@link StoredPet} handles.
+ * Stored pets must behave exactly like {@link Pet} objects with the same id and seed,
+ * and must survive closing and reopening the store.
+ */
+public class PetStoreTest {
+
+  private static final int PETS = 64;
+
+  @Rule
+  public final SilentEvents events = new SilentEvents();
+
+  private Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    file = Files.createTempFile("pet-store", ".pets");
+    Files.delete(file);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  /**
+   * Tests every personality, including random steps, against standalone pets.
+   */
+  @Test
+  public void testMatchesPet() throws IOException {
+    Random random = new Random(12);
+    Pet[] pets = new Pet[PETS];
+    try (PetStore store = PetStore.open(file, PETS)) {
+      store.startAll(33L);
+      for (int i = 0; i < PETS; i++) {
+        pets[i] = new Pet(i);
+        pets[i].startGame(33L);
+        assertEquals(pets[i].getPersonality(), store.get(i).getPersonality());
+        Personality personality = Personality.values()[i % Personality.values().length];
+        pets[i].setPersonality(personality);
+        store.get(i).setPersonality(personality);
+      }
+      for (int tick = 0; tick < 120; tick++) {
+        for (Pet pet : pets) {
+          pet.step();
+        }
+        store.stepAll();
+        for (int n = 0; n < 8; n++) {
+          int index = random.nextInt(PETS);
+          Action action = Action.values()[random.nextInt(Action.values().length)];
+          pets[index].interactWith(action);
+          store.get(index).interactWith(action);
+        }
+      }
+      for (int i = 0; i < PETS; i++) {
+        assertSame("pet " + i, pets[i], store.get(i));
+      }
+    }
+  }
+
+  /**
+   * Tests that a reopened store holds the pets as they were left and keeps stepping them
+   * like the originals.
+   */
+  @Test
+  public void testStateSurvivesReopen() throws IOException {
+    Pet[] pets = new Pet[PETS];
+    try (PetStore store = PetStore.open(file, PETS)) {
+      store.startAll(8L);
+      for (int i = 0; i < PETS; i++) {
+        pets[i] = new Pet(i);
+        pets[i].startGame(8L);
+      }
+      for (int tick = 0; tick < 10; tick++) {
+        store.stepAll();
+        for (Pet pet : pets) {
+          pet.step();
+        }
+      }
+      store.get(3).adjustNeeds(-15, 4, 0, 0);
+      store.get(3).setMood(MoodEnum.SAD);
+      pets[3].adjustNeeds(-15, 4, 0, 0);
+      pets[3].setMood(MoodEnum.SAD);
+    }
+    try (PetStore store = PetStore.open(file, 0)) {
+      assertEquals(PETS, store.size());
+      for (int tick = 0; tick < 30; tick++) {
+        store.stepAll();
+        for (Pet pet : pets) {
+          pet.step();
+        }
+      }
+      for (int i = 0; i < PETS; i++) {
+        assertSame("pet " + i, pets[i], store.get(i));
+      }
+    }
+  }
+
+  /**
+   * Tests that opening with a larger size grows the store and keeps existing pets.
+   */
+  @Test
+  public void testGrow() throws IOException {
+    try (PetStore store = PetStore.open(file, 4)) {
+      store.startAll(1L);
+      store.step(2);
+    }
+    try (PetStore store = PetStore.open(file, 10)) {
+      assertEquals(10, store.size());
+      assertEquals(1, store.get(2).getTick());
+      assertEquals(4, store.aliveCount());
+      assertTrue(Files.size(file) >= PetStore.HEADER_SIZE + 10L * PetStore.RECORD_SIZE);
+    }
+  }
+
+  /**
+   * Tests that a file that is not a store is rejected.
+   */
+  @Test(expected = IOException.class)
+  public void testRejectsForeignFile() throws IOException {
+    Files.write(file, new byte[128]);
+    PetStore.open(file, 1).close();
+  }
+
+  /**
+   * Tests that indexes outside the store are rejected.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testIndexOutOfRange() throws IOException {
+    try (PetStore store = PetStore.open(file, 2)) {
+      store.get(2);
+    }
+  }
+
+  private static void assertSame(String message, Pet expected, StoredPet actual) {
+    assertEquals(message, expected.getPackedNeeds(), actual.getPackedNeeds());
+    assertEquals(message, expected.getMood(), actual.getMood());
+    assertEquals(message, expected.getPersonality(), actual.getPersonality());
+    assertEquals(message, expected.isAlive(), actual.isAlive());
+    assertEquals(message, expected.getTick(), actual.getTick());
+    assertEquals(message, expected.needFeed(), actual.needFeed());
+  }
+}
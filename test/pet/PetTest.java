@@ -5,6 +5,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import pet.helper.Action;
 import pet.helper.HealthStatus;
@@ -19,6 +20,9 @@ import pet.helper.personality.Personality;
  */
 public class PetTest {
 
+  @Rule
+  public final SilentEvents events = new SilentEvents();
+
   private PetInterface pet;
 
   /**
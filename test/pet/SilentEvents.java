@@ -0,0 +1,37 @@
+package pet;
+
+import org.junit.rules.ExternalResource;
+import pet.event.EventSink;
+import pet.event.PetEvents;
+
+/**
+ * The {@code SilentEvents} rule discards pet events for the duration of each test, so
+ * pets that get sad or die do not print to the test output through the default sink.
+ * The sink in place before the test is restored afterwards.
+ * <p>
+ * Usage: {@code @Rule public final SilentEvents events = new SilentEvents();}
+ */
+public class SilentEvents extends ExternalResource {
+
+  private EventSink previous;
+
+  @Override
+  protected void before() {
+    previous = PetEvents.setSink(EventSink.none());
+  }
+
+  @Override
+  protected void after() {
+    PetEvents.setSink(previous);
+  }
+
+  /**
+   * Returns the sink that was in place before the test, for a test that checks what it
+   * prints.
+   *
+   * @return the previous sink
+   */
+  public EventSink getPrevious() {
+    return previous;
+  }
+}
@@ -0,0 +1,196 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pet.persist.EventJournal;
+import pet.persist.FsyncPolicy;
+import pet.persist.PopulationCheckpointer;
+import pet.persist.PopulationRecovery;
+import pet.persist.SnapshotStore;
+import pet.population.DecayKernel;
+import pet.population.PetPopulation;
+import pet.population.PopulationSnapshot;
+
+/**
+ * Unit tests for population snapshots and crash recovery.
+ * A population recovered from a snapshot plus the journal tail must equal the live one.
+ */
+public class SnapshotRecoveryTest {
+
+  private static final int PETS = 300;
+
+  private Path directory;
+  private Path journalFile;
+  private SnapshotStore store;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("snapshot-test");
+    journalFile = directory.resolve("pets.journal");
+    store = new SnapshotStore(directory.resolve("snapshots"));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  /**
+   * Tests that a written and loaded snapshot restores every pet, and that the restored
+   * population keeps evolving exactly like the original.
+   */
+  @Test
+  public void testSnapshotRoundTrip() throws IOException {
+    PetPopulation population = new PetPopulation(PETS);
+    population.startAll(17L);
+    for (int tick = 0; tick < 12; tick++) {
+      population.stepAll(DecayKernel.scalar());
+    }
+    store.write(population.snapshot(), 42);
+
+    SnapshotStore.Entry entry = store.loadLatest();
+    assertNotNull(entry);
+    assertEquals(42, entry.getSequence());
+    PetPopulation restored = PetPopulation.restore(entry.getSnapshot());
+    JournaledPopulations.assertSamePets("restored", population, restored);
+
+    for (int tick = 0; tick < 40; tick++) {
+      population.stepAll(DecayKernel.scalar());
+      restored.stepAll(DecayKernel.scalar());
+    }
+    JournaledPopulations.assertSamePets("stepped", population, restored);
+  }
+
+  /**
+   * Tests that step counters past the {@code int} range keep counting and survive a
+   * snapshot.
+   */
+  @Test
+  public void testLargeTickRoundTrip() throws IOException {
+    PetPopulation population = new PetPopulation(PETS);
+    population.startAll(23L);
+    PopulationSnapshot started = population.snapshot();
+    long[] tick = new long[PETS];
+    Arrays.fill(tick, Integer.MAX_VALUE);
+    PetPopulation large = PetPopulation.restore(new PopulationSnapshot(started.hunger(),
+        started.hygiene(), started.social(), started.sleep(), started.alive(), started.mood(),
+        started.personality(), started.stream(), tick));
+    large.stepAll(DecayKernel.create());
+    store.write(large.snapshot(), 1);
+
+    PetPopulation restored = PetPopulation.restore(store.loadLatest().getSnapshot());
+    JournaledPopulations.assertSamePets("restored", large, restored);
+    restored.stepAll(DecayKernel.grouped());
+    for (int i = 0; i < PETS; i++) {
+      assertEquals(Integer.MAX_VALUE + 2L, restored.get(i).getTick());
+    }
+  }
+
+  /**
+   * Tests that recovery from periodic snapshots replays only the journal tail and rebuilds
+   * the live population.
+   */
+  @Test
+  public void testRecoveryReplaysOnlyTail() throws IOException {
+    PetPopulation live = new PetPopulation(PETS);
+    long records;
+    try (EventJournal journal =
+        new EventJournal(journalFile, FsyncPolicy.GROUP, 256, 1, TimeUnit.MILLISECONDS)) {
+      JournaledPopulations.start(live, journal, 3L);
+      try (PopulationCheckpointer checkpointer =
+          new PopulationCheckpointer(live, journal, store, 10)) {
+        JournaledPopulations.run(live, journal, checkpointer, 35, new Random(8));
+      }
+      records = journal.appendedCount();
+    }
+
+    PopulationRecovery recovery = PopulationRecovery.recover(store, journalFile, PETS);
+    String counts = "snapshot " + recovery.getSnapshotSequence() + " replayed "
+        + recovery.getReplayedCount() + " of " + records;
+    assertTrue(counts, recovery.getSnapshotSequence() > 0);
+    assertEquals(counts, records, recovery.getSnapshotSequence() + recovery.getReplayedCount());
+    // The first snapshot is always taken; later ones may be skipped while it is written.
+    assertTrue(counts, recovery.getSnapshotSequence() >= PETS + 10 * 21);
+    JournaledPopulations.assertSamePets("recovered", live, recovery.getPopulation());
+  }
+
+  /**
+   * Tests that a damaged latest snapshot is skipped in favor of the one before it.
+   */
+  @Test
+  public void testDamagedSnapshotFallsBack() throws IOException {
+    PetPopulation live = new PetPopulation(PETS);
+    try (EventJournal journal = EventJournal.open(journalFile, FsyncPolicy.NEVER)) {
+      JournaledPopulations.start(live, journal, 5L);
+      try (PopulationCheckpointer checkpointer =
+          new PopulationCheckpointer(live, journal, store, 1)) {
+        Random random = new Random(2);
+        for (int round = 0; round < 3; round++) {
+          JournaledPopulations.run(live, journal, null, 4, random);
+          checkpointer.checkpoint().join();
+        }
+      }
+    }
+    Path latest = store.loadLatest().getPath();
+    try (FileChannel channel = FileChannel.open(latest, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), 100);
+    }
+
+    PopulationRecovery recovery = PopulationRecovery.recover(store, journalFile, PETS);
+    assertTrue(recovery.getReplayedCount() > 0);
+    JournaledPopulations.assertSamePets("fallback", live, recovery.getPopulation());
+  }
+
+  /**
+   * Tests that without any snapshot the whole journal is replayed.
+   */
+  @Test
+  public void testRecoveryWithoutSnapshot() throws IOException {
+    assertNull(store.loadLatest());
+    PetPopulation live = new PetPopulation(PETS);
+    try (EventJournal journal = EventJournal.open(journalFile, FsyncPolicy.NEVER)) {
+      JournaledPopulations.start(live, journal, 9L);
+      JournaledPopulations.run(live, journal, null, 20, new Random(4));
+    }
+    PopulationRecovery recovery = PopulationRecovery.recover(store, journalFile, PETS);
+    assertEquals(0, recovery.getSnapshotSequence());
+    JournaledPopulations.assertSamePets("full replay", live, recovery.getPopulation());
+  }
+
+  /**
+   * Tests that retention keeps only the newest snapshots.
+   */
+  @Test
+  public void testRetention() throws IOException {
+    PetPopulation population = new PetPopulation(10);
+    population.startAll(1L);
+    for (long sequence = 1; sequence <= 5; sequence++) {
+      store.write(population.snapshot(), sequence);
+    }
+    try (Stream<Path> files = Files.list(store.getDirectory())) {
+      assertEquals(SnapshotStore.DEFAULT_RETAINED, files.count());
+    }
+    assertEquals(5, store.loadLatest().getSequence());
+  }
+}
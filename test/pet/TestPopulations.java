@@ -0,0 +1,41 @@
+package pet;
+
+import java.util.Random;
+import pet.helper.personality.Personality;
+import pet.population.PetPopulation;
+
+/**
+ * The {@code TestPopulations} class builds the seeded populations that the population
+ * stepping tests compare against each other.
+ */
+final class TestPopulations {
+
+  private TestPopulations() {
+  }
+
+  /**
+   * Builds a started population of random personalities whose needs are each moved by a
+   * random amount from {@code lowestDelta} to 20, so that pets die and change mood at
+   * different ticks. The same arguments always give the same population.
+   *
+   * @param size        the number of pets
+   * @param seed        the seed of the pets and of the random personalities and needs
+   * @param lowestDelta the lowest change to each need, at most 0
+   * @return the population
+   */
+  static PetPopulation create(int size, long seed, int lowestDelta) {
+    Random random = new Random(seed);
+    Personality[] personalities = Personality.values();
+    int range = 21 - lowestDelta;
+    PetPopulation population = new PetPopulation(size);
+    population.startAll(seed);
+    for (int i = 0; i < size; i++) {
+      PetInterface pet = population.get(i);
+      pet.setPersonality(personalities[random.nextInt(personalities.length)]);
+      pet.adjustNeeds(random.nextInt(range) + lowestDelta,
+          random.nextInt(range) + lowestDelta, random.nextInt(range) + lowestDelta,
+          random.nextInt(range) + lowestDelta);
+    }
+    return population;
+  }
+}
@@ -0,0 +1,142 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import org.junit.Rule;
+import org.junit.Test;
+import pet.helper.Action;
+import pet.helper.mood.MoodEnum;
+import pet.helper.personality.Personality;
+import pet.sim.ThresholdScheduler;
+
+/**
+ * Unit tests for {@link ThresholdScheduler}.
+ * The scheduler must report the same events and expose the same pet states as stepping
+ * every pet on every tick.
+ */
+public class ThresholdSchedulerTest {
+
+  private static final int SIZE = 300;
+
+  @Rule
+  public final SilentEvents events = new SilentEvents();
+
+  /**
+   * Tests events and states against a reference that steps every pet each tick, with
+   * interactions interleaved, until every pet has died.
+   */
+  @Test
+  public void testMatchesSteppingEveryPet() {
+    List<String> expectedEvents = new ArrayList<>();
+    List<String> actualEvents = new ArrayList<>();
+    ThresholdScheduler scheduler = new ThresholdScheduler(recorder(actualEvents));
+    Pet[] reference = createPets();
+    for (Pet pet : createPets()) {
+      scheduler.add(pet);
+    }
+
+    for (long tick = 1; tick <= 300; tick++) {
+      for (int id = 0; id < SIZE; id++) {
+        observe(reference[id], id, tick, expectedEvents, Pet::step);
+      }
+      scheduler.tick();
+      if (tick % 13 == 0 && tick < 150) {
+        Action action = Action.values()[(int) (tick % Action.values().length)];
+        for (int id = (int) (tick % 7); id < SIZE; id += 7) {
+          observe(reference[id], id, tick, expectedEvents, pet -> pet.interactWith(action));
+          scheduler.interactWith(id, action);
+        }
+      }
+      if (tick % 10 == 0) {
+        for (int id = 0; id < SIZE; id++) {
+          Pet pet = scheduler.get(id);
+          String message = "tick " + tick + " pet " + id;
+          assertEquals(message, reference[id].getHealth().toString(),
+              pet.getHealth().toString());
+          assertEquals(message, reference[id].getMood(), pet.getMood());
+          assertEquals(message, reference[id].isAlive(), pet.isAlive());
+        }
+      }
+      assertEquals("events up to tick " + tick, expectedEvents, actualEvents);
+    }
+    assertEquals(0, scheduler.pendingCount());
+  }
+
+  /**
+   * Tests that a long jump processes only the threshold crossings, not every tick.
+   */
+  @Test
+  public void testIdleTicksAreSkipped() {
+    int[] wakeUps = new int[1];
+    ThresholdScheduler scheduler = new ThresholdScheduler(new ThresholdScheduler.Listener() {
+      @Override
+      public void onMoodChange(int id, long tick, MoodEnum mood) {
+        wakeUps[0]++;
+      }
+    });
+    Pet pet = new Pet();
+    pet.startGame(3L);
+    pet.setPersonality(Personality.Lazy);
+    scheduler.add(pet);
+
+    scheduler.advanceTo(1_000_000);
+    assertEquals(1, wakeUps[0]);
+    assertFalse(scheduler.get(0).isAlive());
+    assertEquals(0, scheduler.pendingCount());
+  }
+
+  /**
+   * Tests that the clock cannot move backwards.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testCannotGoBack() {
+    ThresholdScheduler scheduler = new ThresholdScheduler(new ThresholdScheduler.Listener() {
+    });
+    scheduler.advanceTo(5);
+    scheduler.advanceTo(4);
+  }
+
+  private static Pet[] createPets() {
+    Random random = new Random(99);
+    Pet[] pets = new Pet[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      pets[i] = new Pet(i);
+      pets[i].startGame(12345L);
+      pets[i].adjustNeeds(random.nextInt(61) - 25, random.nextInt(61) - 25,
+          random.nextInt(61) - 25, random.nextInt(61) - 25);
+    }
+    return pets;
+  }
+
+  private static void observe(Pet pet, int id, long tick, List<String> events,
+      Consumer<Pet> change) {
+    MoodEnum mood = pet.getMood();
+    boolean alive = pet.isAlive();
+    change.accept(pet);
+    if (alive && !pet.isAlive()) {
+      events.add(tick + " " + id + " died");
+    }
+    if (pet.getMood() != mood) {
+      events.add(tick + " " + id + " " + pet.getMood());
+    }
+  }
+
+  private static ThresholdScheduler.Listener recorder(List<String> events) {
+    return new ThresholdScheduler.Listener() {
+      @Override
+      public void onMoodChange(int id, long tick, MoodEnum mood) {
+        events.add(tick + " " + id + " " + mood);
+      }
+
+      @Override
+      public void onDeath(int id, long tick) {
+        events.add(tick + " " + id + " died");
+      }
+    };
+  }
+}
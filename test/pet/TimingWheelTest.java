@@ -0,0 +1,140 @@
+package pet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import pet.helper.personality.Personality;
+import pet.sim.PetTimers;
+import pet.sim.TimerHandle;
+import pet.sim.TimingWheel;
+import pet.sim.VirtualClock;
+
+/**
+ * Unit tests for {@link TimingWheel} and {@link PetTimers}, driven by a {@link VirtualClock}.
+ */
+public class TimingWheelTest {
+
+  /**
+   * Tests that timers at every level, including the overflow list, fire exactly once
+   * and on their deadline tick.
+   */
+  @Test
+  public void testTimersFireOnDeadline() {
+    VirtualClock clock = new VirtualClock();
+    TimingWheel wheel = new TimingWheel(clock, 1, TimeUnit.MILLISECONDS);
+    Random random = new Random(5);
+    long[] delays = new long[3_000];
+    long[] firedAt = new long[delays.length];
+    for (int i = 0; i < delays.length; i++) {
+      int magnitude = random.nextInt(6);
+      delays[i] = 1 + (long) (random.nextDouble() * Math.pow(64, magnitude));
+      if (i % 500 == 0) {
+        delays[i] = (1L << 30) + random.nextInt(100_000);
+      }
+      int index = i;
+      wheel.schedule(delays[i], TimeUnit.MILLISECONDS, () -> {
+        assertEquals(0, firedAt[index]);
+        firedAt[index] = wheel.currentTick();
+      });
+    }
+    assertEquals(delays.length, wheel.pendingCount());
+
+    long end = (1L << 30) + 200_000;
+    while (wheel.currentTick() < end) {
+      clock.advance(1 + random.nextInt(50_000), TimeUnit.MILLISECONDS);
+      wheel.advance();
+    }
+    for (int i = 0; i < delays.length; i++) {
+      assertEquals("timer " + i, delays[i], firedAt[i]);
+    }
+    assertEquals(0, wheel.pendingCount());
+  }
+
+  /**
+   * Tests that cancelled timers do not fire, including timers cancelled by a callback
+   * in the same slot.
+   */
+  @Test
+  public void testCancel() {
+    VirtualClock clock = new VirtualClock();
+    TimingWheel wheel = new TimingWheel(clock, 10, TimeUnit.MILLISECONDS);
+    List<String> fired = new ArrayList<>();
+    TimerHandle cancelled = wheel.schedule(500, TimeUnit.MILLISECONDS, () -> fired.add("x"));
+    TimerHandle[] second = new TimerHandle[1];
+    wheel.schedule(200, TimeUnit.MILLISECONDS, () -> {
+      fired.add("a");
+      second[0].cancel();
+    });
+    second[0] = wheel.schedule(200, TimeUnit.MILLISECONDS, () -> fired.add("b"));
+    cancelled.cancel();
+    cancelled.cancel();
+    assertEquals(2, wheel.pendingCount());
+
+    clock.advance(1, TimeUnit.SECONDS);
+    wheel.advance();
+    assertEquals(List.of("a"), fired);
+    assertTrue(cancelled.isCancelled());
+    assertFalse(second[0].isPending());
+    assertEquals(0, wheel.pendingCount());
+  }
+
+  /**
+   * Tests periodic timers and their cancellation from within the callback.
+   */
+  @Test
+  public void testPeriodic() {
+    VirtualClock clock = new VirtualClock();
+    TimingWheel wheel = new TimingWheel(clock, 100, TimeUnit.MILLISECONDS);
+    List<Long> ticks = new ArrayList<>();
+    TimerHandle[] handle = new TimerHandle[1];
+    handle[0] = wheel.scheduleAtFixedRate(1, 2, TimeUnit.SECONDS, () -> {
+      ticks.add(wheel.currentTick());
+      if (ticks.size() == 4) {
+        handle[0].cancel();
+      }
+    });
+    clock.advance(1, TimeUnit.MINUTES);
+    assertEquals(4, wheel.advance());
+    assertEquals(List.of(10L, 30L, 50L, 70L), ticks);
+    assertEquals(0, wheel.pendingCount());
+  }
+
+  /**
+   * Tests that pets stepped by {@link PetTimers} match pets stepped by hand.
+   */
+  @Test
+  public void testPetTimers() {
+    VirtualClock clock = new VirtualClock();
+    TimingWheel wheel = new TimingWheel(clock, 50, TimeUnit.MILLISECONDS);
+    PetTimers timers = new PetTimers(wheel);
+    Pet timed = new Pet();
+    timed.startGame(8L);
+    timed.setPersonality(Personality.Needy);
+    Pet manual = new Pet();
+    manual.startGame(8L);
+    manual.setPersonality(Personality.Needy);
+    timers.startStepping(timed);
+    boolean[] ready = new boolean[1];
+    timers.startCooldown(() -> ready[0] = true);
+
+    clock.advance(4_999, TimeUnit.MILLISECONDS);
+    wheel.advance();
+    assertFalse(ready[0]);
+    clock.advance(1, TimeUnit.MILLISECONDS);
+    wheel.advance();
+    assertTrue(ready[0]);
+
+    clock.advance(65, TimeUnit.SECONDS);
+    wheel.advance();
+    for (int i = 0; i < 7; i++) {
+      manual.step();
+    }
+    assertEquals(manual.getHealth().toString(), timed.getHealth().toString());
+  }
+}